@@ -479,6 +479,13 @@ public final class GlideOptions extends RequestOptions implements Cloneable {
     return (GlideOptions) super.disallowHardwareConfig();
   }
 
+  @Override
+  @NonNull
+  @CheckResult
+  public GlideOptions progressive() {
+    return (GlideOptions) super.progressive();
+  }
+
   @Override
   @NonNull
   @CheckResult
@@ -285,6 +285,15 @@ public class GlideRequest<TranscodeType> extends RequestBuilder<TranscodeType> i
     return (GlideRequest<TranscodeType>) super.disallowHardwareConfig();
   }
 
+  /**
+   * @see GlideOptions#progressive()
+   */
+  @NonNull
+  @CheckResult
+  public GlideRequest<TranscodeType> progressive() {
+    return (GlideRequest<TranscodeType>) super.progressive();
+  }
+
   /**
    * @see GlideOptions#downsample(DownsampleStrategy)
    */
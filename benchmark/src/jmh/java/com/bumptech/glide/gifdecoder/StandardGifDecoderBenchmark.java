@@ -0,0 +1,114 @@
+package com.bumptech.glide.gifdecoder;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.util.BenchmarkResources;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures decoding each frame of a GIF in turn with {@link StandardGifDecoder#getNextFrame()}.
+ *
+ * <p>The GIFs are those used by the library's and the decoder's tests, which between them cover
+ * full and partial frames, every disposal method and transparency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class StandardGifDecoderBenchmark {
+  @Param({
+      "test.gif",
+      "gif_netscape_iteration_0.gif",
+      "gif_without_graphical_control_extension.gif",
+      "partial_gif_decode.gif",
+      "transparent_disposal_background.gif",
+      "transparent_disposal_none.gif",
+      "white_black_row.gif"
+  })
+  public String gif;
+
+  @Param({"1", "2"})
+  public int sampleSize;
+
+  private ReusingBitmapProvider provider;
+  private StandardGifDecoder decoder;
+
+  @Setup
+  public void setUp() {
+    byte[] data = BenchmarkResources.readBytes(gif);
+    GifHeader header = new GifHeaderParser().setData(data).parseHeader();
+    if (header.getStatus() != GifDecoder.STATUS_OK) {
+      throw new IllegalStateException("Failed to read gif, status: " + header.getStatus());
+    }
+    provider = new ReusingBitmapProvider();
+    decoder = new StandardGifDecoder(provider, header, ByteBuffer.wrap(data), sampleSize);
+  }
+
+  @Benchmark
+  public Bitmap getNextFrame() {
+    decoder.advance();
+    Bitmap result = decoder.getNextFrame();
+    if (result != null) {
+      provider.release(result);
+    }
+    return result;
+  }
+
+  /**
+   * Reuses {@link Bitmap}s and arrays so that the benchmark measures decoding rather than
+   * allocation, as Glide's pooled provider would.
+   */
+  private static final class ReusingBitmapProvider implements GifDecoder.BitmapProvider {
+    private final Deque<Bitmap> bitmaps = new ArrayDeque<>();
+
+    @NonNull
+    @Override
+    public Bitmap obtain(int width, int height, @NonNull Bitmap.Config config) {
+      for (Bitmap bitmap : bitmaps) {
+        if (bitmap.getWidth() == width && bitmap.getHeight() == height
+            && bitmap.getConfig() == config) {
+          bitmaps.remove(bitmap);
+          return bitmap;
+        }
+      }
+      return Bitmap.createBitmap(width, height, config);
+    }
+
+    @Override
+    public void release(@NonNull Bitmap bitmap) {
+      bitmaps.push(bitmap);
+    }
+
+    @NonNull
+    @Override
+    public byte[] obtainByteArray(int size) {
+      return new byte[size];
+    }
+
+    @Override
+    public void release(@NonNull byte[] bytes) {
+      // Arrays are only allocated once per decoder.
+    }
+
+    @NonNull
+    @Override
+    public int[] obtainIntArray(int size) {
+      return new int[size];
+    }
+
+    @Override
+    public void release(@NonNull int[] array) {
+      // Arrays are only allocated once per decoder.
+    }
+  }
+}
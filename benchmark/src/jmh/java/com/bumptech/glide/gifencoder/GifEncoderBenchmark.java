@@ -0,0 +1,69 @@
+package com.bumptech.glide.gifencoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the two expensive steps of encoding a GIF frame: building a color palette with
+ * {@link NeuQuant} and compressing the indexed pixels with {@link LZWEncoder}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class GifEncoderBenchmark {
+  private static final int WIDTH = 256;
+  private static final int HEIGHT = 256;
+  // The same sample factor and color depth AnimatedGifEncoder uses by default.
+  private static final int SAMPLE = 10;
+  private static final int COLOR_DEPTH = 8;
+
+  private byte[] rgbPixels;
+  private byte[] indexedPixels;
+  private ByteArrayOutputStream os;
+
+  @Setup
+  public void setUp() {
+    // A smooth gradient with some noise, closer to a photo than random pixels are. Pixels are in
+    // the blue, green, red order AnimatedGifEncoder uses.
+    Random random = new Random(0);
+    rgbPixels = new byte[WIDTH * HEIGHT * 3];
+    int i = 0;
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        rgbPixels[i++] = (byte) (x + random.nextInt(8));
+        rgbPixels[i++] = (byte) (y + random.nextInt(8));
+        rgbPixels[i++] = (byte) ((x + y) / 2 + random.nextInt(8));
+      }
+    }
+
+    NeuQuant quant = new NeuQuant(rgbPixels, rgbPixels.length, SAMPLE);
+    quant.process();
+    indexedPixels = new byte[WIDTH * HEIGHT];
+    for (int pixel = 0, k = 0; pixel < indexedPixels.length; pixel++) {
+      indexedPixels[pixel] = (byte) quant.map(
+          rgbPixels[k++] & 0xff, rgbPixels[k++] & 0xff, rgbPixels[k++] & 0xff);
+    }
+    os = new ByteArrayOutputStream(WIDTH * HEIGHT);
+  }
+
+  @Benchmark
+  public byte[] neuQuant() {
+    return new NeuQuant(rgbPixels, rgbPixels.length, SAMPLE).process();
+  }
+
+  @Benchmark
+  public int lzwEncode() throws IOException {
+    os.reset();
+    new LZWEncoder(WIDTH, HEIGHT, indexedPixels, COLOR_DEPTH).encode(os);
+    return os.size();
+  }
+}
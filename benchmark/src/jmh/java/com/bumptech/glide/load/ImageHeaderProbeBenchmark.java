@@ -0,0 +1,153 @@
+package com.bumptech.glide.load;
+
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.resource.bitmap.DefaultImageHeaderParser;
+import com.bumptech.glide.load.resource.bitmap.RecyclableBufferedInputStream;
+import com.bumptech.glide.util.BenchmarkResources;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares answering the header questions Downsampler asks, the type, the orientation and whether
+ * the image has alpha, by re-reading the stream with {@link ImageHeaderParserUtils} against reading
+ * the header once with {@link ImageHeaderProbe}.
+ *
+ * <p>Both read from a {@link RecyclableBufferedInputStream}, as Downsampler does. The
+ * {@link StreamCounters} report the bytes read or skipped from that stream and the number of times
+ * it was marked and reset per operation. BitmapFactory isn't available here, so the bounds decode
+ * that the probe also answers from its buffer isn't included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ImageHeaderProbeBenchmark {
+
+  @Param({"short_exif_sample.jpg", "issue387_rotated_jpeg.jpg", "test.gif"})
+  public String image;
+
+  /**
+   * The number of registered parsers, later parsers are only asked if earlier ones can't answer.
+   */
+  @Param({"1", "2"})
+  public int parserCount;
+
+  private List<ImageHeaderParser> parsers;
+  private ArrayPool arrayPool;
+  private byte[] data;
+
+  @Setup
+  public void setUp() {
+    parsers = new ArrayList<>(parserCount);
+    for (int i = 0; i < parserCount; i++) {
+      parsers.add(new DefaultImageHeaderParser());
+    }
+    arrayPool = new LruArrayPool();
+    data = BenchmarkResources.readBytes(image);
+  }
+
+  @Benchmark
+  public int streams(StreamCounters counters) throws IOException {
+    RecyclableBufferedInputStream buffered = newBufferedStream();
+    CountingInputStream is = new CountingInputStream(buffered);
+    try {
+      int result = ImageHeaderParserUtils.getOrientation(parsers, is, arrayPool);
+      result += ImageHeaderParserUtils.getType(parsers, is, arrayPool).ordinal();
+      // Downsampler asks for the type again to decide whether the image has alpha.
+      ImageType type = ImageHeaderParserUtils.getType(parsers, is, arrayPool);
+      return result + (type.hasAlpha() ? 1 : 0);
+    } finally {
+      counters.add(is);
+      buffered.release();
+    }
+  }
+
+  @Benchmark
+  public int probe(StreamCounters counters) throws IOException {
+    RecyclableBufferedInputStream buffered = newBufferedStream();
+    CountingInputStream is = new CountingInputStream(buffered);
+    ImageHeaderProbe probe = ImageHeaderProbe.probe(parsers, is, arrayPool);
+    try {
+      int result = probe.getOrientation();
+      result += probe.getType().ordinal();
+      ImageType type = probe.getType();
+      return result + (type.hasAlpha() ? 1 : 0);
+    } finally {
+      probe.release();
+      counters.add(is);
+      buffered.release();
+    }
+  }
+
+  private RecyclableBufferedInputStream newBufferedStream() {
+    return new RecyclableBufferedInputStream(new ByteArrayInputStream(data), arrayPool);
+  }
+
+  /** Per operation counts of how much work was done on the stream. */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class StreamCounters {
+    public long bytesRead;
+    public long marks;
+
+    void add(CountingInputStream is) {
+      bytesRead += is.bytesRead;
+      marks += is.marks;
+    }
+  }
+
+  private static final class CountingInputStream extends FilterInputStream {
+    long bytesRead;
+    long marks;
+
+    CountingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int result = super.read();
+      if (result != -1) {
+        bytesRead++;
+      }
+      return result;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int result = super.read(buffer, offset, length);
+      if (result > 0) {
+        bytesRead += result;
+      }
+      return result;
+    }
+
+    @Override
+    public long skip(long byteCount) throws IOException {
+      long result = super.skip(byteCount);
+      bytesRead += result;
+      return result;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+      super.mark(readLimit);
+      marks++;
+    }
+  }
+}
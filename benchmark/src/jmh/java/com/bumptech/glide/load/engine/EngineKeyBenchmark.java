@@ -0,0 +1,97 @@
+package com.bumptech.glide.load.engine;
+
+import android.content.Context;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Option;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.Transformation;
+import com.bumptech.glide.signature.ObjectKey;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures creating, hashing and comparing {@link EngineKey}s, which {@link Engine#load} does for
+ * every request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class EngineKeyBenchmark {
+  private static final Option<Integer> OPTION = Option.memory("EngineKeyBenchmark.Option", 0);
+
+  private String model;
+  private Key signature;
+  private Map<Class<?>, Transformation<?>> transformations;
+  private Options options;
+  private EngineKey key;
+  private EngineKey equalKey;
+
+  @Setup
+  public void setUp() {
+    model = "https://www.example.com/images/1234567890/original.jpg";
+    signature = new ObjectKey("signature");
+    transformations = Collections.<Class<?>, Transformation<?>>singletonMap(
+        Object.class, new FakeTransformation());
+    options = new Options();
+    options.set(OPTION, 1);
+    key = newKey();
+    equalKey = newKey();
+  }
+
+  @Benchmark
+  public int createAndHash() {
+    return newKey().hashCode();
+  }
+
+  @Benchmark
+  public boolean equalsWithEqualKey() {
+    return key.equals(equalKey);
+  }
+
+  @Benchmark
+  public int hashOptions() {
+    Options copy = new Options();
+    copy.putAll(options);
+    return copy.hashCode();
+  }
+
+  private EngineKey newKey() {
+    return new EngineKey(model, signature, 100, 200, transformations, Object.class, Object.class,
+        options);
+  }
+
+  private static final class FakeTransformation implements Transformation<Object> {
+
+    @NonNull
+    @Override
+    public Resource<Object> transform(@NonNull Context context, @NonNull Resource<Object> resource,
+        int outWidth, int outHeight) {
+      return resource;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof FakeTransformation;
+    }
+
+    @Override
+    public int hashCode() {
+      return FakeTransformation.class.hashCode();
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      messageDigest.update(FakeTransformation.class.getName().getBytes(CHARSET));
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures borrowing and returning decode buffers from an {@link ArrayPool} shared by several
+ * threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class ArrayPoolBenchmark {
+  private static final int POOL_SIZE = 4 * 1024 * 1024;
+
+  @Param({"lru", "sizeClass"})
+  public String pool;
+
+  private ArrayPool arrayPool;
+
+  @Setup
+  public void setUp() {
+    if ("lru".equals(pool)) {
+      arrayPool = new LruArrayPool(POOL_SIZE);
+    } else if ("sizeClass".equals(pool)) {
+      arrayPool = new SizeClassArrayPool(POOL_SIZE);
+    } else {
+      throw new IllegalArgumentException("Unknown pool: " + pool);
+    }
+  }
+
+  @Benchmark
+  public byte[] getAndPutStandardBuffer() {
+    byte[] result = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    arrayPool.put(result);
+    return result;
+  }
+
+  // Mirrors a decode, which holds a standard sized stream buffer and a smaller header buffer at
+  // once.
+  @Benchmark
+  public byte[] getAndPutDecodeBuffers() {
+    byte[] buffer = arrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    int headerSize = 1024 + ThreadLocalRandom.current().nextInt(1024);
+    byte[] header = arrayPool.get(headerSize, byte[].class);
+    arrayPool.put(header);
+    arrayPool.put(buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  public int[] getAndPutVariableSizeIntArray() {
+    int size = 1024 + ThreadLocalRandom.current().nextInt(16 * 1024);
+    int[] result = arrayPool.get(size, int[].class);
+    arrayPool.put(result);
+    return result;
+  }
+}
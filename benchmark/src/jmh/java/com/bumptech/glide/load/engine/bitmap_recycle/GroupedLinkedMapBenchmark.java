@@ -0,0 +1,83 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the operations the {@link LruBitmapPool} strategies and {@link LruArrayPool} perform
+ * on a {@link GroupedLinkedMap} for every get and put.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class GroupedLinkedMapBenchmark {
+  private static final int GROUP_COUNT = 32;
+  private static final int VALUES_PER_GROUP = 4;
+
+  private GroupedLinkedMap<IntKey, Object> map;
+  private IntKey[] keys;
+  private Object value;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    map = new GroupedLinkedMap<>();
+    value = new Object();
+    keys = new IntKey[GROUP_COUNT];
+    for (int i = 0; i < GROUP_COUNT; i++) {
+      keys[i] = new IntKey(i);
+      for (int j = 0; j < VALUES_PER_GROUP; j++) {
+        map.put(keys[i], value);
+      }
+    }
+  }
+
+  @Benchmark
+  public Object getAndPut() {
+    IntKey key = nextKey();
+    Object result = map.get(key);
+    map.put(key, value);
+    return result;
+  }
+
+  @Benchmark
+  public Object removeLastAndPut() {
+    Object result = map.removeLast();
+    map.put(nextKey(), value);
+    return result;
+  }
+
+  private IntKey nextKey() {
+    index = (index + 1) % GROUP_COUNT;
+    return keys[index];
+  }
+
+  private static final class IntKey implements Poolable {
+    private final int value;
+
+    IntKey(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public void offer() {
+      // Keys are reused for the duration of the benchmark.
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof IntKey && ((IntKey) o).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.Pools;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.util.LruCache;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.Util;
+import com.bumptech.glide.util.pool.FactoryPools;
+import com.bumptech.glide.util.pool.StateVerifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A copy of the {@link SafeKeyGenerator} implementation that used a single lock around a 1000
+ * entry memo and always used SHA-256, kept as a baseline for {@link SafeKeyGeneratorBenchmark}.
+ */
+final class BaselineSafeKeyGenerator extends SafeKeyGenerator {
+  private final LruCache<Key, String> loadIdToSafeHash = new LruCache<>(1000);
+  private final Pools.Pool<PoolableDigestContainer> digestPool = FactoryPools.threadSafe(10,
+      new FactoryPools.Factory<PoolableDigestContainer>() {
+        @Override
+        public PoolableDigestContainer create() {
+          try {
+            return new PoolableDigestContainer(MessageDigest.getInstance("SHA-256"));
+          } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      });
+
+  @Override
+  public String getSafeKey(Key key) {
+    String safeKey;
+    synchronized (loadIdToSafeHash) {
+      safeKey = loadIdToSafeHash.get(key);
+    }
+    if (safeKey == null) {
+      safeKey = calculateHexStringDigest(key);
+    }
+    synchronized (loadIdToSafeHash) {
+      loadIdToSafeHash.put(key, safeKey);
+    }
+    return safeKey;
+  }
+
+  private String calculateHexStringDigest(Key key) {
+    PoolableDigestContainer container = Preconditions.checkNotNull(digestPool.acquire());
+    try {
+      key.updateDiskCacheKey(container.messageDigest);
+      return Util.sha256BytesToHex(container.messageDigest.digest());
+    } finally {
+      digestPool.release(container);
+    }
+  }
+
+  private static final class PoolableDigestContainer implements FactoryPools.Poolable {
+    @Synthetic final MessageDigest messageDigest;
+    private final StateVerifier stateVerifier = StateVerifier.newInstance();
+
+    PoolableDigestContainer(MessageDigest messageDigest) {
+      this.messageDigest = messageDigest;
+    }
+
+    @NonNull
+    @Override
+    public StateVerifier getVerifier() {
+      return stateVerifier;
+    }
+  }
+}
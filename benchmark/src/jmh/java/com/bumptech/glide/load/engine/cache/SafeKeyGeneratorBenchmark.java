@@ -0,0 +1,89 @@
+package com.bumptech.glide.load.engine.cache;
+
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.signature.ObjectKey;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link SafeKeyGenerator#getSafeKey(Key)} for keys that are and aren't in its memo, for
+ * each hash function and for the previous single lock, SHA-256 only implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SafeKeyGeneratorBenchmark {
+  // Larger than the generators' memos so that every key is evicted before it's used again.
+  private static final int MISS_KEY_COUNT = 8192;
+  private static final int HIT_KEY_COUNT = 256;
+
+  @Param({"BASELINE", "SHA_256", "MURMUR3_128"})
+  public String generatorType;
+
+  private SafeKeyGenerator generator;
+  private Key[] hitKeys;
+  private Key[] missKeys;
+
+  /** Per thread positions in the key arrays, so concurrent threads don't share a counter. */
+  @State(Scope.Thread)
+  public static class Cursor {
+    int hitIndex;
+    int missIndex;
+  }
+
+  @Setup
+  public void setUp() {
+    generator = "BASELINE".equals(generatorType)
+        ? new BaselineSafeKeyGenerator()
+        : new SafeKeyGenerator(SafeKeyGenerator.Algorithm.valueOf(generatorType));
+    hitKeys = new Key[HIT_KEY_COUNT];
+    for (int i = 0; i < HIT_KEY_COUNT; i++) {
+      hitKeys[i] = new ObjectKey("https://www.example.com/images/hit/" + i + ".jpg");
+      generator.getSafeKey(hitKeys[i]);
+    }
+    missKeys = new Key[MISS_KEY_COUNT];
+    for (int i = 0; i < MISS_KEY_COUNT; i++) {
+      missKeys[i] = new ObjectKey("https://www.example.com/images/" + i + ".jpg");
+    }
+  }
+
+  @Benchmark
+  public String getSafeKey_hit(Cursor cursor) {
+    return hit(cursor);
+  }
+
+  @Benchmark
+  public String getSafeKey_miss(Cursor cursor) {
+    return miss(cursor);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getSafeKey_hit_fourThreads(Cursor cursor) {
+    return hit(cursor);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String getSafeKey_miss_fourThreads(Cursor cursor) {
+    return miss(cursor);
+  }
+
+  private String hit(Cursor cursor) {
+    cursor.hitIndex = (cursor.hitIndex + 1) % HIT_KEY_COUNT;
+    return generator.getSafeKey(hitKeys[cursor.hitIndex]);
+  }
+
+  private String miss(Cursor cursor) {
+    cursor.missIndex = (cursor.missIndex + 1) % MISS_KEY_COUNT;
+    return generator.getSafeKey(missKeys[cursor.missIndex]);
+  }
+}
@@ -0,0 +1,50 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.util.BenchmarkResources;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures reading the type and exif orientation from the headers of a few real images.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class DefaultImageHeaderParserBenchmark {
+
+  @Param({"short_exif_sample.jpg", "issue387_rotated_jpeg.jpg", "test.gif"})
+  public String image;
+
+  private DefaultImageHeaderParser parser;
+  private ArrayPool arrayPool;
+  private byte[] data;
+
+  @Setup
+  public void setUp() {
+    parser = new DefaultImageHeaderParser();
+    arrayPool = new LruArrayPool();
+    data = BenchmarkResources.readBytes(image);
+  }
+
+  @Benchmark
+  public ImageType getType() throws IOException {
+    return parser.getType(new ByteArrayInputStream(data));
+  }
+
+  @Benchmark
+  public int getOrientation() throws IOException {
+    return parser.getOrientation(new ByteArrayInputStream(data), arrayPool);
+  }
+}
@@ -0,0 +1,37 @@
+package com.bumptech.glide.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads the images shared with the library's tests.
+ */
+public final class BenchmarkResources {
+
+  private BenchmarkResources() {
+    // Utility class.
+  }
+
+  public static byte[] readBytes(String name) {
+    InputStream is = BenchmarkResources.class.getResourceAsStream("/" + name);
+    if (is == null) {
+      throw new IllegalArgumentException("Missing resource: " + name);
+    }
+    try {
+      try {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+          os.write(buffer, 0, read);
+        }
+        return os.toByteArray();
+      } finally {
+        is.close();
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read resource: " + name, e);
+    }
+  }
+}
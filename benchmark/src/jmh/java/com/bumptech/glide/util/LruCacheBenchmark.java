@@ -0,0 +1,61 @@
+package com.bumptech.glide.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Measures {@link LruCache} lookups and insertions from several threads sharing one cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class LruCacheBenchmark {
+  private static final int CACHE_SIZE = 1000;
+  // Twice the cache size so that roughly half of all lookups miss.
+  private static final int KEY_COUNT = 2 * CACHE_SIZE;
+
+  private LruCache<Integer, Object> cache;
+  private Integer[] keys;
+  private Object value;
+
+  @Setup
+  public void setUp() {
+    cache = new LruCache<>(CACHE_SIZE);
+    value = new Object();
+    keys = new Integer[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; i++) {
+      keys[i] = i;
+      if (i % 2 == 0) {
+        cache.put(keys[i], value);
+      }
+    }
+  }
+
+  @Benchmark
+  public Object get() {
+    return cache.get(randomKey());
+  }
+
+  @Benchmark
+  public Object getOrPut() {
+    Integer key = randomKey();
+    Object result = cache.get(key);
+    if (result == null) {
+      cache.put(key, value);
+    }
+    return result;
+  }
+
+  private Integer randomKey() {
+    return keys[ThreadLocalRandom.current().nextInt(KEY_COUNT)];
+  }
+}
@@ -0,0 +1,105 @@
+package android.graphics;
+
+import java.util.Arrays;
+
+/**
+ * A stand-in for the framework class of the same name backed by an {@code int[]} of ARGB pixels.
+ *
+ * <p>Only the methods used by the benchmarked code are implemented. Every pixel is stored as a
+ * 32 bit color regardless of the {@link Config}, but sizes are reported as the framework would.
+ */
+public final class Bitmap {
+  private final int width;
+  private final int height;
+  private final Config config;
+  private final int[] pixels;
+  private boolean isRecycled;
+
+  private Bitmap(int width, int height, Config config) {
+    this.width = width;
+    this.height = height;
+    this.config = config;
+    this.pixels = new int[width * height];
+  }
+
+  public static Bitmap createBitmap(int width, int height, Config config) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("width and height must be > 0");
+    }
+    return new Bitmap(width, height, config);
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  public Config getConfig() {
+    return config;
+  }
+
+  public int getRowBytes() {
+    return width * config.bytesPerPixel;
+  }
+
+  public int getByteCount() {
+    return getRowBytes() * height;
+  }
+
+  public int getAllocationByteCount() {
+    return getByteCount();
+  }
+
+  public boolean isRecycled() {
+    return isRecycled;
+  }
+
+  public void recycle() {
+    isRecycled = true;
+  }
+
+  public boolean isMutable() {
+    return true;
+  }
+
+  public void setHasAlpha(boolean hasAlpha) {
+    // Pixels always have an alpha channel.
+  }
+
+  public void eraseColor(int color) {
+    Arrays.fill(pixels, color);
+  }
+
+  public void setPixels(int[] source, int offset, int stride, int x, int y, int w, int h) {
+    for (int row = 0; row < h; row++) {
+      System.arraycopy(source, offset + row * stride, pixels, (y + row) * width + x, w);
+    }
+  }
+
+  public void getPixels(int[] dest, int offset, int stride, int x, int y, int w, int h) {
+    for (int row = 0; row < h; row++) {
+      System.arraycopy(pixels, (y + row) * width + x, dest, offset + row * stride, w);
+    }
+  }
+
+  /**
+   * A stand-in for the framework enum of the same name.
+   */
+  public enum Config {
+    ALPHA_8(1),
+    RGB_565(2),
+    ARGB_4444(2),
+    ARGB_8888(4),
+    RGBA_F16(8),
+    HARDWARE(4);
+
+    final int bytesPerPixel;
+
+    Config(int bytesPerPixel) {
+      this.bytesPerPixel = bytesPerPixel;
+    }
+  }
+}
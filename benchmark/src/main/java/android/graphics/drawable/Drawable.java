@@ -0,0 +1,6 @@
+package android.graphics.drawable;
+
+/**
+ * A stand-in for the framework class of the same name, benchmarks never create one.
+ */
+public abstract class Drawable { }
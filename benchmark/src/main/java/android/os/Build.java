@@ -0,0 +1,38 @@
+package android.os;
+
+/**
+ * A stand-in for the framework class of the same name that reports the newest API level the
+ * library is compiled against.
+ */
+public final class Build {
+
+  private Build() {
+    // Utility class.
+  }
+
+  /**
+   * A stand-in for the framework class of the same name.
+   */
+  public static final class VERSION {
+    public static final int SDK_INT = VERSION_CODES.P;
+
+    private VERSION() {
+      // Utility class.
+    }
+  }
+
+  /**
+   * A stand-in for the framework class of the same name.
+   */
+  public static final class VERSION_CODES {
+    public static final int JELLY_BEAN_MR1 = 17;
+    public static final int KITKAT = 19;
+    public static final int LOLLIPOP = 21;
+    public static final int O = 26;
+    public static final int P = 28;
+
+    private VERSION_CODES() {
+      // Utility class.
+    }
+  }
+}
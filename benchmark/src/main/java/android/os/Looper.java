@@ -0,0 +1,20 @@
+package android.os;
+
+/**
+ * A stand-in for the framework class of the same name.
+ *
+ * <p>Benchmarks run on plain JVM threads, none of which is the main thread.
+ */
+public final class Looper {
+  private static final Looper MAIN = new Looper();
+
+  private Looper() { }
+
+  public static Looper getMainLooper() {
+    return MAIN;
+  }
+
+  public static Looper myLooper() {
+    return null;
+  }
+}
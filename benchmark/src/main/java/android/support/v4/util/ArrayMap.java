@@ -0,0 +1,58 @@
+package android.support.v4.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A stand-in for the support library class of the same name.
+ *
+ * <p>The {@link Map} views are unmodifiable snapshots rather than live views.
+ */
+public class ArrayMap<K, V> extends SimpleArrayMap<K, V> implements Map<K, V> {
+
+  public ArrayMap() { }
+
+  @Override
+  public boolean containsValue(Object value) {
+    for (int i = 0; i < size(); i++) {
+      Object current = valueAt(i);
+      if (value == null ? current == null : value.equals(current)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) {
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return Collections.unmodifiableSet(snapshot().entrySet());
+  }
+
+  @Override
+  public Set<K> keySet() {
+    return Collections.unmodifiableSet(snapshot().keySet());
+  }
+
+  @Override
+  public Collection<V> values() {
+    return Collections.unmodifiableCollection(snapshot().values());
+  }
+
+  private Map<K, V> snapshot() {
+    Map<K, V> result = new LinkedHashMap<>(size());
+    for (int i = 0; i < size(); i++) {
+      result.put(keyAt(i), valueAt(i));
+    }
+    return result;
+  }
+}
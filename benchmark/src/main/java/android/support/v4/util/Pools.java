@@ -0,0 +1,95 @@
+package android.support.v4.util;
+
+/**
+ * A stand-in for the support library class of the same name.
+ */
+public final class Pools {
+
+  private Pools() {
+    // Utility class.
+  }
+
+  /**
+   * A pool of objects.
+   *
+   * @param <T> The type of object in the pool.
+   */
+  public interface Pool<T> {
+
+    T acquire();
+
+    boolean release(T instance);
+  }
+
+  /**
+   * A fixed size pool that isn't thread safe.
+   *
+   * @param <T> The type of object in the pool.
+   */
+  public static class SimplePool<T> implements Pool<T> {
+    private final Object[] pool;
+    private int poolSize;
+
+    public SimplePool(int maxPoolSize) {
+      if (maxPoolSize <= 0) {
+        throw new IllegalArgumentException("The max pool size must be > 0");
+      }
+      pool = new Object[maxPoolSize];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+      if (poolSize > 0) {
+        int lastPooledIndex = poolSize - 1;
+        T instance = (T) pool[lastPooledIndex];
+        pool[lastPooledIndex] = null;
+        poolSize--;
+        return instance;
+      }
+      return null;
+    }
+
+    @Override
+    public boolean release(T instance) {
+      for (int i = 0; i < poolSize; i++) {
+        if (pool[i] == instance) {
+          throw new IllegalStateException("Already in the pool!");
+        }
+      }
+      if (poolSize < pool.length) {
+        pool[poolSize] = instance;
+        poolSize++;
+        return true;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A fixed size pool that's thread safe.
+   *
+   * @param <T> The type of object in the pool.
+   */
+  public static class SynchronizedPool<T> extends SimplePool<T> {
+    private final Object lock = new Object();
+
+    public SynchronizedPool(int maxPoolSize) {
+      super(maxPoolSize);
+    }
+
+    @Override
+    public T acquire() {
+      synchronized (lock) {
+        return super.acquire();
+      }
+    }
+
+    @Override
+    public boolean release(T instance) {
+      synchronized (lock) {
+        return super.release(instance);
+      }
+    }
+  }
+}
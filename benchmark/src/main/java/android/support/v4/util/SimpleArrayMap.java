@@ -0,0 +1,177 @@
+package android.support.v4.util;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A stand-in for the support library class of the same name.
+ *
+ * <p>Like the real class, keys are kept sorted by hash code in one array, with keys and values
+ * interleaved in a second array, and are found with a binary search. Unlike the real class, arrays
+ * aren't cached across instances.
+ */
+public class SimpleArrayMap<K, V> {
+  private static final int BASE_SIZE = 4;
+
+  private int[] hashes = new int[0];
+  private Object[] array = new Object[0];
+  private int size;
+
+  public SimpleArrayMap() { }
+
+  public void clear() {
+    hashes = new int[0];
+    array = new Object[0];
+    size = 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public boolean containsKey(Object key) {
+    return indexOfKey(key) >= 0;
+  }
+
+  public int indexOfKey(Object key) {
+    int hash = key == null ? 0 : key.hashCode();
+    int index = Arrays.binarySearch(hashes, 0, size, hash);
+    if (index < 0) {
+      return index;
+    }
+    if (equal(key, array[index << 1])) {
+      return index;
+    }
+    // Search forwards and backwards through the run of equal hash codes.
+    int end;
+    for (end = index + 1; end < size && hashes[end] == hash; end++) {
+      if (equal(key, array[end << 1])) {
+        return end;
+      }
+    }
+    for (int i = index - 1; i >= 0 && hashes[i] == hash; i--) {
+      if (equal(key, array[i << 1])) {
+        return i;
+      }
+    }
+    return ~end;
+  }
+
+  public V get(Object key) {
+    int index = indexOfKey(key);
+    return index >= 0 ? valueAt(index) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public K keyAt(int index) {
+    return (K) array[index << 1];
+  }
+
+  @SuppressWarnings("unchecked")
+  public V valueAt(int index) {
+    return (V) array[(index << 1) + 1];
+  }
+
+  public V setValueAt(int index, V value) {
+    V old = valueAt(index);
+    array[(index << 1) + 1] = value;
+    return old;
+  }
+
+  public V put(K key, V value) {
+    int index = indexOfKey(key);
+    if (index >= 0) {
+      return setValueAt(index, value);
+    }
+
+    index = ~index;
+    if (size >= hashes.length) {
+      int newSize = size >= BASE_SIZE * 2 ? size + (size >> 1) : BASE_SIZE * 2;
+      hashes = Arrays.copyOf(hashes, newSize);
+      array = Arrays.copyOf(array, newSize << 1);
+    }
+    if (index < size) {
+      System.arraycopy(hashes, index, hashes, index + 1, size - index);
+      System.arraycopy(array, index << 1, array, (index + 1) << 1, (size - index) << 1);
+    }
+    hashes[index] = key == null ? 0 : key.hashCode();
+    array[index << 1] = key;
+    array[(index << 1) + 1] = value;
+    size++;
+    return null;
+  }
+
+  public void putAll(SimpleArrayMap<? extends K, ? extends V> other) {
+    for (int i = 0; i < other.size(); i++) {
+      put(other.keyAt(i), other.valueAt(i));
+    }
+  }
+
+  public V remove(Object key) {
+    int index = indexOfKey(key);
+    return index >= 0 ? removeAt(index) : null;
+  }
+
+  public V removeAt(int index) {
+    V old = valueAt(index);
+    System.arraycopy(hashes, index + 1, hashes, index, size - index - 1);
+    System.arraycopy(array, (index + 1) << 1, array, index << 1, (size - index - 1) << 1);
+    size--;
+    array[size << 1] = null;
+    array[(size << 1) + 1] = null;
+    return old;
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (object instanceof SimpleArrayMap) {
+      SimpleArrayMap<?, ?> other = (SimpleArrayMap<?, ?>) object;
+      if (size != other.size()) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        Object key = keyAt(i);
+        Object value = valueAt(i);
+        int otherIndex = other.indexOfKey(key);
+        if (otherIndex < 0 || !equal(value, other.valueAt(otherIndex))) {
+          return false;
+        }
+      }
+      return true;
+    } else if (object instanceof Map) {
+      Map<?, ?> other = (Map<?, ?>) object;
+      if (size != other.size()) {
+        return false;
+      }
+      for (int i = 0; i < size; i++) {
+        Object key = keyAt(i);
+        if (!other.containsKey(key) || !equal(valueAt(i), other.get(key))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 0;
+    for (int i = 0; i < size; i++) {
+      Object value = valueAt(i);
+      result += hashes[i] ^ (value == null ? 0 : value.hashCode());
+    }
+    return result;
+  }
+
+  private static boolean equal(Object first, Object second) {
+    return first == null ? second == null : first.equals(second);
+  }
+}
@@ -0,0 +1,15 @@
+package android.text;
+
+/**
+ * A stand-in for the framework class of the same name.
+ */
+public final class TextUtils {
+
+  private TextUtils() {
+    // Utility class.
+  }
+
+  public static boolean isEmpty(CharSequence str) {
+    return str == null || str.length() == 0;
+  }
+}
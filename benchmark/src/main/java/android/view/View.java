@@ -0,0 +1,6 @@
+package android.view;
+
+/**
+ * A stand-in for the framework class of the same name, benchmarks never create one.
+ */
+public class View { }
@@ -0,0 +1,91 @@
+package com.bumptech.glide;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Bundle;
+import android.util.Log;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.test.ConcurrencyHelper;
+import com.bumptech.glide.test.ResourceIds;
+import com.bumptech.glide.test.TearDownGlide;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Measures how long it takes to initialize Glide, and how long it takes to initialize Glide and
+ * finish the first load.
+ *
+ * <p>Each measurement tears Glide down and initializes it again, so only the first iteration in
+ * the process includes loading Glide's classes. Results are logged under {@link #TAG} and reported
+ * to the instrumentation as status results. Compare them across builds run on the same device.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GlideStartupBenchmarkTest {
+  private static final String TAG = "GlideStartupBenchmark";
+  private static final int ITERATIONS = 20;
+
+  @Rule public final TearDownGlide tearDownGlide = new TearDownGlide();
+  private final ConcurrencyHelper concurrency = new ConcurrencyHelper();
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context = InstrumentationRegistry.getTargetContext();
+  }
+
+  @Test
+  public void get() {
+    long[] durations = new long[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      Glide.tearDown();
+      long startTime = System.nanoTime();
+      Glide.get(context);
+      durations[i] = System.nanoTime() - startTime;
+    }
+
+    report("get", durations);
+  }
+
+  @Test
+  public void getAndFirstLoad() {
+    long[] durations = new long[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      Glide.tearDown();
+      long startTime = System.nanoTime();
+      Bitmap bitmap =
+          concurrency.get(
+              Glide.with(context)
+                  .asBitmap()
+                  .load(ResourceIds.raw.canonical)
+                  .diskCacheStrategy(DiskCacheStrategy.NONE)
+                  .skipMemoryCache(true)
+                  .submit());
+      durations[i] = System.nanoTime() - startTime;
+      assertThat(bitmap).isNotNull();
+    }
+
+    report("getAndFirstLoad", durations);
+  }
+
+  private static void report(String name, long[] durations) {
+    long first = durations[0];
+    long[] sorted = Arrays.copyOf(durations, durations.length);
+    Arrays.sort(sorted);
+    long median = sorted[sorted.length / 2];
+    long min = sorted[0];
+
+    Log.i(TAG, name + ": first=" + first + "ns, median=" + median + "ns, min=" + min + "ns");
+    Bundle results = new Bundle();
+    results.putLong(name + "_first_ns", first);
+    results.putLong(name + "_median_ns", median);
+    results.putLong(name + "_min_ns", min);
+    InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+  }
+}
@@ -0,0 +1,113 @@
+package com.bumptech.glide;
+
+import static com.bumptech.glide.test.Matchers.anyBitmap;
+import static com.bumptech.glide.test.Matchers.anyBitmapTarget;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.verify;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import androidx.test.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.test.ConcurrencyHelper;
+import com.bumptech.glide.test.GlideApp;
+import com.bumptech.glide.test.TearDownGlide;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests that large images are decoded in tiles when they're read back from the disk cache.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LoadTiledBitmapTest {
+  private static final int IMAGE_SIZE = 2048;
+  private static final int TARGET_SIZE = 700;
+  // Tiles are only downsampled by powers of two, unlike Downsampler which scales FIT_CENTER loads
+  // to exactly the target size.
+  private static final int TILED_SIZE = IMAGE_SIZE / 2;
+
+  @Rule public final TearDownGlide tearDownGlide = new TearDownGlide();
+  @Mock private RequestListener<Bitmap> listener;
+
+  private final ConcurrencyHelper concurrency = new ConcurrencyHelper();
+  private Context context;
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    MockitoAnnotations.initMocks(this);
+    context = InstrumentationRegistry.getTargetContext();
+    Glide.init(context, new GlideBuilder());
+    file = new File(context.getCacheDir(), "large_image.jpg");
+    writeLargeJpeg(file);
+  }
+
+  @After
+  public void tearDown() {
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  public void load_fromDataCache_withLargeImage_decodesInTiles() {
+    concurrency.get(
+        GlideApp.with(context)
+            .asBitmap()
+            .load(file)
+            .diskCacheStrategy(DiskCacheStrategy.DATA)
+            .submit(TARGET_SIZE, TARGET_SIZE));
+
+    Bitmap bitmap =
+        concurrency.get(
+            GlideApp.with(context)
+                .asBitmap()
+                .load(file)
+                .diskCacheStrategy(DiskCacheStrategy.DATA)
+                .onlyRetrieveFromCache(true)
+                .skipMemoryCache(true)
+                .downsample(DownsampleStrategy.FIT_CENTER)
+                .set(TiledBitmapDecoder.MIN_TILED_PIXELS, 1)
+                .listener(listener)
+                .submit(TARGET_SIZE, TARGET_SIZE));
+
+    verify(listener)
+        .onResourceReady(
+            anyBitmap(),
+            any(),
+            anyBitmapTarget(),
+            eq(DataSource.DATA_DISK_CACHE),
+            anyBoolean());
+    assertThat(bitmap.getWidth()).isEqualTo(TILED_SIZE);
+    assertThat(bitmap.getHeight()).isEqualTo(TILED_SIZE);
+  }
+
+  private static void writeLargeJpeg(File file) throws IOException {
+    Bitmap bitmap = Bitmap.createBitmap(IMAGE_SIZE, IMAGE_SIZE, Bitmap.Config.RGB_565);
+    bitmap.eraseColor(Color.BLUE);
+    OutputStream os = new FileOutputStream(file);
+    try {
+      bitmap.compress(Bitmap.CompressFormat.JPEG, 90 /*quality*/, os);
+    } finally {
+      os.close();
+      bitmap.recycle();
+    }
+  }
+}
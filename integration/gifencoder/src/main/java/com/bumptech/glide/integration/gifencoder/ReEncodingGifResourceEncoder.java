@@ -3,6 +3,7 @@ package com.bumptech.glide.integration.gifencoder;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.util.Log;
 import com.bumptech.glide.gifdecoder.GifDecoder;
@@ -17,12 +18,14 @@ import com.bumptech.glide.load.ResourceEncoder;
 import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.resource.UnitTransformation;
 import com.bumptech.glide.load.resource.bitmap.BitmapResource;
 import com.bumptech.glide.load.resource.gif.GifBitmapProvider;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.util.ByteBufferUtil;
 import com.bumptech.glide.util.LogTime;
+import com.bumptech.glide.util.Synthetic;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -30,10 +33,24 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * An {@link com.bumptech.glide.load.ResourceEncoder} that can write
  * {@link com.bumptech.glide.load.resource.gif.GifDrawable} to cache.
+ *
+ * <p>Frames are decoded in order on the calling thread, but are transformed, quantized and
+ * compressed on a pool of worker threads. Compressed frames are written in order, so the output is
+ * identical to encoding every frame on the calling thread.
  */
 public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable> {
 
@@ -63,10 +80,14 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
 
   private static final Factory FACTORY = new Factory();
   private static final String TAG = "GifEncoder";
+  private static final String ENCODE_THREAD_NAME = "glide-gif-encode-thread-";
+  @Synthetic static final long KEEP_ALIVE_TIME_MS = TimeUnit.SECONDS.toMillis(10);
   private final GifDecoder.BitmapProvider provider;
   private final Context context;
   private final BitmapPool bitmapPool;
   private final Factory factory;
+  @Nullable private final ExecutorService encodeExecutor;
+  private final int maxFramesInFlight;
 
   // Public API.
   @SuppressWarnings("unused")
@@ -74,12 +95,35 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
     this(context, bitmapPool, FACTORY);
   }
 
+  /**
+   * Creates an encoder that prepares frames on the given {@link ExecutorService}.
+   *
+   * @param encodeExecutor The executor used to transform, quantize and compress frames.
+   * @param parallelism The maximum number of frames prepared at once. Every frame that is being
+   *     prepared holds its pixels in memory, so this also bounds the memory used while encoding.
+   */
+  // Public API.
+  @SuppressWarnings("unused")
+  public ReEncodingGifResourceEncoder(@NonNull Context context, @NonNull BitmapPool bitmapPool,
+      @NonNull ExecutorService encodeExecutor, int parallelism) {
+    this(context, bitmapPool, FACTORY, encodeExecutor, parallelism);
+  }
+
   @VisibleForTesting
   ReEncodingGifResourceEncoder(Context context, BitmapPool bitmapPool, Factory factory) {
+    this(context, bitmapPool, factory, factory.buildEncodeExecutor(),
+        GlideExecutor.calculateBestThreadCount());
+  }
+
+  private ReEncodingGifResourceEncoder(Context context, BitmapPool bitmapPool, Factory factory,
+      @Nullable ExecutorService encodeExecutor, int parallelism) {
     this.context = context;
     this.bitmapPool = bitmapPool;
     provider = new GifBitmapProvider(bitmapPool);
     this.factory = factory;
+    this.encodeExecutor = encodeExecutor;
+    // The calling thread decodes the next frame while workers prepare the others.
+    maxFramesInFlight = Math.max(1, parallelism) + 1;
   }
 
   @NonNull
@@ -135,6 +179,9 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
   }
 
   private boolean encodeTransformedToStream(GifDrawable drawable, OutputStream os) {
+    if (encodeExecutor != null) {
+      return encodeTransformedInParallel(drawable, os, encodeExecutor);
+    }
     Transformation<Bitmap> transformation = drawable.getFrameTransformation();
     GifDecoder decoder = decodeHeaders(drawable.getBuffer());
     AnimatedGifEncoder encoder = factory.buildEncoder();
@@ -163,6 +210,62 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
     return encoder.finish();
   }
 
+  private boolean encodeTransformedInParallel(
+      GifDrawable drawable, OutputStream os, ExecutorService executor) {
+    GifDecoder decoder = decodeHeaders(drawable.getBuffer());
+    AnimatedGifEncoder encoder = factory.buildEncoder();
+    if (!encoder.start(os)) {
+      return false;
+    }
+
+    Queue<PendingFrame> pendingFrames = new ArrayDeque<>(maxFramesInFlight);
+    try {
+      for (int i = 0; i < decoder.getFrameCount(); i++) {
+        if (pendingFrames.size() == maxFramesInFlight
+            && !addNextFrame(encoder, pendingFrames.remove())) {
+          return false;
+        }
+        Bitmap currentFrame = decoder.getNextFrame();
+        int delay = decoder.getDelay(decoder.getCurrentFrameIndex());
+        decoder.advance();
+        Future<AnimatedGifEncoder.PreparedFrame> preparedFrame =
+            executor.submit(new PrepareFrame(encoder, currentFrame, drawable));
+        pendingFrames.add(new PendingFrame(preparedFrame, delay));
+      }
+      while (!pendingFrames.isEmpty()) {
+        if (!addNextFrame(encoder, pendingFrames.remove())) {
+          return false;
+        }
+      }
+    } finally {
+      for (PendingFrame pendingFrame : pendingFrames) {
+        pendingFrame.preparedFrame.cancel(false /*mayInterruptIfRunning*/);
+      }
+    }
+
+    return encoder.finish();
+  }
+
+  private static boolean addNextFrame(AnimatedGifEncoder encoder, PendingFrame pendingFrame) {
+    AnimatedGifEncoder.PreparedFrame preparedFrame;
+    try {
+      preparedFrame = pendingFrame.preparedFrame.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to prepare GIF frame", e.getCause());
+      }
+      return false;
+    }
+    if (!encoder.addPreparedFrame(preparedFrame)) {
+      return false;
+    }
+    encoder.setDelay(pendingFrame.delay);
+    return true;
+  }
+
   private boolean writeDataDirect(ByteBuffer data, File file) {
     try {
       ByteBufferUtil.toFile(data, file);
@@ -187,7 +290,8 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
     return decoder;
   }
 
-  private Resource<Bitmap> getTransformedFrame(Bitmap currentFrame,
+  @Synthetic
+  Resource<Bitmap> getTransformedFrame(Bitmap currentFrame,
       Transformation<Bitmap> transformation, GifDrawable drawable) {
     // TODO: what if current frame is null?
     Resource<Bitmap> bitmapResource = factory.buildFrameResource(currentFrame, bitmapPool);
@@ -200,6 +304,43 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
     return transformedResource;
   }
 
+  /** Transforms, quantizes and compresses a single frame. */
+  private final class PrepareFrame implements Callable<AnimatedGifEncoder.PreparedFrame> {
+    private final AnimatedGifEncoder encoder;
+    private final Bitmap frame;
+    private final GifDrawable drawable;
+
+    @Synthetic
+    PrepareFrame(AnimatedGifEncoder encoder, Bitmap frame, GifDrawable drawable) {
+      this.encoder = encoder;
+      this.frame = frame;
+      this.drawable = drawable;
+    }
+
+    @Override
+    public AnimatedGifEncoder.PreparedFrame call() {
+      Resource<Bitmap> transformedResource =
+          getTransformedFrame(frame, drawable.getFrameTransformation(), drawable);
+      try {
+        return encoder.prepareFrame(transformedResource.get());
+      } finally {
+        transformedResource.recycle();
+      }
+    }
+  }
+
+  /** A frame that is being prepared and the delay to set after it's written. */
+  private static final class PendingFrame {
+    @Synthetic final Future<AnimatedGifEncoder.PreparedFrame> preparedFrame;
+    @Synthetic final int delay;
+
+    @Synthetic
+    PendingFrame(Future<AnimatedGifEncoder.PreparedFrame> preparedFrame, int delay) {
+      this.preparedFrame = preparedFrame;
+      this.delay = delay;
+    }
+  }
+
   @VisibleForTesting
   static class Factory {
 
@@ -215,9 +356,50 @@ public class ReEncodingGifResourceEncoder implements ResourceEncoder<GifDrawable
       return new AnimatedGifEncoder();
     }
 
+    /**
+     * Returns the executor frames are prepared on, or {@code null} to encode every frame on the
+     * calling thread.
+     */
+    @Nullable
+    ExecutorService buildEncodeExecutor() {
+      int threadCount = GlideExecutor.calculateBestThreadCount();
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              threadCount /* corePoolSize */,
+              threadCount /* maximumPoolSize */,
+              KEEP_ALIVE_TIME_MS,
+              TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<Runnable>(),
+              new EncodeThreadFactory());
+      // GIFs are only re-encoded occasionally, so idle threads are allowed to time out.
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+
     @NonNull
     Resource<Bitmap> buildFrameResource(@NonNull Bitmap bitmap, @NonNull BitmapPool bitmapPool) {
       return new BitmapResource(bitmap, bitmapPool);
     }
   }
+
+  /** Creates background priority threads for preparing frames. */
+  private static final class EncodeThreadFactory implements ThreadFactory {
+    private int threadNum;
+
+    @Synthetic
+    EncodeThreadFactory() { }
+
+    @Override
+    public synchronized Thread newThread(@NonNull Runnable runnable) {
+      final Thread result = new Thread(runnable, ENCODE_THREAD_NAME + threadNum) {
+        @Override
+        public void run() {
+          android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+          super.run();
+        }
+      };
+      threadNum++;
+      return result;
+    }
+  }
 }
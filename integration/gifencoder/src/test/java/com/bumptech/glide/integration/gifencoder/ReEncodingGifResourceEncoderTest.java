@@ -7,6 +7,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -25,12 +26,16 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.resource.UnitTransformation;
+import com.bumptech.glide.load.resource.bitmap.BitmapResource;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.util.ByteBufferUtil;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,6 +43,8 @@ import org.junit.runner.RunWith;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.annotation.Config;
@@ -324,6 +331,80 @@ public class ReEncodingGifResourceEncoderTest {
     verify(parser, never()).parseHeader();
   }
 
+  @Test
+  public void testEncode_withEncodeExecutor_writesSameBytesAsEncodingOnCallingThread() {
+    Bitmap[] frames = new Bitmap[5];
+    for (int i = 0; i < frames.length; i++) {
+      frames[i] = createFrame(i);
+    }
+
+    byte[] expected = encodeWithRealEncoder(frames, null /*encodeExecutor*/);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    byte[] result;
+    try {
+      result = encodeWithRealEncoder(frames, executor);
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(result).isEqualTo(expected);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testEncode_withEncodeExecutor_returnsFalseIfTransformationFails() {
+    doThrow(new RuntimeException("Failed to transform"))
+        .when(frameTransformation).transform(anyContext(), any(Resource.class), anyInt(), anyInt());
+    when(decoder.getFrameCount()).thenReturn(3);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      encoder = new ReEncodingGifResourceEncoder(
+          RuntimeEnvironment.application, mock(BitmapPool.class), new RealEncoderFactory(executor));
+
+      assertFalse(encoder.encode(resource, file, options));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private byte[] encodeWithRealEncoder(Bitmap[] frames, ExecutorService executor) {
+    when(decoder.getFrameCount()).thenReturn(frames.length);
+    when(decoder.getNextFrame())
+        .thenReturn(frames[0], Arrays.copyOfRange(frames, 1, frames.length));
+    when(decoder.getCurrentFrameIndex()).thenReturn(0, 1, 2, 3, 4);
+    for (int i = 0; i < frames.length; i++) {
+      when(decoder.getDelay(i)).thenReturn(10 * (i + 1));
+    }
+    when(frameTransformation.transform(anyContext(), any(Resource.class), anyInt(), anyInt()))
+        .thenAnswer(new Answer<Resource<Bitmap>>() {
+          @Override
+          public Resource<Bitmap> answer(InvocationOnMock invocation) {
+            return (Resource<Bitmap>) invocation.getArguments()[1];
+          }
+        });
+    encoder = new ReEncodingGifResourceEncoder(
+        RuntimeEnvironment.application, mock(BitmapPool.class), new RealEncoderFactory(executor));
+
+    assertTrue(encoder.encode(resource, file, options));
+    try {
+      return ByteBufferUtil.toBytes(ByteBufferUtil.fromFile(file));
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Bitmap createFrame(int index) {
+    int size = 20;
+    int[] pixels = new int[size * size];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xFF000000 | (i * 0x010203 * (index + 1)) & 0xFFFFFF;
+    }
+    Bitmap frame = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    frame.setPixels(pixels, 0, size, 0, 0, size, size);
+    return frame;
+  }
+
   private String getEncodedData() {
     try {
       return new String(ByteBufferUtil.toBytes(ByteBufferUtil.fromFile(file)));
@@ -335,4 +416,33 @@ public class ReEncodingGifResourceEncoderTest {
   private static Context anyContext() {
     return any(Context.class);
   }
+
+  /** Encodes with a real {@link AnimatedGifEncoder} and the test's decoder and parser. */
+  private final class RealEncoderFactory extends ReEncodingGifResourceEncoder.Factory {
+    private final ExecutorService encodeExecutor;
+
+    RealEncoderFactory(ExecutorService encodeExecutor) {
+      this.encodeExecutor = encodeExecutor;
+    }
+
+    @Override
+    GifDecoder buildDecoder(GifDecoder.BitmapProvider bitmapProvider) {
+      return decoder;
+    }
+
+    @Override
+    GifHeaderParser buildParser() {
+      return parser;
+    }
+
+    @Override
+    Resource<Bitmap> buildFrameResource(Bitmap bitmap, BitmapPool bitmapPool) {
+      return new BitmapResource(bitmap, bitmapPool);
+    }
+
+    @Override
+    ExecutorService buildEncodeExecutor() {
+      return encodeExecutor;
+    }
+  }
 }
@@ -1,11 +1,13 @@
 package com.bumptech.glide.integration.okhttp;
 
+import android.net.Uri;
 import android.support.annotation.NonNull;
 import android.util.Log;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.HttpException;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.NetworkScheduler;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.util.ContentLengthInputStream;
 import com.bumptech.glide.util.Synthetic;
@@ -29,6 +31,7 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream> {
   private final GlideUrl url;
   @SuppressWarnings("WeakerAccess") @Synthetic InputStream stream;
   @SuppressWarnings("WeakerAccess") @Synthetic ResponseBody responseBody;
+  @SuppressWarnings("WeakerAccess") @Synthetic NetworkScheduler.Transfer transfer;
 
   // Public API.
   @SuppressWarnings("WeakerAccess")
@@ -40,6 +43,18 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream> {
   @Override
   public void loadData(@NonNull Priority priority,
       @NonNull final DataCallback<? super InputStream> callback) {
+    transfer = NetworkScheduler.getInstance()
+        .newTransfer(Uri.parse(url.toStringUrl()).getAuthority(), priority);
+    transfer.enqueue(new Runnable() {
+      @Override
+      public void run() {
+        enqueue(callback);
+      }
+    });
+  }
+
+  @Synthetic
+  void enqueue(final DataCallback<? super InputStream> callback) {
     Request.Builder requestBuilder = new Request.Builder().url(url.toStringUrl());
     for (Map.Entry<String, String> headerEntry : url.getHeaders().entrySet()) {
       String key = headerEntry.getKey();
@@ -53,6 +68,7 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream> {
         if (Log.isLoggable(TAG, Log.DEBUG)) {
           Log.d(TAG, "OkHttp failed to obtain result", e);
         }
+        transfer.release();
         callback.onLoadFailed(e);
       }
 
@@ -61,9 +77,11 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream> {
         responseBody = response.body();
         if (response.isSuccessful()) {
           long contentLength = responseBody.contentLength();
-          stream = ContentLengthInputStream.obtain(responseBody.byteStream(), contentLength);
+          stream = transfer.wrap(
+              ContentLengthInputStream.obtain(responseBody.byteStream(), contentLength));
           callback.onDataReady(stream);
         } else {
+          transfer.release();
           callback.onLoadFailed(new HttpException(response.message(), response.code()));
         }
       }
@@ -86,6 +104,9 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream> {
         // Ignored.
       }
     }
+    if (transfer != null) {
+      transfer.release();
+    }
   }
 
   @Override
@@ -1,14 +1,21 @@
 package com.bumptech.glide.integration.okhttp3;
 
+import android.net.Uri;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.HttpException;
+import com.bumptech.glide.load.data.ConditionalFetcher;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.HttpRanges;
+import com.bumptech.glide.load.data.NetworkScheduler;
+import com.bumptech.glide.load.data.ResumableFetcher;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.util.ContentLengthInputStream;
 import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -19,17 +26,34 @@ import okhttp3.ResponseBody;
 
 /**
  * Fetches an {@link InputStream} using the okhttp library.
+ *
+ * <p>Resumes loads with {@code Range} and {@code If-Range} requests, see
+ * {@link ResumableFetcher}, and revalidates cached data with {@code If-None-Match} and
+ * {@code If-Modified-Since} requests, see {@link ConditionalFetcher}.
+ *
+ * <p>Calls are enqueued once the {@link NetworkScheduler} gives them their turn, and reads from the
+ * returned stream may be paused while higher priority requests to the same host run.
  */
-public class OkHttpStreamFetcher implements DataFetcher<InputStream>, okhttp3.Callback {
+public class OkHttpStreamFetcher implements DataFetcher<InputStream>, ResumableFetcher,
+    ConditionalFetcher, okhttp3.Callback {
   private static final String TAG = "OkHttpFetcher";
   private final Call.Factory client;
   private final GlideUrl url;
   private InputStream stream;
   private ResponseBody responseBody;
   private DataCallback<? super InputStream> callback;
+  private long resumeFrom;
+  @Nullable private String resumeValidator;
+  private long resumedOffset;
+  @Nullable private String validator;
+  @Nullable private String cachedEtag;
+  @Nullable private String cachedLastModified;
+  @Nullable private String etag;
+  @Nullable private String lastModified;
   // call may be accessed on the main thread while the object is in use on other threads. All other
   // accesses to variables may occur on different threads, but only one at a time.
   private volatile Call call;
+  @Nullable private volatile NetworkScheduler.Transfer transfer;
 
   // Public API.
   @SuppressWarnings("WeakerAccess")
@@ -41,13 +65,42 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream>, okhttp3.Ca
   @Override
   public void loadData(@NonNull Priority priority,
       @NonNull final DataCallback<? super InputStream> callback) {
+    this.callback = callback;
+    resumedOffset = 0;
+    validator = null;
+    etag = null;
+    lastModified = null;
+    NetworkScheduler.Transfer transfer = NetworkScheduler.getInstance()
+        .newTransfer(Uri.parse(url.toStringUrl()).getAuthority(), priority);
+    this.transfer = transfer;
+    transfer.enqueue(new Runnable() {
+      @Override
+      public void run() {
+        enqueue();
+      }
+    });
+  }
+
+  @Synthetic
+  void enqueue() {
     Request.Builder requestBuilder = new Request.Builder().url(url.toStringUrl());
     for (Map.Entry<String, String> headerEntry : url.getHeaders().entrySet()) {
       String key = headerEntry.getKey();
       requestBuilder.addHeader(key, headerEntry.getValue());
     }
+    if (resumeFrom > 0) {
+      // OkHttp doesn't transparently request gzip for requests with a Range header.
+      requestBuilder
+          .header(HttpRanges.RANGE_HEADER, HttpRanges.getRangeFrom(resumeFrom))
+          .header(HttpRanges.IF_RANGE_HEADER, Preconditions.checkNotNull(resumeValidator));
+    }
+    if (cachedEtag != null) {
+      requestBuilder.header(HttpRanges.IF_NONE_MATCH_HEADER, cachedEtag);
+    }
+    if (cachedLastModified != null) {
+      requestBuilder.header(HttpRanges.IF_MODIFIED_SINCE_HEADER, cachedLastModified);
+    }
     Request request = requestBuilder.build();
-    this.callback = callback;
 
     call = client.newCall(request);
     call.enqueue(this);
@@ -59,21 +112,55 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream>, okhttp3.Ca
       Log.d(TAG, "OkHttp failed to obtain result", e);
     }
 
+    releaseTransfer();
     callback.onLoadFailed(e);
   }
 
   @Override
   public void onResponse(@NonNull Call call, @NonNull Response response) {
+    boolean isResuming = resumeFrom > 0;
+    if (isResuming && isRangeRejected(response, resumeFrom)) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Server did not resume from: " + resumeFrom + ", loading the entire body");
+      }
+      response.close();
+      resumeFrom = 0;
+      resumeValidator = null;
+      enqueue();
+      return;
+    }
     responseBody = response.body();
+    etag = response.header(HttpRanges.ETAG_HEADER);
+    lastModified = response.header(HttpRanges.LAST_MODIFIED_HEADER);
+    if (isResuming && response.code() == HttpRanges.HTTP_PARTIAL_CONTENT) {
+      resumedOffset = resumeFrom;
+      validator = resumeValidator;
+    } else if (response.code() != HttpRanges.HTTP_PARTIAL_CONTENT) {
+      validator = HttpRanges.getValidator(etag, lastModified);
+    }
+    // Unsuccessful responses, including 304s for revalidated data, fail with their status code.
     if (response.isSuccessful()) {
       long contentLength = Preconditions.checkNotNull(responseBody).contentLength();
       stream = ContentLengthInputStream.obtain(responseBody.byteStream(), contentLength);
+      stream = Preconditions.checkNotNull(transfer).wrap(stream);
       callback.onDataReady(stream);
     } else {
+      releaseTransfer();
       callback.onLoadFailed(new HttpException(response.message(), response.code()));
     }
   }
 
+  // Servers that ignore the range or find the data has changed return 200 with the entire body,
+  // which is fine. Other range responses can't be appended to the bytes Glide already has.
+  private static boolean isRangeRejected(Response response, long offset) {
+    if (response.code() == HttpRanges.HTTP_RANGE_NOT_SATISFIABLE) {
+      return true;
+    }
+    return response.code() == HttpRanges.HTTP_PARTIAL_CONTENT
+        && HttpRanges.getContentRangeStart(response.header(HttpRanges.CONTENT_RANGE_HEADER))
+        != offset;
+  }
+
   @Override
   public void cleanup() {
     try {
@@ -86,6 +173,7 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream>, okhttp3.Ca
     if (responseBody != null) {
       responseBody.close();
     }
+    releaseTransfer();
     callback = null;
   }
 
@@ -95,6 +183,49 @@ public class OkHttpStreamFetcher implements DataFetcher<InputStream>, okhttp3.Ca
     if (local != null) {
       local.cancel();
     }
+    releaseTransfer();
+  }
+
+  private void releaseTransfer() {
+    NetworkScheduler.Transfer local = transfer;
+    if (local != null) {
+      local.release();
+    }
+  }
+
+  @Override
+  public void resumeFrom(long offset, @NonNull String validator) {
+    resumeFrom = offset;
+    resumeValidator = validator;
+  }
+
+  @Override
+  public long getResumedOffset() {
+    return resumedOffset;
+  }
+
+  @Nullable
+  @Override
+  public String getValidator() {
+    return validator;
+  }
+
+  @Override
+  public void setCachedValidators(@Nullable String etag, @Nullable String lastModified) {
+    cachedEtag = etag;
+    cachedLastModified = lastModified;
+  }
+
+  @Nullable
+  @Override
+  public String getETag() {
+    return etag;
+  }
+
+  @Nullable
+  @Override
+  public String getLastModified() {
+    return lastModified;
   }
 
   @NonNull
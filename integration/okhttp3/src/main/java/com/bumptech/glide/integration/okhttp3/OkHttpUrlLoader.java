@@ -1,7 +1,10 @@
 package com.bumptech.glide.integration.okhttp3;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.StreamCoalescer;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoaderFactory;
@@ -16,11 +19,24 @@ import okhttp3.OkHttpClient;
 public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
 
   private final Call.Factory client;
+  @Nullable private final StreamCoalescer streamCoalescer;
 
   // Public API.
   @SuppressWarnings("WeakerAccess")
   public OkHttpUrlLoader(@NonNull Call.Factory client) {
+    this(client, null);
+  }
+
+  /**
+   * @param streamCoalescer If non-null, shares a single call between concurrent loads of the same
+   *     {@link GlideUrl}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public OkHttpUrlLoader(
+      @NonNull Call.Factory client, @Nullable StreamCoalescer streamCoalescer) {
     this.client = client;
+    this.streamCoalescer = streamCoalescer;
   }
 
   @Override
@@ -31,7 +47,11 @@ public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
   @Override
   public LoadData<InputStream> buildLoadData(@NonNull GlideUrl model, int width, int height,
       @NonNull Options options) {
-    return new LoadData<>(model, new OkHttpStreamFetcher(client, model));
+    DataFetcher<InputStream> fetcher = new OkHttpStreamFetcher(client, model);
+    if (streamCoalescer != null) {
+      fetcher = streamCoalescer.coalesce(model, fetcher);
+    }
+    return new LoadData<>(model, fetcher);
   }
 
   /**
@@ -42,6 +62,7 @@ public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
   public static class Factory implements ModelLoaderFactory<GlideUrl, InputStream> {
     private static volatile Call.Factory internalClient;
     private final Call.Factory client;
+    private final StreamCoalescer streamCoalescer = new StreamCoalescer();
 
     private static Call.Factory getInternalClient() {
       if (internalClient == null) {
@@ -73,7 +94,7 @@ public class OkHttpUrlLoader implements ModelLoader<GlideUrl, InputStream> {
     @NonNull
     @Override
     public ModelLoader<GlideUrl, InputStream> build(MultiModelLoaderFactory multiFactory) {
-      return new OkHttpUrlLoader(client);
+      return new OkHttpUrlLoader(client, streamCoalescer);
     }
 
     @Override
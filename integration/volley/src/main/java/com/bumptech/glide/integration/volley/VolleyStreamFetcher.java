@@ -1,6 +1,8 @@
 package com.bumptech.glide.integration.volley;
 
+import android.net.Uri;
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.android.volley.NetworkResponse;
 import com.android.volley.Request;
@@ -11,7 +13,9 @@ import com.android.volley.toolbox.HttpHeaderParser;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.NetworkScheduler;
 import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.util.Synthetic;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.util.Collections;
@@ -19,6 +23,9 @@ import java.util.Map;
 
 /**
  * A DataFetcher backed by volley for fetching images via http.
+ *
+ * <p>Requests are added to the {@link RequestQueue} once the {@link NetworkScheduler} gives them
+ * their turn. Volley reads responses into memory before they're delivered, so they can't be paused.
  */
 // Public API.
 @SuppressWarnings("WeakerAccess")
@@ -35,7 +42,9 @@ public class VolleyStreamFetcher implements DataFetcher<InputStream> {
   private final RequestQueue requestQueue;
   private final VolleyRequestFactory requestFactory;
   private final GlideUrl url;
-  private volatile Request<byte[]> request;
+  @Synthetic volatile Request<byte[]> request;
+  @Synthetic volatile boolean isCancelled;
+  @Nullable private volatile NetworkScheduler.Transfer transfer;
 
   @SuppressWarnings("unused")
   public VolleyStreamFetcher(RequestQueue requestQueue, GlideUrl url) {
@@ -50,24 +59,45 @@ public class VolleyStreamFetcher implements DataFetcher<InputStream> {
   }
 
   @Override
-  public void loadData(@NonNull Priority priority,
+  public void loadData(@NonNull final Priority priority,
       @NonNull DataCallback<? super InputStream> callback) {
-    request = requestFactory.create(url.toStringUrl(), callback, glideToVolleyPriority(priority),
-        url.getHeaders());
-    requestQueue.add(request);
+    NetworkScheduler.Transfer transfer = NetworkScheduler.getInstance()
+        .newTransfer(Uri.parse(url.toStringUrl()).getAuthority(), priority);
+    this.transfer = transfer;
+    final DataCallback<InputStream> transferCallback = new TransferCallback(transfer, callback);
+    transfer.enqueue(new Runnable() {
+      @Override
+      public void run() {
+        request = requestFactory.create(url.toStringUrl(), transferCallback,
+            glideToVolleyPriority(priority), url.getHeaders());
+        requestQueue.add(request);
+        if (isCancelled) {
+          request.cancel();
+        }
+      }
+    });
   }
 
   @Override
   public void cleanup() {
-    // Do nothing.
+    releaseTransfer();
   }
 
   @Override
   public void cancel() {
+    isCancelled = true;
     Request<byte[]> local = request;
     if (local != null) {
       local.cancel();
     }
+    releaseTransfer();
+  }
+
+  private void releaseTransfer() {
+    NetworkScheduler.Transfer local = transfer;
+    if (local != null) {
+      local.release();
+    }
   }
 
   @NonNull
@@ -95,6 +125,35 @@ public class VolleyStreamFetcher implements DataFetcher<InputStream> {
     }
   }
 
+  /**
+   * Releases the {@link NetworkScheduler.Transfer} of a request once Volley has finished with it,
+   * and counts the bytes of successful responses as they're read.
+   */
+  private static final class TransferCallback implements DataCallback<InputStream> {
+    private final NetworkScheduler.Transfer transfer;
+    private final DataCallback<? super InputStream> callback;
+
+    @Synthetic
+    TransferCallback(
+        NetworkScheduler.Transfer transfer, DataCallback<? super InputStream> callback) {
+      this.transfer = transfer;
+      this.callback = callback;
+    }
+
+    @Override
+    public void onDataReady(@Nullable InputStream data) {
+      // Release first so that reads from the buffered response are counted but never paused.
+      transfer.release();
+      callback.onDataReady(data != null ? transfer.wrap(data) : null);
+    }
+
+    @Override
+    public void onLoadFailed(@NonNull Exception e) {
+      transfer.release();
+      callback.onLoadFailed(e);
+    }
+  }
+
   /**
    * Default {@link com.android.volley.Request} implementation for Glide that receives errors and
    * results on volley's background thread.
@@ -26,6 +26,7 @@ import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.ImageHeaderParser;
 import com.bumptech.glide.load.ResourceDecoder;
 import com.bumptech.glide.load.data.InputStreamRewinder;
+import com.bumptech.glide.load.engine.ActiveResourceStats;
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
@@ -39,7 +40,9 @@ import com.bumptech.glide.load.model.ByteBufferFileLoader;
 import com.bumptech.glide.load.model.DataUrlLoader;
 import com.bumptech.glide.load.model.FileLoader;
 import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.LazyModelLoaderFactory;
 import com.bumptech.glide.load.model.MediaStoreFileLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
 import com.bumptech.glide.load.model.ResourceLoader;
 import com.bumptech.glide.load.model.StreamEncoder;
 import com.bumptech.glide.load.model.StringLoader;
@@ -51,15 +54,19 @@ import com.bumptech.glide.load.model.stream.HttpUriLoader;
 import com.bumptech.glide.load.model.stream.MediaStoreImageThumbLoader;
 import com.bumptech.glide.load.model.stream.MediaStoreVideoThumbLoader;
 import com.bumptech.glide.load.model.stream.UrlLoader;
+import com.bumptech.glide.load.resource.LazyResourceDecoder;
 import com.bumptech.glide.load.resource.bitmap.BitmapDrawableDecoder;
 import com.bumptech.glide.load.resource.bitmap.BitmapDrawableEncoder;
 import com.bumptech.glide.load.resource.bitmap.BitmapEncoder;
 import com.bumptech.glide.load.resource.bitmap.ByteBufferBitmapDecoder;
+import com.bumptech.glide.load.resource.bitmap.ByteBufferTiledBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.DefaultImageHeaderParser;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
 import com.bumptech.glide.load.resource.bitmap.ExifInterfaceImageHeaderParser;
+import com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.ResourceBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.StreamBitmapDecoder;
+import com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.UnitBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.VideoDecoder;
 import com.bumptech.glide.load.resource.bytes.ByteBufferRewinder;
@@ -75,6 +82,8 @@ import com.bumptech.glide.load.resource.transcode.BitmapBytesTranscoder;
 import com.bumptech.glide.load.resource.transcode.BitmapDrawableTranscoder;
 import com.bumptech.glide.load.resource.transcode.DrawableBytesTranscoder;
 import com.bumptech.glide.load.resource.transcode.GifDrawableBytesTranscoder;
+import com.bumptech.glide.load.resource.transcode.LazyResourceTranscoder;
+import com.bumptech.glide.load.resource.transcode.ResourceTranscoder;
 import com.bumptech.glide.manager.ConnectivityMonitorFactory;
 import com.bumptech.glide.manager.RequestManagerRetriever;
 import com.bumptech.glide.module.ManifestParser;
@@ -82,6 +91,8 @@ import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.ImageViewTargetFactory;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.GlideSuppliers;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
 import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Util;
 
@@ -96,6 +107,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 /**
  * A singleton to present a simple static interface for building requests with
@@ -343,11 +355,12 @@ public class Glide implements ComponentCallbacks2 {
     }
 
     Glide(
-            @NonNull Context context,
+            @NonNull final Context context,
             @NonNull Engine engine,
             @NonNull MemoryCache memoryCache,
-            @NonNull BitmapPool bitmapPool,
-            @NonNull ArrayPool arrayPool,
+            @NonNull final BitmapPool bitmapPool,
+            @NonNull final ArrayPool arrayPool,
+            @NonNull final Executor tileDecodeExecutor,
             @NonNull RequestManagerRetriever requestManagerRetriever,
             @NonNull ConnectivityMonitorFactory connectivityMonitorFactory,
             int logLevel,
@@ -375,41 +388,187 @@ public class Glide implements ComponentCallbacks2 {
             registry.register(new ExifInterfaceImageHeaderParser());
         }
 
-        List<ImageHeaderParser> imageHeaderParsers = registry.getImageHeaderParsers();
-        Downsampler downsampler =
-                new Downsampler(
-                        imageHeaderParsers,
-                        resources.getDisplayMetrics(),
-                        bitmapPool,
-                        arrayPool);
-        ByteBufferGifDecoder byteBufferGifDecoder =
-                new ByteBufferGifDecoder(context, imageHeaderParsers, bitmapPool, arrayPool);
-        ResourceDecoder<ParcelFileDescriptor, Bitmap> parcelFileDescriptorVideoDecoder =
-                VideoDecoder.parcel(bitmapPool);
-        ByteBufferBitmapDecoder byteBufferBitmapDecoder = new ByteBufferBitmapDecoder(downsampler);
-        StreamBitmapDecoder streamBitmapDecoder = new StreamBitmapDecoder(downsampler, arrayPool);
-        ResourceDrawableDecoder resourceDrawableDecoder =
+        // Decoders, model loader factories and transcoders that are expensive to create, or that
+        // load many classes, are created the first time a load uses them rather than here, so that
+        // they don't delay the first request.
+        final List<ImageHeaderParser> imageHeaderParsers = registry.getImageHeaderParsers();
+        final GlideSupplier<Downsampler> downsampler =
+                GlideSuppliers.memorize(new GlideSupplier<Downsampler>() {
+                    @NonNull
+                    @Override
+                    public Downsampler get() {
+                        return new Downsampler(
+                                imageHeaderParsers,
+                                resources.getDisplayMetrics(),
+                                bitmapPool,
+                                arrayPool);
+                    }
+                });
+        final LazyResourceDecoder<ByteBuffer, GifDrawable> byteBufferGifDecoder =
+                LazyResourceDecoder.of(
+                        new GlideSupplier<ResourceDecoder<ByteBuffer, GifDrawable>>() {
+                            @NonNull
+                            @Override
+                            public ResourceDecoder<ByteBuffer, GifDrawable> get() {
+                                return new ByteBufferGifDecoder(
+                                        context, imageHeaderParsers, bitmapPool, arrayPool);
+                            }
+                        });
+        LazyResourceDecoder<ParcelFileDescriptor, Bitmap> parcelFileDescriptorVideoDecoder =
+                LazyResourceDecoder.of(
+                        new GlideSupplier<ResourceDecoder<ParcelFileDescriptor, Bitmap>>() {
+                            @NonNull
+                            @Override
+                            public ResourceDecoder<ParcelFileDescriptor, Bitmap> get() {
+                                return VideoDecoder.parcel(bitmapPool);
+                            }
+                        });
+        LazyResourceDecoder<AssetFileDescriptor, Bitmap> assetFileDescriptorVideoDecoder =
+                LazyResourceDecoder.of(
+                        new GlideSupplier<ResourceDecoder<AssetFileDescriptor, Bitmap>>() {
+                            @NonNull
+                            @Override
+                            public ResourceDecoder<AssetFileDescriptor, Bitmap> get() {
+                                return VideoDecoder.asset(bitmapPool);
+                            }
+                        });
+        LazyResourceDecoder<ByteBuffer, Bitmap> byteBufferBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<ByteBuffer, Bitmap> get() {
+                        return new ByteBufferBitmapDecoder(downsampler.get());
+                    }
+                });
+        LazyResourceDecoder<InputStream, Bitmap> streamBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<InputStream, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<InputStream, Bitmap> get() {
+                        return new StreamBitmapDecoder(downsampler.get(), arrayPool);
+                    }
+                });
+        final GlideSupplier<TiledBitmapDecoder> tiledDecoder =
+                GlideSuppliers.memorize(new GlideSupplier<TiledBitmapDecoder>() {
+                    @NonNull
+                    @Override
+                    public TiledBitmapDecoder get() {
+                        return new TiledBitmapDecoder(
+                                imageHeaderParsers, bitmapPool, arrayPool, tileDecodeExecutor);
+                    }
+                });
+        LazyResourceDecoder<InputStream, Bitmap> tiledBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<InputStream, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<InputStream, Bitmap> get() {
+                        return tiledDecoder.get();
+                    }
+                });
+        LazyResourceDecoder<ByteBuffer, Bitmap> byteBufferTiledBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<ByteBuffer, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<ByteBuffer, Bitmap> get() {
+                        return new ByteBufferTiledBitmapDecoder(tiledDecoder.get());
+                    }
+                });
+        LazyResourceDecoder<InputStream, Bitmap> progressiveBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<InputStream, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<InputStream, Bitmap> get() {
+                        return new ProgressiveBitmapDecoder(
+                                imageHeaderParsers, downsampler.get(), bitmapPool, arrayPool);
+                    }
+                });
+        LazyResourceDecoder<InputStream, GifDrawable> streamGifDecoder =
+                LazyResourceDecoder.of(
+                        new GlideSupplier<ResourceDecoder<InputStream, GifDrawable>>() {
+                            @NonNull
+                            @Override
+                            public ResourceDecoder<InputStream, GifDrawable> get() {
+                                return new StreamGifDecoder(
+                                        imageHeaderParsers, byteBufferGifDecoder, arrayPool);
+                            }
+                        });
+        LazyResourceDecoder<GifDecoder, Bitmap> gifFrameResourceDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<GifDecoder, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<GifDecoder, Bitmap> get() {
+                        return new GifFrameResourceDecoder(bitmapPool);
+                    }
+                });
+        final ResourceDrawableDecoder resourceDrawableDecoder =
                 new ResourceDrawableDecoder(context);
-        ResourceLoader.StreamFactory resourceLoaderStreamFactory =
-                new ResourceLoader.StreamFactory(resources);
-        ResourceLoader.UriFactory resourceLoaderUriFactory =
-                new ResourceLoader.UriFactory(resources);
-        ResourceLoader.FileDescriptorFactory resourceLoaderFileDescriptorFactory =
-                new ResourceLoader.FileDescriptorFactory(resources);
-        ResourceLoader.AssetFileDescriptorFactory resourceLoaderAssetFileDescriptorFactory =
-                new ResourceLoader.AssetFileDescriptorFactory(resources);
+        LazyResourceDecoder<Uri, Bitmap> resourceBitmapDecoder =
+                LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<Uri, Bitmap>>() {
+                    @NonNull
+                    @Override
+                    public ResourceDecoder<Uri, Bitmap> get() {
+                        return new ResourceBitmapDecoder(resourceDrawableDecoder, bitmapPool);
+                    }
+                });
+
+        LazyModelLoaderFactory<Integer, InputStream> resourceLoaderStreamFactory =
+                LazyModelLoaderFactory.of(
+                        new GlideSupplier<ModelLoaderFactory<Integer, InputStream>>() {
+                            @NonNull
+                            @Override
+                            public ModelLoaderFactory<Integer, InputStream> get() {
+                                return new ResourceLoader.StreamFactory(resources);
+                            }
+                        });
+        LazyModelLoaderFactory<Integer, Uri> resourceLoaderUriFactory =
+                LazyModelLoaderFactory.of(new GlideSupplier<ModelLoaderFactory<Integer, Uri>>() {
+                    @NonNull
+                    @Override
+                    public ModelLoaderFactory<Integer, Uri> get() {
+                        return new ResourceLoader.UriFactory(resources);
+                    }
+                });
+        LazyModelLoaderFactory<Integer, ParcelFileDescriptor> resourceLoaderFileDescriptorFactory =
+                LazyModelLoaderFactory.of(
+                        new GlideSupplier<ModelLoaderFactory<Integer, ParcelFileDescriptor>>() {
+                            @NonNull
+                            @Override
+                            public ModelLoaderFactory<Integer, ParcelFileDescriptor> get() {
+                                return new ResourceLoader.FileDescriptorFactory(resources);
+                            }
+                        });
+        LazyModelLoaderFactory<Integer, AssetFileDescriptor>
+                resourceLoaderAssetFileDescriptorFactory =
+                LazyModelLoaderFactory.of(
+                        new GlideSupplier<ModelLoaderFactory<Integer, AssetFileDescriptor>>() {
+                            @NonNull
+                            @Override
+                            public ModelLoaderFactory<Integer, AssetFileDescriptor> get() {
+                                return new ResourceLoader.AssetFileDescriptorFactory(resources);
+                            }
+                        });
         BitmapEncoder bitmapEncoder = new BitmapEncoder(arrayPool);
 
-        BitmapBytesTranscoder bitmapBytesTranscoder = new BitmapBytesTranscoder();
-        GifDrawableBytesTranscoder gifDrawableBytesTranscoder = new GifDrawableBytesTranscoder();
+        final BitmapBytesTranscoder bitmapBytesTranscoder = new BitmapBytesTranscoder();
+        final GifDrawableBytesTranscoder gifDrawableBytesTranscoder =
+                new GifDrawableBytesTranscoder();
 
-        ContentResolver contentResolver = context.getContentResolver();
+        final ContentResolver contentResolver = context.getContentResolver();
 
         registry
                 .append(ByteBuffer.class, new ByteBufferEncoder())
                 .append(InputStream.class, new StreamEncoder(arrayPool))
                 /* Bitmaps */
+                // Only handle images above a size threshold, so they have to come first.
+                .append(
+                        Registry.BUCKET_BITMAP,
+                        ByteBuffer.class,
+                        Bitmap.class,
+                        byteBufferTiledBitmapDecoder)
                 .append(Registry.BUCKET_BITMAP, ByteBuffer.class, Bitmap.class, byteBufferBitmapDecoder)
+                .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, tiledBitmapDecoder)
+                // Only handles progressive images from requests that ask for passes.
+                .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, progressiveBitmapDecoder)
                 .append(Registry.BUCKET_BITMAP, InputStream.class, Bitmap.class, streamBitmapDecoder)
                 .append(
                         Registry.BUCKET_BITMAP,
@@ -420,17 +579,32 @@ public class Glide implements ComponentCallbacks2 {
                         Registry.BUCKET_BITMAP,
                         AssetFileDescriptor.class,
                         Bitmap.class,
-                        VideoDecoder.asset(bitmapPool))
+                        assetFileDescriptorVideoDecoder)
                 .append(Bitmap.class, Bitmap.class, UnitModelLoader.Factory.<Bitmap>getInstance())
                 .append(
                         Registry.BUCKET_BITMAP, Bitmap.class, Bitmap.class, new UnitBitmapDecoder())
                 .append(Bitmap.class, bitmapEncoder)
                 /* BitmapDrawables */
+                .append(
+                        Registry.BUCKET_BITMAP_DRAWABLE,
+                        ByteBuffer.class,
+                        BitmapDrawable.class,
+                        new BitmapDrawableDecoder<>(resources, byteBufferTiledBitmapDecoder))
                 .append(
                         Registry.BUCKET_BITMAP_DRAWABLE,
                         ByteBuffer.class,
                         BitmapDrawable.class,
                         new BitmapDrawableDecoder<>(resources, byteBufferBitmapDecoder))
+                .append(
+                        Registry.BUCKET_BITMAP_DRAWABLE,
+                        InputStream.class,
+                        BitmapDrawable.class,
+                        new BitmapDrawableDecoder<>(resources, tiledBitmapDecoder))
+                .append(
+                        Registry.BUCKET_BITMAP_DRAWABLE,
+                        InputStream.class,
+                        BitmapDrawable.class,
+                        new BitmapDrawableDecoder<>(resources, progressiveBitmapDecoder))
                 .append(
                         Registry.BUCKET_BITMAP_DRAWABLE,
                         InputStream.class,
@@ -443,11 +617,7 @@ public class Glide implements ComponentCallbacks2 {
                         new BitmapDrawableDecoder<>(resources, parcelFileDescriptorVideoDecoder))
                 .append(BitmapDrawable.class, new BitmapDrawableEncoder(bitmapPool, bitmapEncoder))
                 /* GIFs */
-                .append(
-                        Registry.BUCKET_GIF,
-                        InputStream.class,
-                        GifDrawable.class,
-                        new StreamGifDecoder(imageHeaderParsers, byteBufferGifDecoder, arrayPool))
+                .append(Registry.BUCKET_GIF, InputStream.class, GifDrawable.class, streamGifDecoder)
                 .append(Registry.BUCKET_GIF, ByteBuffer.class, GifDrawable.class, byteBufferGifDecoder)
                 .append(GifDrawable.class, new GifDrawableEncoder())
                 /* GIF Frames */
@@ -458,11 +628,10 @@ public class Glide implements ComponentCallbacks2 {
                         Registry.BUCKET_BITMAP,
                         GifDecoder.class,
                         Bitmap.class,
-                        new GifFrameResourceDecoder(bitmapPool))
+                        gifFrameResourceDecoder)
                 /* Drawables */
                 .append(Uri.class, Drawable.class, resourceDrawableDecoder)
-                .append(
-                        Uri.class, Bitmap.class, new ResourceBitmapDecoder(resourceDrawableDecoder, bitmapPool))
+                .append(Uri.class, Bitmap.class, resourceBitmapDecoder)
                 /* Files */
                 .register(new ByteBufferRewinder.Factory())
                 .append(File.class, ByteBuffer.class, new ByteBufferFileLoader.Factory())
@@ -500,29 +669,110 @@ public class Glide implements ComponentCallbacks2 {
                 .append(
                         String.class, AssetFileDescriptor.class, new StringLoader.AssetFileDescriptorFactory())
                 .append(Uri.class, InputStream.class, new HttpUriLoader.Factory())
-                .append(Uri.class, InputStream.class, new AssetUriLoader.StreamFactory(context.getAssets()))
+                .append(
+                        Uri.class,
+                        InputStream.class,
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, InputStream> get() {
+                                        return new AssetUriLoader.StreamFactory(
+                                                context.getAssets());
+                                    }
+                                }))
                 .append(
                         Uri.class,
                         ParcelFileDescriptor.class,
-                        new AssetUriLoader.FileDescriptorFactory(context.getAssets()))
-                .append(Uri.class, InputStream.class, new MediaStoreImageThumbLoader.Factory(context))
-                .append(Uri.class, InputStream.class, new MediaStoreVideoThumbLoader.Factory(context))
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, ParcelFileDescriptor>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, ParcelFileDescriptor> get() {
+                                        return new AssetUriLoader.FileDescriptorFactory(
+                                                context.getAssets());
+                                    }
+                                }))
+                .append(
+                        Uri.class,
+                        InputStream.class,
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, InputStream> get() {
+                                        return new MediaStoreImageThumbLoader.Factory(context);
+                                    }
+                                }))
+                .append(
+                        Uri.class,
+                        InputStream.class,
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, InputStream> get() {
+                                        return new MediaStoreVideoThumbLoader.Factory(context);
+                                    }
+                                }))
                 .append(
                         Uri.class,
                         InputStream.class,
-                        new UriLoader.StreamFactory(contentResolver))
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, InputStream>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, InputStream> get() {
+                                        return new UriLoader.StreamFactory(contentResolver);
+                                    }
+                                }))
                 .append(
                         Uri.class,
                         ParcelFileDescriptor.class,
-                        new UriLoader.FileDescriptorFactory(contentResolver))
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, ParcelFileDescriptor>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, ParcelFileDescriptor> get() {
+                                        return new UriLoader.FileDescriptorFactory(contentResolver);
+                                    }
+                                }))
                 .append(
                         Uri.class,
                         AssetFileDescriptor.class,
-                        new UriLoader.AssetFileDescriptorFactory(contentResolver))
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, AssetFileDescriptor>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, AssetFileDescriptor> get() {
+                                        return new UriLoader.AssetFileDescriptorFactory(
+                                                contentResolver);
+                                    }
+                                }))
                 .append(Uri.class, InputStream.class, new UrlUriLoader.StreamFactory())
                 .append(URL.class, InputStream.class, new UrlLoader.StreamFactory())
-                .append(Uri.class, File.class, new MediaStoreFileLoader.Factory(context))
-                .append(GlideUrl.class, InputStream.class, new HttpGlideUrlLoader.Factory())
+                .append(
+                        Uri.class,
+                        File.class,
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<Uri, File>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<Uri, File> get() {
+                                        return new MediaStoreFileLoader.Factory(context);
+                                    }
+                                }))
+                .append(
+                        GlideUrl.class,
+                        InputStream.class,
+                        LazyModelLoaderFactory.of(
+                                new GlideSupplier<ModelLoaderFactory<GlideUrl, InputStream>>() {
+                                    @NonNull
+                                    @Override
+                                    public ModelLoaderFactory<GlideUrl, InputStream> get() {
+                                        return new HttpGlideUrlLoader.Factory();
+                                    }
+                                }))
                 .append(byte[].class, ByteBuffer.class, new ByteArrayLoader.ByteBufferFactory())
                 .append(byte[].class, InputStream.class, new ByteArrayLoader.StreamFactory())
                 .append(Uri.class, Uri.class, UnitModelLoader.Factory.<Uri>getInstance())
@@ -532,13 +782,29 @@ public class Glide implements ComponentCallbacks2 {
                 .register(
                         Bitmap.class,
                         BitmapDrawable.class,
-                        new BitmapDrawableTranscoder(resources))
+                        LazyResourceTranscoder.of(
+                                new GlideSupplier<ResourceTranscoder<Bitmap, BitmapDrawable>>() {
+                                    @NonNull
+                                    @Override
+                                    public ResourceTranscoder<Bitmap, BitmapDrawable> get() {
+                                        return new BitmapDrawableTranscoder(resources);
+                                    }
+                                }))
                 .register(Bitmap.class, byte[].class, bitmapBytesTranscoder)
                 .register(
                         Drawable.class,
                         byte[].class,
-                        new DrawableBytesTranscoder(
-                                bitmapPool, bitmapBytesTranscoder, gifDrawableBytesTranscoder))
+                        LazyResourceTranscoder.of(
+                                new GlideSupplier<ResourceTranscoder<Drawable, byte[]>>() {
+                                    @NonNull
+                                    @Override
+                                    public ResourceTranscoder<Drawable, byte[]> get() {
+                                        return new DrawableBytesTranscoder(
+                                                bitmapPool,
+                                                bitmapBytesTranscoder,
+                                                gifDrawableBytesTranscoder);
+                                    }
+                                }))
                 .register(GifDrawable.class, byte[].class, gifDrawableBytesTranscoder);
 
         ImageViewTargetFactory imageViewTargetFactory = new ImageViewTargetFactory();
@@ -585,6 +851,15 @@ public class Glide implements ComponentCallbacks2 {
         return arrayPool;
     }
 
+    /**
+     * Returns how often resources that are in use by at least one request were activated, reused
+     * and reclaimed by the garbage collector since Glide was initialized.
+     */
+    @NonNull
+    public ActiveResourceStats getActiveResourceStats() {
+        return engine.getActiveResourceStats();
+    }
+
     /**
      * @return The context associated with this instance.
      */
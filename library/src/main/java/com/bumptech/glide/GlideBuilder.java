@@ -21,6 +21,7 @@ import com.bumptech.glide.load.engine.cache.LruResourceCache;
 import com.bumptech.glide.load.engine.cache.MemoryCache;
 import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.gif.GifFrameCacheBudget;
 import com.bumptech.glide.manager.ConnectivityMonitorFactory;
 import com.bumptech.glide.manager.DefaultConnectivityMonitorFactory;
 import com.bumptech.glide.manager.RequestManagerRetriever;
@@ -29,6 +30,7 @@ import com.bumptech.glide.request.BaseRequestOptions;
 import com.bumptech.glide.request.RequestListener;
 import com.bumptech.glide.request.RequestOptions;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.MappedBufferTracker;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -54,6 +56,7 @@ public final class GlideBuilder {
     @Nullable
     private RequestManagerFactory requestManagerFactory;
     private GlideExecutor animationExecutor;
+    private GlideExecutor tileDecodeExecutor;
     private boolean isActiveResourceRetentionAllowed;
     @Nullable
     private List<RequestListener<Object>> defaultRequestListeners;
@@ -63,6 +66,10 @@ public final class GlideBuilder {
      * Sets the {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} implementation to use
      * to store and retrieve reused {@link android.graphics.Bitmap}s.
      *
+     * <p>Defaults to a {@link LruBitmapPool}. To reduce contention between threads that decode and
+     * transform many images, wrap it in a
+     * {@link com.bumptech.glide.load.engine.bitmap_recycle.MagazineBitmapPool}.
+     *
      * @param bitmapPool The pool to use.
      * @return This builder.
      */
@@ -76,6 +83,9 @@ public final class GlideBuilder {
      * Sets the {@link ArrayPool} implementation to allow variable sized arrays to be stored
      * and retrieved as needed.
      *
+     * <p>Defaults to a {@link LruArrayPool}. To avoid blocking threads that borrow buffers on every
+     * decode, use a {@link com.bumptech.glide.load.engine.bitmap_recycle.SizeClassArrayPool}.
+     *
      * @param arrayPool The pool to use.
      * @return This builder.
      */
@@ -89,6 +99,10 @@ public final class GlideBuilder {
      * Sets the {@link com.bumptech.glide.load.engine.cache.MemoryCache} implementation to store
      * {@link com.bumptech.glide.load.engine.Resource}s that are not currently in use.
      *
+     * <p>Defaults to a {@link LruResourceCache}. Apps that mix frequently reused images with many
+     * images that are only shown once may prefer a
+     * {@link com.bumptech.glide.load.engine.cache.TinyLfuResourceCache}.
+     *
      * @param memoryCache The cache to use.
      * @return This builder.
      */
@@ -203,6 +217,25 @@ public final class GlideBuilder {
         return this;
     }
 
+    /**
+     * Sets the {@link GlideExecutor} to use when decoding tiles of very large images with
+     * {@link com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder}.
+     *
+     * <p>Defaults to {@link GlideExecutor#calculateBestThreadCount()} threads that time out when
+     * idle.
+     *
+     * @param service The {@link GlideExecutor} to use.
+     * @return This builder.
+     * @see com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder#MIN_TILED_PIXELS
+     */
+    // Public API.
+    @SuppressWarnings("WeakerAccess")
+    @NonNull
+    public GlideBuilder setTileDecodeExecutor(@Nullable GlideExecutor service) {
+        this.tileDecodeExecutor = service;
+        return this;
+    }
+
     /**
      * Sets the default {@link RequestOptions} to use for all loads across the app.
      *
@@ -453,6 +486,10 @@ public final class GlideBuilder {
             animationExecutor = GlideExecutor.newAnimationExecutor();
         }
 
+        if (tileDecodeExecutor == null) {
+            tileDecodeExecutor = GlideExecutor.newTileDecodeExecutor();
+        }
+
         //内存缓存大小计算
         if (memorySizeCalculator == null) {
             memorySizeCalculator = new MemorySizeCalculator.Builder(context).build();
@@ -478,6 +515,11 @@ public final class GlideBuilder {
             arrayPool = new LruArrayPool(memorySizeCalculator.getArrayPoolSizeInBytes());
         }
 
+        MappedBufferTracker.getInstance()
+                .setMaxSize(memorySizeCalculator.getMappedBufferBudgetInBytes());
+        GifFrameCacheBudget.getInstance()
+                .setMaxSize(memorySizeCalculator.getGifFrameCacheSizeInBytes());
+
 
         //资源Lru内存缓存
         if (memoryCache == null) {
@@ -518,6 +560,7 @@ public final class GlideBuilder {
                 memoryCache,
                 bitmapPool,
                 arrayPool,
+                tileDecodeExecutor,
                 requestManagerRetriever,
                 connectivityMonitorFactory,
                 logLevel,
@@ -232,6 +232,20 @@ public class RequestManager implements LifecycleListener, ModelTypes<RequestBuil
         requestTracker.pauseRequests();
     }
 
+    /**
+     * Changes the priority of all loads started by this manager that haven't yet completed.
+     *
+     * <p>Loads that are still waiting to run are moved ahead of or behind other waiting loads, for
+     * example to lower the priority of loads for a page that's no longer visible.
+     *
+     * @see com.bumptech.glide.request.PrioritizedRequest#setPriority(Priority)
+     */
+    // Public API.
+    @SuppressWarnings("unused")
+    public synchronized void setPriority(@NonNull Priority priority) {
+        requestTracker.setPriority(priority);
+    }
+
     /**
      * Cancels any in progress loads and clears resources of completed loads.
      *
@@ -0,0 +1,316 @@
+package com.bumptech.glide.load;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.util.Preconditions;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Reads the start of an {@link InputStream} into a pooled buffer once and answers questions about
+ * the image's header from that buffer, rather than re-reading the stream for every question and
+ * every {@link ImageHeaderParser}.
+ *
+ * <p>Most headers fit in the first kilobyte of an image. JPEG headers, which hold exif data and
+ * dimensions, are read up to their start of scan marker, up to {@link #PREFIX_SIZE_BYTES}, and the
+ * buffer and the stream's mark only grow as far as each JPEG's header needs. The stream is reset to
+ * where it was when the probe was created. Questions that can't be answered from the buffer, like
+ * the orientation of a JPEG whose exif segment is too large to fit, fall back to reading the stream
+ * with {@link ImageHeaderParserUtils}.
+ *
+ * <p>Probes must be released with {@link #release()} once they're no longer needed.
+ */
+public final class ImageHeaderProbe {
+  /**
+   * The most bytes a probe will read, enough for the start of image marker followed by maximum
+   * size JFIF and exif segments so that the orientation of almost all JPEGs can be read from the
+   * buffer.
+   */
+  public static final int PREFIX_SIZE_BYTES = 2 + 2 * (4 + 0xFFFF);
+  /**
+   * The number of bytes read up front, which holds the dimensions of most non JPEG images. JPEG
+   * headers are read up to their start of scan marker, up to {@link #PREFIX_SIZE_BYTES}.
+   */
+  @VisibleForTesting
+  static final int INITIAL_PREFIX_SIZE_BYTES = 1024;
+
+  private static final int JPEG_SEGMENT_START = 0xFF;
+  private static final int JPEG_START_OF_IMAGE = 0xD8;
+  private static final int JPEG_START_OF_SCAN = 0xDA;
+  private static final int JPEG_END_OF_IMAGE = 0xD9;
+  private static final int JPEG_EXIF_SEGMENT = 0xE1;
+  private static final int JPEG_PROGRESSIVE_HUFFMAN_FRAME = 0xC2;
+  private static final int JPEG_PROGRESSIVE_ARITHMETIC_FRAME = 0xCA;
+  // The interlace method follows the signature, the IHDR chunk's length and type, the width and
+  // height and four single byte fields.
+  private static final int PNG_INTERLACE_METHOD_OFFSET = 28;
+  private static final int PNG_ADAM7_INTERLACE = 1;
+  private static final int JPEG_HEADER_COMPLETE = -1;
+
+  private final List<ImageHeaderParser> parsers;
+  private final ArrayPool byteArrayPool;
+  private final int length;
+  private final boolean containsWholeStream;
+  @Nullable private InputStream is;
+  @Nullable private byte[] prefix;
+  @Nullable private ImageType type;
+  private int orientation;
+  private boolean isOrientationResolved;
+
+  private ImageHeaderProbe(List<ImageHeaderParser> parsers, ArrayPool byteArrayPool,
+      InputStream is, byte[] prefix, int length, boolean containsWholeStream) {
+    this.parsers = parsers;
+    this.byteArrayPool = byteArrayPool;
+    this.is = is;
+    this.prefix = prefix;
+    this.length = length;
+    this.containsWholeStream = containsWholeStream;
+  }
+
+  /**
+   * Reads the header at the start of the given stream, which must support {@link
+   * InputStream#mark(int)}, and resets it.
+   */
+  @NonNull
+  public static ImageHeaderProbe probe(@NonNull List<ImageHeaderParser> parsers,
+      @NonNull InputStream is, @NonNull ArrayPool byteArrayPool) throws IOException {
+    Preconditions.checkArgument(is.markSupported(), "You must provide an InputStream that supports"
+        + " mark()");
+    byte[] prefix = byteArrayPool.get(INITIAL_PREFIX_SIZE_BYTES, byte[].class);
+    int capacity = INITIAL_PREFIX_SIZE_BYTES;
+    int length;
+    boolean isEndOfStream;
+    try {
+      is.mark(capacity);
+      try {
+        length = fill(is, prefix, 0, capacity);
+        isEndOfStream = length < capacity;
+        if (!isEndOfStream && isJpeg(prefix, length)) {
+          int required;
+          while (!isEndOfStream
+              && (required = getRequiredJpegLength(prefix, length)) != JPEG_HEADER_COMPLETE
+              && length < PREFIX_SIZE_BYTES) {
+            int end = Math.min(required, PREFIX_SIZE_BYTES);
+            if (end > capacity) {
+              capacity = Math.min(Math.max(end, capacity * 2), PREFIX_SIZE_BYTES);
+              byte[] grown = byteArrayPool.get(capacity, byte[].class);
+              byteArrayPool.put(prefix);
+              prefix = grown;
+              // Marks can't be extended, so the stream is marked again from the start and the
+              // bytes that were already read are read again into the larger buffer.
+              is.reset();
+              is.mark(capacity);
+              length = fill(is, prefix, 0, length);
+            }
+            int toRead = end - length;
+            int read = fill(is, prefix, length, toRead);
+            length += read;
+            isEndOfStream = read < toRead;
+          }
+        }
+      } finally {
+        is.reset();
+      }
+    } catch (IOException | RuntimeException e) {
+      byteArrayPool.put(prefix);
+      throw e;
+    }
+    return new ImageHeaderProbe(parsers, byteArrayPool, is, prefix, length, isEndOfStream);
+  }
+
+  /**
+   * Returns the buffer holding the start of the stream, which is only valid until {@link
+   * #release()} is called and must not be modified.
+   */
+  @NonNull
+  public byte[] getPrefix() {
+    return Preconditions.checkNotNull(prefix, "Probe was released");
+  }
+
+  /** Returns the number of valid bytes in {@link #getPrefix()}. */
+  public int getPrefixLength() {
+    return length;
+  }
+
+  /** Returns {@code true} if {@link #getPrefix()} holds every byte of the stream. */
+  public boolean containsWholeStream() {
+    return containsWholeStream;
+  }
+
+  /** Returns the type of the image, as determined by the first parser that recognizes it. */
+  @NonNull
+  public ImageType getType() throws IOException {
+    if (type == null) {
+      ImageType result = ImageType.UNKNOWN;
+      //noinspection ForLoopReplaceableByForEach to improve perf
+      for (int i = 0, size = parsers.size(); i < size; i++) {
+        ImageType parsed = parsers.get(i).getType(newBuffer());
+        if (parsed != ImageType.UNKNOWN) {
+          result = parsed;
+          break;
+        }
+      }
+      type = result;
+    }
+    return type;
+  }
+
+  /**
+   * Returns the exif orientation of the image, or {@link ImageHeaderParser#UNKNOWN_ORIENTATION}.
+   */
+  public int getOrientation() throws IOException {
+    if (!isOrientationResolved) {
+      int result = ImageHeaderParser.UNKNOWN_ORIENTATION;
+      //noinspection ForLoopReplaceableByForEach to improve perf
+      for (int i = 0, size = parsers.size(); i < size; i++) {
+        int parsed = parsers.get(i).getOrientation(newBuffer(), byteArrayPool);
+        if (parsed != ImageHeaderParser.UNKNOWN_ORIENTATION) {
+          result = parsed;
+          break;
+        }
+      }
+      if (result == ImageHeaderParser.UNKNOWN_ORIENTATION && !isHeaderInPrefix()) {
+        result = ImageHeaderParserUtils.getOrientation(
+            parsers, Preconditions.checkNotNull(is, "Probe was released"), byteArrayPool);
+      }
+      orientation = result;
+      isOrientationResolved = true;
+    }
+    return orientation;
+  }
+
+  /**
+   * Returns {@code true} if the image is a progressive JPEG or an interlaced PNG, whose partially
+   * downloaded data decodes to a lower quality version of the whole image.
+   */
+  public boolean isProgressive() throws IOException {
+    switch (getType()) {
+      case JPEG:
+        return isProgressiveJpeg();
+      case PNG:
+      case PNG_A:
+        return length > PNG_INTERLACE_METHOD_OFFSET
+            && getPrefix()[PNG_INTERLACE_METHOD_OFFSET] == PNG_ADAM7_INTERLACE;
+      default:
+        return false;
+    }
+  }
+
+  /** Returns the buffer to the pool. */
+  public void release() {
+    if (prefix != null) {
+      byteArrayPool.put(prefix);
+      prefix = null;
+    }
+    is = null;
+  }
+
+  // Each parser reads from its own buffer so that they all start at the beginning of the image.
+  private ByteBuffer newBuffer() {
+    return ByteBuffer.wrap(getPrefix(), 0, length);
+  }
+
+  // Whether the parsers have seen all of the header data that might contain an orientation.
+  private boolean isHeaderInPrefix() throws IOException {
+    if (containsWholeStream) {
+      return true;
+    }
+    switch (getType()) {
+      // GIFs don't have exif data. PNGs and WebPs may, anywhere in the image, so parsers like
+      // ExifInterfaceImageHeaderParser are given the whole stream.
+      case GIF:
+        return true;
+      case JPEG:
+        return isJpegHeaderInPrefix();
+      default:
+        return false;
+    }
+  }
+
+  private boolean isJpegHeaderInPrefix() {
+    byte[] data = getPrefix();
+    // Skip the start of image marker.
+    int offset = 2;
+    while (offset + 4 <= length) {
+      if ((data[offset] & 0xFF) != JPEG_SEGMENT_START) {
+        // Parsers stop at malformed segments too.
+        return true;
+      }
+      int segmentType = data[offset + 1] & 0xFF;
+      if (segmentType == JPEG_START_OF_SCAN || segmentType == JPEG_END_OF_IMAGE) {
+        return true;
+      }
+      int segmentEnd = getJpegSegmentEnd(data, offset);
+      if (segmentType == JPEG_EXIF_SEGMENT) {
+        return segmentEnd <= length;
+      }
+      offset = segmentEnd;
+    }
+    return false;
+  }
+
+  private boolean isProgressiveJpeg() {
+    byte[] data = getPrefix();
+    int offset = 2;
+    while (offset + 4 <= length && (data[offset] & 0xFF) == JPEG_SEGMENT_START) {
+      int segmentType = data[offset + 1] & 0xFF;
+      if (segmentType == JPEG_PROGRESSIVE_HUFFMAN_FRAME
+          || segmentType == JPEG_PROGRESSIVE_ARITHMETIC_FRAME) {
+        return true;
+      } else if (segmentType == JPEG_START_OF_SCAN || segmentType == JPEG_END_OF_IMAGE) {
+        return false;
+      }
+      offset = getJpegSegmentEnd(data, offset);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of bytes needed to read the header of the JPEG in the given data up to its
+   * start of scan marker, which is where BitmapFactory finds the dimensions, or {@link
+   * #JPEG_HEADER_COMPLETE}.
+   */
+  private static int getRequiredJpegLength(byte[] data, int length) {
+    int offset = 2;
+    while (true) {
+      if (offset + 4 > length) {
+        return offset + 4;
+      }
+      int segmentType = data[offset + 1] & 0xFF;
+      if ((data[offset] & 0xFF) != JPEG_SEGMENT_START
+          || segmentType == JPEG_START_OF_SCAN
+          || segmentType == JPEG_END_OF_IMAGE) {
+        return JPEG_HEADER_COMPLETE;
+      }
+      offset = getJpegSegmentEnd(data, offset);
+    }
+  }
+
+  // Segment lengths include the two length bytes, but not the two marker bytes.
+  private static int getJpegSegmentEnd(byte[] data, int offset) {
+    int segmentLength = (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+    return offset + 2 + segmentLength;
+  }
+
+  private static boolean isJpeg(byte[] data, int length) {
+    return length >= 2
+        && (data[0] & 0xFF) == JPEG_SEGMENT_START
+        && (data[1] & 0xFF) == JPEG_START_OF_IMAGE;
+  }
+
+  // Returns the number of bytes read, which is less than length only at the end of the stream.
+  private static int fill(InputStream is, byte[] buffer, int offset, int length)
+      throws IOException {
+    int total = 0;
+    int read;
+    while (total < length && (read = is.read(buffer, offset + total, length - total)) != -1) {
+      total += read;
+    }
+    return total;
+  }
+}
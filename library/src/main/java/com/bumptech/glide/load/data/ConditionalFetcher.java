@@ -0,0 +1,46 @@
+package com.bumptech.glide.load.data;
+
+import android.support.annotation.Nullable;
+
+/**
+ * Implemented by {@link DataFetcher}s that can ask whether data Glide already has in its disk
+ * cache is still current, like HTTP fetchers that support conditional requests.
+ *
+ * <p>Glide stores the validators returned by {@link #getETag()} and {@link #getLastModified()}
+ * with the data it writes to the disk cache. When the data is loaded with
+ * {@link com.bumptech.glide.load.engine.DiskCacheStrategy#REVALIDATE}, Glide calls
+ * {@link #setCachedValidators(String, String)} before {@link DataFetcher#loadData}. If the data
+ * hasn't changed, the fetcher must call {@link DataFetcher.DataCallback#onLoadFailed(Exception)}
+ * with a {@link com.bumptech.glide.load.HttpException} with a status code of
+ * {@link HttpRanges#HTTP_NOT_MODIFIED}, and Glide uses the cached data instead.
+ */
+public interface ConditionalFetcher {
+
+  /**
+   * Asks the fetcher to only return data if it doesn't match the given validators of the cached
+   * data.
+   *
+   * <p>Must be called before {@link DataFetcher#loadData}.
+   *
+   * @param etag The {@code ETag} of the cached data, or {@code null} if it had none.
+   * @param lastModified The {@code Last-Modified} date of the cached data, or {@code null} if it
+   *     had none.
+   */
+  void setCachedValidators(@Nullable String etag, @Nullable String lastModified);
+
+  /**
+   * Returns the {@code ETag} of the loaded data, or {@code null} if it had none.
+   *
+   * <p>Only valid after {@link DataFetcher.DataCallback#onDataReady(Object)} has been called.
+   */
+  @Nullable
+  String getETag();
+
+  /**
+   * Returns the {@code Last-Modified} date of the loaded data, or {@code null} if it had none.
+   *
+   * <p>Only valid after {@link DataFetcher.DataCallback#onDataReady(Object)} has been called.
+   */
+  @Nullable
+  String getLastModified();
+}
@@ -0,0 +1,71 @@
+package com.bumptech.glide.load.data;
+
+import android.support.annotation.Nullable;
+import android.text.TextUtils;
+
+/**
+ * Utilities for {@link ResumableFetcher}s that resume loads with HTTP {@code Range} requests and
+ * {@link ConditionalFetcher}s that revalidate cached data with HTTP conditional requests.
+ */
+public final class HttpRanges {
+  public static final String RANGE_HEADER = "Range";
+  public static final String IF_RANGE_HEADER = "If-Range";
+  public static final String CONTENT_RANGE_HEADER = "Content-Range";
+  public static final String ETAG_HEADER = "ETag";
+  public static final String LAST_MODIFIED_HEADER = "Last-Modified";
+  public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+  public static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+  public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
+  /**
+   * Ranges apply to the encoded body, so a resumed body must not be transparently decompressed.
+   */
+  public static final String IDENTITY_ENCODING = "identity";
+  public static final int HTTP_PARTIAL_CONTENT = 206;
+  public static final int HTTP_NOT_MODIFIED = 304;
+  public static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+  private static final String WEAK_ETAG_PREFIX = "W/";
+  private static final String BYTES_UNIT = "bytes ";
+
+  private HttpRanges() {
+    // Utility class.
+  }
+
+  /** Returns the value of a {@code Range} header that requests every byte after the offset. */
+  public static String getRangeFrom(long offset) {
+    return "bytes=" + offset + "-";
+  }
+
+  /**
+   * Returns the validator to send in an {@code If-Range} header when resuming the response with
+   * the given headers, or {@code null} if the response can't safely be resumed.
+   *
+   * <p>Weak {@code ETag}s only promise equivalent data, not identical bytes, so they're ignored.
+   */
+  @Nullable
+  public static String getValidator(@Nullable String etag, @Nullable String lastModified) {
+    if (!TextUtils.isEmpty(etag) && !etag.startsWith(WEAK_ETAG_PREFIX)) {
+      return etag;
+    }
+    return TextUtils.isEmpty(lastModified) ? null : lastModified;
+  }
+
+  /**
+   * Returns the offset of the first byte in a {@code Content-Range} header like
+   * {@code bytes 100-199/200}, or -1 if the header is missing or malformed.
+   */
+  public static long getContentRangeStart(@Nullable String contentRange) {
+    if (contentRange == null || !contentRange.startsWith(BYTES_UNIT)) {
+      return -1;
+    }
+    int end = contentRange.indexOf('-', BYTES_UNIT.length());
+    if (end == -1) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(contentRange.substring(BYTES_UNIT.length(), end).trim());
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+}
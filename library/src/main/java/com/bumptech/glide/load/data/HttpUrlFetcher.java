@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.data;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.text.TextUtils;
 import android.util.Log;
@@ -13,6 +14,7 @@ import com.bumptech.glide.util.ContentLengthInputStream;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -22,8 +24,17 @@ import java.util.Map;
 
 /**
  * A DataFetcher that retrieves an {@link java.io.InputStream} for a Url.
+ *
+ * <p>Resumes loads with {@code Range} and {@code If-Range} requests, see
+ * {@link ResumableFetcher}, and revalidates cached data with {@code If-None-Match} and
+ * {@code If-Modified-Since} requests, see {@link ConditionalFetcher}. Reads from the returned
+ * stream fail once the fetcher is cancelled.
+ *
+ * <p>Requests wait for their turn from the {@link NetworkScheduler}, which may also pause reads
+ * from the returned stream while higher priority requests to the same host run.
  */
-public class HttpUrlFetcher implements DataFetcher<InputStream> {
+public class HttpUrlFetcher implements DataFetcher<InputStream>, ResumableFetcher,
+        ConditionalFetcher {
     private static final String TAG = "HttpUrlFetcher";
     private static final int MAXIMUM_REDIRECTS = 5;
     @VisibleForTesting
@@ -36,10 +47,20 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
     private final GlideUrl glideUrl;
     private final int timeout;
     private final HttpUrlConnectionFactory connectionFactory;
+    private final NetworkScheduler scheduler;
 
     private HttpURLConnection urlConnection;
+    @Nullable private volatile NetworkScheduler.Transfer transfer;
     private InputStream stream;
-    private volatile boolean isCancelled;
+    @Synthetic volatile boolean isCancelled;
+    private long resumeFrom;
+    @Nullable private String resumeValidator;
+    private long resumedOffset;
+    @Nullable private String validator;
+    @Nullable private String cachedEtag;
+    @Nullable private String cachedLastModified;
+    @Nullable private String etag;
+    @Nullable private String lastModified;
 
     public HttpUrlFetcher(GlideUrl glideUrl, int timeout) {
         this(glideUrl, timeout, DEFAULT_CONNECTION_FACTORY);
@@ -47,22 +68,42 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
 
     @VisibleForTesting
     HttpUrlFetcher(GlideUrl glideUrl, int timeout, HttpUrlConnectionFactory connectionFactory) {
+        this(glideUrl, timeout, connectionFactory, NetworkScheduler.getInstance());
+    }
+
+    @VisibleForTesting
+    HttpUrlFetcher(GlideUrl glideUrl, int timeout, HttpUrlConnectionFactory connectionFactory,
+            NetworkScheduler scheduler) {
         this.glideUrl = glideUrl;
         this.timeout = timeout;
         this.connectionFactory = connectionFactory;
+        this.scheduler = scheduler;
     }
 
     @Override
     public void loadData(@NonNull Priority priority,
                          @NonNull DataCallback<? super InputStream> callback) {
         long startTime = LogTime.getLogTime();
+        resumedOffset = 0;
+        validator = null;
+        etag = null;
+        lastModified = null;
         try {
-            InputStream result = loadDataWithRedirects(glideUrl.toURL(), 0, null, glideUrl.getHeaders());
+            URL url = glideUrl.toURL();
+            NetworkScheduler.Transfer transfer =
+                    scheduler.newTransfer(url.getAuthority(), priority);
+            this.transfer = transfer;
+            // Loads cancelled before they start don't wait for their turn, see below.
+            if (!isCancelled) {
+                transfer.await();
+            }
+            InputStream result = loadDataWithRedirects(url, 0, null, glideUrl.getHeaders());
             callback.onDataReady(result);
         } catch (IOException e) {
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "Failed to load data for url", e);
             }
+            releaseTransfer();
             callback.onLoadFailed(e);
         } finally {
             if (Log.isLoggable(TAG, Log.VERBOSE)) {
@@ -92,6 +133,21 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         for (Map.Entry<String, String> headerEntry : headers.entrySet()) {
             urlConnection.addRequestProperty(headerEntry.getKey(), headerEntry.getValue());
         }
+        boolean isResuming = resumeFrom > 0;
+        if (isResuming) {
+            urlConnection.setRequestProperty(
+                    HttpRanges.RANGE_HEADER, HttpRanges.getRangeFrom(resumeFrom));
+            urlConnection.setRequestProperty(HttpRanges.IF_RANGE_HEADER, resumeValidator);
+            urlConnection.setRequestProperty(
+                    HttpRanges.ACCEPT_ENCODING_HEADER, HttpRanges.IDENTITY_ENCODING);
+        }
+        if (cachedEtag != null) {
+            urlConnection.setRequestProperty(HttpRanges.IF_NONE_MATCH_HEADER, cachedEtag);
+        }
+        if (cachedLastModified != null) {
+            urlConnection.setRequestProperty(
+                    HttpRanges.IF_MODIFIED_SINCE_HEADER, cachedLastModified);
+        }
         urlConnection.setConnectTimeout(timeout);
         urlConnection.setReadTimeout(timeout);
         urlConnection.setUseCaches(false);
@@ -103,6 +159,11 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
 
         // Connect explicitly to avoid errors in decoders if connection fails.
         urlConnection.connect();
+        // Error responses throw in getInputStream, so check for ranges the server rejected first.
+        if (isResuming
+                && urlConnection.getResponseCode() == HttpRanges.HTTP_RANGE_NOT_SATISFIABLE) {
+            return loadWithoutRange(url, redirects, lastUrl, headers);
+        }
         // Set the stream so that it's closed in cleanup to avoid resource leaks. See #2352.
         stream = urlConnection.getInputStream();
         if (isCancelled) {
@@ -110,7 +171,24 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         }
         final int statusCode = urlConnection.getResponseCode();
         if (isHttpOk(statusCode)) {
+            etag = urlConnection.getHeaderField(HttpRanges.ETAG_HEADER);
+            lastModified = urlConnection.getHeaderField(HttpRanges.LAST_MODIFIED_HEADER);
+            boolean isPartial = statusCode == HttpRanges.HTTP_PARTIAL_CONTENT;
+            if (isPartial && isResuming) {
+                long start = HttpRanges.getContentRangeStart(
+                        urlConnection.getHeaderField(HttpRanges.CONTENT_RANGE_HEADER));
+                if (start != resumeFrom) {
+                    return loadWithoutRange(url, redirects, lastUrl, headers);
+                }
+                resumedOffset = resumeFrom;
+                validator = resumeValidator;
+            } else if (!isPartial) {
+                validator = HttpRanges.getValidator(etag, lastModified);
+            }
             return getStreamForSuccessfulRequest(urlConnection);
+        } else if (statusCode == HttpRanges.HTTP_NOT_MODIFIED) {
+            // Not a redirect, the cached data is still current, see ConditionalFetcher.
+            throw new HttpException(urlConnection.getResponseMessage(), statusCode);
         } else if (isHttpRedirect(statusCode)) {
             String redirectUrlString = urlConnection.getHeaderField("Location");
             if (TextUtils.isEmpty(redirectUrlString)) {
@@ -119,7 +197,7 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
             URL redirectUrl = new URL(url, redirectUrlString);
             // Closing the stream specifically is required to avoid leaking ResponseBodys in addition
             // to disconnecting the url connection below. See #2352.
-            cleanup();
+            closeConnection();
             return loadDataWithRedirects(redirectUrl, redirects + 1, url, headers);
         } else if (statusCode == INVALID_STATUS_CODE) {
             throw new HttpException(statusCode);
@@ -128,6 +206,17 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         }
     }
 
+    private InputStream loadWithoutRange(URL url, int redirects, URL lastUrl,
+                                         Map<String, String> headers) throws IOException {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Server did not resume from: " + resumeFrom + ", loading the entire body");
+        }
+        closeConnection();
+        resumeFrom = 0;
+        resumeValidator = null;
+        return loadDataWithRedirects(url, redirects, lastUrl, headers);
+    }
+
     // Referencing constants is less clear than a simple static method.
     private static boolean isHttpOk(int statusCode) {
         return statusCode / 100 == 2;
@@ -142,18 +231,38 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
             throws IOException {
         if (TextUtils.isEmpty(urlConnection.getContentEncoding())) {
             int contentLength = urlConnection.getContentLength();
-            stream = ContentLengthInputStream.obtain(urlConnection.getInputStream(), contentLength);
+            InputStream contentLengthStream =
+                    ContentLengthInputStream.obtain(urlConnection.getInputStream(), contentLength);
+            stream = new CancellableInputStream(wrapForTransfer(contentLengthStream));
         } else {
             if (Log.isLoggable(TAG, Log.DEBUG)) {
                 Log.d(TAG, "Got non empty content encoding: " + urlConnection.getContentEncoding());
             }
-            stream = urlConnection.getInputStream();
+            stream = new CancellableInputStream(wrapForTransfer(urlConnection.getInputStream()));
         }
         return stream;
     }
 
+    private InputStream wrapForTransfer(InputStream stream) {
+        NetworkScheduler.Transfer transfer = this.transfer;
+        // The connection stays open on this thread while the stream is read, so it isn't paused.
+        return transfer != null ? transfer.wrap(stream, /*isPausable=*/ false) : stream;
+    }
+
+    private void releaseTransfer() {
+        NetworkScheduler.Transfer transfer = this.transfer;
+        if (transfer != null) {
+            transfer.release();
+        }
+    }
+
     @Override
     public void cleanup() {
+        closeConnection();
+        releaseTransfer();
+    }
+
+    private void closeConnection() {
         if (stream != null) {
             try {
                 stream.close();
@@ -172,6 +281,42 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         // TODO: we should consider disconnecting the url connection here, but we can't do so
         // directly because cancel is often called on the main thread.
         isCancelled = true;
+        releaseTransfer();
+    }
+
+    @Override
+    public void resumeFrom(long offset, @NonNull String validator) {
+        resumeFrom = offset;
+        resumeValidator = validator;
+    }
+
+    @Override
+    public long getResumedOffset() {
+        return resumedOffset;
+    }
+
+    @Nullable
+    @Override
+    public String getValidator() {
+        return validator;
+    }
+
+    @Override
+    public void setCachedValidators(@Nullable String etag, @Nullable String lastModified) {
+        cachedEtag = etag;
+        cachedLastModified = lastModified;
+    }
+
+    @Nullable
+    @Override
+    public String getETag() {
+        return etag;
+    }
+
+    @Nullable
+    @Override
+    public String getLastModified() {
+        return lastModified;
     }
 
     @NonNull
@@ -186,6 +331,42 @@ public class HttpUrlFetcher implements DataFetcher<InputStream> {
         return DataSource.REMOTE;
     }
 
+    /**
+     * Stops reads once the fetcher is cancelled so that partially downloaded data can be kept and
+     * resumed later rather than downloaded in full for a load that's no longer needed.
+     */
+    private final class CancellableInputStream extends FilterInputStream {
+
+        @Synthetic
+        CancellableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            assertNotCancelled();
+            return super.read();
+        }
+
+        @Override
+        public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+            assertNotCancelled();
+            return super.read(buffer, offset, length);
+        }
+
+        @Override
+        public long skip(long byteCount) throws IOException {
+            assertNotCancelled();
+            return super.skip(byteCount);
+        }
+
+        private void assertNotCancelled() throws IOException {
+            if (isCancelled) {
+                throw new IOException("Load was cancelled");
+            }
+        }
+    }
+
     interface HttpUrlConnectionFactory {
         HttpURLConnection build(URL url) throws IOException;
     }
@@ -0,0 +1,607 @@
+package com.bumptech.glide.load.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schedules the network transfers of Glide's URL {@link DataFetcher}s so that they share one view
+ * of how many requests are in flight to each host.
+ *
+ * <p>Each fetcher asks for a {@link Transfer} before it starts a request and releases it when it's
+ * done. At most {@link #getMaxTransfersPerHost()} transfers run per host at a time, the rest wait
+ * in a queue ordered by {@link Priority} and then by the order they were started in. When a
+ * transfer is queued behind a full host, the lowest priority running transfer to that host with a
+ * lower priority is paused, which stops it from reading its response until the host has room for
+ * it again. Only transfers whose response is read through {@link Transfer#wrap(InputStream)} can
+ * be paused.
+ *
+ * <p>Transfers never wait to start or to be resumed for longer than {@link #getMaxBlockedMs()}.
+ * Transfers that would wait longer start anyway, because the threads that would release the
+ * transfers they wait for may be busy with the same wait.
+ */
+public final class NetworkScheduler {
+  private static final NetworkScheduler INSTANCE = new NetworkScheduler();
+  private static final int DEFAULT_MAX_TRANSFERS_PER_HOST = 6;
+  private static final long DEFAULT_MAX_BLOCKED_MS = 2000;
+
+  private final ScheduledExecutorService timeoutExecutor;
+  private final Map<String, Host> hosts = new HashMap<>();
+  private final AtomicLong bytesTransferred = new AtomicLong();
+  private int maxTransfersPerHost = DEFAULT_MAX_TRANSFERS_PER_HOST;
+  private long maxBlockedMs = DEFAULT_MAX_BLOCKED_MS;
+  private long nextSequence;
+  private int queuedCount;
+  private int runningCount;
+  private int pausedCount;
+  private long activeTimeMs;
+  private long activeSinceMs;
+
+  /** Returns the scheduler shared by all of Glide's URL fetchers. */
+  @NonNull
+  public static NetworkScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  NetworkScheduler() {
+    this(TimeoutExecutorHolder.EXECUTOR);
+  }
+
+  @VisibleForTesting
+  NetworkScheduler(ScheduledExecutorService timeoutExecutor) {
+    this.timeoutExecutor = timeoutExecutor;
+  }
+
+  /** Sets the maximum number of transfers that may run at the same time to each host. */
+  public void setMaxTransfersPerHost(int maxTransfersPerHost) {
+    Preconditions.checkArgument(
+        maxTransfersPerHost >= 1, "Max transfers per host must be greater than or equal to 1");
+    List<Runnable> toStart = null;
+    synchronized (this) {
+      this.maxTransfersPerHost = maxTransfersPerHost;
+      for (Host host : new ArrayList<>(hosts.values())) {
+        toStart = dispatch(host, toStart);
+      }
+    }
+    runAll(toStart);
+  }
+
+  public synchronized int getMaxTransfersPerHost() {
+    return maxTransfersPerHost;
+  }
+
+  /**
+   * Sets the maximum number of milliseconds a thread waits for its transfer to start or to be
+   * resumed after it's paused.
+   */
+  public synchronized void setMaxBlockedMs(long maxBlockedMs) {
+    Preconditions.checkArgument(
+        maxBlockedMs >= 0, "Max blocked ms must be greater than or equal to 0");
+    this.maxBlockedMs = maxBlockedMs;
+  }
+
+  public synchronized long getMaxBlockedMs() {
+    return maxBlockedMs;
+  }
+
+  /** Returns the number of transfers waiting to start. */
+  public synchronized int getQueueDepth() {
+    return queuedCount;
+  }
+
+  /** Returns the number of transfers that are running and not paused. */
+  public synchronized int getRunningCount() {
+    return runningCount;
+  }
+
+  /** Returns the number of transfers that are paused. */
+  public synchronized int getPausedCount() {
+    return pausedCount;
+  }
+
+  /** Returns the number of bytes read through streams returned by {@link Transfer#wrap}. */
+  public long getBytesTransferred() {
+    return bytesTransferred.get();
+  }
+
+  /**
+   * Returns the average number of bytes per second read through streams returned by
+   * {@link Transfer#wrap} while at least one transfer was running.
+   */
+  public synchronized long getThroughputBytesPerSecond() {
+    long activeMs = activeTimeMs;
+    if (runningCount > 0) {
+      activeMs += nowMs() - activeSinceMs;
+    }
+    return activeMs <= 0 ? 0 : bytesTransferred.get() * 1000 / activeMs;
+  }
+
+  /**
+   * Returns a new transfer that waits for room to run until {@link Transfer#await()} or
+   * {@link Transfer#enqueue(Runnable)} is called.
+   *
+   * @param host The host the transfer talks to, usually the authority of its URL so that different
+   *     ports are scheduled separately. Transfers without a host are scheduled together.
+   */
+  @NonNull
+  public Transfer newTransfer(@Nullable String host, @NonNull Priority priority) {
+    return new Transfer(this, host != null ? host : "", Preconditions.checkNotNull(priority));
+  }
+
+  @Synthetic
+  void enqueue(Transfer transfer, Runnable onStart) {
+    List<Runnable> toStart;
+    synchronized (this) {
+      if (transfer.state == Transfer.RELEASED) {
+        return;
+      }
+      transfer.onStart = onStart;
+      toStart = dispatch(queue(transfer), null);
+      if (transfer.state == Transfer.QUEUED) {
+        transfer.timeout =
+            timeoutExecutor.schedule(
+                new StartOverdueTransfer(this, transfer), maxBlockedMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    runAll(toStart);
+  }
+
+  @Synthetic
+  void startOverdue(Transfer transfer) {
+    Runnable onStart;
+    synchronized (this) {
+      if (transfer.state != Transfer.QUEUED) {
+        return;
+      }
+      transfer.host.queued.remove(transfer);
+      queuedCount--;
+      transfer.timeout = null;
+      setRunning(transfer);
+      onStart = transfer.onStart;
+      transfer.onStart = null;
+    }
+    if (onStart != null) {
+      onStart.run();
+    }
+  }
+
+  @Synthetic
+  void await(Transfer transfer) throws IOException {
+    List<Runnable> toStart;
+    synchronized (this) {
+      if (transfer.state == Transfer.RELEASED) {
+        throw new IOException("Transfer was released before it started");
+      }
+      toStart = dispatch(queue(transfer), null);
+    }
+    runAll(toStart);
+    synchronized (this) {
+      long deadlineMs = nowMs() + maxBlockedMs;
+      while (transfer.state == Transfer.QUEUED) {
+        long remainingMs = deadlineMs - nowMs();
+        if (remainingMs <= 0) {
+          transfer.host.queued.remove(transfer);
+          queuedCount--;
+          setRunning(transfer);
+          break;
+        }
+        waitForChange(remainingMs);
+      }
+      if (transfer.state == Transfer.RELEASED) {
+        throw new IOException("Transfer was released before it started");
+      }
+    }
+  }
+
+  @Synthetic
+  void awaitResumed(Transfer transfer) throws IOException {
+    if (transfer.state != Transfer.PAUSED) {
+      return;
+    }
+    synchronized (this) {
+      long deadlineMs = nowMs() + maxBlockedMs;
+      while (transfer.state == Transfer.PAUSED) {
+        long remainingMs = deadlineMs - nowMs();
+        if (remainingMs <= 0) {
+          transfer.host.paused.remove(transfer);
+          pausedCount--;
+          setRunning(transfer);
+          break;
+        }
+        waitForChange(remainingMs);
+      }
+    }
+  }
+
+  @Synthetic
+  void release(Transfer transfer) {
+    List<Runnable> toStart = null;
+    synchronized (this) {
+      int state = transfer.state;
+      if (state == Transfer.RELEASED) {
+        return;
+      }
+      transfer.state = Transfer.RELEASED;
+      transfer.onStart = null;
+      if (state == Transfer.NEW) {
+        return;
+      }
+      Host host = transfer.host;
+      if (state == Transfer.QUEUED) {
+        host.queued.remove(transfer);
+        queuedCount--;
+        cancelTimeout(transfer);
+      } else if (state == Transfer.RUNNING) {
+        host.running.remove(transfer);
+        onRunningRemoved();
+      } else {
+        host.paused.remove(transfer);
+        pausedCount--;
+      }
+      toStart = dispatch(host, null);
+      if (host.isIdle()) {
+        hosts.remove(host.key);
+      }
+      // Wakes threads waiting for the released transfer.
+      notifyAll();
+    }
+    runAll(toStart);
+  }
+
+  @Synthetic
+  void onBytesTransferred(long count) {
+    bytesTransferred.addAndGet(count);
+  }
+
+  private Host queue(Transfer transfer) {
+    Host host = hosts.get(transfer.hostKey);
+    if (host == null) {
+      host = new Host(transfer.hostKey);
+      hosts.put(transfer.hostKey, host);
+    }
+    transfer.host = host;
+    transfer.sequence = nextSequence++;
+    transfer.state = Transfer.QUEUED;
+    host.queued.add(transfer);
+    queuedCount++;
+    if (host.running.size() >= maxTransfersPerHost) {
+      pauseLowerPriorityTransfer(host, transfer.priority);
+    }
+    return host;
+  }
+
+  private void pauseLowerPriorityTransfer(Host host, Priority priority) {
+    Transfer toPause = null;
+    for (Transfer running : host.running) {
+      if (running.isPausable
+          && running.priority.ordinal() > priority.ordinal()
+          && (toPause == null
+              || running.priority.ordinal() > toPause.priority.ordinal()
+              || (running.priority == toPause.priority && running.sequence > toPause.sequence))) {
+        toPause = running;
+      }
+    }
+    if (toPause != null) {
+      host.running.remove(toPause);
+      onRunningRemoved();
+      toPause.state = Transfer.PAUSED;
+      host.paused.add(toPause);
+      pausedCount++;
+    }
+  }
+
+  /**
+   * Starts or resumes transfers to the given host while it has room, returning the callbacks of
+   * queued transfers that have to be run once the lock is released.
+   */
+  @Nullable
+  private List<Runnable> dispatch(Host host, @Nullable List<Runnable> toStart) {
+    boolean changed = false;
+    while (host.running.size() < maxTransfersPerHost) {
+      Transfer next = null;
+      for (Transfer paused : host.paused) {
+        if (next == null || isBefore(paused, next)) {
+          next = paused;
+        }
+      }
+      for (Transfer queued : host.queued) {
+        if (next == null || isBefore(queued, next)) {
+          next = queued;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      if (next.state == Transfer.PAUSED) {
+        host.paused.remove(next);
+        pausedCount--;
+      } else {
+        host.queued.remove(next);
+        queuedCount--;
+        cancelTimeout(next);
+        if (next.onStart != null) {
+          if (toStart == null) {
+            toStart = new ArrayList<>();
+          }
+          toStart.add(next.onStart);
+          next.onStart = null;
+        }
+      }
+      setRunning(next);
+      changed = true;
+    }
+    if (changed) {
+      notifyAll();
+    }
+    return toStart;
+  }
+
+  // Paused transfers are resumed before queued transfers with the same priority, otherwise
+  // transfers start in the order they were queued in.
+  private static boolean isBefore(Transfer transfer, Transfer other) {
+    if (transfer.priority != other.priority) {
+      return transfer.priority.ordinal() < other.priority.ordinal();
+    }
+    if ((transfer.state == Transfer.PAUSED) != (other.state == Transfer.PAUSED)) {
+      return transfer.state == Transfer.PAUSED;
+    }
+    return transfer.sequence < other.sequence;
+  }
+
+  private static void cancelTimeout(Transfer transfer) {
+    if (transfer.timeout != null) {
+      transfer.timeout.cancel(false);
+      transfer.timeout = null;
+    }
+  }
+
+  private void setRunning(Transfer transfer) {
+    transfer.state = Transfer.RUNNING;
+    transfer.host.running.add(transfer);
+    if (runningCount++ == 0) {
+      activeSinceMs = nowMs();
+    }
+  }
+
+  private void onRunningRemoved() {
+    if (--runningCount == 0) {
+      activeTimeMs += nowMs() - activeSinceMs;
+    }
+  }
+
+  private void waitForChange(long timeoutMs) throws InterruptedIOException {
+    try {
+      wait(timeoutMs);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a transfer");
+    }
+  }
+
+  private static long nowMs() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+  }
+
+  private static void runAll(@Nullable List<Runnable> runnables) {
+    if (runnables != null) {
+      //noinspection ForLoopReplaceableByForEach to improve perf
+      for (int i = 0, size = runnables.size(); i < size; i++) {
+        runnables.get(i).run();
+      }
+    }
+  }
+
+  /**
+   * A network request scheduled by a {@link NetworkScheduler}.
+   *
+   * <p>Each transfer is started once, either with {@link #await()} by fetchers that block the
+   * calling thread, or with {@link #enqueue(Runnable)} by fetchers that make asynchronous requests,
+   * and must be released with {@link #release()} once its request has finished, failed or been
+   * cancelled. Transfers whose streams are {@link #wrap(InputStream) wrapped} are released when
+   * the stream is exhausted or closed.
+   */
+  public static final class Transfer {
+    @Synthetic static final int NEW = 0;
+    @Synthetic static final int QUEUED = 1;
+    @Synthetic static final int RUNNING = 2;
+    @Synthetic static final int PAUSED = 3;
+    @Synthetic static final int RELEASED = 4;
+
+    private final NetworkScheduler scheduler;
+    @Synthetic final String hostKey;
+    @Synthetic final Priority priority;
+
+    // Written while holding the scheduler's lock.
+    @Synthetic volatile int state = NEW;
+    @Synthetic Host host;
+    @Synthetic long sequence;
+    @Synthetic boolean isPausable;
+    @Nullable @Synthetic Runnable onStart;
+    @Nullable @Synthetic ScheduledFuture<?> timeout;
+
+    @Synthetic
+    Transfer(NetworkScheduler scheduler, String hostKey, Priority priority) {
+      this.scheduler = scheduler;
+      this.hostKey = hostKey;
+      this.priority = priority;
+    }
+
+    /**
+     * Blocks until the transfer may start.
+     *
+     * @throws IOException If the transfer is released before it starts.
+     */
+    public void await() throws IOException {
+      scheduler.await(this);
+    }
+
+    /**
+     * Runs the given {@link Runnable} once the transfer may start, which may be immediately on the
+     * calling thread, later on the thread that releases another transfer, or on a background thread
+     * once the transfer has waited for {@link NetworkScheduler#getMaxBlockedMs()}.
+     *
+     * <p>The {@link Runnable} isn't run if the transfer is released before it starts.
+     */
+    public void enqueue(@NonNull Runnable onStart) {
+      scheduler.enqueue(this, Preconditions.checkNotNull(onStart));
+    }
+
+    /**
+     * Returns a stream that counts the bytes read from the given stream, blocks reads while the
+     * transfer is paused, and releases the transfer when it's exhausted or closed.
+     *
+     * <p>Only transfers that wrap the stream of their response can be paused.
+     */
+    @NonNull
+    public InputStream wrap(@NonNull InputStream stream) {
+      return wrap(stream, /*isPausable=*/ true);
+    }
+
+    /**
+     * Returns a stream that counts the bytes read from the given stream and releases the transfer
+     * when it's exhausted or closed, and that blocks reads while the transfer is paused only if
+     * {@code isPausable} is {@code true}.
+     *
+     * <p>Fetchers that hold their connection open on the thread that reads the stream should not
+     * be paused, because a paused read blocks that thread and every request sharing its data.
+     */
+    @NonNull
+    public InputStream wrap(@NonNull InputStream stream, boolean isPausable) {
+      if (isPausable) {
+        synchronized (scheduler) {
+          this.isPausable = true;
+        }
+      }
+      return new TransferInputStream(stream, this);
+    }
+
+    /** Frees the transfer's slot so that other transfers can run, may be called more than once. */
+    public void release() {
+      scheduler.release(this);
+    }
+
+    @Synthetic
+    void awaitResumed() throws IOException {
+      scheduler.awaitResumed(this);
+    }
+
+    @Synthetic
+    void onBytesTransferred(long count) {
+      scheduler.onBytesTransferred(count);
+    }
+  }
+
+  private static final class TransferInputStream extends FilterInputStream {
+    private final Transfer transfer;
+
+    @Synthetic
+    TransferInputStream(InputStream in, Transfer transfer) {
+      super(in);
+      this.transfer = transfer;
+    }
+
+    @Override
+    public int read() throws IOException {
+      transfer.awaitResumed();
+      int result = super.read();
+      if (result == -1) {
+        transfer.release();
+      } else {
+        transfer.onBytesTransferred(1);
+      }
+      return result;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      transfer.awaitResumed();
+      int read = super.read(buffer, offset, length);
+      if (read == -1) {
+        transfer.release();
+      } else {
+        transfer.onBytesTransferred(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long byteCount) throws IOException {
+      transfer.awaitResumed();
+      long skipped = super.skip(byteCount);
+      transfer.onBytesTransferred(skipped);
+      return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        transfer.release();
+      }
+    }
+  }
+
+  private static final class StartOverdueTransfer implements Runnable {
+    private final NetworkScheduler scheduler;
+    private final Transfer transfer;
+
+    @Synthetic
+    StartOverdueTransfer(NetworkScheduler scheduler, Transfer transfer) {
+      this.scheduler = scheduler;
+      this.transfer = transfer;
+    }
+
+    @Override
+    public void run() {
+      scheduler.startOverdue(transfer);
+    }
+  }
+
+  private static final class TimeoutExecutorHolder {
+    @Synthetic static final ScheduledExecutorService EXECUTOR =
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+          @Override
+          public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "glide-network-scheduler");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+  }
+
+  private static final class Host {
+    @Synthetic final String key;
+    @Synthetic final List<Transfer> queued = new ArrayList<>();
+    @Synthetic final List<Transfer> running = new ArrayList<>();
+    @Synthetic final List<Transfer> paused = new ArrayList<>();
+
+    @Synthetic
+    Host(String key) {
+      this.key = key;
+    }
+
+    @Synthetic
+    boolean isIdle() {
+      return queued.isEmpty() && running.isEmpty() && paused.isEmpty();
+    }
+  }
+}
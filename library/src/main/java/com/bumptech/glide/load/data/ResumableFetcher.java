@@ -0,0 +1,44 @@
+package com.bumptech.glide.load.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+
+/**
+ * Implemented by {@link DataFetcher}s for {@link java.io.InputStream}s that can start a load part
+ * way through the data, like HTTP fetchers that support {@code Range} requests.
+ *
+ * <p>Glide stores the bytes a cancelled or failed remote load had already downloaded along with
+ * the validator the fetcher reported for them. When the same data is loaded again, Glide calls
+ * {@link #resumeFrom(long, String)} before {@link DataFetcher#loadData}. The fetcher may then
+ * return only the data after the stored bytes, in which case it must report the offset from
+ * {@link #getResumedOffset()}, or it may return the complete data and report an offset of zero.
+ */
+public interface ResumableFetcher {
+
+  /**
+   * Asks the fetcher to return the data starting at the given offset, if the data still matches
+   * the given validator.
+   *
+   * <p>Must be called before {@link DataFetcher#loadData}.
+   *
+   * @param offset The number of bytes Glide already has, greater than zero.
+   * @param validator The validator returned by {@link #getValidator()} when the bytes were loaded.
+   */
+  void resumeFrom(long offset, @NonNull String validator);
+
+  /**
+   * Returns the offset of the first byte of the stream passed to
+   * {@link DataFetcher.DataCallback#onDataReady(Object)}, or zero if the stream contains all of the
+   * data.
+   */
+  long getResumedOffset();
+
+  /**
+   * Returns a string that changes whenever the data changes, like a strong HTTP {@code ETag}, or
+   * {@code null} if the loaded data can't be resumed later.
+   *
+   * <p>Only valid after {@link DataFetcher.DataCallback#onDataReady(Object)} has been called.
+   */
+  @Nullable
+  String getValidator();
+}
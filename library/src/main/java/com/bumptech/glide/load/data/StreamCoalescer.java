@@ -0,0 +1,574 @@
+package com.bumptech.glide.load.data;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.util.Synthetic;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shares a single source stream between concurrent loads of the same model, like a URL loaded into
+ * two {@link com.bumptech.glide.request.target.Target}s of different sizes, which
+ * {@link com.bumptech.glide.load.engine.Engine} treats as separate loads.
+ *
+ * <p>The first fetcher for a key loads the data. Another fetcher for that key that starts before
+ * the data has been read waits for the same data and reads it from the start. While only one
+ * fetcher uses the data, it reads straight from the source and nothing is buffered, so fetchers
+ * that start after it has begun reading load the data themselves. Once a second fetcher joins,
+ * bytes read from the source are buffered in memory, and whichever reader first needs bytes that
+ * haven't been buffered yet reads them from the source, so the source is read as fast as the
+ * fastest reader. Buffered bytes are dropped once every reader has read them, after which later
+ * fetchers also load the data themselves. The source is cleaned up once every fetcher sharing it
+ * has been cleaned up or cancelled.
+ *
+ * <p>Returned fetchers implement {@link ResumableFetcher} and {@link ConditionalFetcher}. Fetchers
+ * only share a stream with other fetchers that resume from the same offset and validator and
+ * revalidate the same cached data, and only resume or revalidate if the fetcher passed to
+ * {@link #coalesce(Object, DataFetcher)} does.
+ */
+public final class StreamCoalescer {
+  @VisibleForTesting
+  static final int CHUNK_SIZE_BYTES = 16 * 1024;
+
+  private final Map<Object, SharedStream> inFlight = new HashMap<>();
+
+  /**
+   * Returns a fetcher that shares its data with other fetchers for an equal key that are in
+   * flight, or loads the data with the given fetcher if there are none.
+   *
+   * @param key An object that implements equals and hashCode and identifies the data, like the
+   *     {@link com.bumptech.glide.load.model.GlideUrl} being loaded.
+   */
+  @NonNull
+  public DataFetcher<InputStream> coalesce(
+      @NonNull Object key, @NonNull DataFetcher<InputStream> fetcher) {
+    return new CoalescedFetcher(key, fetcher);
+  }
+
+  @VisibleForTesting
+  synchronized int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  @Synthetic
+  synchronized SharedStream join(
+      Object key, DataFetcher<InputStream> fetcher, CoalescedFetcher participant) {
+    SharedStream shared = inFlight.get(key);
+    if (shared == null || !shared.tryJoin(participant)) {
+      shared = new SharedStream(key, fetcher, participant);
+      inFlight.put(key, shared);
+    }
+    return shared;
+  }
+
+  @Synthetic
+  synchronized void remove(Object key, SharedStream shared) {
+    if (inFlight.get(key) == shared) {
+      inFlight.remove(key);
+    }
+  }
+
+  private final class CoalescedFetcher
+      implements DataFetcher<InputStream>, ResumableFetcher, ConditionalFetcher {
+    private final Object key;
+    private final DataFetcher<InputStream> fetcher;
+    @Nullable private volatile SharedStream shared;
+    private long resumeFrom;
+    @Nullable private String resumeValidator;
+    @Nullable private String cachedEtag;
+    @Nullable private String cachedLastModified;
+
+    @Synthetic
+    CoalescedFetcher(Object key, DataFetcher<InputStream> fetcher) {
+      this.key = key;
+      this.fetcher = fetcher;
+    }
+
+    @Override
+    public void loadData(@NonNull Priority priority,
+        @NonNull DataCallback<? super InputStream> callback) {
+      Object sharedKey = resumeFrom > 0 || cachedEtag != null || cachedLastModified != null
+          ? Arrays.asList(key, resumeFrom, resumeValidator, cachedEtag, cachedLastModified) : key;
+      SharedStream local = join(sharedKey, fetcher, this);
+      shared = local;
+      local.load(this, priority, callback);
+    }
+
+    @Override
+    public void cleanup() {
+      SharedStream local = shared;
+      if (local != null) {
+        local.release(this);
+      }
+    }
+
+    @Override
+    public void cancel() {
+      SharedStream local = shared;
+      if (local != null) {
+        local.cancel(this);
+      }
+    }
+
+    @Override
+    public void resumeFrom(long offset, @NonNull String validator) {
+      if (fetcher instanceof ResumableFetcher) {
+        resumeFrom = offset;
+        resumeValidator = validator;
+        ((ResumableFetcher) fetcher).resumeFrom(offset, validator);
+      }
+    }
+
+    @Override
+    public long getResumedOffset() {
+      SharedStream local = shared;
+      return local != null ? local.getResumedOffset() : 0;
+    }
+
+    @Nullable
+    @Override
+    public String getValidator() {
+      SharedStream local = shared;
+      return local != null ? local.getValidator() : null;
+    }
+
+    @Override
+    public void setCachedValidators(@Nullable String etag, @Nullable String lastModified) {
+      if (fetcher instanceof ConditionalFetcher) {
+        cachedEtag = etag;
+        cachedLastModified = lastModified;
+        ((ConditionalFetcher) fetcher).setCachedValidators(etag, lastModified);
+      }
+    }
+
+    @Nullable
+    @Override
+    public String getETag() {
+      SharedStream local = shared;
+      return local != null ? local.getETag() : null;
+    }
+
+    @Nullable
+    @Override
+    public String getLastModified() {
+      SharedStream local = shared;
+      return local != null ? local.getLastModified() : null;
+    }
+
+    @NonNull
+    @Override
+    public Class<InputStream> getDataClass() {
+      return InputStream.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return fetcher.getDataSource();
+    }
+  }
+
+  /** The data loaded by a single fetcher and the fetchers that are reading it. */
+  private final class SharedStream implements DataFetcher.DataCallback<InputStream> {
+    private final Object key;
+    private final DataFetcher<InputStream> fetcher;
+    // Fetchers that are waiting for the source to load.
+    private final Map<CoalescedFetcher, DataFetcher.DataCallback<? super InputStream>> pending =
+        new LinkedHashMap<>();
+    private final Map<CoalescedFetcher, ReaderStream> readers = new HashMap<>();
+    // Fetchers that share the stream and haven't been released.
+    private final Set<CoalescedFetcher> participants = new HashSet<>();
+    // Buffered bytes, starting at bufferStart, that some reader hasn't read yet.
+    private final List<byte[]> chunks = new ArrayList<>();
+    private boolean isStarted;
+    private boolean isLoaded;
+    @Nullable private InputStream source;
+    @Nullable private Exception loadFailure;
+    // Set once a second fetcher joins, before which the only reader reads the source directly.
+    private boolean isBuffered;
+    private boolean isReadUnbuffered;
+    private int bufferStart;
+    private int size;
+    private boolean isReadingSource;
+    private boolean isSourceExhausted;
+    @Nullable private IOException readFailure;
+
+    @Synthetic
+    SharedStream(Object key, DataFetcher<InputStream> fetcher, CoalescedFetcher participant) {
+      this.key = key;
+      this.fetcher = fetcher;
+      participants.add(participant);
+    }
+
+    @Synthetic
+    synchronized boolean tryJoin(CoalescedFetcher participant) {
+      // Bytes that weren't buffered or that have been dropped can't be read from the start again.
+      if (participants.isEmpty() || loadFailure != null || readFailure != null
+          || (isLoaded && source == null) || isReadUnbuffered || bufferStart > 0) {
+        return false;
+      }
+      participants.add(participant);
+      isBuffered = true;
+      return true;
+    }
+
+    @Synthetic
+    void load(CoalescedFetcher participant, Priority priority,
+        DataFetcher.DataCallback<? super InputStream> callback) {
+      boolean isReady;
+      boolean shouldStart = false;
+      synchronized (this) {
+        isReady = isLoaded;
+        if (!isReady) {
+          pending.put(participant, callback);
+          shouldStart = !isStarted;
+          isStarted = true;
+        }
+      }
+      if (isReady) {
+        notifyParticipant(participant, callback);
+      } else if (shouldStart) {
+        fetcher.loadData(priority, this);
+      }
+    }
+
+    @Override
+    public void onDataReady(@Nullable InputStream data) {
+      Map<CoalescedFetcher, DataFetcher.DataCallback<? super InputStream>> toNotify;
+      boolean isAbandoned;
+      synchronized (this) {
+        source = data;
+        isLoaded = true;
+        toNotify = new LinkedHashMap<>(pending);
+        pending.clear();
+        isAbandoned = participants.isEmpty();
+      }
+      if (isAbandoned) {
+        fetcher.cleanup();
+        return;
+      }
+      for (Map.Entry<CoalescedFetcher, DataFetcher.DataCallback<? super InputStream>> entry
+          : toNotify.entrySet()) {
+        notifyParticipant(entry.getKey(), entry.getValue());
+      }
+    }
+
+    @Override
+    public void onLoadFailed(@NonNull Exception e) {
+      // Later loads should try again rather than share the failure.
+      remove(key, this);
+      Map<CoalescedFetcher, DataFetcher.DataCallback<? super InputStream>> toNotify;
+      boolean isAbandoned;
+      synchronized (this) {
+        loadFailure = e;
+        isLoaded = true;
+        toNotify = new LinkedHashMap<>(pending);
+        pending.clear();
+        isAbandoned = participants.isEmpty();
+      }
+      if (isAbandoned) {
+        fetcher.cleanup();
+        return;
+      }
+      for (DataFetcher.DataCallback<? super InputStream> callback : toNotify.values()) {
+        callback.onLoadFailed(e);
+      }
+    }
+
+    private void notifyParticipant(
+        CoalescedFetcher participant, DataFetcher.DataCallback<? super InputStream> callback) {
+      ReaderStream reader = null;
+      Exception failure;
+      synchronized (this) {
+        failure = loadFailure;
+        if (failure == null && source != null && participants.contains(participant)) {
+          reader = new ReaderStream(this);
+          readers.put(participant, reader);
+        }
+      }
+      if (failure != null) {
+        callback.onLoadFailed(failure);
+      } else {
+        callback.onDataReady(reader);
+      }
+    }
+
+    @Synthetic
+    void cancel(CoalescedFetcher participant) {
+      DataFetcher.DataCallback<? super InputStream> callback;
+      boolean isLastParticipant;
+      boolean isSourceLoaded;
+      synchronized (this) {
+        // Fetchers that have their data are released when they're cleaned up. Fetchers that are
+        // still waiting won't be cleaned up until they're called, so they're released here.
+        callback = pending.remove(participant);
+        isLastParticipant = callback != null && removeParticipant(participant);
+        isSourceLoaded = isLoaded;
+      }
+      if (callback == null) {
+        return;
+      }
+      if (isLastParticipant) {
+        onLastParticipantReleased(isSourceLoaded);
+      }
+      callback.onLoadFailed(new IOException("Load was cancelled"));
+    }
+
+    @Synthetic
+    void release(CoalescedFetcher participant) {
+      boolean isLastParticipant;
+      boolean isSourceLoaded;
+      synchronized (this) {
+        if (!participants.contains(participant)) {
+          return;
+        }
+        pending.remove(participant);
+        isLastParticipant = removeParticipant(participant);
+        isSourceLoaded = isLoaded;
+      }
+      if (isLastParticipant) {
+        onLastParticipantReleased(isSourceLoaded);
+      }
+    }
+
+    // Returns true if no participants remain.
+    private boolean removeParticipant(CoalescedFetcher participant) {
+      participants.remove(participant);
+      ReaderStream reader = readers.remove(participant);
+      if (reader != null) {
+        reader.isClosed = true;
+      }
+      if (participants.isEmpty()) {
+        chunks.clear();
+        return true;
+      }
+      dropReadChunks();
+      return false;
+    }
+
+    // Sources that are still loading are cleaned up once they finish.
+    private void onLastParticipantReleased(boolean isSourceLoaded) {
+      remove(key, this);
+      if (isSourceLoaded) {
+        fetcher.cleanup();
+      } else {
+        fetcher.cancel();
+      }
+    }
+
+    // The fetcher that loaded the shared stream describes it for every participant.
+    @Synthetic
+    long getResumedOffset() {
+      return fetcher instanceof ResumableFetcher
+          ? ((ResumableFetcher) fetcher).getResumedOffset() : 0;
+    }
+
+    @Nullable
+    @Synthetic
+    String getValidator() {
+      return fetcher instanceof ResumableFetcher
+          ? ((ResumableFetcher) fetcher).getValidator() : null;
+    }
+
+    @Nullable
+    @Synthetic
+    String getETag() {
+      return fetcher instanceof ConditionalFetcher
+          ? ((ConditionalFetcher) fetcher).getETag() : null;
+    }
+
+    @Nullable
+    @Synthetic
+    String getLastModified() {
+      return fetcher instanceof ConditionalFetcher
+          ? ((ConditionalFetcher) fetcher).getLastModified() : null;
+    }
+
+    @Synthetic
+    int read(ReaderStream reader, byte[] buffer, int offset, int length) throws IOException {
+      if (length == 0) {
+        return 0;
+      }
+      InputStream unbufferedSource = null;
+      synchronized (this) {
+        if (!isBuffered) {
+          if (reader.isClosed) {
+            throw new IOException("Stream was read after it was cleaned up");
+          }
+          isReadUnbuffered = true;
+          unbufferedSource = source;
+        }
+      }
+      if (unbufferedSource != null) {
+        return unbufferedSource.read(buffer, offset, length);
+      }
+      while (true) {
+        synchronized (this) {
+          int read = readBuffered(reader, buffer, offset, length);
+          if (read != 0) {
+            return read;
+          }
+          if (!isReadingSource) {
+            isReadingSource = true;
+          } else {
+            awaitSource();
+            continue;
+          }
+        }
+        readSource();
+      }
+    }
+
+    // Returns the number of bytes copied, -1 at the end of the stream or 0 if more bytes must be
+    // read from the source.
+    private int readBuffered(ReaderStream reader, byte[] buffer, int offset, int length)
+        throws IOException {
+      if (reader.isClosed) {
+        throw new IOException("Stream was read after it was cleaned up");
+      }
+      if (reader.position < size) {
+        int total = Math.min(length, size - reader.position);
+        int copied = 0;
+        while (copied < total) {
+          int bufferOffset = reader.position + copied - bufferStart;
+          int chunkOffset = bufferOffset % CHUNK_SIZE_BYTES;
+          byte[] chunk = chunks.get(bufferOffset / CHUNK_SIZE_BYTES);
+          int toCopy = Math.min(total - copied, CHUNK_SIZE_BYTES - chunkOffset);
+          System.arraycopy(chunk, chunkOffset, buffer, offset + copied, toCopy);
+          copied += toCopy;
+        }
+        reader.position += total;
+        dropReadChunks();
+        return total;
+      } else if (readFailure != null) {
+        throw new IOException("Failed to read shared stream", readFailure);
+      } else if (isSourceExhausted) {
+        return -1;
+      }
+      return 0;
+    }
+
+    // Drops the chunks every reader has read, unless a fetcher that has joined hasn't started
+    // reading from the start yet.
+    private void dropReadChunks() {
+      if (readers.size() < participants.size()) {
+        return;
+      }
+      int minPosition = size;
+      for (ReaderStream reader : readers.values()) {
+        minPosition = Math.min(minPosition, reader.position);
+      }
+      while (minPosition - bufferStart >= CHUNK_SIZE_BYTES) {
+        chunks.remove(0);
+        bufferStart += CHUNK_SIZE_BYTES;
+      }
+    }
+
+    private void awaitSource() throws IOException {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException();
+      }
+    }
+
+    // Only one reader reads from the source at a time, into the space after the buffered bytes, so
+    // other readers can keep copying the buffered bytes.
+    private void readSource() {
+      InputStream localSource;
+      byte[] chunk;
+      int chunkOffset;
+      synchronized (this) {
+        if (participants.isEmpty()) {
+          // Every reader, including this one, has been cleaned up.
+          isReadingSource = false;
+          notifyAll();
+          return;
+        }
+        localSource = source;
+        if (size - bufferStart == chunks.size() * CHUNK_SIZE_BYTES) {
+          chunks.add(new byte[CHUNK_SIZE_BYTES]);
+        }
+        chunk = chunks.get(chunks.size() - 1);
+        chunkOffset = size % CHUNK_SIZE_BYTES;
+      }
+      int read = 0;
+      IOException failure = null;
+      try {
+        read = localSource.read(chunk, chunkOffset, CHUNK_SIZE_BYTES - chunkOffset);
+      } catch (IOException e) {
+        failure = e;
+      }
+      synchronized (this) {
+        isReadingSource = false;
+        if (failure != null) {
+          readFailure = failure;
+        } else if (read == -1) {
+          isSourceExhausted = true;
+        } else {
+          size += read;
+        }
+        notifyAll();
+      }
+    }
+
+    @Synthetic
+    synchronized int available(ReaderStream reader) throws IOException {
+      if (!isBuffered) {
+        return reader.isClosed || source == null ? 0 : source.available();
+      }
+      if (reader.position < size) {
+        return size - reader.position;
+      }
+      return isReadingSource || isSourceExhausted || readFailure != null || source == null
+          ? 0 : source.available();
+    }
+  }
+
+  /** Reads the shared stream from the start, independently of other readers. */
+  private static final class ReaderStream extends InputStream {
+    private final SharedStream shared;
+    private final byte[] singleByte = new byte[1];
+    // Guarded by shared.
+    @Synthetic int position;
+    @Synthetic boolean isClosed;
+
+    @Synthetic
+    ReaderStream(SharedStream shared) {
+      this.shared = shared;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = read(singleByte, 0, 1);
+      return read == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      return shared.read(this, buffer, offset, length);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return shared.available(this);
+    }
+
+    // The source is closed by its fetcher once every reader has been cleaned up.
+    @Override
+    public void close() { }
+  }
+}
@@ -0,0 +1,46 @@
+package com.bumptech.glide.load.engine;
+
+/**
+ * A snapshot of how often resources that are in use by at least one request were activated,
+ * reused and reclaimed by the garbage collector.
+ *
+ * @see com.bumptech.glide.Glide#getActiveResourceStats()
+ */
+public final class ActiveResourceStats {
+  private final long activationCount;
+  private final long hitCount;
+  private final long reclaimedCount;
+
+  ActiveResourceStats(long activationCount, long hitCount, long reclaimedCount) {
+    this.activationCount = activationCount;
+    this.hitCount = hitCount;
+    this.reclaimedCount = reclaimedCount;
+  }
+
+  /** Returns the number of times a resource was put in use. */
+  public long getActivationCount() {
+    return activationCount;
+  }
+
+  /** Returns the number of loads that reused a resource that was already in use. */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * Returns the number of resources that were garbage collected while they were still in use,
+   * usually because a request wasn't cleared, rather than being released.
+   */
+  public long getReclaimedCount() {
+    return reclaimedCount;
+  }
+
+  @Override
+  public String toString() {
+    return "ActiveResourceStats{"
+        + "activationCount=" + activationCount
+        + ", hitCount=" + hitCount
+        + ", reclaimedCount=" + reclaimedCount
+        + '}';
+  }
+}
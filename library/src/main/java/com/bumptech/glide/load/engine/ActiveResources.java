@@ -13,13 +13,29 @@ import com.bumptech.glide.util.Synthetic;
 
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
-
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds weak references to resources that are currently in use by at least one request.
+ *
+ * <p>Lookups, activations and deactivations don't take any lock. Instead entries live in a
+ * {@link ConcurrentMap} and ownership of a particular {@link ResourceWeakReference} is decided by
+ * whichever caller manages to remove it from the map.
+ */
 final class ActiveResources {
+    /**
+     * The maximum number of cleared references we'll process while holding the listener lock before
+     * releasing it to let other threads make progress.
+     */
+    private static final int MAX_CLEARED_REFERENCES_PER_BATCH = 32;
+
     private final boolean isActiveResourceRetentionAllowed;
 
     // 监控GC回收资源线程池
@@ -28,13 +44,18 @@ final class ActiveResources {
 
     //使用强引用存储ResourceWeakReference
     @VisibleForTesting
-    final Map<Key, ResourceWeakReference> activeEngineResources = new HashMap<>();
+    final ConcurrentMap<Key, ResourceWeakReference> activeEngineResources =
+            new ConcurrentHashMap<>();
 
 
     //引用队列与ResourceWeakReference配合监听GC回收
     private final ReferenceQueue<EngineResource<?>> resourceReferenceQueue = new ReferenceQueue<>();
 
-    private ResourceListener listener;
+    private final AtomicLong activations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+
+    private volatile ResourceListener listener;
 
     private volatile boolean isShutdown;
     @Nullable
@@ -74,11 +95,7 @@ final class ActiveResources {
     }
 
     void setListener(ResourceListener listener) {
-        synchronized (listener) {
-            synchronized (this) {
-                this.listener = listener;
-            }
-        }
+        this.listener = listener;
     }
 
     /**
@@ -87,7 +104,7 @@ final class ActiveResources {
      * @param key
      * @param resource
      */
-    synchronized void activate(Key key, EngineResource<?> resource) {
+    void activate(Key key, EngineResource<?> resource) {
         ResourceWeakReference toPut =
                 new ResourceWeakReference(
                         key, resource, resourceReferenceQueue, isActiveResourceRetentionAllowed);
@@ -96,6 +113,7 @@ final class ActiveResources {
         if (removed != null) {
             removed.reset();
         }
+        activations.incrementAndGet();
     }
 
     /**
@@ -103,7 +121,7 @@ final class ActiveResources {
      *
      * @param key
      */
-    synchronized void deactivate(Key key) {
+    void deactivate(Key key) {
         ResourceWeakReference removed = activeEngineResources.remove(key);
         if (removed != null) {
             removed.reset();
@@ -118,7 +136,7 @@ final class ActiveResources {
      * @return
      */
     @Nullable
-    synchronized EngineResource<?> get(Key key) {
+    EngineResource<?> get(Key key) {
         ResourceWeakReference activeRef = activeEngineResources.get(key);
         if (activeRef == null) {
             return null;
@@ -127,57 +145,103 @@ final class ActiveResources {
         EngineResource<?> active = activeRef.get();
         if (active == null) {
             cleanupActiveReference(activeRef);
+        } else {
+            hits.incrementAndGet();
         }
         return active;
     }
 
-    @SuppressWarnings({"WeakerAccess", "SynchronizeOnNonFinalField"})
+    /**
+     * Returns {@code true} if the given resource is the one currently held for the given key.
+     *
+     * <p>Unlike {@link #get(Key)}, this never cleans up cleared references, so it's safe to call
+     * while holding the lock of an {@link EngineResource}.
+     */
+    boolean isActive(Key key, EngineResource<?> resource) {
+        ResourceWeakReference activeRef = activeEngineResources.get(key);
+        return activeRef != null && activeRef.get() == resource;
+    }
+
+    @SuppressWarnings("WeakerAccess")
     @Synthetic
     void cleanupActiveReference(@NonNull ResourceWeakReference ref) {
-        // Fixes a deadlock where we normally acquire the Engine lock and then the ActiveResources lock
-        // but reverse that order in this one particular test. This is definitely a bit of a hack...
+        ResourceListener listener = this.listener;
         synchronized (listener) {
-            synchronized (this) {
-                //将Reference移除HashMap强引用
-                activeEngineResources.remove(ref.key);
-
-                if (!ref.isCacheable || ref.resource == null) {
-                    return;
-                }
+            cleanupActiveReferenceLocked(listener, ref);
+        }
+    }
 
-                //重新构建新的资源
-                EngineResource<?> newResource = new EngineResource<>(ref.resource,
-                        /*isMemoryCacheable=*/ true,
-                        /*isRecyclable=*/ false,
-                        ref.key,
-                        listener);
+    // The caller must hold the lock of the given listener.
+    private void cleanupActiveReferenceLocked(
+            @NonNull ResourceListener listener, @NonNull ResourceWeakReference ref) {
+        //将Reference移除HashMap强引用
+        // If the reference is no longer the current one for its key, it was deactivated or replaced
+        // and whoever removed it has already reset it.
+        if (!activeEngineResources.remove(ref.key, ref)) {
+            return;
+        }
+        reclaimed.incrementAndGet();
 
-                // 如果资源被回收，有可能会回调Engine资源会被再次加入LruCache内存缓存中
-                listener.onResourceReleased(ref.key, newResource);
-            }
+        if (!ref.isCacheable || ref.resource == null) {
+            return;
         }
+
+        //重新构建新的资源
+        EngineResource<?> newResource = new EngineResource<>(ref.resource,
+                /*isMemoryCacheable=*/ true,
+                /*isRecyclable=*/ false,
+                ref.key,
+                listener);
+
+        // 如果资源被回收，有可能会回调Engine资源会被再次加入LruCache内存缓存中
+        listener.onResourceReleased(ref.key, newResource);
     }
 
     @SuppressWarnings("WeakerAccess")
     @Synthetic
     void cleanReferenceQueue() {
+        List<ResourceWeakReference> batch = new ArrayList<>(MAX_CLEARED_REFERENCES_PER_BATCH);
         while (!isShutdown) {
             try {
                 //remove会阻塞当前线程，知道GC回收，将ResourceWeakReference放入队列
-                ResourceWeakReference ref = (ResourceWeakReference) resourceReferenceQueue.remove();
-                cleanupActiveReference(ref);
+                batch.add((ResourceWeakReference) resourceReferenceQueue.remove());
+                // A single GC typically clears many references at once, so drain whatever else is
+                // already queued and process it all under a single acquisition of the listener lock.
+                ResourceWeakReference next;
+                while (batch.size() < MAX_CLEARED_REFERENCES_PER_BATCH
+                        && (next = (ResourceWeakReference) resourceReferenceQueue.poll()) != null) {
+                    batch.add(next);
+                }
+                cleanupActiveReferences(batch);
 
                 // 这行代码仅仅是测试用的
                 DequeuedResourceCallback current = cb;
                 if (current != null) {
-                    current.onResourceDequeued();
+                    for (int i = 0; i < batch.size(); i++) {
+                        current.onResourceDequeued();
+                    }
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void cleanupActiveReferences(List<ResourceWeakReference> refs) {
+        ResourceListener listener = this.listener;
+        synchronized (listener) {
+            for (int i = 0, size = refs.size(); i < size; i++) {
+                cleanupActiveReferenceLocked(listener, refs.get(i));
             }
         }
     }
 
+    ActiveResourceStats getStats() {
+        return new ActiveResourceStats(activations.get(), hits.get(), reclaimed.get());
+    }
+
     @VisibleForTesting
     void setDequeuedResourceCallback(DequeuedResourceCallback cb) {
         this.cb = cb;
@@ -0,0 +1,46 @@
+package com.bumptech.glide.load.engine;
+
+import com.bumptech.glide.load.Option;
+
+/**
+ * Options related to writing source data to the disk cache.
+ */
+public final class DataCacheOptions {
+
+  /**
+   * If set to {@code true}, remote {@link java.io.InputStream}s that would be written to the disk
+   * cache before they're decoded are instead decoded as they're downloaded while a background
+   * thread copies the downloaded bytes to the disk cache. Defaults to {@code false}.
+   *
+   * <p>The cache entry is only committed if the entire stream is downloaded without errors. If
+   * the decoder stops reading early, the rest of the stream is downloaded into the cache in the
+   * background. Only applies when the registered source {@link com.bumptech.glide.load.Encoder}
+   * for {@link java.io.InputStream}s is the default
+   * {@link com.bumptech.glide.load.model.StreamEncoder}, which writes the data unchanged.
+   *
+   * <p>Requests for
+   * {@link com.bumptech.glide.request.BaseRequestOptions#progressive() progressive} images are
+   * always written behind.
+   */
+  public static final Option<Boolean> WRITE_BEHIND = Option.memory(
+      "com.bumptech.glide.load.engine.DataCacheOptions.WriteBehind", false);
+
+  /**
+   * If set to {@code true}, the bytes a remote {@link java.io.InputStream} had downloaded when its
+   * load was cancelled or failed are kept in the disk cache, and the next load of the same data
+   * downloads only the rest of it. Defaults to {@code false}.
+   *
+   * <p>Only applies when the {@link DiskCacheStrategy} caches remote data and the
+   * {@link com.bumptech.glide.load.data.DataFetcher} implements
+   * {@link com.bumptech.glide.load.data.ResumableFetcher}, like Glide's HTTP fetchers. Every
+   * download is copied into memory until its load finishes, whether or not it's interrupted, so
+   * this is only worth enabling where large downloads are often interrupted. Downloads larger than
+   * a few megabytes aren't resumed.
+   */
+  public static final Option<Boolean> RESUME_PARTIAL_DOWNLOADS = Option.memory(
+      "com.bumptech.glide.load.engine.DataCacheOptions.ResumePartialDownloads", false);
+
+  private DataCacheOptions() {
+    // Utility class.
+  }
+}
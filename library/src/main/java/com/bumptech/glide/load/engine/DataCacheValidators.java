@@ -0,0 +1,138 @@
+package com.bumptech.glide.load.engine;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.util.Synthetic;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+
+/**
+ * The HTTP validators of data in the disk cache, stored in a separate disk cache entry next to the
+ * data so that the data itself can still be read directly from its file.
+ *
+ * @see DiskCacheStrategy#REVALIDATE
+ */
+final class DataCacheValidators implements DiskCache.Writer {
+  private static final String TAG = "DataCacheValidators";
+  // Written in place of missing validators, which can't be written by DataOutputStream#writeUTF.
+  private static final String NONE = "";
+
+  @Nullable final String etag;
+  @Nullable final String lastModified;
+
+  private DataCacheValidators(@Nullable String etag, @Nullable String lastModified) {
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * Returns the validators stored for the data with the given key, or {@code null} if there are
+   * none.
+   */
+  @Nullable
+  static DataCacheValidators get(DiskCache diskCache, DataCacheKey key) {
+    File file = diskCache.get(new ValidatorsKey(key));
+    if (file == null) {
+      return null;
+    }
+    DataInputStream is = null;
+    try {
+      is = new DataInputStream(new FileInputStream(file));
+      String etag = is.readUTF();
+      String lastModified = is.readUTF();
+      return new DataCacheValidators(
+          NONE.equals(etag) ? null : etag, NONE.equals(lastModified) ? null : lastModified);
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to read validators", e);
+      }
+      return null;
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  /**
+   * Replaces the validators stored for the data with the given key, removing them if both of the
+   * given validators are {@code null}.
+   */
+  static void put(DiskCache diskCache, DataCacheKey key, @Nullable String etag,
+      @Nullable String lastModified) {
+    Key validatorsKey = new ValidatorsKey(key);
+    // Existing entries are never overwritten.
+    diskCache.delete(validatorsKey);
+    if (etag != null || lastModified != null) {
+      diskCache.put(validatorsKey, new DataCacheValidators(etag, lastModified));
+    }
+  }
+
+  @Override
+  public boolean write(@NonNull File file) {
+    DataOutputStream os = null;
+    try {
+      os = new DataOutputStream(new FileOutputStream(file));
+      os.writeUTF(etag != null ? etag : NONE);
+      os.writeUTF(lastModified != null ? lastModified : NONE);
+      return true;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to write validators", e);
+      }
+      return false;
+    } finally {
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  /** A cache key for the validators of the data for a {@link DataCacheKey}. */
+  private static final class ValidatorsKey implements Key {
+    private static final byte[] VALIDATORS_BYTES = "validators".getBytes(CHARSET);
+
+    private final DataCacheKey dataCacheKey;
+
+    @Synthetic
+    ValidatorsKey(DataCacheKey dataCacheKey) {
+      this.dataCacheKey = dataCacheKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (o instanceof ValidatorsKey) {
+        ValidatorsKey other = (ValidatorsKey) o;
+        return dataCacheKey.equals(other.dataCacheKey);
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * dataCacheKey.hashCode() + 2;
+    }
+
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      dataCacheKey.updateDiskCacheKey(messageDigest);
+      messageDigest.update(VALIDATORS_BYTES);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Executor;
 
 final class DecodeHelper<Transcode> {
 
@@ -27,6 +28,8 @@ final class DecodeHelper<Transcode> {
 
     private final List<Key> cacheKeys = new ArrayList<>();
 
+    private final Executor writeBehindExecutor;
+
     private GlideContext glideContext;
     private Object model;
     private int width;
@@ -39,11 +42,15 @@ final class DecodeHelper<Transcode> {
     private boolean isLoadDataSet;
     private boolean isCacheKeysSet;
     private Key signature;
-    private Priority priority;
+    private volatile Priority priority;
     private DiskCacheStrategy diskCacheStrategy;
     private boolean isTransformationRequired;
     private boolean isScaleOnlyOrNoTransform;
 
+    DecodeHelper(Executor writeBehindExecutor) {
+        this.writeBehindExecutor = writeBehindExecutor;
+    }
+
     @SuppressWarnings("unchecked")
     <R> void init(
             GlideContext glideContext,
@@ -99,6 +106,17 @@ final class DecodeHelper<Transcode> {
         return diskCacheProvider.getDiskCache();
     }
 
+    DiskCacheProvider getDiskCacheProvider() {
+        return diskCacheProvider;
+    }
+
+    /**
+     * Returns the executor used to write source data to the disk cache while it's being decoded.
+     */
+    Executor getWriteBehindExecutor() {
+        return writeBehindExecutor;
+    }
+
     DiskCacheStrategy getDiskCacheStrategy() {
         return diskCacheStrategy;
     }
@@ -107,6 +125,10 @@ final class DecodeHelper<Transcode> {
         return priority;
     }
 
+    void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
     Options getOptions() {
         return options;
     }
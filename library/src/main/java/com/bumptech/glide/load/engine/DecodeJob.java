@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine;
 
+import android.graphics.Bitmap;
 import android.os.Build;
 import android.support.annotation.NonNull;
 import android.support.v4.util.Pools;
@@ -17,7 +18,9 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.DataRewinder;
 import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
+import com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder;
 import com.bumptech.glide.util.LogTime;
 import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.pool.FactoryPools.Poolable;
@@ -27,6 +30,7 @@ import com.bumptech.glide.util.pool.StateVerifier;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * 负责从缓存数据或原始源解码资源并应用转换和转码的类。
@@ -40,12 +44,12 @@ import java.util.Map;
  * @param <R> The type of resource that will be transcoded from the decoded and transformed
  *            resource.
  */
-class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnable,
-        Comparable<DecodeJob<?>>, Poolable {
+class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback,
+        GlideExecutor.PrioritizedTask, Comparable<DecodeJob<?>>, Poolable {
     private static final String TAG = "DecodeJob";
 
     // 从Glide注册的register中获取请求model 的加载器
-    private final DecodeHelper<R> decodeHelper = new DecodeHelper<>();
+    private final DecodeHelper<R> decodeHelper;
 
     private final List<Throwable> throwables = new ArrayList<>();
     private final StateVerifier stateVerifier = StateVerifier.newInstance();
@@ -56,7 +60,9 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
 
     private GlideContext glideContext;
     private Key signature;
-    private Priority priority;
+    // Changed by GlideExecutor while the job isn't queued, read by the executor's queue.
+    private volatile Priority priority;
+    private volatile boolean isDemoted;
     private EngineKey loadKey;
     private int width;
     private int height;
@@ -81,9 +87,11 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
     private volatile boolean isCallbackNotified;
     private volatile boolean isCancelled;
 
-    DecodeJob(DiskCacheProvider diskCacheProvider, Pools.Pool<DecodeJob<?>> pool) {
+    DecodeJob(DiskCacheProvider diskCacheProvider, Executor writeBehindExecutor,
+              Pools.Pool<DecodeJob<?>> pool) {
         this.diskCacheProvider = diskCacheProvider;
         this.pool = pool;
+        decodeHelper = new DecodeHelper<>(writeBehindExecutor);
     }
 
     DecodeJob<R> init(
@@ -188,6 +196,7 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
         signature = null;
         options = null;
         priority = null;
+        isDemoted = false;
         loadKey = null;
         callback = null;
         stage = null;
@@ -206,15 +215,36 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
 
     @Override
     public int compareTo(@NonNull DecodeJob<?> other) {
-        int result = getPriority() - other.getPriority();
+        if (isDemoted != other.isDemoted) {
+            return isDemoted ? 1 : -1;
+        }
+        int result = priority.ordinal() - other.priority.ordinal();
         if (result == 0) {
             result = order - other.order;
         }
         return result;
     }
 
-    private int getPriority() {
-        return priority.ordinal();
+    @NonNull
+    @Override
+    public Priority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public void setPriority(@NonNull Priority priority) {
+        this.priority = priority;
+        decodeHelper.setPriority(priority);
+    }
+
+    @Override
+    public boolean isDemoted() {
+        return isDemoted;
+    }
+
+    @Override
+    public void setDemoted(boolean isDemoted) {
+        this.isDemoted = isDemoted;
     }
 
     public void cancel() {
@@ -348,8 +378,10 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
                 return diskCacheStrategy.decodeCachedResource()
                         ? Stage.RESOURCE_CACHE : getNextStage(Stage.RESOURCE_CACHE);
             case RESOURCE_CACHE:
-                return diskCacheStrategy.decodeCachedData()
-                        ? Stage.DATA_CACHE : getNextStage(Stage.DATA_CACHE);
+                // Cached data can't be revalidated without loading from source.
+                boolean decodeCachedData = diskCacheStrategy.decodeCachedData()
+                        || (onlyRetrieveFromCache && diskCacheStrategy.revalidateCachedData());
+                return decodeCachedData ? Stage.DATA_CACHE : getNextStage(Stage.DATA_CACHE);
             case DATA_CACHE:
                 // Skip loading from source if the user opted to only retrieve the resource from cache.
                 return onlyRetrieveFromCache ? Stage.FINISHED : Stage.SOURCE;
@@ -508,9 +540,34 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
         return options;
     }
 
+    @NonNull
+    private Options getOptionsWithPassListener(Options options, DataSource dataSource) {
+        // Only data that's still being downloaded arrives slowly enough for passes to be useful, and
+        // passes aren't transformed so they'd look different from the final image.
+        if (dataSource != DataSource.REMOTE
+                || !options.get(ProgressiveBitmapDecoder.PROGRESSIVE)
+                || !decodeHelper.isScaleOnlyOrNoTransform()) {
+            return options;
+        }
+        Options result = new Options();
+        result.putAll(options);
+        result.set(ProgressiveBitmapDecoder.PASS_LISTENER, new PassCallback());
+        return result;
+    }
+
+    @Synthetic
+    void onPassReady(Resource<Bitmap> pass, int passIndex) {
+        if (isCancelled) {
+            pass.recycle();
+        } else {
+            callback.onPassReady(pass, passIndex);
+        }
+    }
+
     private <Data, ResourceType> Resource<R> runLoadPath(Data data, DataSource dataSource,
                                                          LoadPath<Data, ResourceType, R> path) throws GlideException {
-        Options options = getOptionsWithHardwareConfig(dataSource);
+        Options options =
+                getOptionsWithPassListener(getOptionsWithHardwareConfig(dataSource), dataSource);
         DataRewinder<Data> rewinder = glideContext.getRegistry().getRewinder(data);
         try {
             // ResourceType in DecodeCallback below is required for compilation to work with gradle.
@@ -634,6 +691,17 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
         }
     }
 
+    private final class PassCallback implements ProgressiveBitmapDecoder.PassListener {
+
+        @Synthetic
+        PassCallback() { }
+
+        @Override
+        public void onPassReady(@NonNull Resource<Bitmap> pass, int passIndex) {
+            DecodeJob.this.onPassReady(pass, passIndex);
+        }
+    }
+
     /**
      * Responsible for indicating when it is safe for the job to be cleared and returned to the pool.
      */
@@ -720,6 +788,12 @@ class DecodeJob<R> implements DataFetcherGenerator.FetcherReadyCallback, Runnabl
 
         void onLoadFailed(GlideException e);
 
+        /**
+         * Called on the decoding thread with each lower quality version of a progressive image,
+         * which the callback must recycle.
+         */
+        void onPassReady(Resource<Bitmap> pass, int passIndex);
+
         void reschedule(DecodeJob<?> job);
     }
 
@@ -158,6 +158,46 @@ public abstract class DiskCacheStrategy {
     }
   };
 
+  /**
+   * Writes remote data to the disk cache like {@link #DATA}, but only uses cached data after
+   * checking with the server that it hasn't changed.
+   *
+   * <p>Cached data is revalidated with the validators, like {@code ETag}s, stored with it. If the
+   * data hasn't changed, it's loaded from the disk cache rather than downloaded again. Requires a
+   * {@link com.bumptech.glide.load.data.DataFetcher} that implements
+   * {@link com.bumptech.glide.load.data.ConditionalFetcher}, like Glide's HTTP fetchers, otherwise
+   * the data is always downloaded. Requests that
+   * {@link com.bumptech.glide.request.BaseRequestOptions#onlyRetrieveFromCache(boolean) only
+   * retrieve from cache} use the cached data without revalidating it.
+   */
+  public static final DiskCacheStrategy REVALIDATE = new DiskCacheStrategy() {
+    @Override
+    public boolean isDataCacheable(DataSource dataSource) {
+      return dataSource == DataSource.REMOTE;
+    }
+
+    @Override
+    public boolean isResourceCacheable(boolean isFromAlternateCacheKey, DataSource dataSource,
+        EncodeStrategy encodeStrategy) {
+      return false;
+    }
+
+    @Override
+    public boolean decodeCachedResource() {
+      return false;
+    }
+
+    @Override
+    public boolean decodeCachedData() {
+      return false;
+    }
+
+    @Override
+    public boolean revalidateCachedData() {
+      return true;
+    }
+  };
+
   /**
    * Returns true if this request should cache the original unmodified data.
    *
@@ -187,4 +227,12 @@ public abstract class DiskCacheStrategy {
    * Returns true if this request should attempt to decode cached source data.
    */
   public abstract boolean decodeCachedData();
+
+  /**
+   * Returns true if this request should check that cached source data is still current before
+   * decoding it, rather than decoding it directly.
+   */
+  public boolean revalidateCachedData() {
+    return false;
+  }
 }
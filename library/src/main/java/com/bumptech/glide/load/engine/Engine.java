@@ -115,7 +115,9 @@ public class Engine implements EngineJobListener,
         this.engineJobFactory = engineJobFactory;
 
         if (decodeJobFactory == null) {
-            decodeJobFactory = new DecodeJobFactory(diskCacheProvider);
+            // Write behind tasks block on the network, so they shouldn't take threads from the
+            // bounded executors.
+            decodeJobFactory = new DecodeJobFactory(diskCacheProvider, sourceUnlimitedExecutor);
         }
         this.decodeJobFactory = decodeJobFactory;
 
@@ -162,25 +164,25 @@ public class Engine implements EngineJobListener,
      * @param height The target height in pixels of the desired resource.
      * @param cb     The callback that will be called when the load completes.
      */
-    public synchronized <R> LoadStatus load(GlideContext glideContext,
-                                            Object model,
-                                            Key signature,
-                                            int width,
-                                            int height,
-                                            Class<?> resourceClass,
-                                            Class<R> transcodeClass,
-                                            Priority priority,
-                                            DiskCacheStrategy diskCacheStrategy,
-                                            Map<Class<?>, Transformation<?>> transformations,
-                                            boolean isTransformationRequired,
-                                            boolean isScaleOnlyOrNoTransform,
-                                            Options options,
-                                            boolean isMemoryCacheable,
-                                            boolean useUnlimitedSourceExecutorPool,
-                                            boolean useAnimationPool,
-                                            boolean onlyRetrieveFromCache,
-                                            ResourceCallback cb,
-                                            Executor callbackExecutor) {
+    public <R> LoadStatus load(GlideContext glideContext,
+                               Object model,
+                               Key signature,
+                               int width,
+                               int height,
+                               Class<?> resourceClass,
+                               Class<R> transcodeClass,
+                               Priority priority,
+                               DiskCacheStrategy diskCacheStrategy,
+                               Map<Class<?>, Transformation<?>> transformations,
+                               boolean isTransformationRequired,
+                               boolean isScaleOnlyOrNoTransform,
+                               Options options,
+                               boolean isMemoryCacheable,
+                               boolean useUnlimitedSourceExecutorPool,
+                               boolean useAnimationPool,
+                               boolean onlyRetrieveFromCache,
+                               ResourceCallback cb,
+                               Executor callbackExecutor) {
 
 
         // -------------开始检测缓存----------------
@@ -202,12 +204,66 @@ public class Engine implements EngineJobListener,
         }
 
 
-        //检查当前正在进行的加载集合，并将cb添加到正在进行的加载（如果存在）。
-        EngineJob<?> current = jobs.get(key, onlyRetrieveFromCache);
-        if (current != null) {
-            current.addCallback(cb, callbackExecutor);
-            return new LoadStatus(cb, current);
+        // Only checking for an in progress load and starting a new one has to be atomic, so we take
+        // the lock for this key here rather than holding an Engine wide lock for the lookups above.
+        synchronized (jobs.getLock(key)) {
+            // A job for this key may have completed between our lookup above and acquiring the lock.
+            active = loadFromActiveResources(key, isMemoryCacheable);
+            if (active != null) {
+                cb.onResourceReady(active, DataSource.MEMORY_CACHE);
+                return null;
+            }
+
+            //检查当前正在进行的加载集合，并将cb添加到正在进行的加载（如果存在）。
+            EngineJob<?> current = jobs.get(key, onlyRetrieveFromCache);
+            if (current != null) {
+                current.addCallback(cb, callbackExecutor);
+                return new LoadStatus(cb, current, jobs.getLock(key));
+            }
+
+            return startNewLoad(glideContext,
+                    model,
+                    key,
+                    signature,
+                    width,
+                    height,
+                    resourceClass,
+                    transcodeClass,
+                    priority,
+                    diskCacheStrategy,
+                    transformations,
+                    isTransformationRequired,
+                    isScaleOnlyOrNoTransform,
+                    options,
+                    isMemoryCacheable,
+                    useUnlimitedSourceExecutorPool,
+                    useAnimationPool,
+                    onlyRetrieveFromCache,
+                    cb,
+                    callbackExecutor);
         }
+    }
+
+    private <R> LoadStatus startNewLoad(GlideContext glideContext,
+                                        Object model,
+                                        EngineKey key,
+                                        Key signature,
+                                        int width,
+                                        int height,
+                                        Class<?> resourceClass,
+                                        Class<R> transcodeClass,
+                                        Priority priority,
+                                        DiskCacheStrategy diskCacheStrategy,
+                                        Map<Class<?>, Transformation<?>> transformations,
+                                        boolean isTransformationRequired,
+                                        boolean isScaleOnlyOrNoTransform,
+                                        Options options,
+                                        boolean isMemoryCacheable,
+                                        boolean useUnlimitedSourceExecutorPool,
+                                        boolean useAnimationPool,
+                                        boolean onlyRetrieveFromCache,
+                                        ResourceCallback cb,
+                                        Executor callbackExecutor) {
 
 
         // ----------------开始新的加载----------------
@@ -241,7 +297,7 @@ public class Engine implements EngineJobListener,
         engineJob.addCallback(cb, callbackExecutor);
         engineJob.start(decodeJob);
 
-        return new LoadStatus(cb, engineJob);
+        return new LoadStatus(cb, engineJob, jobs.getLock(key));
     }
 
     @Nullable
@@ -252,7 +308,17 @@ public class Engine implements EngineJobListener,
         }
 
         EngineResource<?> active = activeResources.get(key);
-        if (active != null) {
+        if (active == null) {
+            return null;
+        }
+
+        // We don't hold the Engine lock here, so the resource may be released concurrently. Releasing
+        // the last acquire deactivates the resource while holding the resource's lock, so if it's
+        // still active while we hold that lock, it's safe to acquire.
+        synchronized (active) {
+            if (!activeResources.isActive(key, active)) {
+                return null;
+            }
             active.acquire();
         }
         return active;
@@ -334,20 +400,24 @@ public class Engine implements EngineJobListener,
      */
     @SuppressWarnings("unchecked")
     @Override
-    public synchronized void onEngineJobComplete(
+    public void onEngineJobComplete(
             EngineJob<?> engineJob, Key key, EngineResource<?> resource) {
-        // A null resource indicates that the load failed, usually due to an exception.
-        if (resource != null && resource.isMemoryCacheable()) {
-            //当资源加载成功，将资源加入正在使用中，如：LruCache、disLruCache和网络
-            activeResources.activate(key, resource);
-        }
+        synchronized (jobs.getLock(key)) {
+            // A null resource indicates that the load failed, usually due to an exception.
+            if (resource != null && resource.isMemoryCacheable()) {
+                //当资源加载成功，将资源加入正在使用中，如：LruCache、disLruCache和网络
+                activeResources.activate(key, resource);
+            }
 
-        jobs.removeIfCurrent(key, engineJob);
+            jobs.removeIfCurrent(key, engineJob);
+        }
     }
 
     @Override
-    public synchronized void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
-        jobs.removeIfCurrent(key, engineJob);
+    public void onEngineJobCancelled(EngineJob<?> engineJob, Key key) {
+        synchronized (jobs.getLock(key)) {
+            jobs.removeIfCurrent(key, engineJob);
+        }
     }
 
     @Override
@@ -377,6 +447,12 @@ public class Engine implements EngineJobListener,
         diskCacheProvider.getDiskCache().clear();
     }
 
+    /** Returns a snapshot of the counters kept for resources that are in use. */
+    @NonNull
+    public ActiveResourceStats getActiveResourceStats() {
+        return activeResources.getStats();
+    }
+
     @VisibleForTesting
     public void shutdown() {
         engineJobFactory.shutdown();
@@ -392,21 +468,33 @@ public class Engine implements EngineJobListener,
     public class LoadStatus {
         private final EngineJob<?> engineJob;
         private final ResourceCallback cb;
+        private final Object jobLock;
 
-        LoadStatus(ResourceCallback cb, EngineJob<?> engineJob) {
+        LoadStatus(ResourceCallback cb, EngineJob<?> engineJob, Object jobLock) {
             this.cb = cb;
             this.engineJob = engineJob;
+            this.jobLock = jobLock;
         }
 
         public void cancel() {
-            // Acquire the Engine lock so that a new request can't get access to a particular EngineJob
-            // just after the EngineJob has been cancelled. Without this lock, we'd allow new requests
-            // to find the cancelling EngineJob in our Jobs data structure. With this lock, the EngineJob
-            // is both cancelled and removed from Jobs atomically.
-            synchronized (Engine.this) {
+            // Acquire the lock for this job's key so that a new request can't get access to a
+            // particular EngineJob just after the EngineJob has been cancelled. Without this lock, we'd
+            // allow new requests to find the cancelling EngineJob in our Jobs data structure. With this
+            // lock, the EngineJob is both cancelled and removed from Jobs atomically.
+            synchronized (jobLock) {
                 engineJob.removeCallback(cb);
             }
         }
+
+        /**
+         * Re-sorts the load among other waiting loads. If the load is shared with other requests,
+         * the most recent priority wins.
+         */
+        public void setPriority(Priority priority) {
+            synchronized (jobLock) {
+                engineJob.setPriority(cb, priority);
+            }
+        }
     }
 
     private static class LazyDiskCacheProvider implements DecodeJob.DiskCacheProvider {
@@ -447,18 +535,22 @@ public class Engine implements EngineJobListener,
         @Synthetic
         final DecodeJob.DiskCacheProvider diskCacheProvider;
         @Synthetic
+        final Executor writeBehindExecutor;
+        @Synthetic
         final Pools.Pool<DecodeJob<?>> pool =
                 FactoryPools.threadSafe(JOB_POOL_SIZE,
                         new FactoryPools.Factory<DecodeJob<?>>() {
                             @Override
                             public DecodeJob<?> create() {
-                                return new DecodeJob<>(diskCacheProvider, pool);
+                                return new DecodeJob<>(diskCacheProvider, writeBehindExecutor, pool);
                             }
                         });
         private int creationOrder;
 
-        DecodeJobFactory(DecodeJob.DiskCacheProvider diskCacheProvider) {
+        DecodeJobFactory(DecodeJob.DiskCacheProvider diskCacheProvider,
+                         Executor writeBehindExecutor) {
             this.diskCacheProvider = diskCacheProvider;
+            this.writeBehindExecutor = writeBehindExecutor;
         }
 
         @SuppressWarnings("unchecked")
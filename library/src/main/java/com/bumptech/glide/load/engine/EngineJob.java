@@ -1,13 +1,16 @@
 package com.bumptech.glide.load.engine;
 
+import android.graphics.Bitmap;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 import android.support.v4.util.Pools;
 
+import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.request.ProgressiveResourceCallback;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.Executors;
 import com.bumptech.glide.util.Preconditions;
@@ -181,6 +184,22 @@ class EngineJob<R> implements DecodeJob.Callback<R>,
         }
     }
 
+    @SuppressWarnings("WeakerAccess")
+    @Synthetic
+    synchronized void callCallbackOnPassReady(
+            ProgressiveResourceCallback cb, ProgressivePass pass, Key passKey) {
+        // The job may have finished or been re-used for a different load.
+        if (isDone() || !passKey.equals(key) || !cbs.contains(cb)) {
+            pass.release();
+            return;
+        }
+        try {
+            cb.onPassReady(pass);
+        } catch (Throwable t) {
+            throw new CallbackException(t);
+        }
+    }
+
     synchronized void removeCallback(ResourceCallback cb) {
         stateVerifier.throwIfRecycled();
         cbs.remove(cb);
@@ -193,6 +212,25 @@ class EngineJob<R> implements DecodeJob.Callback<R>,
         }
     }
 
+    /**
+     * Moves the job within its executor's queue if it's still waiting to run. A job that is already
+     * running keeps the new priority for the rest of its loads, including any reschedules.
+     */
+    synchronized void setPriority(ResourceCallback cb, Priority priority) {
+        // The job may have finished and been re-used for a different load.
+        if (isDone() || !cbs.contains(cb)) {
+            return;
+        }
+        // Queued jobs are removed and queued again with their new priority, because changing the
+        // priority of a job inside a priority queue breaks the queue's ordering. Jobs are only
+        // queued while holding this lock, so a job that isn't in either queue here is running and
+        // can't be queued again until its priority has been changed.
+        if (!diskCacheExecutor.setPriority(decodeJob, priority)
+                && !getActiveSourceExecutor().setPriority(decodeJob, priority)) {
+            decodeJob.setPriority(priority);
+        }
+    }
+
     boolean onlyRetrieveFromCache() {
         return onlyRetrieveFromCache;
     }
@@ -326,10 +364,44 @@ class EngineJob<R> implements DecodeJob.Callback<R>,
         notifyCallbacksOfException();
     }
 
+    // Passes are only given to callbacks that are registered when the pass is ready, which saves
+    // holding on to them for callbacks added later for the few milliseconds until the next pass.
+    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
+    @Override
+    public void onPassReady(Resource<Bitmap> pass, int passIndex) {
+        List<ResourceCallbackAndExecutor> recipients;
+        Key localKey;
+        synchronized (this) {
+            if (isDone()) {
+                recipients = null;
+            } else {
+                recipients = new ArrayList<>(cbs.size());
+                for (ResourceCallbackAndExecutor entry : cbs) {
+                    if (entry.cb instanceof ProgressiveResourceCallback) {
+                        recipients.add(entry);
+                    }
+                }
+            }
+            localKey = key;
+        }
+        if (recipients == null || recipients.isEmpty()) {
+            pass.recycle();
+            return;
+        }
+
+        ProgressivePass progressivePass = new ProgressivePass(pass, passIndex, recipients.size());
+        for (ResourceCallbackAndExecutor entry : recipients) {
+            entry.executor.execute(
+                    new CallPassReady(
+                            (ProgressiveResourceCallback) entry.cb, progressivePass, localKey));
+        }
+    }
+
     @Override
-    public void reschedule(DecodeJob<?> job) {
+    public synchronized void reschedule(DecodeJob<?> job) {
         // Even if the job is cancelled here, it still needs to be scheduled so that it can clean itself
-        // up.
+        // up. Queueing while holding the lock keeps setPriority from changing the priority of a job
+        // that's being added to a queue.
         getActiveSourceExecutor().execute(job);
     }
 
@@ -418,6 +490,24 @@ class EngineJob<R> implements DecodeJob.Callback<R>,
         }
     }
 
+    private class CallPassReady implements Runnable {
+
+        private final ProgressiveResourceCallback cb;
+        private final ProgressivePass pass;
+        private final Key key;
+
+        CallPassReady(ProgressiveResourceCallback cb, ProgressivePass pass, Key key) {
+            this.cb = cb;
+            this.pass = pass;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            callCallbackOnPassReady(cb, pass, key);
+        }
+    }
+
     static final class ResourceCallbacksAndExecutors
             implements Iterable<ResourceCallbackAndExecutor> {
         private final List<ResourceCallbackAndExecutor> callbacksAndExecutors;
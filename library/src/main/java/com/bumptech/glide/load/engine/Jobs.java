@@ -3,18 +3,41 @@ package com.bumptech.glide.load.engine;
 import android.support.annotation.VisibleForTesting;
 import com.bumptech.glide.load.Key;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 final class Jobs {
-  private final Map<Key, EngineJob<?>> jobs = new HashMap<>();
-  private final Map<Key, EngineJob<?>> onlyCacheJobs = new HashMap<>();
+  // Must be a power of two.
+  private static final int LOCK_STRIPES = 16;
+
+  private final Map<Key, EngineJob<?>> jobs = new ConcurrentHashMap<>();
+  private final Map<Key, EngineJob<?>> onlyCacheJobs = new ConcurrentHashMap<>();
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  Jobs() {
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
 
   @VisibleForTesting
   Map<Key, EngineJob<?>> getAll() {
     return Collections.unmodifiableMap(jobs);
   }
 
+  /**
+   * Returns the lock that must be held while looking up, adding or removing the job for the given
+   * key so that checking for an existing job and starting a new one is atomic.
+   *
+   * <p>Keys are striped across a small fixed set of locks so that loads for unrelated keys don't
+   * contend with each other.
+   */
+  Object getLock(Key key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return locks[hash & (LOCK_STRIPES - 1)];
+  }
+
   EngineJob<?> get(Key key, boolean onlyRetrieveFromCache) {
     return getJobMap(onlyRetrieveFromCache).get(key);
   }
@@ -0,0 +1,45 @@
+package com.bumptech.glide.load.engine;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import java.security.MessageDigest;
+
+/**
+ * A cache key for the partially downloaded source data for a {@link DataCacheKey}.
+ */
+final class PartialDataCacheKey implements Key {
+  private static final byte[] PARTIAL_BYTES = "partial".getBytes(CHARSET);
+
+  private final DataCacheKey dataCacheKey;
+
+  PartialDataCacheKey(DataCacheKey dataCacheKey) {
+    this.dataCacheKey = dataCacheKey;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof PartialDataCacheKey) {
+      PartialDataCacheKey other = (PartialDataCacheKey) o;
+      return dataCacheKey.equals(other.dataCacheKey);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * dataCacheKey.hashCode() + 1;
+  }
+
+  @Override
+  public String toString() {
+    return "PartialDataCacheKey{"
+        + "dataCacheKey=" + dataCacheKey
+        + '}';
+  }
+
+  @Override
+  public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+    dataCacheKey.updateDiskCacheKey(messageDigest);
+    messageDigest.update(PARTIAL_BYTES);
+  }
+}
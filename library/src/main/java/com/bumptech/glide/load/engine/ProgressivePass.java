@@ -0,0 +1,45 @@
+package com.bumptech.glide.load.engine;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.util.Preconditions;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lower quality version of an image that's still being loaded, shared between each of the
+ * requests waiting for the image.
+ *
+ * <p>Each request that receives a pass must call {@link #release()} once it's no longer displaying
+ * the pass. The pass's {@link Bitmap} is returned to the pool once every request has released it.
+ */
+public final class ProgressivePass {
+  private final Resource<Bitmap> resource;
+  private final int passIndex;
+  private final AtomicInteger references;
+
+  ProgressivePass(Resource<Bitmap> resource, int passIndex, int references) {
+    this.resource = resource;
+    this.passIndex = passIndex;
+    this.references = new AtomicInteger(references);
+  }
+
+  /** Returns the pass's {@link Bitmap}, which must not be modified or recycled. */
+  @NonNull
+  public Bitmap getBitmap() {
+    return resource.get();
+  }
+
+  /** Returns the zero based index of the pass, which increases for each pass of a load. */
+  public int getPassIndex() {
+    return passIndex;
+  }
+
+  /** Releases a single reference to the pass. */
+  public void release() {
+    int remaining = references.decrementAndGet();
+    Preconditions.checkArgument(remaining >= 0, "Released a pass too many times");
+    if (remaining == 0) {
+      resource.recycle();
+    }
+  }
+}
@@ -0,0 +1,353 @@
+package com.bumptech.glide.load.engine;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.ResumableFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.util.Synthetic;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumes a remote load from the bytes an earlier, interrupted load of the same data left in the
+ * disk cache, and leaves the bytes it downloaded in the disk cache if it's interrupted in turn.
+ *
+ * <p>Partial downloads are stored under a {@link PartialDataCacheKey} as a short header holding the
+ * validator reported by the {@link ResumableFetcher}, followed by the bytes. If the fetcher resumes
+ * from the end of those bytes, the stored bytes and the rest of the data are returned as a single
+ * stream. Bytes read from the stream are kept in memory, up to {@link #MAX_RECORDED_BYTES}, until
+ * {@link #cleanup()}. The partial entry is removed once the stream has been read to the end.
+ *
+ * @see DataCacheOptions#RESUME_PARTIAL_DOWNLOADS
+ */
+final class ResumingDataFetcher
+    implements DataFetcher<InputStream>, DataFetcher.DataCallback<InputStream> {
+  private static final String TAG = "ResumingFetcher";
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  // "GPDL", identifies a partial download header.
+  private static final int MAGIC = 0x4750444C;
+  private static final int MAX_VALIDATOR_LENGTH = 1024;
+  @VisibleForTesting
+  static final int MAX_RECORDED_BYTES = 8 * 1024 * 1024;
+
+  private final DataFetcher<InputStream> fetcher;
+  private final ResumableFetcher resumableFetcher;
+  private final DiskCache diskCache;
+  private final Key partialKey;
+  @Synthetic final ArrayPool arrayPool;
+
+  private DataCallback<? super InputStream> callback;
+  @Nullable @Synthetic Partial partial;
+  @Nullable private RecordingInputStream stream;
+
+  /**
+   * @param fetcher A {@link DataFetcher} for remote data that implements {@link ResumableFetcher}.
+   */
+  ResumingDataFetcher(DataFetcher<InputStream> fetcher, DiskCache diskCache, DataCacheKey key,
+      ArrayPool arrayPool) {
+    this.fetcher = fetcher;
+    this.resumableFetcher = (ResumableFetcher) fetcher;
+    this.diskCache = diskCache;
+    this.partialKey = new PartialDataCacheKey(key);
+    this.arrayPool = arrayPool;
+  }
+
+  @Override
+  public void loadData(@NonNull Priority priority,
+      @NonNull DataCallback<? super InputStream> callback) {
+    this.callback = callback;
+    partial = readPartial();
+    if (partial != null) {
+      resumableFetcher.resumeFrom(partial.length, partial.validator);
+    }
+    fetcher.loadData(priority, this);
+  }
+
+  @Nullable
+  private Partial readPartial() {
+    File file = diskCache.get(partialKey);
+    if (file == null) {
+      return null;
+    }
+    DataInputStream is = null;
+    try {
+      is = new DataInputStream(new FileInputStream(file));
+      int validatorLength = is.readInt() == MAGIC ? is.readInt() : -1;
+      if (validatorLength > 0 && validatorLength <= MAX_VALIDATOR_LENGTH) {
+        byte[] validator = new byte[validatorLength];
+        is.readFully(validator);
+        int headerLength = 2 * (Integer.SIZE / Byte.SIZE) + validatorLength;
+        long length = file.length() - headerLength;
+        if (length > 0) {
+          return new Partial(file, headerLength, length, new String(validator, UTF_8));
+        }
+      }
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to read partial download", e);
+      }
+    } finally {
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+    diskCache.delete(partialKey);
+    return null;
+  }
+
+  @Override
+  public void onDataReady(@Nullable InputStream data) {
+    if (data == null) {
+      callback.onDataReady(null);
+      return;
+    }
+    long resumedOffset = resumableFetcher.getResumedOffset();
+    Partial local = partial;
+    InputStream result = data;
+    if (resumedOffset > 0) {
+      if (local == null || resumedOffset != local.length) {
+        callback.onLoadFailed(
+            new IOException("Fetcher resumed from an unexpected offset: " + resumedOffset));
+        return;
+      }
+      try {
+        result = new SequenceInputStream(local.open(), data);
+      } catch (IOException e) {
+        callback.onLoadFailed(e);
+        return;
+      }
+    }
+    stream = new RecordingInputStream(result, resumableFetcher.getValidator(), resumedOffset);
+    callback.onDataReady(stream);
+  }
+
+  @Override
+  public void onLoadFailed(@NonNull Exception e) {
+    callback.onLoadFailed(e);
+  }
+
+  @Override
+  public void cleanup() {
+    RecordingInputStream local = stream;
+    stream = null;
+    if (local != null) {
+      try {
+        local.close();
+      } catch (IOException e) {
+        // Ignored.
+      }
+    }
+    fetcher.cleanup();
+    if (local != null) {
+      updatePartial(local);
+      local.release();
+    }
+  }
+
+  private void updatePartial(RecordingInputStream recording) {
+    if (recording.isExhausted) {
+      if (partial != null) {
+        diskCache.delete(partialKey);
+      }
+    } else if (recording.canReplacePartial()) {
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(TAG, "Storing partial download of " + recording.size + " bytes for " + partialKey);
+      }
+      // Existing entries are never overwritten.
+      diskCache.delete(partialKey);
+      diskCache.put(partialKey, recording);
+    } else if (partial != null && recording.resumedOffset == 0) {
+      // The data was loaded from the start, so the existing entry is stale.
+      diskCache.delete(partialKey);
+    }
+  }
+
+  @Override
+  public void cancel() {
+    fetcher.cancel();
+  }
+
+  @NonNull
+  @Override
+  public Class<InputStream> getDataClass() {
+    return InputStream.class;
+  }
+
+  @NonNull
+  @Override
+  public DataSource getDataSource() {
+    return fetcher.getDataSource();
+  }
+
+  private static final class Partial {
+    private final File file;
+    private final int headerLength;
+    @Synthetic final long length;
+    @Synthetic final String validator;
+
+    @Synthetic
+    Partial(File file, int headerLength, long length, String validator) {
+      this.file = file;
+      this.headerLength = headerLength;
+      this.length = length;
+      this.validator = validator;
+    }
+
+    InputStream open() throws IOException {
+      InputStream is = new FileInputStream(file);
+      long toSkip = headerLength;
+      while (toSkip > 0) {
+        long skipped = is.skip(toSkip);
+        if (skipped <= 0) {
+          is.close();
+          throw new IOException("Partial download is shorter than its header");
+        }
+        toSkip -= skipped;
+      }
+      return is;
+    }
+  }
+
+  /**
+   * Keeps every byte read from the stream, in pooled arrays, so that they can be written to the
+   * disk cache if the stream isn't read to the end.
+   */
+  private final class RecordingInputStream extends FilterInputStream implements DiskCache.Writer {
+    private final List<byte[]> chunks = new ArrayList<>();
+    private final byte[] singleByte = new byte[1];
+    @Nullable private final byte[] validatorBytes;
+    @Synthetic final long resumedOffset;
+    @Synthetic boolean isExhausted;
+    @Synthetic int size;
+    private boolean isRecording;
+
+    @Synthetic
+    RecordingInputStream(InputStream in, @Nullable String validator, long resumedOffset) {
+      super(in);
+      this.resumedOffset = resumedOffset;
+      validatorBytes = validator != null ? validator.getBytes(UTF_8) : null;
+      isRecording = validatorBytes != null && validatorBytes.length <= MAX_VALIDATOR_LENGTH;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = read(singleByte, 0, 1);
+      return read == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read == -1) {
+        // The partial entry is no longer needed, so neither are the recorded bytes.
+        isExhausted = true;
+        release();
+      } else if (isRecording) {
+        record(buffer, offset, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long byteCount) throws IOException {
+      // Skipped bytes can't be stored, so nothing after them can be either.
+      stopRecording();
+      return super.skip(byteCount);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void record(byte[] buffer, int offset, int length) {
+      if (size + length > MAX_RECORDED_BYTES) {
+        stopRecording();
+        return;
+      }
+      int copied = 0;
+      while (copied < length) {
+        int chunkOffset = size % ArrayPool.STANDARD_BUFFER_SIZE_BYTES;
+        if (chunkOffset == 0) {
+          chunks.add(arrayPool.getExact(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class));
+        }
+        byte[] chunk = chunks.get(chunks.size() - 1);
+        int toCopy = Math.min(length - copied, chunk.length - chunkOffset);
+        System.arraycopy(buffer, offset + copied, chunk, chunkOffset, toCopy);
+        copied += toCopy;
+        size += toCopy;
+      }
+    }
+
+    private void stopRecording() {
+      isRecording = false;
+      release();
+    }
+
+    // Only replace the stored bytes with more bytes.
+    @Synthetic
+    boolean canReplacePartial() {
+      return isRecording && size > 0 && (partial == null || size > partial.length);
+    }
+
+    @Synthetic
+    void release() {
+      for (byte[] chunk : chunks) {
+        arrayPool.put(chunk);
+      }
+      chunks.clear();
+    }
+
+    @Override
+    public boolean write(@NonNull File file) {
+      DataOutputStream os = null;
+      try {
+        os = new DataOutputStream(new FileOutputStream(file));
+        os.writeInt(MAGIC);
+        os.writeInt(validatorBytes.length);
+        os.write(validatorBytes);
+        int remaining = size;
+        for (byte[] chunk : chunks) {
+          int toWrite = Math.min(remaining, chunk.length);
+          os.write(chunk, 0, toWrite);
+          remaining -= toWrite;
+        }
+        return true;
+      } catch (IOException e) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Failed to write partial download", e);
+        }
+        return false;
+      } finally {
+        if (os != null) {
+          try {
+            os.close();
+          } catch (IOException e) {
+            // Ignored.
+          }
+        }
+      }
+    }
+  }
+}
@@ -1,15 +1,25 @@
 package com.bumptech.glide.load.engine;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.Encoder;
+import com.bumptech.glide.load.HttpException;
 import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.ConditionalFetcher;
 import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.HttpRanges;
 import com.bumptech.glide.load.data.HttpUrlFetcher;
+import com.bumptech.glide.load.data.ResumableFetcher;
+import com.bumptech.glide.load.engine.cache.DiskCache;
 import com.bumptech.glide.load.model.ModelLoader;
 import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.StreamEncoder;
+import com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder;
 
+import java.io.InputStream;
 import java.util.Collections;
 
 /**
@@ -19,6 +29,17 @@ import java.util.Collections;
  *
  * <p> Depending on the disk cache strategy, source data may first be written to disk and then
  * loaded from the cache file rather than returned directly. </p>
+ *
+ * <p> If {@link DataCacheOptions#WRITE_BEHIND} or {@link ProgressiveBitmapDecoder#PROGRESSIVE} is
+ * set, remote streams are instead decoded directly while they're written to disk in the background,
+ * see {@link WriteBehindDataFetcher}. </p>
+ *
+ * <p> Remote streams from {@link ResumableFetcher}s are resumed from and saved to partial downloads
+ * in the disk cache, see {@link ResumingDataFetcher}. </p>
+ *
+ * <p> If {@link DiskCacheStrategy#revalidateCachedData()}, the validators reported by
+ * {@link ConditionalFetcher}s are stored with the cached data and used to ask whether the cached
+ * data is current, and the cached data is loaded if it is. </p>
  */
 class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<Object>, DataFetcherGenerator.FetcherReadyCallback {
     private static final String TAG = "SourceGenerator";
@@ -36,6 +57,13 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
     private Object dataToCache;
 
     private DataCacheKey originalKey;
+    private volatile WriteBehindDataFetcher writeBehindFetcher;
+
+    @Nullable
+    private ConditionalFetcher conditionalFetcher;
+    private boolean isRevalidating;
+    private volatile boolean isNotModified;
+    private boolean isLoadingRevalidatedData;
 
     SourceGenerator(DecodeHelper<?> helper, FetcherReadyCallback cb) {
         this.helper = helper;
@@ -50,6 +78,11 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
     @Override
     public boolean startNext() {
 
+        if (isNotModified) {
+            isNotModified = false;
+            loadRevalidatedData();
+        }
+
         // 判断是否有数据需要取缓存
         if (dataToCache != null) {
             Object data = dataToCache;
@@ -73,6 +106,8 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
                     (helper.getDiskCacheStrategy().isDataCacheable(loadData.fetcher.getDataSource())
                             || helper.hasLoadPath(loadData.fetcher.getDataClass()))) {
                 started = true;
+                startRevalidation(loadData);
+                loadData = resumePartialDownload(loadData);
 
                 /**
                  * 从Glide注册的register中获取请求model 的加载器
@@ -89,6 +124,52 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
         return started;
     }
 
+    @SuppressWarnings("unchecked")
+    private LoadData<?> resumePartialDownload(LoadData<?> loadData) {
+        DataFetcher<?> fetcher = loadData.fetcher;
+        if (!(fetcher instanceof ResumableFetcher)
+                || fetcher.getDataClass() != InputStream.class
+                || fetcher.getDataSource() != DataSource.REMOTE
+                || !helper.getDiskCacheStrategy().isDataCacheable(DataSource.REMOTE)
+                || !helper.getOptions().get(DataCacheOptions.RESUME_PARTIAL_DOWNLOADS)) {
+            return loadData;
+        }
+        DataCacheKey key = new DataCacheKey(loadData.sourceKey, helper.getSignature());
+        ResumingDataFetcher resumingFetcher = new ResumingDataFetcher(
+                (DataFetcher<InputStream>) fetcher, helper.getDiskCache(), key,
+                helper.getArrayPool());
+        return new LoadData<>(loadData.sourceKey, loadData.alternateKeys, resumingFetcher);
+    }
+
+    /**
+     * Passes the validators of the cached data to the fetcher if the cached data should be
+     * revalidated rather than downloaded again.
+     */
+    private void startRevalidation(LoadData<?> loadData) {
+        DataFetcher<?> fetcher = loadData.fetcher;
+        conditionalFetcher =
+                fetcher instanceof ConditionalFetcher ? (ConditionalFetcher) fetcher : null;
+        isRevalidating = false;
+        if (conditionalFetcher == null || !helper.getDiskCacheStrategy().revalidateCachedData()) {
+            return;
+        }
+        DataCacheKey key = new DataCacheKey(loadData.sourceKey, helper.getSignature());
+        DiskCache diskCache = helper.getDiskCache();
+        DataCacheValidators validators = DataCacheValidators.get(diskCache, key);
+        if (validators != null && diskCache.get(key) != null) {
+            conditionalFetcher.setCachedValidators(validators.etag, validators.lastModified);
+            isRevalidating = true;
+        }
+    }
+
+    // The server confirmed the cached data is current.
+    private void loadRevalidatedData() {
+        loadData.fetcher.cleanup();
+        isLoadingRevalidatedData = true;
+        sourceCacheGenerator =
+                new DataCacheGenerator(Collections.singletonList(loadData.sourceKey), helper, this);
+    }
+
     private boolean hasNextModelLoader() {
         return loadDataListIndex < helper.getLoadData().size();
     }
@@ -110,6 +191,7 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
             DataCacheWriter<Object> writer = new DataCacheWriter<>(encoder, dataToCache, helper.getOptions());
             // 缓存Key
             originalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
+            replaceCachedData(originalKey);
             helper.getDiskCache().put(originalKey, writer);
         } finally {
             /**
@@ -125,8 +207,61 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
         sourceCacheGenerator = new DataCacheGenerator(Collections.singletonList(loadData.sourceKey), helper, this);
     }
 
+    /**
+     * Removes cached data that's been replaced by newer data from the source, which would otherwise
+     * prevent the new data from being cached, and stores the new data's validators.
+     *
+     * <p>Validators are only read when cached data is revalidated, so they're only stored then.
+     */
+    private void replaceCachedData(DataCacheKey key) {
+        if (!helper.getDiskCacheStrategy().revalidateCachedData()) {
+            return;
+        }
+        DiskCache diskCache = helper.getDiskCache();
+        diskCache.delete(key);
+        ConditionalFetcher local = conditionalFetcher;
+        if (local != null) {
+            DataCacheValidators.put(diskCache, key, local.getETag(), local.getLastModified());
+        }
+    }
+
+    private boolean shouldWriteBehind(Object data) {
+        // Progressive passes are decoded from the stream while it downloads, so they'd never be
+        // shown if the whole stream were written to the disk cache first.
+        Options options = helper.getOptions();
+        if (!(data instanceof InputStream)
+                || loadData.fetcher.getDataSource() != DataSource.REMOTE
+                || (!options.get(DataCacheOptions.WRITE_BEHIND)
+                    && !options.get(ProgressiveBitmapDecoder.PROGRESSIVE))) {
+            return false;
+        }
+        // Other encoders may not write the stream unchanged.
+        Encoder<?> encoder = helper.getSourceEncoder(data);
+        return encoder instanceof StreamEncoder;
+    }
+
+    /**
+     * Hands the stream to the decoder right away while a {@link WriteBehindDataFetcher} copies it to
+     * the disk cache on the write behind executor.
+     */
+    private void writeBehind(InputStream data) {
+        originalKey = new DataCacheKey(loadData.sourceKey, helper.getSignature());
+        replaceCachedData(originalKey);
+        WriteBehindDataFetcher fetcher = new WriteBehindDataFetcher(
+                loadData.fetcher, data, helper.getDiskCacheProvider(), originalKey,
+                helper.getArrayPool());
+        writeBehindFetcher = fetcher;
+        helper.getWriteBehindExecutor().execute(fetcher);
+        cb.onDataFetcherReady(loadData.sourceKey, fetcher.getStream(), fetcher,
+                fetcher.getDataSource(), loadData.sourceKey);
+    }
+
     @Override
     public void cancel() {
+        WriteBehindDataFetcher localWriteBehindFetcher = writeBehindFetcher;
+        if (localWriteBehindFetcher != null) {
+            localWriteBehindFetcher.cancel();
+        }
         LoadData<?> local = loadData;
         if (local != null) {
             local.fetcher.cancel();
@@ -147,7 +282,12 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
         DiskCacheStrategy diskCacheStrategy = helper.getDiskCacheStrategy();
 
         //如果不缓存
-        if (data != null && diskCacheStrategy.isDataCacheable(loadData.fetcher.getDataSource())) {
+        boolean isDataCacheable =
+                data != null && diskCacheStrategy.isDataCacheable(loadData.fetcher.getDataSource());
+        if (isDataCacheable && shouldWriteBehind(data)) {
+            // Nothing is written on this thread, so there's no need to reschedule first.
+            writeBehind((InputStream) data);
+        } else if (isDataCacheable) {
             dataToCache = data;
             // We might be being called back on someone else's thread. Before doing anything, we should
             // reschedule to get back onto Glide's thread.
@@ -171,6 +311,13 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
      */
     @Override
     public void onLoadFailed(@NonNull Exception e) {
+        if (isRevalidating && e instanceof HttpException
+                && ((HttpException) e).getStatusCode() == HttpRanges.HTTP_NOT_MODIFIED) {
+            isNotModified = true;
+            // Load the cached data on Glide's thread.
+            cb.reschedule();
+            return;
+        }
         cb.onDataFetcherFailed(originalKey, e, loadData.fetcher, loadData.fetcher.getDataSource());
     }
 
@@ -183,12 +330,16 @@ class SourceGenerator implements DataFetcherGenerator, DataFetcher.DataCallback<
     @Override
     public void onDataFetcherReady(Key sourceKey, Object data, DataFetcher<?> fetcher,
                                    DataSource dataSource, Key attemptedKey) {
-        cb.onDataFetcherReady(sourceKey, data, fetcher, loadData.fetcher.getDataSource(), sourceKey);
+        DataSource reportedSource =
+                isLoadingRevalidatedData ? dataSource : loadData.fetcher.getDataSource();
+        cb.onDataFetcherReady(sourceKey, data, fetcher, reportedSource, sourceKey);
     }
 
     @Override
     public void onDataFetcherFailed(Key sourceKey, Exception e, DataFetcher<?> fetcher,
                                     DataSource dataSource) {
-        cb.onDataFetcherFailed(sourceKey, e, fetcher, loadData.fetcher.getDataSource());
+        DataSource reportedSource =
+                isLoadingRevalidatedData ? dataSource : loadData.fetcher.getDataSource();
+        cb.onDataFetcherFailed(sourceKey, e, fetcher, reportedSource);
     }
 }
@@ -0,0 +1,257 @@
+package com.bumptech.glide.load.engine;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.util.Log;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.util.Synthetic;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decodes a remote {@link InputStream} while copying it to the disk cache on a background thread.
+ *
+ * <p>Bytes read from {@link #loadData(Priority, DataCallback)}'s stream are handed to the thread
+ * that runs this class, which writes them to the disk cache. When the decoder calls {@link
+ * #cleanup()}, that thread downloads whatever the decoder didn't read, commits the cache entry if
+ * the whole stream was downloaded without errors and only then cleans up the source {@link
+ * DataFetcher}.
+ *
+ * @see DataCacheOptions#WRITE_BEHIND
+ */
+final class WriteBehindDataFetcher implements DataFetcher<InputStream>, DiskCache.Writer,
+    Runnable {
+  private static final String TAG = "WriteBehindFetcher";
+  private static final int DRAIN_BUFFER_SIZE = 64 * 1024;
+  private static final Chunk END_OF_STREAM = new Chunk(null, 0);
+  private static final Chunk SOURCE_FAILED = new Chunk(null, 0);
+  private static final Chunk DECODER_FINISHED = new Chunk(null, 0);
+
+  private final DataFetcher<?> sourceFetcher;
+  @Synthetic final InputStream source;
+  private final DecodeJob.DiskCacheProvider diskCacheProvider;
+  private final Key key;
+  @Synthetic final ArrayPool arrayPool;
+  @Synthetic final BlockingQueue<Chunk> chunks = new LinkedBlockingQueue<>();
+  @Synthetic final AtomicBoolean isDecoderFinished = new AtomicBoolean();
+  private final TeeInputStream stream = new TeeInputStream();
+  private volatile boolean isCancelled;
+
+  // Only accessed on the writing thread.
+  private boolean isSourceExhausted;
+  private boolean isSourceFailed;
+  private boolean isDecoderFinishedHandled;
+
+  WriteBehindDataFetcher(DataFetcher<?> sourceFetcher, InputStream source,
+      DecodeJob.DiskCacheProvider diskCacheProvider, Key key, ArrayPool arrayPool) {
+    this.sourceFetcher = sourceFetcher;
+    this.source = source;
+    this.diskCacheProvider = diskCacheProvider;
+    this.key = key;
+    this.arrayPool = arrayPool;
+  }
+
+  /** Returns the stream that the decoder should read from. */
+  @NonNull
+  InputStream getStream() {
+    return stream;
+  }
+
+  @Override
+  public void loadData(@NonNull Priority priority,
+      @NonNull DataCallback<? super InputStream> callback) {
+    callback.onDataReady(stream);
+  }
+
+  @Override
+  public void cleanup() {
+    // DecodeJob may call cleanup more than once.
+    if (isDecoderFinished.compareAndSet(false, true)) {
+      chunks.add(DECODER_FINISHED);
+    }
+  }
+
+  @Override
+  public void cancel() {
+    isCancelled = true;
+    sourceFetcher.cancel();
+  }
+
+  @NonNull
+  @Override
+  public Class<InputStream> getDataClass() {
+    return InputStream.class;
+  }
+
+  @NonNull
+  @Override
+  public DataSource getDataSource() {
+    return sourceFetcher.getDataSource();
+  }
+
+  @Override
+  public void run() {
+    try {
+      diskCacheProvider.getDiskCache().put(key, this);
+    } finally {
+      // The disk cache doesn't call write if the entry already exists or can't be opened.
+      awaitDecoderFinished();
+      sourceFetcher.cleanup();
+    }
+  }
+
+  @Override
+  public boolean write(@NonNull File file) {
+    OutputStream os = null;
+    try {
+      os = new FileOutputStream(file);
+      writeDecodedChunks(os);
+      if (isSourceFailed || isCancelled || !isDecoderFinishedHandled) {
+        return false;
+      }
+      if (!isSourceExhausted) {
+        drainSource(os);
+      }
+      return !isCancelled;
+    } catch (IOException e) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Failed to write behind data for: " + key, e);
+      }
+      return false;
+    } finally {
+      if (os != null) {
+        try {
+          os.close();
+        } catch (IOException e) {
+          // Ignored.
+        }
+      }
+    }
+  }
+
+  private void writeDecodedChunks(OutputStream os) throws IOException {
+    Chunk chunk;
+    while ((chunk = takeChunk()) != null) {
+      if (chunk == DECODER_FINISHED) {
+        isDecoderFinishedHandled = true;
+        return;
+      } else if (chunk == END_OF_STREAM) {
+        isSourceExhausted = true;
+      } else if (chunk == SOURCE_FAILED) {
+        isSourceFailed = true;
+      } else {
+        try {
+          if (!isSourceFailed && !isCancelled) {
+            os.write(chunk.bytes, 0, chunk.length);
+          }
+        } finally {
+          arrayPool.put(chunk.bytes);
+        }
+      }
+    }
+  }
+
+  // The decoder is done with the stream, so the source can be read directly.
+  private void drainSource(OutputStream os) throws IOException {
+    byte[] buffer = arrayPool.get(DRAIN_BUFFER_SIZE, byte[].class);
+    try {
+      int read;
+      while (!isCancelled && (read = source.read(buffer)) != -1) {
+        os.write(buffer, 0, read);
+      }
+    } finally {
+      arrayPool.put(buffer);
+    }
+  }
+
+  private void awaitDecoderFinished() {
+    Chunk chunk;
+    while (!isDecoderFinishedHandled && (chunk = takeChunk()) != null) {
+      if (chunk == DECODER_FINISHED) {
+        isDecoderFinishedHandled = true;
+      } else if (chunk.bytes != null) {
+        arrayPool.put(chunk.bytes);
+      }
+    }
+  }
+
+  @Nullable
+  private Chunk takeChunk() {
+    try {
+      return chunks.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private static final class Chunk {
+    @Synthetic final byte[] bytes;
+    @Synthetic final int length;
+
+    Chunk(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+
+  /** Copies each byte read from the source to the writing thread. */
+  private final class TeeInputStream extends InputStream {
+    private final byte[] singleByte = new byte[1];
+    private boolean isEndOfStreamSent;
+
+    @Synthetic
+    TeeInputStream() { }
+
+    @Override
+    public int read() throws IOException {
+      int read = read(singleByte, 0, 1);
+      return read == -1 ? -1 : singleByte[0] & 0xFF;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+      if (isDecoderFinished.get()) {
+        throw new IOException("Stream was read after it was cleaned up");
+      }
+      int read;
+      try {
+        read = source.read(buffer, offset, length);
+      } catch (IOException e) {
+        chunks.add(SOURCE_FAILED);
+        throw e;
+      }
+      if (read == -1) {
+        if (!isEndOfStreamSent) {
+          isEndOfStreamSent = true;
+          chunks.add(END_OF_STREAM);
+        }
+      } else if (read > 0) {
+        byte[] copy = arrayPool.get(read, byte[].class);
+        System.arraycopy(buffer, offset, copy, 0, read);
+        chunks.add(new Chunk(copy, read));
+      }
+      return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return source.available();
+    }
+
+    // The source is closed by its fetcher once it's been copied to the cache.
+    @Override
+    public void close() { }
+  }
+}
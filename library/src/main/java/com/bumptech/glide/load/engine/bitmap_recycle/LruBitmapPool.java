@@ -10,8 +10,10 @@ import android.support.annotation.Nullable;
 import android.util.Log;
 import com.bumptech.glide.util.Synthetic;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -87,8 +89,7 @@ public class LruBitmapPool implements BitmapPool {
     if (bitmap.isRecycled()) {
       throw new IllegalStateException("Cannot pool recycled bitmap");
     }
-    if (!bitmap.isMutable() || strategy.getSize(bitmap) > maxSize
-        || !allowedConfigs.contains(bitmap.getConfig())) {
+    if (!isPoolable(bitmap)) {
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
         Log.v(TAG, "Reject bitmap from pool"
                 + ", bitmap: " + strategy.logBitmap(bitmap)
@@ -114,6 +115,24 @@ public class LruBitmapPool implements BitmapPool {
     evict();
   }
 
+  /**
+   * Adds all of the given {@link Bitmap}s to the pool while acquiring the pool's lock only once.
+   */
+  synchronized void putAll(@NonNull Collection<Bitmap> bitmaps) {
+    for (Bitmap bitmap : bitmaps) {
+      put(bitmap);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given {@link Bitmap} would be accepted by {@link #put(Bitmap)}
+   * rather than recycled.
+   */
+  boolean isPoolable(@NonNull Bitmap bitmap) {
+    return bitmap.isMutable() && strategy.getSize(bitmap) <= maxSize
+        && allowedConfigs.contains(bitmap.getConfig());
+  }
+
   private void evict() {
     trimToSize(maxSize);
   }
@@ -121,7 +140,7 @@ public class LruBitmapPool implements BitmapPool {
   @Override
   @NonNull
   public Bitmap get(int width, int height, Bitmap.Config config) {
-    Bitmap result = getDirtyOrNull(width, height, config);
+    Bitmap result = getDirtyOrNull(width, height, config, /*isRequested=*/ true);
     if (result != null) {
       // Bitmaps in the pool contain random data that in some cases must be cleared for an image
       // to be rendered correctly. we shouldn't force all consumers to independently erase the
@@ -137,7 +156,7 @@ public class LruBitmapPool implements BitmapPool {
   @NonNull
   @Override
   public Bitmap getDirty(int width, int height, Bitmap.Config config) {
-    Bitmap result = getDirtyOrNull(width, height, config);
+    Bitmap result = getDirtyOrNull(width, height, config, /*isRequested=*/ true);
     if (result == null) {
       result = createBitmap(width, height, config);
     }
@@ -145,7 +164,7 @@ public class LruBitmapPool implements BitmapPool {
   }
 
   @NonNull
-  private static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
+  static Bitmap createBitmap(int width, int height, @Nullable Bitmap.Config config) {
     return Bitmap.createBitmap(width, height, config != null ? config : DEFAULT_CONFIG);
   }
 
@@ -163,14 +182,40 @@ public class LruBitmapPool implements BitmapPool {
     }
   }
 
+  /**
+   * Removes up to {@code count} {@link Bitmap}s suitable for the given dimensions and config from
+   * the pool while acquiring the pool's lock only once and adds them to the given list.
+   *
+   * <p>Bitmaps returned by this method are not erased.
+   *
+   * @return The number of {@link Bitmap}s added to the given list.
+   */
+  synchronized int getDirtyBatch(
+      int width, int height, @Nullable Bitmap.Config config, int count, List<Bitmap> out) {
+    int found = 0;
+    while (found < count) {
+      // Only the first Bitmap was actually requested, so don't count failing to find more as misses.
+      Bitmap bitmap = getDirtyOrNull(width, height, config, /*isRequested=*/ found == 0);
+      if (bitmap == null) {
+        break;
+      }
+      out.add(bitmap);
+      found++;
+    }
+    return found;
+  }
+
   @Nullable
   private synchronized Bitmap getDirtyOrNull(
-      int width, int height, @Nullable Bitmap.Config config) {
+      int width, int height, @Nullable Bitmap.Config config, boolean isRequested) {
     assertNotHardwareConfig(config);
     // Config will be null for non public config types, which can lead to transformations naively
     // passing in null as the requested config here. See issue #194.
     final Bitmap result = strategy.get(width, height, config != null ? config : DEFAULT_CONFIG);
     if (result == null) {
+      if (!isRequested) {
+        return null;
+      }
       if (Log.isLoggable(TAG, Log.DEBUG)) {
         Log.d(TAG, "Missing bitmap=" + strategy.logBitmap(width, height, config));
       }
@@ -191,7 +236,7 @@ public class LruBitmapPool implements BitmapPool {
 
   // Setting these two values provides Bitmaps that are essentially equivalent to those returned
   // from Bitmap.createBitmap.
-  private static void normalize(Bitmap bitmap) {
+  static void normalize(Bitmap bitmap) {
     bitmap.setHasAlpha(true);
     maybeSetPreMultiplied(bitmap);
   }
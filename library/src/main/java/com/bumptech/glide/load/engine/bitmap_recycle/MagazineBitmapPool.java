@@ -0,0 +1,245 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Synthetic;
+import com.bumptech.glide.util.Util;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link BitmapPool} that keeps a small magazine of recently freed {@link Bitmap}s for each
+ * thread in front of a shared {@link LruBitmapPool}.
+ *
+ * <p>Threads that decode, transform and then release {@link Bitmap}s of the same dimensions can
+ * recycle them through their own magazine without contending on the shared pool's lock. When a
+ * magazine fills up, its oldest {@link Bitmap}s are spilled to the shared pool in a single batch.
+ * When a thread asks for a {@link Bitmap} its magazine doesn't have, it refills from the shared pool
+ * with a small batch of {@link Bitmap}s of the requested size.
+ *
+ * <p>Each magazine holds at most a small fraction of the shared pool's maximum size.
+ * {@link #clearMemory()}, {@link #trimMemory(int)} and {@link #setSizeMultiplier(float)} first
+ * return the contents of every thread's magazine to the shared pool so that they're trimmed along
+ * with everything else.
+ */
+public class MagazineBitmapPool implements BitmapPool {
+  private static final int MAX_BITMAPS_PER_MAGAZINE = 4;
+  // Each magazine may hold at most 1 / MAGAZINE_SIZE_DIVISOR of the shared pool's maximum size.
+  private static final int MAGAZINE_SIZE_DIVISOR = 16;
+  private static final int REFILL_COUNT = 2;
+  private static final Bitmap.Config DEFAULT_CONFIG = Bitmap.Config.ARGB_8888;
+
+  private final LruBitmapPool pool;
+  private final Set<Magazine> magazines =
+      Collections.newSetFromMap(new ConcurrentHashMap<Magazine, Boolean>());
+  private final ThreadLocal<Magazine> localMagazine = new ThreadLocal<Magazine>() {
+    @Override
+    protected Magazine initialValue() {
+      return newMagazine();
+    }
+  };
+
+  /**
+   * Constructor for MagazineBitmapPool.
+   *
+   * @param pool The shared pool that backs each thread's magazine.
+   */
+  public MagazineBitmapPool(@NonNull LruBitmapPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return pool.getMaxSize();
+  }
+
+  @Override
+  public void setSizeMultiplier(float sizeMultiplier) {
+    drainMagazines();
+    pool.setSizeMultiplier(sizeMultiplier);
+  }
+
+  @Override
+  public void put(Bitmap bitmap) {
+    if (bitmap == null) {
+      throw new NullPointerException("Bitmap must not be null");
+    }
+    if (bitmap.isRecycled()) {
+      throw new IllegalStateException("Cannot pool recycled bitmap");
+    }
+    // Let the shared pool reject (and log) Bitmaps it would never accept.
+    if (!pool.isPoolable(bitmap)) {
+      pool.put(bitmap);
+      return;
+    }
+
+    List<Bitmap> spilled =
+        localMagazine.get().put(bitmap, pool.getMaxSize() / MAGAZINE_SIZE_DIVISOR);
+    if (spilled != null) {
+      pool.putAll(spilled);
+    }
+  }
+
+  @NonNull
+  @Override
+  public Bitmap get(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result != null) {
+      // See LruBitmapPool#get.
+      result.eraseColor(Color.TRANSPARENT);
+    } else {
+      result = LruBitmapPool.createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @NonNull
+  @Override
+  public Bitmap getDirty(int width, int height, Bitmap.Config config) {
+    Bitmap result = getDirtyOrNull(width, height, config);
+    if (result == null) {
+      result = LruBitmapPool.createBitmap(width, height, config);
+    }
+    return result;
+  }
+
+  @Nullable
+  private Bitmap getDirtyOrNull(int width, int height, @Nullable Bitmap.Config config) {
+    Magazine magazine = localMagazine.get();
+    Bitmap result = magazine.take(width, height, config != null ? config : DEFAULT_CONFIG);
+    if (result != null) {
+      LruBitmapPool.normalize(result);
+      return result;
+    }
+
+    List<Bitmap> refilled = new ArrayList<>(REFILL_COUNT);
+    if (pool.getDirtyBatch(width, height, config, REFILL_COUNT, refilled) == 0) {
+      return null;
+    }
+    result = refilled.remove(0);
+    if (!refilled.isEmpty()) {
+      List<Bitmap> spilled = null;
+      for (Bitmap bitmap : refilled) {
+        List<Bitmap> overflow = magazine.put(bitmap, pool.getMaxSize() / MAGAZINE_SIZE_DIVISOR);
+        if (overflow != null) {
+          if (spilled == null) {
+            spilled = overflow;
+          } else {
+            spilled.addAll(overflow);
+          }
+        }
+      }
+      if (spilled != null) {
+        pool.putAll(spilled);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void clearMemory() {
+    drainMagazines();
+    pool.clearMemory();
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    drainMagazines();
+    pool.trimMemory(level);
+  }
+
+  @VisibleForTesting
+  int getMagazineCount() {
+    return magazines.size();
+  }
+
+  @Synthetic
+  Magazine newMagazine() {
+    // Threads in Glide's executors are long lived, but threads can time out of the unlimited
+    // source executor and callers may use their own threads, so don't let their Bitmaps leak.
+    for (Magazine magazine : magazines) {
+      if (!magazine.owner.isAlive()) {
+        magazines.remove(magazine);
+        pool.putAll(magazine.drain());
+      }
+    }
+    Magazine result = new Magazine(Thread.currentThread());
+    magazines.add(result);
+    return result;
+  }
+
+  private void drainMagazines() {
+    for (Magazine magazine : magazines) {
+      pool.putAll(magazine.drain());
+    }
+  }
+
+  /**
+   * A small set of {@link Bitmap}s owned by a single thread.
+   *
+   * <p>Only the owning thread adds and removes {@link Bitmap}s, but any thread may drain the
+   * magazine, so access is synchronized. The lock is almost never contended.
+   */
+  private static final class Magazine {
+    @Synthetic final Thread owner;
+    // Oldest first.
+    private final List<Bitmap> bitmaps = new ArrayList<>(MAX_BITMAPS_PER_MAGAZINE + 1);
+    private long size;
+
+    Magazine(Thread owner) {
+      this.owner = owner;
+    }
+
+    /**
+     * Adds the given {@link Bitmap} and returns the {@link Bitmap}s that no longer fit, or null if
+     * everything fits.
+     */
+    @Nullable
+    synchronized List<Bitmap> put(Bitmap bitmap, long maxSize) {
+      bitmaps.add(bitmap);
+      size += Util.getBitmapByteSize(bitmap);
+      if (bitmaps.size() <= MAX_BITMAPS_PER_MAGAZINE && size <= maxSize) {
+        return null;
+      }
+
+      // Spill down to half full so that the next few puts don't need to spill again.
+      List<Bitmap> spilled = new ArrayList<>();
+      while (!bitmaps.isEmpty()
+          && (bitmaps.size() > MAX_BITMAPS_PER_MAGAZINE / 2 || size > maxSize / 2)) {
+        Bitmap removed = bitmaps.remove(0);
+        size -= Util.getBitmapByteSize(removed);
+        spilled.add(removed);
+      }
+      return spilled;
+    }
+
+    @Nullable
+    synchronized Bitmap take(int width, int height, @NonNull Bitmap.Config config) {
+      for (int i = bitmaps.size() - 1; i >= 0; i--) {
+        Bitmap bitmap = bitmaps.get(i);
+        if (bitmap.getWidth() == width
+            && bitmap.getHeight() == height
+            && config == bitmap.getConfig()) {
+          bitmaps.remove(i);
+          size -= Util.getBitmapByteSize(bitmap);
+          return bitmap;
+        }
+      }
+      return null;
+    }
+
+    @NonNull
+    synchronized List<Bitmap> drain() {
+      List<Bitmap> result = new ArrayList<>(bitmaps);
+      bitmaps.clear();
+      size = 0;
+      return result;
+    }
+  }
+}
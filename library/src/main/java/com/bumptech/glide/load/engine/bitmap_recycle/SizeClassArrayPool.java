@@ -0,0 +1,361 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
+import com.bumptech.glide.util.Synthetic;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed size {@link ArrayPool} that groups arrays into power of two size classes and never
+ * blocks.
+ *
+ * <p>Each size class of each array type is a lock-free stack. An array of length {@code n} is
+ * pooled in the size class {@code floor(log2(n))} and requests for {@code n} elements are served
+ * from the size class {@code ceil(log2(n))}, so any array in that size class is large enough.
+ * Arrays allocated by {@link #get(int, Class)} are rounded up to a power of two so that they can be
+ * returned to the same size class that they're requested from.
+ *
+ * <p>In front of the shared stacks, every thread keeps at most one recently returned array per
+ * size class for arrays up to {@link ArrayPool#STANDARD_BUFFER_SIZE_BYTES}. Threads that borrow and
+ * return the same buffer on every decode don't touch any shared state at all. Arrays held by
+ * threads count towards the maximum size of the pool and are returned to the shared stacks by
+ * {@link #clearMemory()} and {@link #trimMemory(int)}.
+ *
+ * <p>Unlike {@link LruArrayPool}, arrays aren't evicted in least recently used order. When the
+ * pool is full, arrays are evicted from the largest size classes first.
+ */
+public final class SizeClassArrayPool implements ArrayPool {
+  private static final String TAG = "SizeClassArrayPool";
+  // 4MB.
+  private static final int DEFAULT_SIZE = 4 * 1024 * 1024;
+  /** Used to calculate the maximum % of the total pool size a single array may consume. */
+  private static final int SINGLE_ARRAY_MAX_SIZE_DIVISOR = 2;
+  // Array lengths are at most Integer.MAX_VALUE, so floor(log2(length)) is at most 30.
+  private static final int SIZE_CLASS_COUNT = 31;
+
+  private final SizeClasses<byte[]> byteClasses =
+      new SizeClasses<>(new ByteArrayAdapter(), /*index=*/ 0);
+  private final SizeClasses<int[]> intClasses =
+      new SizeClasses<>(new IntegerArrayAdapter(), /*index=*/ 1);
+  private final Set<ThreadCache> threadCaches =
+      Collections.newSetFromMap(new ConcurrentHashMap<ThreadCache, Boolean>());
+  private final ThreadLocal<ThreadCache> localCache = new ThreadLocal<ThreadCache>() {
+    @Override
+    protected ThreadCache initialValue() {
+      return newThreadCache();
+    }
+  };
+  private final AtomicLong currentSize = new AtomicLong();
+  private final int maxSize;
+
+  @VisibleForTesting
+  public SizeClassArrayPool() {
+    this(DEFAULT_SIZE);
+  }
+
+  /**
+   * Constructor for a new pool.
+   *
+   * @param maxSize The maximum size in bytes of the pool.
+   */
+  public SizeClassArrayPool(int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  @Deprecated
+  @Override
+  public <T> void put(T array, Class<T> arrayClass) {
+    put(array);
+  }
+
+  @Override
+  public <T> void put(T array) {
+    @SuppressWarnings("unchecked")
+    Class<T> arrayClass = (Class<T>) array.getClass();
+    SizeClasses<T> classes = getSizeClasses(arrayClass);
+
+    int length = classes.adapter.getArrayLength(array);
+    if (length == 0) {
+      return;
+    }
+    int arrayBytes = length * classes.adapter.getElementSizeInBytes();
+    if (arrayBytes > maxSize / SINGLE_ARRAY_MAX_SIZE_DIVISOR || !reserve(arrayBytes)) {
+      return;
+    }
+
+    int sizeClass = floorSizeClass(length);
+    if (!classes.isThreadCacheable(sizeClass)
+        || !localCache.get().offer(classes.index, sizeClass, array)) {
+      classes.push(sizeClass, array);
+    }
+  }
+
+  @Override
+  public <T> T getExact(int size, Class<T> arrayClass) {
+    SizeClasses<T> classes = getSizeClasses(arrayClass);
+    // Only power of two sizes map to a single size class. Arrays of other lengths share a size
+    // class with larger arrays, so they can't be found without searching.
+    if (size > 0 && (size & (size - 1)) == 0) {
+      int sizeClass = floorSizeClass(size);
+      T result = take(classes, sizeClass);
+      if (result != null) {
+        if (classes.adapter.getArrayLength(result) == size) {
+          return result;
+        }
+        put(result);
+      }
+    }
+    return newArray(classes, size);
+  }
+
+  @Override
+  public <T> T get(int size, Class<T> arrayClass) {
+    SizeClasses<T> classes = getSizeClasses(arrayClass);
+    int sizeClass = ceilingSizeClass(size);
+    if (sizeClass >= SIZE_CLASS_COUNT
+        || (1L << sizeClass) * classes.adapter.getElementSizeInBytes()
+            > maxSize / SINGLE_ARRAY_MAX_SIZE_DIVISOR) {
+      // Too large to ever be pooled, so there's no point in rounding up.
+      return newArray(classes, size);
+    }
+
+    T result = take(classes, sizeClass);
+    if (result == null) {
+      result = newArray(classes, 1 << sizeClass);
+    }
+    return result;
+  }
+
+  @Nullable
+  private <T> T take(SizeClasses<T> classes, int sizeClass) {
+    T result = null;
+    if (classes.isThreadCacheable(sizeClass)) {
+      result = localCache.get().take(classes.index, sizeClass);
+    }
+    if (result == null) {
+      result = classes.pop(sizeClass);
+    }
+    if (result != null) {
+      currentSize.addAndGet(
+          -(long) classes.adapter.getArrayLength(result)
+              * classes.adapter.getElementSizeInBytes());
+    }
+    return result;
+  }
+
+  private static <T> T newArray(SizeClasses<T> classes, int length) {
+    if (Log.isLoggable(classes.adapter.getTag(), Log.VERBOSE)) {
+      Log.v(classes.adapter.getTag(), "Allocated " + length + " bytes");
+    }
+    return classes.adapter.newArray(length);
+  }
+
+  /**
+   * Adds the given number of bytes to the size of the pool if they fit, evicting arrays from the
+   * shared stacks if they don't.
+   */
+  private boolean reserve(int bytes) {
+    if (tryReserve(bytes)) {
+      return true;
+    }
+    evictToSize(maxSize - bytes);
+    return tryReserve(bytes);
+  }
+
+  private boolean tryReserve(int bytes) {
+    while (true) {
+      long current = currentSize.get();
+      if (current + bytes > maxSize) {
+        return false;
+      }
+      if (currentSize.compareAndSet(current, current + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public void clearMemory() {
+    drainThreadCaches();
+    evictToSize(0);
+  }
+
+  @Override
+  public void trimMemory(int level) {
+    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      clearMemory();
+    } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      drainThreadCaches();
+      evictToSize(maxSize / 2);
+    }
+  }
+
+  private void evictToSize(long size) {
+    for (int sizeClass = SIZE_CLASS_COUNT - 1;
+        sizeClass >= 0 && currentSize.get() > size;
+        sizeClass--) {
+      evictFromSizeClass(byteClasses, sizeClass, size);
+      evictFromSizeClass(intClasses, sizeClass, size);
+    }
+  }
+
+  private <T> void evictFromSizeClass(SizeClasses<T> classes, int sizeClass, long size) {
+    T evicted;
+    while (currentSize.get() > size && (evicted = classes.pop(sizeClass)) != null) {
+      int length = classes.adapter.getArrayLength(evicted);
+      currentSize.addAndGet(-(long) length * classes.adapter.getElementSizeInBytes());
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(TAG, "evicted: " + length);
+      }
+    }
+  }
+
+  private void drainThreadCaches() {
+    for (ThreadCache cache : threadCaches) {
+      drain(cache);
+    }
+  }
+
+  private void drain(ThreadCache cache) {
+    for (int sizeClass = 0; sizeClass < SIZE_CLASS_COUNT; sizeClass++) {
+      drain(cache, byteClasses, sizeClass);
+      drain(cache, intClasses, sizeClass);
+    }
+  }
+
+  private static <T> void drain(ThreadCache cache, SizeClasses<T> classes, int sizeClass) {
+    T array = cache.take(classes.index, sizeClass);
+    if (array != null) {
+      // The array's bytes are already counted towards the size of the pool.
+      classes.push(sizeClass, array);
+    }
+  }
+
+  @Synthetic
+  ThreadCache newThreadCache() {
+    // Callers may decode on their own short lived threads, don't let their arrays leak.
+    for (ThreadCache cache : threadCaches) {
+      if (!cache.owner.isAlive()) {
+        threadCaches.remove(cache);
+        drain(cache);
+      }
+    }
+    ThreadCache result = new ThreadCache(Thread.currentThread());
+    threadCaches.add(result);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> SizeClasses<T> getSizeClasses(Class<T> arrayClass) {
+    if (arrayClass.equals(byte[].class)) {
+      return (SizeClasses<T>) byteClasses;
+    } else if (arrayClass.equals(int[].class)) {
+      return (SizeClasses<T>) intClasses;
+    }
+    throw new IllegalArgumentException("No array pool found for: " + arrayClass.getSimpleName());
+  }
+
+  @VisibleForTesting
+  long getCurrentSize() {
+    return currentSize.get();
+  }
+
+  @VisibleForTesting
+  int getThreadCacheCount() {
+    return threadCaches.size();
+  }
+
+  @Synthetic
+  static int floorSizeClass(int length) {
+    return 31 - Integer.numberOfLeadingZeros(length);
+  }
+
+  @Synthetic
+  static int ceilingSizeClass(int length) {
+    return length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1);
+  }
+
+  /**
+   * The shared, lock-free stacks for every size class of a single array type.
+   */
+  private static final class SizeClasses<T> {
+    @Synthetic final ArrayAdapterInterface<T> adapter;
+    @Synthetic final int index;
+    private final AtomicReferenceArray<Node> heads = new AtomicReferenceArray<>(SIZE_CLASS_COUNT);
+
+    SizeClasses(ArrayAdapterInterface<T> adapter, int index) {
+      this.adapter = adapter;
+      this.index = index;
+    }
+
+    boolean isThreadCacheable(int sizeClass) {
+      return (1L << sizeClass) * adapter.getElementSizeInBytes() <= STANDARD_BUFFER_SIZE_BYTES;
+    }
+
+    void push(int sizeClass, T array) {
+      Node node = new Node(array);
+      Node head;
+      do {
+        head = heads.get(sizeClass);
+        node.next = head;
+      } while (!heads.compareAndSet(sizeClass, head, node));
+    }
+
+    // Nodes are never reused, so a successful compare and set can't suffer from ABA.
+    @SuppressWarnings("unchecked")
+    @Nullable
+    T pop(int sizeClass) {
+      Node head;
+      do {
+        head = heads.get(sizeClass);
+        if (head == null) {
+          return null;
+        }
+      } while (!heads.compareAndSet(sizeClass, head, head.next));
+      return (T) head.array;
+    }
+  }
+
+  private static final class Node {
+    @Synthetic final Object array;
+    @Synthetic Node next;
+
+    Node(Object array) {
+      this.array = array;
+    }
+  }
+
+  /**
+   * At most one array per size class and array type that's owned by a single thread.
+   *
+   * <p>Only the owning thread adds arrays, but any thread may drain the cache, so arrays are
+   * removed atomically.
+   */
+  private static final class ThreadCache {
+    @Synthetic final Thread owner;
+    private final AtomicReferenceArray<Object> slots =
+        new AtomicReferenceArray<>(2 * SIZE_CLASS_COUNT);
+
+    ThreadCache(Thread owner) {
+      this.owner = owner;
+    }
+
+    boolean offer(int typeIndex, int sizeClass, Object array) {
+      return slots.compareAndSet(typeIndex * SIZE_CLASS_COUNT + sizeClass, null, array);
+    }
+
+    @SuppressWarnings({"unchecked", "TypeParameterUnusedInFormals"})
+    @Nullable
+    <T> T take(int typeIndex, int sizeClass) {
+      int slot = typeIndex * SIZE_CLASS_COUNT + sizeClass;
+      // Avoid the write if there's nothing to take.
+      return slots.get(slot) == null ? null : (T) slots.getAndSet(slot, null);
+    }
+  }
+}
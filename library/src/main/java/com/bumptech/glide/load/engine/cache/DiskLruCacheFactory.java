@@ -13,6 +13,8 @@ import java.io.File;
 @SuppressWarnings("unused")
 public class DiskLruCacheFactory implements DiskCache.Factory {
   private final long diskCacheSize;
+  private final int shardCount;
+  private final SafeKeyGenerator.Algorithm keyAlgorithm;
   private final CacheDirectoryGetter cacheDirectoryGetter;
 
   /**
@@ -51,7 +53,44 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
   // Public API.
   @SuppressWarnings("WeakerAccess")
   public DiskLruCacheFactory(CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize) {
+    this(cacheDirectoryGetter, diskCacheSize, 1 /*shardCount*/);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize        Desired max bytes size for the LRU disk cache.
+   * @param shardCount           The number of independently locked shards to split the cache
+   *                             into, see {@link DiskLruCacheWrapper#create(File, long, int)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(
+      CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize, int shardCount) {
+    this(cacheDirectoryGetter, diskCacheSize, shardCount, SafeKeyGenerator.Algorithm.SHA_256);
+  }
+
+  /**
+   * When using this constructor {@link CacheDirectoryGetter#getCacheDirectory()} will be called out
+   * of UI thread, allowing to do I/O access without performance impacts.
+   *
+   * @param cacheDirectoryGetter Interface called out of UI thread to get the cache folder.
+   * @param diskCacheSize        Desired max bytes size for the LRU disk cache.
+   * @param shardCount           The number of independently locked shards to split the cache
+   *                             into, see {@link DiskLruCacheWrapper#create(File, long, int)}.
+   * @param keyAlgorithm         The hash function used to name cache entries, see {@link
+   *                             DiskLruCacheWrapper#create(File, long, int,
+   *                             SafeKeyGenerator.Algorithm)}.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public DiskLruCacheFactory(CacheDirectoryGetter cacheDirectoryGetter, long diskCacheSize,
+      int shardCount, SafeKeyGenerator.Algorithm keyAlgorithm) {
     this.diskCacheSize = diskCacheSize;
+    this.shardCount = shardCount;
+    this.keyAlgorithm = keyAlgorithm;
     this.cacheDirectoryGetter = cacheDirectoryGetter;
   }
 
@@ -67,6 +106,6 @@ public class DiskLruCacheFactory implements DiskCache.Factory {
       return null;
     }
 
-    return DiskLruCacheWrapper.create(cacheDir, diskCacheSize);
+    return DiskLruCacheWrapper.create(cacheDir, diskCacheSize, shardCount, keyAlgorithm);
   }
 }
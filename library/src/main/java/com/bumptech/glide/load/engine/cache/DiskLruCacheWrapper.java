@@ -4,12 +4,16 @@
 
 package com.bumptech.glide.load.engine.cache;
 
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
 import android.util.Log;
 import com.bumptech.glide.disklrucache.DiskLruCache;
 import com.bumptech.glide.disklrucache.DiskLruCache.Value;
+import com.bumptech.glide.disklrucache.ShardedDiskLruCache;
 import com.bumptech.glide.load.Key;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The default DiskCache implementation. There must be no more than one active instance for a given
@@ -22,13 +26,21 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   private static final int APP_VERSION = 1;
   private static final int VALUE_COUNT = 1;
+  // The length of keys generated with SafeKeyGenerator.Algorithm.SHA_256.
+  private static final int LEGACY_KEY_LENGTH = 64;
   private static DiskLruCacheWrapper wrapper;
 
   private final SafeKeyGenerator safeKeyGenerator;
+  @Nullable private final SafeKeyGenerator legacySafeKeyGenerator;
   private final File directory;
   private final long maxSize;
+  private final int shardCount;
   private final DiskCacheWriteLocker writeLocker = new DiskCacheWriteLocker();
-  private DiskLruCache diskLruCache;
+  // The number of entries stored under legacy keys when the cache was opened, less the number
+  // migrated or evicted since. Legacy keys are only looked up while there are entries stored under
+  // them.
+  private final AtomicInteger legacyEntryCount = new AtomicInteger();
+  private ShardedDiskLruCache diskLruCache;
 
   /**
    * Get a DiskCache in the given directory and size. If a disk cache has already been created with
@@ -64,6 +76,51 @@ public class DiskLruCacheWrapper implements DiskCache {
     return new DiskLruCacheWrapper(directory, maxSize);
   }
 
+  /**
+   * Create a new DiskCache in the given directory with a specified max size that spreads its
+   * entries across the given number of independently locked shards.
+   *
+   * <p>Sharding lets concurrent reads and writes for different keys proceed in parallel, which
+   * helps when many loads hit the disk cache at once, for example while prefetching. Each shard
+   * gets an equal part of {@code maxSize}. Changing the shard count of an existing cache directory
+   * deletes the entries and journals that were stored with the previous shard count when the cache
+   * is first opened.
+   *
+   * @param directory  The directory for the disk cache
+   * @param maxSize    The max size for the disk cache
+   * @param shardCount The number of shards, one stores the cache the same way
+   *                   {@link #create(File, long)} does
+   * @return The new disk cache with the given arguments
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static DiskCache create(File directory, long maxSize, int shardCount) {
+    return create(directory, maxSize, shardCount, SafeKeyGenerator.Algorithm.SHA_256);
+  }
+
+  /**
+   * Create a new DiskCache in the given directory with a specified max size and number of shards
+   * that names its entries using the given hash function.
+   *
+   * <p>{@link SafeKeyGenerator.Algorithm#MURMUR3_128} keys are much cheaper to compute than the
+   * default SHA-256 keys. Entries written to an existing cache directory with SHA-256 keys remain
+   * readable: while any are left, a lookup that misses falls back to the SHA-256 key and moves the
+   * entry it finds to its new key. Switching back to SHA-256 leaves entries with the faster keys
+   * to be evicted.
+   *
+   * @param directory    The directory for the disk cache
+   * @param maxSize      The max size for the disk cache
+   * @param shardCount   The number of shards, see {@link #create(File, long, int)}
+   * @param keyAlgorithm The hash function used to name entries
+   * @return The new disk cache with the given arguments
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static DiskCache create(File directory, long maxSize, int shardCount,
+      SafeKeyGenerator.Algorithm keyAlgorithm) {
+    return new DiskLruCacheWrapper(directory, maxSize, shardCount, keyAlgorithm);
+  }
+
   /**
    * @deprecated Do not extend this class.
    */
@@ -71,18 +128,38 @@ public class DiskLruCacheWrapper implements DiskCache {
   // Deprecated public API.
   @SuppressWarnings({"WeakerAccess", "DeprecatedIsStillUsed"})
   protected DiskLruCacheWrapper(File directory, long maxSize) {
+    this(directory, maxSize, 1 /*shardCount*/, SafeKeyGenerator.Algorithm.SHA_256);
+  }
+
+  private DiskLruCacheWrapper(File directory, long maxSize, int shardCount,
+      SafeKeyGenerator.Algorithm keyAlgorithm) {
     this.directory = directory;
     this.maxSize = maxSize;
-    this.safeKeyGenerator = new SafeKeyGenerator();
+    this.shardCount = shardCount;
+    this.safeKeyGenerator = new SafeKeyGenerator(keyAlgorithm);
+    this.legacySafeKeyGenerator = keyAlgorithm == SafeKeyGenerator.Algorithm.SHA_256
+        ? null : new SafeKeyGenerator(SafeKeyGenerator.Algorithm.SHA_256);
   }
 
-  private synchronized DiskLruCache getDiskCache() throws IOException {
+  private synchronized ShardedDiskLruCache getDiskCache() throws IOException {
     if (diskLruCache == null) {
-      diskLruCache = DiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize);
+      diskLruCache =
+          ShardedDiskLruCache.open(directory, APP_VERSION, VALUE_COUNT, maxSize, shardCount);
+      if (legacySafeKeyGenerator != null) {
+        // Listening first means an entry evicted while they're counted may be missed, which only
+        // stops lookups under legacy keys early, rather than never.
+        diskLruCache.setEvictionListener(new LegacyEvictionListener(legacyEntryCount));
+        legacyEntryCount.set(diskLruCache.getKeyCount(LEGACY_KEY_LENGTH));
+      }
     }
     return diskLruCache;
   }
 
+  @VisibleForTesting
+  boolean hasLegacyEntries() {
+    return legacyEntryCount.get() > 0;
+  }
+
   @Override
   public File get(Key key) {
     String safeKey = safeKeyGenerator.getSafeKey(key);
@@ -94,9 +171,12 @@ public class DiskLruCacheWrapper implements DiskCache {
       // It is possible that the there will be a put in between these two gets. If so that shouldn't
       // be a problem because we will always put the same value at the same key so our input streams
       // will still represent the same data.
-      final DiskLruCache.Value value = getDiskCache().get(safeKey);
+      ShardedDiskLruCache diskCache = getDiskCache();
+      final DiskLruCache.Value value = diskCache.get(safeKey);
       if (value != null) {
         result = value.getFile(0);
+      } else if (legacyEntryCount.get() > 0) {
+        result = migrateLegacyEntry(diskCache, key, safeKey);
       }
     } catch (IOException e) {
       if (Log.isLoggable(TAG, Log.WARN)) {
@@ -106,6 +186,52 @@ public class DiskLruCacheWrapper implements DiskCache {
     return result;
   }
 
+  /**
+   * Moves the entry stored under the legacy SHA-256 key for the given key, if there is one, to the
+   * given safe key and returns its file.
+   */
+  @Nullable
+  private File migrateLegacyEntry(ShardedDiskLruCache diskCache, Key key, String safeKey)
+      throws IOException {
+    String legacyKey = legacySafeKeyGenerator.getSafeKey(key);
+    DiskLruCache.Value legacyValue = diskCache.get(legacyKey);
+    if (legacyValue == null) {
+      return null;
+    }
+    File legacyFile = legacyValue.getFile(0);
+    writeLocker.acquire(safeKey);
+    try {
+      DiskLruCache.Value current = diskCache.get(safeKey);
+      if (current != null) {
+        return current.getFile(0);
+      }
+      DiskLruCache.Editor editor = diskCache.edit(safeKey);
+      if (editor == null) {
+        return legacyFile;
+      }
+      try {
+        // Renaming is much cheaper than copying and is safe for readers that have already opened
+        // the legacy file. Readers that haven't will miss, just as they would after an eviction.
+        if (!legacyFile.renameTo(editor.getFile(0))) {
+          return legacyFile;
+        }
+        editor.commit();
+      } finally {
+        editor.abortUnlessCommitted();
+      }
+      if (diskCache.remove(legacyKey)) {
+        legacyEntryCount.decrementAndGet();
+      }
+      if (Log.isLoggable(TAG, Log.VERBOSE)) {
+        Log.v(TAG, "Migrated: " + legacyKey + " to: " + safeKey + " for Key: " + key);
+      }
+      DiskLruCache.Value migrated = diskCache.get(safeKey);
+      return migrated != null ? migrated.getFile(0) : null;
+    } finally {
+      writeLocker.release(safeKey);
+    }
+  }
+
   @Override
   public void put(Key key, Writer writer) {
     // We want to make sure that puts block so that data is available when put completes. We may
@@ -119,7 +245,7 @@ public class DiskLruCacheWrapper implements DiskCache {
       try {
         // We assume we only need to put once, so if data was written while we were trying to get
         // the lock, we can simply abort.
-        DiskLruCache diskCache = getDiskCache();
+        ShardedDiskLruCache diskCache = getDiskCache();
         Value current = diskCache.get(safeKey);
         if (current != null) {
           return;
@@ -177,5 +303,21 @@ public class DiskLruCacheWrapper implements DiskCache {
 
   private synchronized void resetDiskCache() {
     diskLruCache = null;
+    legacyEntryCount.set(0);
+  }
+
+  private static final class LegacyEvictionListener implements DiskLruCache.EvictionListener {
+    private final AtomicInteger legacyEntryCount;
+
+    LegacyEvictionListener(AtomicInteger legacyEntryCount) {
+      this.legacyEntryCount = legacyEntryCount;
+    }
+
+    @Override
+    public void onEvicted(String key) {
+      if (key.length() == LEGACY_KEY_LENGTH) {
+        legacyEntryCount.decrementAndGet();
+      }
+    }
   }
 }
@@ -0,0 +1,106 @@
+package com.bumptech.glide.load.engine.cache;
+
+/**
+ * A probabilistic estimate of how often keys have been accessed recently, used to decide whether a
+ * new entry is worth admitting into a cache at the expense of an existing entry.
+ *
+ * <p>This is a count-min sketch with four 4-bit counters per key. Counters saturate at 15 and are
+ * periodically halved so that the sketch favors recent history over old history.
+ *
+ * <p>Not thread safe, callers are expected to synchronize.
+ */
+final class FrequencySketch {
+  private static final long[] SEEDS = new long[] {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 20;
+  // The number of additions per table slot after which all counters are halved.
+  private static final int SAMPLE_SIZE_MULTIPLIER = 10;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  /**
+   * Constructor for FrequencySketch.
+   *
+   * @param expectedEntries The approximate number of entries the cache will hold, used to size
+   *                        the sketch.
+   */
+  FrequencySketch(int expectedEntries) {
+    int capacity = ceilingPowerOfTwo(
+        Math.min(Math.max(expectedEntries, MIN_CAPACITY), MAX_CAPACITY));
+    table = new long[capacity];
+    tableMask = capacity - 1;
+    sampleSize = SAMPLE_SIZE_MULTIPLIER * capacity;
+  }
+
+  /**
+   * Returns the estimated number of recent accesses for the given hash code, at most 15.
+   */
+  int frequency(int hashCode) {
+    int hash = spread(hashCode);
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Records an access for the given hash code.
+   */
+  void increment(int hashCode) {
+    int hash = spread(hashCode);
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int oddCounters = 0;
+    for (int i = 0; i < table.length; i++) {
+      oddCounters += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (oddCounters >>> 2);
+  }
+
+  private int indexOf(int hash, int seedIndex) {
+    long result = (hash + SEEDS[seedIndex]) * SEEDS[seedIndex];
+    result += result >>> 32;
+    return (int) result & tableMask;
+  }
+
+  private static int spread(int hashCode) {
+    int result = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+    result = ((result >>> 16) ^ result) * 0x45d9f3b;
+    return (result >>> 16) ^ result;
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    return 1 << -Integer.numberOfLeadingZeros(value - 1);
+  }
+}
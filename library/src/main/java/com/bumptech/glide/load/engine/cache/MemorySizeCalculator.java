@@ -25,6 +25,8 @@ public final class MemorySizeCalculator {
   private final int memoryCacheSize;
   private final Context context;
   private final int arrayPoolSize;
+  private final int mappedBufferBudget;
+  private final int gifFrameCacheSize;
 
   interface ScreenDimensions {
     int getWidthPixels();
@@ -39,6 +41,10 @@ public final class MemorySizeCalculator {
         isLowMemoryDevice(builder.activityManager)
             ? builder.arrayPoolSizeBytes / LOW_MEMORY_BYTE_ARRAY_POOL_DIVISOR
             : builder.arrayPoolSizeBytes;
+    mappedBufferBudget =
+        isLowMemoryDevice(builder.activityManager)
+            ? builder.mappedBufferBudgetBytes / LOW_MEMORY_BYTE_ARRAY_POOL_DIVISOR
+            : builder.mappedBufferBudgetBytes;
     int maxSize =
         getMaxSize(
             builder.activityManager, builder.maxSizeMultiplier, builder.lowMemoryMaxSizeMultiplier);
@@ -50,15 +56,24 @@ public final class MemorySizeCalculator {
     int targetBitmapPoolSize = Math.round(screenSize * builder.bitmapPoolScreens);
 
     int targetMemoryCacheSize = Math.round(screenSize * builder.memoryCacheScreens);
+    float gifFrameCacheScreens =
+        isLowMemoryDevice(builder.activityManager)
+            ? builder.gifFrameCacheScreens / LOW_MEMORY_BYTE_ARRAY_POOL_DIVISOR
+            : builder.gifFrameCacheScreens;
+    int targetGifFrameCacheSize = Math.round(screenSize * gifFrameCacheScreens);
+    // Kept GIF frames share the same heap as the memory cache and the bitmap pool.
     int availableSize = maxSize - arrayPoolSize;
 
-    if (targetMemoryCacheSize + targetBitmapPoolSize <= availableSize) {
+    if (targetMemoryCacheSize + targetBitmapPoolSize + targetGifFrameCacheSize <= availableSize) {
       memoryCacheSize = targetMemoryCacheSize;
       bitmapPoolSize = targetBitmapPoolSize;
+      gifFrameCacheSize = targetGifFrameCacheSize;
     } else {
-      float part = availableSize / (builder.bitmapPoolScreens + builder.memoryCacheScreens);
+      float part = availableSize
+          / (builder.bitmapPoolScreens + builder.memoryCacheScreens + gifFrameCacheScreens);
       memoryCacheSize = Math.round(part * builder.memoryCacheScreens);
       bitmapPoolSize = Math.round(part * builder.bitmapPoolScreens);
+      gifFrameCacheSize = Math.round(part * gifFrameCacheScreens);
     }
 
     if (Log.isLoggable(TAG, Log.DEBUG)) {
@@ -71,8 +86,13 @@ public final class MemorySizeCalculator {
               + toMb(bitmapPoolSize)
               + ", byte array size: "
               + toMb(arrayPoolSize)
+              + ", mapped buffer budget: "
+              + toMb(mappedBufferBudget)
+              + ", gif frame cache size: "
+              + toMb(gifFrameCacheSize)
               + ", memory class limited? "
-              + (targetMemoryCacheSize + targetBitmapPoolSize > maxSize)
+              + (targetMemoryCacheSize + targetBitmapPoolSize + targetGifFrameCacheSize
+                  > maxSize)
               + ", max size: "
               + toMb(maxSize)
               + ", memoryClass: "
@@ -103,6 +123,29 @@ public final class MemorySizeCalculator {
     return arrayPoolSize;
   }
 
+  /**
+   * Returns the recommended maximum number of bytes of files that may be memory mapped at once for
+   * the device it is run on.
+   *
+   * <p>Mapped files don't count against the heap, but they do use address space and page cache, so
+   * they're budgeted separately from the memory cache and pools.
+   *
+   * @see com.bumptech.glide.util.MappedBufferTracker
+   */
+  public int getMappedBufferBudgetInBytes() {
+    return mappedBufferBudget;
+  }
+
+  /**
+   * Returns the recommended maximum number of bytes of decoded GIF frames that animations may keep
+   * beyond the frames they're showing for the device it is run on.
+   *
+   * @see com.bumptech.glide.load.resource.gif.GifFrameCacheBudget
+   */
+  public int getGifFrameCacheSizeInBytes() {
+    return gifFrameCacheSize;
+  }
+
   private static int getMaxSize(ActivityManager activityManager, float maxSizeMultiplier,
       float lowMemoryMaxSizeMultiplier) {
     final int memoryClassBytes = activityManager.getMemoryClass() * 1024 * 1024;
@@ -149,6 +192,9 @@ public final class MemorySizeCalculator {
     static final float LOW_MEMORY_MAX_SIZE_MULTIPLIER = 0.33f;
     // 4MB.
     static final int ARRAY_POOL_SIZE_BYTES = 4 * 1024 * 1024;
+    // 32MB.
+    static final int MAPPED_BUFFER_BUDGET_BYTES = 32 * 1024 * 1024;
+    static final int GIF_FRAME_CACHE_TARGET_SCREENS = 1;
 
     @Synthetic final Context context;
 
@@ -161,6 +207,8 @@ public final class MemorySizeCalculator {
     @Synthetic float maxSizeMultiplier = MAX_SIZE_MULTIPLIER;
     @Synthetic float lowMemoryMaxSizeMultiplier = LOW_MEMORY_MAX_SIZE_MULTIPLIER;
     @Synthetic int arrayPoolSizeBytes = ARRAY_POOL_SIZE_BYTES;
+    @Synthetic int mappedBufferBudgetBytes = MAPPED_BUFFER_BUDGET_BYTES;
+    @Synthetic float gifFrameCacheScreens = GIF_FRAME_CACHE_TARGET_SCREENS;
 
     public Builder(Context context) {
       this.context = context;
@@ -244,6 +292,39 @@ public final class MemorySizeCalculator {
       return this;
     }
 
+    /**
+     * Sets the maximum number of bytes of files that may be memory mapped at once while decoding
+     * and returns this builder.
+     *
+     * <p>This number will be halved on low memory devices that return {@code true} from
+     * {@link ActivityManager#isLowRamDevice()}.
+     *
+     * @see com.bumptech.glide.util.MappedBufferTracker
+     */
+    public Builder setMappedBufferBudget(int mappedBufferBudgetBytes) {
+      Preconditions.checkArgument(mappedBufferBudgetBytes >= 0,
+          "Mapped buffer budget must be greater than or equal to 0");
+      this.mappedBufferBudgetBytes = mappedBufferBudgetBytes;
+      return this;
+    }
+
+    /**
+     * Sets the number of device screens worth of pixels that animated GIFs may keep as decoded
+     * frames beyond the frames they're showing and returns this builder.
+     *
+     * <p>This number will be halved on low memory devices that return {@code true} from
+     * {@link ActivityManager#isLowRamDevice()}. If the memory cache, the bitmap pool and the kept
+     * frames don't all fit in the app's memory class, they're scaled down together.
+     *
+     * @see com.bumptech.glide.load.resource.gif.GifFrameCacheBudget
+     */
+    public Builder setGifFrameCacheScreens(float gifFrameCacheScreens) {
+      Preconditions.checkArgument(gifFrameCacheScreens >= 0,
+          "Gif frame cache screens must be greater than or equal to 0");
+      this.gifFrameCacheScreens = gifFrameCacheScreens;
+      return this;
+    }
+
     @VisibleForTesting
     Builder setActivityManager(ActivityManager activityManager) {
       this.activityManager = activityManager;
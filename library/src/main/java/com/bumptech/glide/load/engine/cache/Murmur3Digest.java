@@ -0,0 +1,156 @@
+package com.bumptech.glide.load.engine.cache;
+
+import java.security.MessageDigest;
+
+/**
+ * A {@link MessageDigest} that computes the 128 bit x64 variant of MurmurHash3 with a seed of 0.
+ *
+ * <p>MurmurHash3 is not a cryptographic hash, but it's well distributed and several times faster
+ * than SHA-256, which makes it a good fit for naming disk cache entries whose keys aren't chosen
+ * by an adversary. The digest is the little endian encoding of the hash's two 64 bit halves, the
+ * same byte order used by Guava's {@code Hashing.murmur3_128()}.
+ */
+final class Murmur3Digest extends MessageDigest {
+  static final String ALGORITHM = "MurmurHash3-128";
+  static final int DIGEST_LENGTH = 16;
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private final byte[] block = new byte[DIGEST_LENGTH];
+  private int blockSize;
+  private long length;
+  private long h1;
+  private long h2;
+
+  Murmur3Digest() {
+    super(ALGORITHM);
+  }
+
+  @Override
+  protected int engineGetDigestLength() {
+    return DIGEST_LENGTH;
+  }
+
+  @Override
+  protected void engineUpdate(byte input) {
+    block[blockSize++] = input;
+    length++;
+    if (blockSize == DIGEST_LENGTH) {
+      mixBlock(block, 0);
+      blockSize = 0;
+    }
+  }
+
+  @Override
+  protected void engineUpdate(byte[] input, int offset, int len) {
+    length += len;
+    int end = offset + len;
+    if (blockSize > 0) {
+      int toCopy = Math.min(DIGEST_LENGTH - blockSize, len);
+      System.arraycopy(input, offset, block, blockSize, toCopy);
+      blockSize += toCopy;
+      offset += toCopy;
+      if (blockSize < DIGEST_LENGTH) {
+        return;
+      }
+      mixBlock(block, 0);
+      blockSize = 0;
+    }
+    while (end - offset >= DIGEST_LENGTH) {
+      mixBlock(input, offset);
+      offset += DIGEST_LENGTH;
+    }
+    blockSize = end - offset;
+    System.arraycopy(input, offset, block, 0, blockSize);
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    long k1 = 0;
+    long k2 = 0;
+    for (int i = blockSize - 1; i >= 8; i--) {
+      k2 = (k2 << 8) | (block[i] & 0xFFL);
+    }
+    for (int i = Math.min(blockSize, 8) - 1; i >= 0; i--) {
+      k1 = (k1 << 8) | (block[i] & 0xFFL);
+    }
+    h1 ^= mixK1(k1);
+    h2 ^= mixK2(k2);
+
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+
+    byte[] result = new byte[DIGEST_LENGTH];
+    putLongLittleEndian(result, 0, h1);
+    putLongLittleEndian(result, 8, h2);
+    engineReset();
+    return result;
+  }
+
+  @Override
+  protected void engineReset() {
+    blockSize = 0;
+    length = 0;
+    h1 = 0;
+    h2 = 0;
+  }
+
+  private void mixBlock(byte[] bytes, int offset) {
+    long k1 = getLongLittleEndian(bytes, offset);
+    long k2 = getLongLittleEndian(bytes, offset + 8);
+
+    h1 ^= mixK1(k1);
+    h1 = Long.rotateLeft(h1, 27);
+    h1 += h2;
+    h1 = h1 * 5 + 0x52dce729;
+
+    h2 ^= mixK2(k2);
+    h2 = Long.rotateLeft(h2, 31);
+    h2 += h1;
+    h2 = h2 * 5 + 0x38495ab5;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    return k2;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static long getLongLittleEndian(byte[] bytes, int offset) {
+    long result = 0;
+    for (int i = 7; i >= 0; i--) {
+      result = (result << 8) | (bytes[offset + i] & 0xFFL);
+    }
+    return result;
+  }
+
+  private static void putLongLittleEndian(byte[] bytes, int offset, long value) {
+    for (int i = 0; i < 8; i++) {
+      bytes[offset + i] = (byte) (value >>> (i * 8));
+    }
+  }
+}
@@ -15,55 +15,109 @@ import java.security.NoSuchAlgorithmException;
 /**
  * A class that generates and caches safe and unique string file names from {@link
  * com.bumptech.glide.load.Key}s.
+ *
+ * <p>Generated names are memoized in a set of independently locked LRU caches so that threads
+ * looking up different keys don't contend with each other.
  */
 // Public API.
 @SuppressWarnings("WeakerAccess")
 public class SafeKeyGenerator {
-  private final LruCache<Key, String> loadIdToSafeHash = new LruCache<>(1000);
-  private final Pools.Pool<PoolableDigestContainer> digestPool = FactoryPools.threadSafe(10,
-      new FactoryPools.Factory<PoolableDigestContainer>() {
-        @Override
-        public PoolableDigestContainer create() {
-          try {
-            return new PoolableDigestContainer(MessageDigest.getInstance("SHA-256"));
-          } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+  // Must be a power of two.
+  private static final int MEMO_SEGMENT_COUNT = 16;
+  private static final int MEMO_SEGMENT_SIZE = 256;
+
+  /** The hash functions that can be used to generate safe keys. */
+  public enum Algorithm {
+    /** Generates 64 character keys from a SHA-256 digest, the default. */
+    SHA_256,
+    /**
+     * Generates 32 character keys from a 128 bit MurmurHash3, which is several times faster to
+     * compute than SHA-256 but isn't a cryptographic hash.
+     */
+    MURMUR3_128,
+  }
+
+  private final Algorithm algorithm;
+  private final LruCache<Key, String>[] loadIdToSafeHash;
+  private final Pools.Pool<PoolableDigestContainer> digestPool;
+
+  public SafeKeyGenerator() {
+    this(Algorithm.SHA_256);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public SafeKeyGenerator(@NonNull final Algorithm algorithm) {
+    this.algorithm = Preconditions.checkNotNull(algorithm);
+    loadIdToSafeHash = new LruCache[MEMO_SEGMENT_COUNT];
+    for (int i = 0; i < MEMO_SEGMENT_COUNT; i++) {
+      loadIdToSafeHash[i] = new LruCache<>(MEMO_SEGMENT_SIZE);
+    }
+    digestPool = FactoryPools.threadSafe(10,
+        new FactoryPools.Factory<PoolableDigestContainer>() {
+          @Override
+          public PoolableDigestContainer create() {
+            return new PoolableDigestContainer(newMessageDigest(algorithm));
           }
-        }
-      });
+        });
+  }
+
+  @NonNull
+  public Algorithm getAlgorithm() {
+    return algorithm;
+  }
 
   public String getSafeKey(Key key) {
-    String safeKey;
-    synchronized (loadIdToSafeHash) {
-      safeKey = loadIdToSafeHash.get(key);
-    }
+    LruCache<Key, String> memo = getMemoSegment(key);
+    String safeKey = memo.get(key);
     if (safeKey == null) {
       safeKey = calculateHexStringDigest(key);
-    }
-    synchronized (loadIdToSafeHash) {
-      loadIdToSafeHash.put(key, safeKey);
+      memo.put(key, safeKey);
     }
     return safeKey;
   }
 
+  private LruCache<Key, String> getMemoSegment(Key key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return loadIdToSafeHash[hash & (MEMO_SEGMENT_COUNT - 1)];
+  }
+
   private String calculateHexStringDigest(Key key) {
     PoolableDigestContainer container = Preconditions.checkNotNull(digestPool.acquire());
     try {
       key.updateDiskCacheKey(container.messageDigest);
       // calling digest() will automatically reset()
-      return Util.sha256BytesToHex(container.messageDigest.digest());
+      return Util.bytesToHex(container.messageDigest.digest(), container.hexChars);
     } finally {
       digestPool.release(container);
     }
   }
 
+  @Synthetic
+  static MessageDigest newMessageDigest(Algorithm algorithm) {
+    switch (algorithm) {
+      case SHA_256:
+        try {
+          return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+          throw new RuntimeException(e);
+        }
+      case MURMUR3_128:
+        return new Murmur3Digest();
+      default:
+        throw new IllegalArgumentException("Unrecognized algorithm: " + algorithm);
+    }
+  }
+
   private static final class PoolableDigestContainer implements FactoryPools.Poolable {
 
     @Synthetic final MessageDigest messageDigest;
+    @Synthetic final char[] hexChars;
     private final StateVerifier stateVerifier = StateVerifier.newInstance();
 
     PoolableDigestContainer(MessageDigest messageDigest) {
       this.messageDigest = messageDigest;
+      hexChars = new char[messageDigest.getDigestLength() * 2];
     }
 
     @NonNull
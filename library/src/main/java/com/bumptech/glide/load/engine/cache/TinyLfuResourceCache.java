@@ -0,0 +1,358 @@
+package com.bumptech.glide.load.engine.cache;
+
+import android.annotation.SuppressLint;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in memory cache for {@link com.bumptech.glide.load.engine.Resource}s that's split into
+ * independently locked segments and uses a W-TinyLFU policy to decide which resources to keep.
+ *
+ * <p>Unlike {@link LruResourceCache}, which evicts strictly in least recently used order,
+ * resources that are only ever used once can't push out resources that are used repeatedly. New
+ * resources are first added to a small LRU window. Once they leave the window they have to compete
+ * with the next eviction candidate of the main region and are only kept if they've been requested
+ * more often recently, as estimated by a {@link FrequencySketch} that remembers keys even after
+ * their resources have left the cache.
+ *
+ * <p>Because Glide removes resources from the memory cache while they're in use, every lookup
+ * through {@link #remove(Key)} counts as an access, whether or not the resource was present.
+ *
+ * <p>The size limit applies to the cache as a whole rather than to each segment so that resources
+ * larger than a single segment's share can still be cached. Use this class with
+ * {@link com.bumptech.glide.GlideBuilder#setMemoryCache(MemoryCache)}.
+ */
+public class TinyLfuResourceCache implements MemoryCache {
+  private static final int DEFAULT_SEGMENT_COUNT = 4;
+  private static final float DEFAULT_WINDOW_FRACTION = 0.2f;
+  // Only used to size the frequency sketch, a rough estimate is fine.
+  private static final int ESTIMATED_AVERAGE_RESOURCE_SIZE = 64 * 1024;
+
+  private final Segment[] segments;
+  private final float windowFraction;
+  private final long initialMaxSize;
+  private final AtomicLong currentSize = new AtomicLong();
+  private volatile long maxSize;
+  private volatile ResourceRemovedListener listener;
+
+  /**
+   * Constructor for TinyLfuResourceCache.
+   *
+   * @param size The maximum size in bytes the in memory cache can use.
+   */
+  public TinyLfuResourceCache(long size) {
+    this(size, DEFAULT_SEGMENT_COUNT, DEFAULT_WINDOW_FRACTION);
+  }
+
+  /**
+   * Constructor for TinyLfuResourceCache.
+   *
+   * @param size           The maximum size in bytes the in memory cache can use.
+   * @param segmentCount   The number of independently locked segments, must be a power of two.
+   * @param windowFraction The fraction of each segment's share of the cache reserved for recently
+   *                       added resources that haven't yet had to compete for admission, between
+   *                       0 and 1.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public TinyLfuResourceCache(long size, int segmentCount, float windowFraction) {
+    Preconditions.checkArgument(segmentCount > 0 && (segmentCount & (segmentCount - 1)) == 0,
+        "Segment count must be a positive power of two");
+    Preconditions.checkArgument(windowFraction >= 0 && windowFraction <= 1,
+        "Window fraction must be between 0 and 1");
+    this.initialMaxSize = size;
+    this.maxSize = size;
+    this.windowFraction = windowFraction;
+
+    int expectedEntriesPerSegment =
+        (int) Math.min(Integer.MAX_VALUE, size / ESTIMATED_AVERAGE_RESOURCE_SIZE / segmentCount);
+    segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(currentSize, expectedEntriesPerSegment);
+    }
+  }
+
+  @Override
+  public void setResourceRemovedListener(@NonNull ResourceRemovedListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public long getCurrentSize() {
+    return currentSize.get();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @Override
+  public void setSizeMultiplier(float multiplier) {
+    if (multiplier < 0) {
+      throw new IllegalArgumentException("Multiplier must be >= 0");
+    }
+    maxSize = Math.round(initialMaxSize * multiplier);
+    trimToSize(maxSize);
+  }
+
+  /**
+   * Returns true if there is a resource for the given key in the cache.
+   *
+   * <p>Unlike {@link #remove(Key)}, this doesn't count as an access of the given key.
+   *
+   * @param key The key to check.
+   */
+  public boolean contains(@NonNull Key key) {
+    return segmentFor(key).contains(key);
+  }
+
+  @Nullable
+  @Override
+  public Resource<?> remove(@NonNull Key key) {
+    return segmentFor(key).remove(key);
+  }
+
+  @Nullable
+  @Override
+  public Resource<?> put(@NonNull Key key, @Nullable Resource<?> resource) {
+    if (resource == null) {
+      return remove(key);
+    }
+
+    int size = resource.getSize();
+    long currentMaxSize = maxSize;
+    if (size >= currentMaxSize) {
+      onResourceRemoved(resource);
+      return null;
+    }
+
+    long windowSize = (long) (currentMaxSize / segments.length * windowFraction);
+    Resource<?> old = segmentFor(key).put(key, resource, size, windowSize);
+    if (old != null && !old.equals(resource)) {
+      onResourceRemoved(old);
+    }
+    trimToSize(currentMaxSize);
+    return old;
+  }
+
+  @Override
+  public void clearMemory() {
+    trimToSize(0);
+  }
+
+  @SuppressLint("InlinedApi")
+  @Override
+  public void trimMemory(int level) {
+    if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+      // Entering list of cached background apps
+      // Evict our entire bitmap cache
+      clearMemory();
+    } else if (level >= android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN
+        || level == android.content.ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+      // The app's UI is no longer visible, or app is in the foreground but system is running
+      // critically low on memory
+      // Evict half of our bitmap cache
+      trimToSize(getMaxSize() / 2);
+    }
+  }
+
+  private void trimToSize(long size) {
+    while (currentSize.get() > size) {
+      Segment segment = getLargestSegment();
+      if (segment == null) {
+        return;
+      }
+      // Segments are locked one at a time and the listener is called without holding any lock so
+      // that listeners are free to put resources back into the cache.
+      Resource<?> evicted = segment.evict();
+      if (evicted != null) {
+        onResourceRemoved(evicted);
+      }
+    }
+  }
+
+  @Nullable
+  private Segment getLargestSegment() {
+    Segment largest = null;
+    long largestSize = 0;
+    for (Segment segment : segments) {
+      long segmentSize = segment.size.get();
+      if (segmentSize > largestSize) {
+        largest = segment;
+        largestSize = segmentSize;
+      }
+    }
+    return largest;
+  }
+
+  private Segment segmentFor(Key key) {
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return segments[hash & (segments.length - 1)];
+  }
+
+  private void onResourceRemoved(@NonNull Resource<?> resource) {
+    ResourceRemovedListener current = listener;
+    if (current != null) {
+      current.onResourceRemoved(resource);
+    }
+  }
+
+  /**
+   * A portion of the cache with its own lock, lookup table, frequency sketch and regions.
+   *
+   * <p>Resources are added to the head of the window region. When the window grows beyond its
+   * share, its least recently added resources move to the head of the main region. Evictions
+   * compare the most recent arrival in the main region against the least recent one and keep
+   * whichever has been requested more often.
+   */
+  private static final class Segment {
+    private final Map<Key, Node> nodes = new HashMap<>();
+    private final NodeList window = new NodeList();
+    private final NodeList main = new NodeList();
+    private final AtomicLong cacheSize;
+    private final FrequencySketch sketch;
+    // Read without holding the lock to choose which segment to evict from.
+    @Synthetic final AtomicLong size = new AtomicLong();
+    private long windowSize;
+
+    Segment(AtomicLong cacheSize, int expectedEntries) {
+      this.cacheSize = cacheSize;
+      this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    synchronized boolean contains(Key key) {
+      return nodes.containsKey(key);
+    }
+
+    @Nullable
+    synchronized Resource<?> remove(Key key) {
+      sketch.increment(key.hashCode());
+      Node node = nodes.remove(key);
+      if (node == null) {
+        return null;
+      }
+      unlink(node);
+      return node.resource;
+    }
+
+    @Nullable
+    synchronized Resource<?> put(Key key, Resource<?> resource, int resourceSize, long maxWindow) {
+      sketch.increment(key.hashCode());
+      Node node = new Node(key, resource, resourceSize);
+      Node old = nodes.put(key, node);
+      if (old != null) {
+        unlink(old);
+      }
+
+      window.addFirst(node);
+      node.isInWindow = true;
+      windowSize += resourceSize;
+      size.addAndGet(resourceSize);
+      cacheSize.addAndGet(resourceSize);
+
+      Node overflow;
+      while (windowSize > maxWindow && (overflow = window.last()) != null) {
+        window.unlink(overflow);
+        overflow.isInWindow = false;
+        windowSize -= overflow.size;
+        main.addFirst(overflow);
+      }
+      return old != null ? old.resource : null;
+    }
+
+    @Nullable
+    synchronized Resource<?> evict() {
+      Node victim = main.last();
+      Node candidate = main.first();
+      Node toEvict;
+      if (victim == null) {
+        toEvict = window.last();
+      } else if (candidate == victim) {
+        toEvict = victim;
+      } else {
+        // Only admit the newer resource at the expense of the older one if it's more popular.
+        int candidateFrequency = sketch.frequency(candidate.key.hashCode());
+        int victimFrequency = sketch.frequency(victim.key.hashCode());
+        toEvict = candidateFrequency > victimFrequency ? victim : candidate;
+      }
+
+      if (toEvict == null) {
+        return null;
+      }
+      nodes.remove(toEvict.key);
+      unlink(toEvict);
+      return toEvict.resource;
+    }
+
+    private void unlink(Node node) {
+      if (node.isInWindow) {
+        window.unlink(node);
+        windowSize -= node.size;
+      } else {
+        main.unlink(node);
+      }
+      size.addAndGet(-node.size);
+      cacheSize.addAndGet(-node.size);
+    }
+  }
+
+  private static final class Node {
+    @Synthetic final Key key;
+    @Synthetic final Resource<?> resource;
+    @Synthetic final int size;
+    @Synthetic boolean isInWindow;
+    @Synthetic Node prev;
+    @Synthetic Node next;
+
+    Node(Key key, Resource<?> resource, int size) {
+      this.key = key;
+      this.resource = resource;
+      this.size = size;
+    }
+  }
+
+  /**
+   * A doubly linked list of {@link Node}s, most recently added first.
+   */
+  private static final class NodeList {
+    private final Node head = new Node(null, null, 0);
+
+    NodeList() {
+      head.prev = head;
+      head.next = head;
+    }
+
+    void addFirst(Node node) {
+      node.prev = head;
+      node.next = head.next;
+      head.next.prev = node;
+      head.next = node;
+    }
+
+    @Nullable
+    Node first() {
+      return head.next == head ? null : head.next;
+    }
+
+    @Nullable
+    Node last() {
+      return head.prev == head ? null : head.prev;
+    }
+
+    void unlink(Node node) {
+      node.prev.next = node.next;
+      node.next.prev = node.prev;
+      node.prev = null;
+      node.next = null;
+    }
+  }
+}
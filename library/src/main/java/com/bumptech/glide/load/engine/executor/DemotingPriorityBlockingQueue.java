@@ -0,0 +1,94 @@
+package com.bumptech.glide.load.engine.executor;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.executor.GlideExecutor.PrioritizedTask;
+import com.bumptech.glide.util.Preconditions;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * A {@link PriorityBlockingQueue} that demotes the stalest task with the lowest priority behind all
+ * other tasks each time a new task is offered while the queue is deeper than a given threshold.
+ *
+ * <p>Tasks are queued in order, so the oldest task of a given priority is typically the one started
+ * for a view that has since scrolled off screen. Demoted tasks still run once every other task has
+ * run, they're never dropped.
+ *
+ * <p>Only {@link PrioritizedTask}s are demoted, other tasks are queued as usual.
+ */
+final class DemotingPriorityBlockingQueue extends PriorityBlockingQueue<Runnable> {
+  private static final long serialVersionUID = -8314569711843516781L;
+
+  private final int queueDepthThreshold;
+
+  DemotingPriorityBlockingQueue(int queueDepthThreshold) {
+    Preconditions.checkArgument(
+        queueDepthThreshold > 0, "Queue depth threshold must be greater than zero");
+    this.queueDepthThreshold = queueDepthThreshold;
+  }
+
+  @Override
+  public boolean offer(Runnable runnable) {
+    boolean result = super.offer(runnable);
+    if (size() > queueDepthThreshold) {
+      demoteStalestTask();
+    }
+    return result;
+  }
+
+  /**
+   * Re-queues the given task with the given priority if and only if the task is currently queued.
+   *
+   * <p>Priorities must not change while a task is inside the queue or the queue's ordering breaks,
+   * so the task is removed first and re-added with its new priority. Re-prioritized tasks are no
+   * longer demoted.
+   */
+  synchronized boolean setPriority(PrioritizedTask task, Priority priority) {
+    if (!remove(task)) {
+      return false;
+    }
+    task.setPriority(priority);
+    task.setDemoted(false);
+    super.offer(task);
+    return true;
+  }
+
+  // The queue is over the threshold, so there's always at least one other task left in it while
+  // the demoted task is removed. Workers therefore can't time out and strand the task.
+  private synchronized void demoteStalestTask() {
+    PrioritizedTask stalest = findStalestTask();
+    if (stalest != null && remove(stalest)) {
+      stalest.setDemoted(true);
+      super.offer(stalest);
+    }
+  }
+
+  @Nullable
+  private PrioritizedTask findStalestTask() {
+    PrioritizedTask stalest = null;
+    for (Object object : toArray()) {
+      if (!(object instanceof PrioritizedTask)) {
+        continue;
+      }
+      PrioritizedTask task = (PrioritizedTask) object;
+      if (task.isDemoted()) {
+        continue;
+      }
+      if (stalest == null || isStaler(task, stalest)) {
+        stalest = task;
+      }
+    }
+    return stalest;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static boolean isStaler(@NonNull PrioritizedTask task, @NonNull PrioritizedTask other) {
+    int priorityDifference = task.getPriority().ordinal() - other.getPriority().ordinal();
+    if (priorityDifference != 0) {
+      return priorityDifference > 0;
+    }
+    // Within a priority, tasks run in the order in which they were queued.
+    return ((Comparable<Object>) task).compareTo(other) < 0;
+  }
+}
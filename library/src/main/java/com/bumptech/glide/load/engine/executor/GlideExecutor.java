@@ -5,13 +5,16 @@ import android.os.StrictMode.ThreadPolicy;
 import android.support.annotation.NonNull;
 import android.support.annotation.VisibleForTesting;
 import android.util.Log;
+import com.bumptech.glide.Priority;
 import com.bumptech.glide.util.Synthetic;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
@@ -51,6 +54,8 @@ public final class GlideExecutor implements ExecutorService {
 
   private static final String ANIMATION_EXECUTOR_NAME = "animation";
 
+  private static final String TILE_DECODE_EXECUTOR_NAME = "tile-decode";
+
   /**
    * The default keep alive time for threads in our cached thread pools in milliseconds.
    */
@@ -63,6 +68,11 @@ public final class GlideExecutor implements ExecutorService {
   // value more than once.
   private static volatile int bestThreadCount;
 
+  /**
+   * Indicates that an executor should never demote waiting jobs, no matter how many are queued.
+   */
+  public static final int NO_QUEUE_DEPTH_THRESHOLD = Integer.MAX_VALUE;
+
   private final ExecutorService delegate;
 
   /**
@@ -119,13 +129,42 @@ public final class GlideExecutor implements ExecutorService {
   @SuppressWarnings("WeakerAccess")
   public static GlideExecutor newDiskCacheExecutor(
       int threadCount, String name, UncaughtThrowableStrategy uncaughtThrowableStrategy) {
+    return newDiskCacheExecutor(
+        threadCount, name, uncaughtThrowableStrategy, NO_QUEUE_DEPTH_THRESHOLD);
+  }
+
+  /**
+   * Returns a new fixed thread pool with the given thread count, thread name prefix,
+   * {@link com.bumptech.glide.load.engine.executor.GlideExecutor.UncaughtThrowableStrategy}, and
+   * queue depth threshold.
+   *
+   * <p>Each time a job is queued while more than {@code queueDepthThreshold} jobs are waiting to
+   * run, the oldest waiting job with the lowest priority is demoted behind all other waiting jobs.
+   *
+   * <p>Disk cache executors do not allow network operations on their threads.
+   *
+   * @param threadCount The number of threads.
+   * @param name The prefix for each thread name.
+   * @param uncaughtThrowableStrategy The {@link
+   * com.bumptech.glide.load.engine.executor.GlideExecutor.UncaughtThrowableStrategy} to use to
+   *                                  handle uncaught exceptions.
+   * @param queueDepthThreshold The number of waiting jobs above which stale jobs are demoted, or
+   *                            {@link #NO_QUEUE_DEPTH_THRESHOLD} to never demote jobs.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static GlideExecutor newDiskCacheExecutor(
+      int threadCount,
+      String name,
+      UncaughtThrowableStrategy uncaughtThrowableStrategy,
+      int queueDepthThreshold) {
     return new GlideExecutor(
         new ThreadPoolExecutor(
             threadCount /* corePoolSize */,
             threadCount /* maximumPoolSize */,
             0 /* keepAliveTime */,
             TimeUnit.MILLISECONDS,
-            new PriorityBlockingQueue<Runnable>(),
+            newPriorityQueue(queueDepthThreshold),
             new DefaultThreadFactory(name, uncaughtThrowableStrategy, true)));
   }
 
@@ -184,13 +223,43 @@ public final class GlideExecutor implements ExecutorService {
   @SuppressWarnings("WeakerAccess")
   public static GlideExecutor newSourceExecutor(
       int threadCount, String name, UncaughtThrowableStrategy uncaughtThrowableStrategy) {
+    return newSourceExecutor(
+        threadCount, name, uncaughtThrowableStrategy, NO_QUEUE_DEPTH_THRESHOLD);
+  }
+
+  /**
+   * Returns a new fixed thread pool with the given thread count, thread name prefix,
+   * {@link com.bumptech.glide.load.engine.executor.GlideExecutor.UncaughtThrowableStrategy}, and
+   * queue depth threshold.
+   *
+   * <p>Each time a job is queued while more than {@code queueDepthThreshold} jobs are waiting to
+   * run, the oldest waiting job with the lowest priority is demoted behind all other waiting jobs.
+   * In a quickly scrolling list, those are typically the jobs for views that are no longer visible.
+   *
+   * <p>Source executors allow network operations on their threads.
+   *
+   * @param threadCount The number of threads.
+   * @param name The prefix for each thread name.
+   * @param uncaughtThrowableStrategy The {@link
+   * com.bumptech.glide.load.engine.executor.GlideExecutor.UncaughtThrowableStrategy} to use to
+   *                                  handle uncaught exceptions.
+   * @param queueDepthThreshold The number of waiting jobs above which stale jobs are demoted, or
+   *                            {@link #NO_QUEUE_DEPTH_THRESHOLD} to never demote jobs.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static GlideExecutor newSourceExecutor(
+      int threadCount,
+      String name,
+      UncaughtThrowableStrategy uncaughtThrowableStrategy,
+      int queueDepthThreshold) {
     return new GlideExecutor(
         new ThreadPoolExecutor(
             threadCount /* corePoolSize */,
             threadCount /* maximumPoolSize */,
             0 /* keepAliveTime */,
             TimeUnit.MILLISECONDS,
-            new PriorityBlockingQueue<Runnable>(),
+            newPriorityQueue(queueDepthThreshold),
             new DefaultThreadFactory(name, uncaughtThrowableStrategy, false)));
   }
 
@@ -258,11 +327,78 @@ public final class GlideExecutor implements ExecutorService {
                 true)));
   }
 
+  /**
+   * Returns a new thread pool with {@link #calculateBestThreadCount()} threads that decodes tiles
+   * of very large images in parallel for
+   * {@link com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder}.
+   */
+  public static GlideExecutor newTileDecodeExecutor() {
+    return newTileDecodeExecutor(calculateBestThreadCount(), UncaughtThrowableStrategy.DEFAULT);
+  }
+
+  /**
+   * Returns a new thread pool with the given thread count and {@link UncaughtThrowableStrategy}
+   * that decodes tiles of very large images in parallel.
+   *
+   * <p>Tiles are only decoded occasionally, so idle threads are allowed to time out.
+   */
+  // Public API.
+  @SuppressWarnings("WeakerAccess")
+  public static GlideExecutor newTileDecodeExecutor(
+      int threadCount, UncaughtThrowableStrategy uncaughtThrowableStrategy) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threadCount /* corePoolSize */,
+            threadCount /* maximumPoolSize */,
+            KEEP_ALIVE_TIME_MS,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new DefaultThreadFactory(
+                TILE_DECODE_EXECUTOR_NAME,
+                uncaughtThrowableStrategy,
+                true));
+    executor.allowCoreThreadTimeOut(true);
+    return new GlideExecutor(executor);
+  }
+
+  private static BlockingQueue<Runnable> newPriorityQueue(int queueDepthThreshold) {
+    return queueDepthThreshold == NO_QUEUE_DEPTH_THRESHOLD
+        ? new PriorityBlockingQueue<Runnable>()
+        : new DemotingPriorityBlockingQueue(queueDepthThreshold);
+  }
+
   @VisibleForTesting
   GlideExecutor(ExecutorService delegate) {
     this.delegate = delegate;
   }
 
+  /**
+   * Changes the priority of the given task and re-sorts it among the other waiting tasks if the
+   * task is waiting to run on this executor.
+   *
+   * <p>Returns {@code false} and leaves the task's priority alone if the task isn't waiting to run
+   * on this executor, for example because it's already running.
+   */
+  public boolean setPriority(@NonNull PrioritizedTask task, @NonNull Priority priority) {
+    if (!(delegate instanceof ThreadPoolExecutor)) {
+      return false;
+    }
+    ThreadPoolExecutor executor = (ThreadPoolExecutor) delegate;
+    BlockingQueue<Runnable> queue = executor.getQueue();
+    if (queue instanceof DemotingPriorityBlockingQueue) {
+      return ((DemotingPriorityBlockingQueue) queue).setPriority(task, priority);
+    }
+    // The task's priority must not change while it's in the queue, so take it out first. Going
+    // back through the executor makes sure there's a thread to run it.
+    if (!executor.remove(task)) {
+      return false;
+    }
+    task.setPriority(priority);
+    task.setDemoted(false);
+    executor.execute(task);
+    return true;
+  }
+
   @Override
   public void execute(@NonNull Runnable command) {
     delegate.execute(command);
@@ -408,6 +544,31 @@ public final class GlideExecutor implements ExecutorService {
     void handle(Throwable t);
   }
 
+  /**
+   * A task whose priority can be changed while it waits to run on a {@link GlideExecutor}.
+   *
+   * <p>Tasks are expected to order themselves by {@link Comparable#compareTo(Object)} so that
+   * demoted tasks come after all other tasks, followed by their {@link Priority} and then the order
+   * in which they were started.
+   */
+  public interface PrioritizedTask extends Runnable {
+
+    @NonNull
+    Priority getPriority();
+
+    /**
+     * Only called while the task isn't in an executor's queue.
+     */
+    void setPriority(@NonNull Priority priority);
+
+    boolean isDemoted();
+
+    /**
+     * Only called while the task isn't in an executor's queue.
+     */
+    void setDemoted(boolean isDemoted);
+  }
+
   /**
    * A {@link java.util.concurrent.ThreadFactory} that builds threads slightly above priority {@link
    * android.os.Process#THREAD_PRIORITY_BACKGROUND}.
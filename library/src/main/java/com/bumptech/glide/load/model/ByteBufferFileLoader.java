@@ -1,6 +1,7 @@
 package com.bumptech.glide.load.model;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import android.util.Log;
 import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
@@ -8,6 +9,7 @@ import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.signature.ObjectKey;
 import com.bumptech.glide.util.ByteBufferUtil;
+import com.bumptech.glide.util.MappedBufferTracker;
 import com.bumptech.glide.util.Synthetic;
 import java.io.File;
 import java.io.IOException;
@@ -50,6 +52,7 @@ public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
   private static final class ByteBufferFetcher implements DataFetcher<ByteBuffer> {
 
     private final File file;
+    @Nullable private ByteBuffer mappedBuffer;
 
     @Synthetic
     @SuppressWarnings("WeakerAccess")
@@ -62,7 +65,7 @@ public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
         @NonNull DataCallback<? super ByteBuffer> callback) {
       ByteBuffer result;
       try {
-        result = ByteBufferUtil.fromFile(file);
+        result = ByteBufferUtil.mapFile(file);
       } catch (IOException e) {
         if (Log.isLoggable(TAG, Log.DEBUG)) {
           Log.d(TAG, "Failed to obtain ByteBuffer for file", e);
@@ -71,12 +74,18 @@ public class ByteBufferFileLoader implements ModelLoader<File, ByteBuffer> {
         return;
       }
 
+      mappedBuffer = result;
       callback.onDataReady(result);
     }
 
+    // Decoders that keep the buffer after the decode finishes retain it first, so this only unmaps
+    // the file if nothing else is using it.
     @Override
     public void cleanup() {
-      // Do nothing.
+      if (mappedBuffer != null) {
+        MappedBufferTracker.getInstance().release(mappedBuffer);
+        mappedBuffer = null;
+      }
     }
 
     @Override
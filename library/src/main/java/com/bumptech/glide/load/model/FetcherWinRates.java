@@ -0,0 +1,62 @@
+package com.bumptech.glide.load.model;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.data.DataFetcher;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link HedgedFetchOptions.Listener} that counts how often each {@link DataFetcher} class wins
+ * hedged loads.
+ *
+ * <p>Use the same instance for every load whose win rates should be added up, for example by
+ * setting it in Glide's default request options.
+ */
+public final class FetcherWinRates implements HedgedFetchOptions.Listener {
+  private final Map<Class<?>, Integer> winCounts = new HashMap<>();
+  private int hedgedWinCount;
+  private int totalCount;
+
+  @Override
+  public synchronized void onFetcherWon(
+      @NonNull DataFetcher<?> fetcher, int fetcherIndex, int startedFetcherCount) {
+    Class<?> fetcherClass = fetcher.getClass();
+    Integer count = winCounts.get(fetcherClass);
+    winCounts.put(fetcherClass, count == null ? 1 : count + 1);
+    if (startedFetcherCount > 1) {
+      hedgedWinCount++;
+    }
+    totalCount++;
+  }
+
+  /** Returns the number of hedged loads that have finished with data. */
+  public synchronized int getTotalCount() {
+    return totalCount;
+  }
+
+  /** Returns the number of loads that were won after more than one fetcher was started. */
+  public synchronized int getHedgedWinCount() {
+    return hedgedWinCount;
+  }
+
+  /** Returns the number of loads won by {@link DataFetcher}s of the given class. */
+  public synchronized int getWinCount(@NonNull Class<?> fetcherClass) {
+    Integer count = winCounts.get(fetcherClass);
+    return count == null ? 0 : count;
+  }
+
+  /**
+   * Returns the fraction of loads won by {@link DataFetcher}s of the given class, or {@code 0} if
+   * no loads have finished.
+   */
+  public synchronized float getWinRate(@NonNull Class<?> fetcherClass) {
+    return totalCount == 0 ? 0 : getWinCount(fetcherClass) / (float) totalCount;
+  }
+
+  /** Forgets the loads counted so far. */
+  public synchronized void clear() {
+    winCounts.clear();
+    hedgedWinCount = 0;
+    totalCount = 0;
+  }
+}
@@ -0,0 +1,53 @@
+package com.bumptech.glide.load.model;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Option;
+import com.bumptech.glide.load.data.DataFetcher;
+
+/**
+ * Options that let loads race the {@link DataFetcher}s of the {@link ModelLoader}s registered for
+ * the same model and data class, instead of trying them one after another.
+ *
+ * <p>When more than one registered {@link ModelLoader} handles a model, Glide normally only starts
+ * the next {@link DataFetcher} once the previous one fails. If {@link #HEDGE_DELAY_MS} is set and
+ * a {@link DataFetcher} hasn't delivered data after that delay, the next one is started alongside
+ * it. The first {@link DataFetcher} to deliver data wins and the others are cancelled.
+ *
+ * <p>Hedged {@link DataFetcher}s are started on a shared background thread pool because fetchers
+ * like {@link com.bumptech.glide.load.data.HttpUrlFetcher} block the thread that starts them.
+ */
+public final class HedgedFetchOptions {
+
+  /**
+   * The number of milliseconds to wait for a {@link DataFetcher} to deliver data before the next
+   * one is started alongside it. Hedging is disabled if it isn't set, which is the default.
+   */
+  public static final Option<Integer> HEDGE_DELAY_MS = Option.memory(
+      "com.bumptech.glide.load.model.HedgedFetchOptions.HedgeDelayMs");
+
+  /** The {@link Listener} that's told which {@link DataFetcher} won each hedged load. */
+  public static final Option<Listener> LISTENER = Option.memory(
+      "com.bumptech.glide.load.model.HedgedFetchOptions.Listener");
+
+  /**
+   * Receives the outcome of loads whose {@link DataFetcher}s are hedged.
+   *
+   * @see FetcherWinRates
+   */
+  public interface Listener {
+
+    /**
+     * Called on the thread the winning {@link DataFetcher} delivered its data on, before the data
+     * is passed on to be decoded.
+     *
+     * @param fetcher The {@link DataFetcher} whose data is used.
+     * @param fetcherIndex The zero based priority of the winning fetcher's {@link ModelLoader}.
+     * @param startedFetcherCount The number of {@link DataFetcher}s that had been started.
+     */
+    void onFetcherWon(@NonNull DataFetcher<?> fetcher, int fetcherIndex, int startedFetcherCount);
+  }
+
+  private HedgedFetchOptions() {
+    // Utility class.
+  }
+}
@@ -0,0 +1,57 @@
+package com.bumptech.glide.load.model;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import com.bumptech.glide.util.Preconditions;
+
+/**
+ * A {@link ModelLoaderFactory} that doesn't create the factory it delegates to until the first
+ * time a {@link ModelLoader} is built.
+ *
+ * <p>If no {@link ModelLoader} is ever built, the delegate is never created and
+ * {@link #teardown()} does nothing.
+ *
+ * @param <T> The type of the model the {@link ModelLoader}s built by this factory can handle.
+ * @param <Y> The type of data the {@link ModelLoader}s built by this factory can load.
+ */
+public final class LazyModelLoaderFactory<T, Y> implements ModelLoaderFactory<T, Y> {
+  private GlideSupplier<ModelLoaderFactory<T, Y>> supplier;
+  private ModelLoaderFactory<T, Y> factory;
+
+  private LazyModelLoaderFactory(GlideSupplier<ModelLoaderFactory<T, Y>> supplier) {
+    this.supplier = Preconditions.checkNotNull(supplier);
+  }
+
+  /**
+   * Returns a factory that obtains the factory it delegates to from the given supplier the first
+   * time it builds a {@link ModelLoader}.
+   *
+   * <p>The given supplier is called at most once.
+   */
+  @NonNull
+  public static <T, Y> LazyModelLoaderFactory<T, Y> of(
+      @NonNull GlideSupplier<ModelLoaderFactory<T, Y>> factory) {
+    return new LazyModelLoaderFactory<>(factory);
+  }
+
+  @NonNull
+  @Override
+  public ModelLoader<T, Y> build(@NonNull MultiModelLoaderFactory multiFactory) {
+    return getFactory().build(multiFactory);
+  }
+
+  private synchronized ModelLoaderFactory<T, Y> getFactory() {
+    if (factory == null) {
+      factory = Preconditions.checkNotNull(supplier.get());
+      supplier = null;
+    }
+    return factory;
+  }
+
+  @Override
+  public synchronized void teardown() {
+    if (factory != null) {
+      factory.teardown();
+    }
+  }
+}
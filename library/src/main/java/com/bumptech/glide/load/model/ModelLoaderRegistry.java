@@ -13,6 +13,9 @@ import java.util.Map;
 /**
  * Maintains an ordered put of {@link ModelLoader}s and the model and data types they handle in
  * order from highest priority to lowest.
+ *
+ * <p>Registering and building {@link ModelLoader}s is synchronized, but the {@link ModelLoader}s
+ * already built for a model class are looked up without locking.
  */
 // Hides Model throughout.
 @SuppressWarnings("TypeParameterHidesVisibleType")
@@ -100,8 +103,18 @@ public class ModelLoaderRegistry {
   }
 
   @NonNull
-  private synchronized <A> List<ModelLoader<A, ?>> getModelLoadersForClass(
+  private <A> List<ModelLoader<A, ?>> getModelLoadersForClass(@NonNull Class<A> modelClass) {
+    List<ModelLoader<A, ?>> loaders = cache.get(modelClass);
+    if (loaders == null) {
+      loaders = buildModelLoadersForClass(modelClass);
+    }
+    return loaders;
+  }
+
+  @NonNull
+  private synchronized <A> List<ModelLoader<A, ?>> buildModelLoadersForClass(
       @NonNull Class<A> modelClass) {
+    // Another thread may have built the loaders while we were waiting for the lock.
     List<ModelLoader<A, ?>> loaders = cache.get(modelClass);
     if (loaders == null) {
       loaders = Collections.unmodifiableList(multiModelLoaderFactory.build(modelClass));
@@ -116,36 +129,37 @@ public class ModelLoaderRegistry {
     return (Class<A>) model.getClass();
   }
 
+  /**
+   * An immutable map of model classes to their {@link ModelLoader}s that is copied on each write
+   * and published through a volatile field, so that reads never lock.
+   *
+   * <p>Writes must be synchronized by the caller.
+   */
   private static class ModelLoaderCache {
-    private final Map<Class<?>, Entry<?>> cachedModelLoaders = new HashMap<>();
+    private volatile Map<Class<?>, List<? extends ModelLoader<?, ?>>> cachedModelLoaders =
+        Collections.emptyMap();
 
     @Synthetic
     ModelLoaderCache() { }
 
     public void clear() {
-      cachedModelLoaders.clear();
+      cachedModelLoaders = Collections.emptyMap();
     }
 
     public <Model> void put(Class<Model> modelClass, List<ModelLoader<Model, ?>> loaders) {
-      Entry<?> previous = cachedModelLoaders.put(modelClass, new Entry<>(loaders));
-      if (previous != null) {
+      Map<Class<?>, List<? extends ModelLoader<?, ?>>> current = cachedModelLoaders;
+      if (current.containsKey(modelClass)) {
         throw new IllegalStateException("Already cached loaders for model: " + modelClass);
       }
+      Map<Class<?>, List<? extends ModelLoader<?, ?>>> updated = new HashMap<>(current);
+      updated.put(modelClass, loaders);
+      cachedModelLoaders = updated;
     }
 
     @Nullable
     @SuppressWarnings("unchecked")
     public <Model> List<ModelLoader<Model, ?>> get(Class<Model> modelClass) {
-      Entry<Model> entry = (Entry<Model>) cachedModelLoaders.get(modelClass);
-      return entry == null ? null : entry.loaders;
-    }
-
-    private static class Entry<Model> {
-      @Synthetic final List<ModelLoader<Model, ?>> loaders;
-
-      public Entry(List<ModelLoader<Model, ?>> loaders) {
-        this.loaders = loaders;
-      }
+      return (List<ModelLoader<Model, ?>>) cachedModelLoaders.get(modelClass);
     }
   }
 }
@@ -10,10 +10,18 @@ import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.DataFetcher.DataCallback;
 import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.util.Preconditions;
+import com.bumptech.glide.util.Synthetic;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Allows attempting multiple ModelLoaders registered for a given model and data class.
@@ -52,8 +60,21 @@ class MultiModelLoader<Model, Data> implements ModelLoader<Model, Data> {
         }
       }
     }
-    return !fetchers.isEmpty() && sourceKey != null
-        ? new LoadData<>(sourceKey, new MultiFetcher<>(fetchers, exceptionListPool)) : null;
+    if (fetchers.isEmpty() || sourceKey == null) {
+      return null;
+    }
+    Integer hedgeDelayMs = options.get(HedgedFetchOptions.HEDGE_DELAY_MS);
+    DataFetcher<Data> fetcher =
+        hedgeDelayMs != null && fetchers.size() > 1
+            ? new HedgedFetcher<>(
+                fetchers,
+                exceptionListPool,
+                hedgeDelayMs,
+                options.get(HedgedFetchOptions.LISTENER),
+                HedgeExecutorHolder.SCHEDULER,
+                HedgeExecutorHolder.EXECUTOR)
+            : new MultiFetcher<>(fetchers, exceptionListPool);
+    return new LoadData<>(sourceKey, fetcher);
   }
 
   @Override
@@ -168,4 +189,280 @@ class MultiModelLoader<Model, Data> implements ModelLoader<Model, Data> {
       }
     }
   }
+
+  /**
+   * Races {@link DataFetcher}s, starting each one after the previous one fails or hasn't delivered
+   * data within the hedge delay.
+   *
+   * <p>Hedges are scheduled rather than waited for, so no thread is used until a hedged fetcher is
+   * actually started.
+   *
+   * @see HedgedFetchOptions
+   */
+  static final class HedgedFetcher<Data> implements DataFetcher<Data> {
+    private final List<DataFetcher<Data>> fetchers;
+    private final Pool<List<Throwable>> throwableListPool;
+    private final long hedgeDelayMs;
+    @Nullable private final HedgedFetchOptions.Listener listener;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+
+    // Guarded by this.
+    private int startedCount;
+    private int failedCount;
+    private int winnerIndex = -1;
+    private boolean isDone;
+    @Nullable private List<Throwable> exceptions;
+    @Nullable private ScheduledFuture<?> pendingHedge;
+
+    private Priority priority;
+    private DataCallback<? super Data> callback;
+
+    HedgedFetcher(
+        @NonNull List<DataFetcher<Data>> fetchers,
+        @NonNull Pool<List<Throwable>> throwableListPool,
+        long hedgeDelayMs,
+        @Nullable HedgedFetchOptions.Listener listener,
+        @NonNull ScheduledExecutorService scheduler,
+        @NonNull Executor executor) {
+      Preconditions.checkNotEmpty(fetchers);
+      this.fetchers = fetchers;
+      this.throwableListPool = throwableListPool;
+      this.hedgeDelayMs = hedgeDelayMs;
+      this.listener = listener;
+      this.scheduler = scheduler;
+      this.executor = executor;
+    }
+
+    @Override
+    public void loadData(
+        @NonNull Priority priority, @NonNull DataCallback<? super Data> callback) {
+      synchronized (this) {
+        this.priority = priority;
+        this.callback = callback;
+        exceptions = throwableListPool.acquire();
+      }
+      start(0 /*index*/);
+    }
+
+    /**
+     * Starts the fetcher at the given index unless the load is done or the fetcher has already been
+     * started, after scheduling the start of the fetcher after it.
+     */
+    @Synthetic
+    void start(int index) {
+      Priority priority;
+      ScheduledFuture<?> previousHedge;
+      synchronized (this) {
+        if (isDone || startedCount != index) {
+          return;
+        }
+        startedCount = index + 1;
+        priority = this.priority;
+        // The previous hedge either started this fetcher or is no longer needed.
+        previousHedge = pendingHedge;
+        pendingHedge = index < fetchers.size() - 1
+            ? scheduler.schedule(new HedgeRunnable(index + 1), hedgeDelayMs, TimeUnit.MILLISECONDS)
+            : null;
+      }
+      cancelHedge(previousHedge);
+      fetchers.get(index).loadData(priority, new FetcherCallback(index));
+    }
+
+    /**
+     * Starts the fetcher at the given index on the executor, unless the load finished or the
+     * fetcher was started because all of the fetchers before it failed within the hedge delay.
+     */
+    @Synthetic
+    void hedge(final int index) {
+      synchronized (this) {
+        if (isDone || startedCount != index) {
+          return;
+        }
+      }
+      // Fetchers may block the thread that starts them, which mustn't be the scheduler's.
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          start(index);
+        }
+      });
+    }
+
+    private static void cancelHedge(@Nullable ScheduledFuture<?> hedge) {
+      if (hedge != null) {
+        hedge.cancel(false /*mayInterruptIfRunning*/);
+      }
+    }
+
+    @Synthetic
+    void onFetcherDataReady(int index, @Nullable Data data) {
+      if (data == null) {
+        onFetcherFailed(index, null /*e*/);
+        return;
+      }
+      DataCallback<? super Data> callback;
+      int startedCount;
+      ScheduledFuture<?> pendingHedge;
+      boolean isLate;
+      synchronized (this) {
+        isLate = isDone;
+        isDone = true;
+        if (!isLate) {
+          winnerIndex = index;
+        }
+        callback = this.callback;
+        startedCount = this.startedCount;
+        pendingHedge = this.pendingHedge;
+        this.pendingHedge = null;
+      }
+      if (isLate) {
+        // Another fetcher won, or the load was cancelled and may already have been cleaned up, so
+        // nothing else will release this fetcher's data.
+        fetchers.get(index).cleanup();
+        return;
+      }
+      cancelHedge(pendingHedge);
+      for (int i = 0; i < startedCount; i++) {
+        if (i != index) {
+          fetchers.get(i).cancel();
+        }
+      }
+      if (listener != null) {
+        listener.onFetcherWon(fetchers.get(index), index, startedCount);
+      }
+      callback.onDataReady(data);
+    }
+
+    @Synthetic
+    void onFetcherFailed(int index, @Nullable Exception e) {
+      DataCallback<? super Data> callback;
+      GlideException failure = null;
+      int nextIndex = -1;
+      ScheduledFuture<?> pendingHedge = null;
+      synchronized (this) {
+        if (isDone) {
+          return;
+        }
+        if (e != null) {
+          Preconditions.checkNotNull(exceptions).add(e);
+        }
+        failedCount++;
+        if (failedCount < startedCount) {
+          // Other fetchers are still running.
+          return;
+        }
+        if (startedCount < fetchers.size()) {
+          nextIndex = startedCount;
+        } else {
+          isDone = true;
+          failure =
+              new GlideException(
+                  "Fetch failed", new ArrayList<>(Preconditions.checkNotNull(exceptions)));
+          pendingHedge = this.pendingHedge;
+          this.pendingHedge = null;
+        }
+        callback = this.callback;
+      }
+      cancelHedge(pendingHedge);
+      if (failure != null) {
+        callback.onLoadFailed(failure);
+      } else {
+        start(nextIndex);
+      }
+    }
+
+    @Override
+    public void cleanup() {
+      synchronized (this) {
+        if (exceptions != null) {
+          throwableListPool.release(exceptions);
+        }
+        exceptions = null;
+      }
+      for (DataFetcher<Data> fetcher : fetchers) {
+        fetcher.cleanup();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      ScheduledFuture<?> pendingHedge;
+      synchronized (this) {
+        isDone = true;
+        pendingHedge = this.pendingHedge;
+        this.pendingHedge = null;
+      }
+      cancelHedge(pendingHedge);
+      for (DataFetcher<Data> fetcher : fetchers) {
+        fetcher.cancel();
+      }
+    }
+
+    @NonNull
+    @Override
+    public Class<Data> getDataClass() {
+      return fetchers.get(0).getDataClass();
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      int index;
+      synchronized (this) {
+        index = Math.max(winnerIndex, 0);
+      }
+      return fetchers.get(index).getDataSource();
+    }
+
+    private final class HedgeRunnable implements Runnable {
+      private final int index;
+
+      @Synthetic
+      HedgeRunnable(int index) {
+        this.index = index;
+      }
+
+      @Override
+      public void run() {
+        hedge(index);
+      }
+    }
+
+    private final class FetcherCallback implements DataCallback<Data> {
+      private final int index;
+
+      @Synthetic
+      FetcherCallback(int index) {
+        this.index = index;
+      }
+
+      @Override
+      public void onDataReady(@Nullable Data data) {
+        onFetcherDataReady(index, data);
+      }
+
+      @Override
+      public void onLoadFailed(@NonNull Exception e) {
+        onFetcherFailed(index, e);
+      }
+    }
+  }
+
+  /**
+   * Lazily creates the thread that schedules hedges and the thread pool hedged fetchers are started
+   * on.
+   */
+  private static final class HedgeExecutorHolder {
+    @Synthetic static final ScheduledExecutorService SCHEDULER =
+        Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+          @Override
+          public Thread newThread(@NonNull Runnable runnable) {
+            Thread thread = new Thread(runnable, "glide-hedge-scheduler");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    @Synthetic static final Executor EXECUTOR = GlideExecutor.newUnlimitedSourceExecutor();
+  }
 }
@@ -4,7 +4,9 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import com.bumptech.glide.load.Option;
 import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
 import com.bumptech.glide.load.data.HttpUrlFetcher;
+import com.bumptech.glide.load.data.StreamCoalescer;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.ModelCache;
 import com.bumptech.glide.load.model.ModelLoader;
@@ -29,13 +31,24 @@ public class HttpGlideUrlLoader implements ModelLoader<GlideUrl, InputStream> {
       "com.bumptech.glide.load.model.stream.HttpGlideUrlLoader.Timeout", 2500);
 
   @Nullable private final ModelCache<GlideUrl, GlideUrl> modelCache;
+  @Nullable private final StreamCoalescer streamCoalescer;
 
   public HttpGlideUrlLoader() {
     this(null);
   }
 
   public HttpGlideUrlLoader(@Nullable ModelCache<GlideUrl, GlideUrl> modelCache) {
+    this(modelCache, null);
+  }
+
+  /**
+   * @param streamCoalescer If non-null, shares a single connection between concurrent loads of
+   *     the same {@link GlideUrl}.
+   */
+  public HttpGlideUrlLoader(@Nullable ModelCache<GlideUrl, GlideUrl> modelCache,
+      @Nullable StreamCoalescer streamCoalescer) {
     this.modelCache = modelCache;
+    this.streamCoalescer = streamCoalescer;
   }
 
   @Override
@@ -52,7 +65,11 @@ public class HttpGlideUrlLoader implements ModelLoader<GlideUrl, InputStream> {
       }
     }
     int timeout = options.get(TIMEOUT);
-    return new LoadData<>(url, new HttpUrlFetcher(url, timeout));
+    DataFetcher<InputStream> fetcher = new HttpUrlFetcher(url, timeout);
+    if (streamCoalescer != null) {
+      fetcher = streamCoalescer.coalesce(url, fetcher);
+    }
+    return new LoadData<>(url, fetcher);
   }
 
   @Override
@@ -65,11 +82,12 @@ public class HttpGlideUrlLoader implements ModelLoader<GlideUrl, InputStream> {
    */
   public static class Factory implements ModelLoaderFactory<GlideUrl, InputStream> {
     private final ModelCache<GlideUrl, GlideUrl> modelCache = new ModelCache<>(500);
+    private final StreamCoalescer streamCoalescer = new StreamCoalescer();
 
     @NonNull
     @Override
     public ModelLoader<GlideUrl, InputStream> build(MultiModelLoaderFactory multiFactory) {
-      return new HttpGlideUrlLoader(modelCache);
+      return new HttpGlideUrlLoader(modelCache, streamCoalescer);
     }
 
     @Override
@@ -0,0 +1,52 @@
+package com.bumptech.glide.load.resource;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.GlideSuppliers;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import java.io.IOException;
+
+/**
+ * A {@link ResourceDecoder} that doesn't create the decoder it delegates to until it's first asked
+ * to decode something.
+ *
+ * <p>Lets {@link com.bumptech.glide.Registry}s be populated with decoders that are expensive to
+ * create, or that load many classes, without paying for them until a load needs them.
+ *
+ * @param <T> The type of the data that will be decoded.
+ * @param <Z> The type of resource that will be decoded.
+ */
+public final class LazyResourceDecoder<T, Z> implements ResourceDecoder<T, Z> {
+  private final GlideSupplier<ResourceDecoder<T, Z>> decoder;
+
+  private LazyResourceDecoder(GlideSupplier<ResourceDecoder<T, Z>> decoder) {
+    this.decoder = GlideSuppliers.memorize(decoder);
+  }
+
+  /**
+   * Returns a decoder that obtains the decoder it delegates to from the given supplier the first
+   * time it's used.
+   *
+   * <p>The given supplier is called at most once.
+   */
+  @NonNull
+  public static <T, Z> LazyResourceDecoder<T, Z> of(
+      @NonNull GlideSupplier<ResourceDecoder<T, Z>> decoder) {
+    return new LazyResourceDecoder<>(decoder);
+  }
+
+  @Override
+  public boolean handles(@NonNull T source, @NonNull Options options) throws IOException {
+    return decoder.get().handles(source, options);
+  }
+
+  @Nullable
+  @Override
+  public Resource<Z> decode(@NonNull T source, int width, int height, @NonNull Options options)
+      throws IOException {
+    return decoder.get().decode(source, width, height, options);
+  }
+}
@@ -0,0 +1,44 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.ByteBufferUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes very large images from {@link ByteBuffer ByteBuffers} in tiles, see
+ * {@link TiledBitmapDecoder}.
+ *
+ * <p>The tiles are decoded from the buffer's backing array when it has one. Other buffers, like
+ * the memory mapped files read back from the disk cache, are copied into a single array of
+ * exactly their size that every tile shares.
+ */
+public class ByteBufferTiledBitmapDecoder implements ResourceDecoder<ByteBuffer, Bitmap> {
+  private final TiledBitmapDecoder tiledBitmapDecoder;
+
+  public ByteBufferTiledBitmapDecoder(TiledBitmapDecoder tiledBitmapDecoder) {
+    this.tiledBitmapDecoder = tiledBitmapDecoder;
+  }
+
+  @Override
+  public boolean handles(@NonNull ByteBuffer source, @NonNull Options options)
+      throws IOException {
+    return tiledBitmapDecoder.handles(ByteBufferUtil.toStream(source), options);
+  }
+
+  @Override
+  public Resource<Bitmap> decode(@NonNull ByteBuffer source, int width, int height,
+      @NonNull Options options) throws IOException {
+    if (source.hasArray()) {
+      return tiledBitmapDecoder.decode(source.array(), source.arrayOffset() + source.position(),
+          source.remaining(), width, height, options);
+    }
+    byte[] data = new byte[source.remaining()];
+    source.duplicate().get(data);
+    return tiledBitmapDecoder.decode(data, 0 /*offset*/, data.length, width, height, options);
+  }
+}
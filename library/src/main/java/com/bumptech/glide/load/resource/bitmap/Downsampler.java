@@ -11,7 +11,7 @@ import android.util.Log;
 import com.bumptech.glide.load.DecodeFormat;
 import com.bumptech.glide.load.ImageHeaderParser;
 import com.bumptech.glide.load.ImageHeaderParser.ImageType;
-import com.bumptech.glide.load.ImageHeaderParserUtils;
+import com.bumptech.glide.load.ImageHeaderProbe;
 import com.bumptech.glide.load.Option;
 import com.bumptech.glide.load.Options;
 import com.bumptech.glide.load.engine.Resource;
@@ -220,48 +220,64 @@ public final class Downsampler {
       DecodeCallbacks callbacks) throws IOException {
     long startTime = LogTime.getLogTime();
 
-    int[] sourceDimensions = getDimensions(is, options, callbacks, bitmapPool);
-    int sourceWidth = sourceDimensions[0];
-    int sourceHeight = sourceDimensions[1];
-    String sourceMimeType = options.outMimeType;
-
-    // If we failed to obtain the image dimensions, we may end up with an incorrectly sized Bitmap,
-    // so we want to use a mutable Bitmap type. One way this can happen is if the image header is so
-    // large (10mb+) that our attempt to use inJustDecodeBounds fails and we're forced to decode the
-    // full size image.
-    if (sourceWidth == -1 || sourceHeight == -1) {
-      isHardwareConfigAllowed = false;
-    }
-
-    int orientation = ImageHeaderParserUtils.getOrientation(parsers, is, byteArrayPool);
-    int degreesToRotate = TransformationUtils.getExifOrientationDegrees(orientation);
-    boolean isExifOrientationRequired = TransformationUtils.isExifOrientationRequired(orientation);
-
-    int targetWidth = requestedWidth == Target.SIZE_ORIGINAL ? sourceWidth : requestedWidth;
-    int targetHeight = requestedHeight == Target.SIZE_ORIGINAL ? sourceHeight : requestedHeight;
-
-    ImageType imageType = ImageHeaderParserUtils.getType(parsers, is, byteArrayPool);
-
-    calculateScaling(
-        imageType,
-        is,
-        callbacks,
-        bitmapPool,
-        downsampleStrategy,
-        degreesToRotate,
-        sourceWidth,
-        sourceHeight,
-        targetWidth,
-        targetHeight,
-        options);
-    calculateConfig(
-        is,
-        decodeFormat,
-        isHardwareConfigAllowed,
-        isExifOrientationRequired,
-        options,
-        targetWidth,
-        targetHeight);
+    // Read the header once and answer every question about it from the same buffer, rather than
+    // re-reading the stream for the dimensions, orientation, type and alpha of the image.
+    ImageHeaderProbe probe = ImageHeaderProbe.probe(parsers, is, byteArrayPool);
+    int sourceWidth;
+    int sourceHeight;
+    String sourceMimeType;
+    int orientation;
+    int targetWidth;
+    int targetHeight;
+    ImageType imageType;
+    try {
+      int[] sourceDimensions = getDimensions(probe, is, options, callbacks, bitmapPool);
+      sourceWidth = sourceDimensions[0];
+      sourceHeight = sourceDimensions[1];
+      sourceMimeType = options.outMimeType;
+
+      // If we failed to obtain the image dimensions, we may end up with an incorrectly sized
+      // Bitmap, so we want to use a mutable Bitmap type. One way this can happen is if the image
+      // header is so large (10mb+) that our attempt to use inJustDecodeBounds fails and we're
+      // forced to decode the full size image.
+      if (sourceWidth == -1 || sourceHeight == -1) {
+        isHardwareConfigAllowed = false;
+      }
+
+      orientation = probe.getOrientation();
+      int degreesToRotate = TransformationUtils.getExifOrientationDegrees(orientation);
+      boolean isExifOrientationRequired =
+          TransformationUtils.isExifOrientationRequired(orientation);
+
+      targetWidth = requestedWidth == Target.SIZE_ORIGINAL ? sourceWidth : requestedWidth;
+      targetHeight = requestedHeight == Target.SIZE_ORIGINAL ? sourceHeight : requestedHeight;
+
+      imageType = probe.getType();
+
+      calculateScaling(
+          imageType,
+          probe,
+          is,
+          callbacks,
+          bitmapPool,
+          downsampleStrategy,
+          degreesToRotate,
+          sourceWidth,
+          sourceHeight,
+          targetWidth,
+          targetHeight,
+          options);
+      calculateConfig(
+          probe,
+          decodeFormat,
+          isHardwareConfigAllowed,
+          isExifOrientationRequired,
+          options,
+          targetWidth,
+          targetHeight);
+    } finally {
+      probe.release();
+    }
 
     boolean isKitKatOrGreater = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
     // Prior to KitKat, the inBitmap size must exactly match the size of the bitmap we're decoding.
@@ -321,6 +337,7 @@ public final class Downsampler {
 
   private static void calculateScaling(
       ImageType imageType,
+      ImageHeaderProbe probe,
       InputStream is,
       DecodeCallbacks decodeCallbacks,
       BitmapPool bitmapPool,
@@ -423,7 +440,7 @@ public final class Downsampler {
         sourceWidth % powerOfTwoSampleSize != 0 || sourceHeight % powerOfTwoSampleSize != 0) {
       // If we're not confident the image is in one of our types, fall back to checking the
       // dimensions again. inJustDecodeBounds decodes do obey inSampleSize.
-      int[] dimensions = getDimensions(is, options, decodeCallbacks, bitmapPool);
+      int[] dimensions = getDimensions(probe, is, options, decodeCallbacks, bitmapPool);
       // Power of two downsampling in BitmapFactory uses a variety of random factors to determine
       // rounding that we can't reliably replicate for all image formats. Use ceiling here to make
       // sure that we at least provide a Bitmap that's large enough to fit the content we're going
@@ -502,7 +519,7 @@ public final class Downsampler {
 
   @SuppressWarnings("deprecation")
   private void calculateConfig(
-      InputStream is,
+      ImageHeaderProbe probe,
       DecodeFormat format,
       boolean isHardwareConfigAllowed,
       boolean isExifOrientationRequired,
@@ -529,7 +546,7 @@ public final class Downsampler {
 
     boolean hasAlpha = false;
     try {
-      hasAlpha = ImageHeaderParserUtils.getType(parsers, is, byteArrayPool).hasAlpha();
+      hasAlpha = probe.getType().hasAlpha();
     } catch (IOException e) {
       if (Log.isLoggable(TAG, Log.DEBUG)) {
         Log.d(TAG, "Cannot determine whether the image has alpha or not from header"
@@ -544,6 +561,28 @@ public final class Downsampler {
     }
   }
 
+  /**
+   * A method for getting the dimensions of an image from the start of the given InputStream that
+   * was read by the given probe, falling back to the InputStream if the header doesn't fit.
+   */
+  private static int[] getDimensions(ImageHeaderProbe probe, InputStream is,
+      BitmapFactory.Options options, DecodeCallbacks decodeCallbacks, BitmapPool bitmapPool)
+      throws IOException {
+    options.inJustDecodeBounds = true;
+    TransformationUtils.getBitmapDrawableLock().lock();
+    try {
+      BitmapFactory.decodeByteArray(
+          probe.getPrefix(), 0 /*offset*/, probe.getPrefixLength(), options);
+    } finally {
+      TransformationUtils.getBitmapDrawableLock().unlock();
+    }
+    options.inJustDecodeBounds = false;
+    if ((options.outWidth <= 0 || options.outHeight <= 0) && !probe.containsWholeStream()) {
+      return getDimensions(is, options, decodeCallbacks, bitmapPool);
+    }
+    return new int[] { options.outWidth, options.outHeight };
+  }
+
   /**
    * A method for getting the dimensions of an image from the given InputStream.
    *
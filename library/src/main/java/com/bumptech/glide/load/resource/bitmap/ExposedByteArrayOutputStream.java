@@ -0,0 +1,38 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link ByteArrayOutputStream} that exposes its buffer so that image data isn't copied again
+ * once it's been read.
+ */
+final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+  ExposedByteArrayOutputStream(int size) {
+    super(size);
+  }
+
+  /** Reads the given stream to its end. */
+  void readFrom(InputStream is, ArrayPool byteArrayPool) throws IOException {
+    byte[] buffer = byteArrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    try {
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        write(buffer, 0, read);
+      }
+    } finally {
+      byteArrayPool.put(buffer);
+    }
+  }
+
+  /**
+   * Returns the stream's buffer, which holds {@link #size()} valid bytes and is replaced if more
+   * bytes are written.
+   */
+  byte[] getData() {
+    return buf;
+  }
+}
@@ -0,0 +1,329 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.ImageHeaderProbe;
+import com.bumptech.glide.load.Option;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.request.target.Target;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Decodes progressive JPEGs and interlaced PNGs while they're downloaded, handing lower quality
+ * versions of the image to a {@link PassListener} before the whole image is decoded by
+ * {@link Downsampler}.
+ *
+ * <p>Passes are only decoded while the decoder is waiting for more data. When data arrives faster
+ * than it can be decoded, intermediate passes are skipped. For JPEGs, a pass is decoded when a scan
+ * is complete. For PNGs, whose passes can't be found without inflating the image, a pass is decoded
+ * each time the amount of data read doubles.
+ *
+ * @see com.bumptech.glide.request.BaseRequestOptions#progressive()
+ */
+public final class ProgressiveBitmapDecoder implements ResourceDecoder<InputStream, Bitmap> {
+  /**
+   * Indicates that lower quality versions of progressive images should be delivered while they're
+   * loaded from their source.
+   */
+  public static final Option<Boolean> PROGRESSIVE = Option.memory(
+      "com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder.Progressive", false);
+
+  /**
+   * The {@link PassListener} that receives passes, set by
+   * {@link com.bumptech.glide.load.engine.DecodeJob} while decoding data from the source.
+   */
+  public static final Option<PassListener> PASS_LISTENER = Option.memory(
+      "com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder.PassListener");
+
+  private static final String TAG = "ProgressiveDecoder";
+  @VisibleForTesting
+  static final int MAX_PASSES = 8;
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  private static final int JPEG_START_OF_SCAN = 0xDA;
+
+  private final List<ImageHeaderParser> parsers;
+  private final Downsampler downsampler;
+  private final BitmapPool bitmapPool;
+  private final ArrayPool byteArrayPool;
+
+  /** Receives each pass decoded from a progressive image. */
+  public interface PassListener {
+
+    /**
+     * Called on the decoding thread with each pass, which the listener must recycle once it's no
+     * longer needed.
+     *
+     * @param passIndex The zero based index of the pass.
+     */
+    void onPassReady(@NonNull Resource<Bitmap> pass, int passIndex);
+  }
+
+  public ProgressiveBitmapDecoder(List<ImageHeaderParser> parsers, Downsampler downsampler,
+      BitmapPool bitmapPool, ArrayPool byteArrayPool) {
+    this.parsers = parsers;
+    this.downsampler = downsampler;
+    this.bitmapPool = bitmapPool;
+    this.byteArrayPool = byteArrayPool;
+  }
+
+  @Override
+  public boolean handles(@NonNull InputStream source, @NonNull Options options)
+      throws IOException {
+    if (!options.get(PROGRESSIVE) || options.get(PASS_LISTENER) == null
+        || !source.markSupported()) {
+      return false;
+    }
+    ImageHeaderProbe probe = ImageHeaderProbe.probe(parsers, source, byteArrayPool);
+    try {
+      return probe.isProgressive();
+    } finally {
+      probe.release();
+    }
+  }
+
+  @Override
+  public Resource<Bitmap> decode(@NonNull InputStream source, int width, int height,
+      @NonNull Options options) throws IOException {
+    PassListener listener = options.get(PASS_LISTENER);
+    ExposedByteArrayOutputStream bytes =
+        new ExposedByteArrayOutputStream(Math.max(source.available(), INITIAL_BUFFER_SIZE));
+    if (listener == null) {
+      bytes.readFrom(source, byteArrayPool);
+    } else {
+      readWithPasses(source, bytes, width, height, options, listener);
+    }
+    return downsampler.decode(
+        new ByteArrayInputStream(bytes.getData(), 0, bytes.size()), width, height, options);
+  }
+
+  @VisibleForTesting
+  void readWithPasses(InputStream source, ExposedByteArrayOutputStream bytes,
+      int width, int height, Options options, PassListener listener) throws IOException {
+    PassDecoder passDecoder = null;
+    byte[] buffer = byteArrayPool.get(ArrayPool.STANDARD_BUFFER_SIZE_BYTES, byte[].class);
+    try {
+      int read;
+      JpegScanFinder scanFinder = new JpegScanFinder();
+      // The end of the data that the last pass was decoded from.
+      int lastPassEnd = 0;
+      int passes = 0;
+      while ((read = source.read(buffer)) != -1) {
+        bytes.write(buffer, 0, read);
+        if (passes >= MAX_PASSES || source.available() > 0) {
+          continue;
+        }
+        if (passDecoder == null) {
+          passDecoder = PassDecoder.create(parsers, bitmapPool, byteArrayPool, bytes, width,
+              height, options);
+          if (passDecoder == null) {
+            continue;
+          }
+        }
+        int passEnd;
+        if (passDecoder.isJpeg) {
+          passEnd = scanFinder.findLastScanStart(bytes.getData(), bytes.size());
+        } else {
+          passEnd = bytes.size() >= 2 * lastPassEnd ? bytes.size() : 0;
+        }
+        if (passEnd > lastPassEnd) {
+          Bitmap pass = passDecoder.decode(bytes.getData(), passEnd);
+          if (pass != null) {
+            listener.onPassReady(BitmapResource.obtain(pass, bitmapPool), passes++);
+          }
+          lastPassEnd = passEnd;
+        }
+      }
+    } finally {
+      byteArrayPool.put(buffer);
+    }
+  }
+
+  /**
+   * Finds the start of each scan in a JPEG as it's read by walking its marker segments, so that
+   * bytes inside segments like APP1, which may hold an EXIF thumbnail with scans of its own, are
+   * never mistaken for markers.
+   */
+  @VisibleForTesting
+  static final class JpegScanFinder {
+    private static final int MARKER = 0xFF;
+    private static final int START_OF_IMAGE = 0xD8;
+    private static final int END_OF_IMAGE = 0xD9;
+    private static final int FIRST_RESTART = 0xD0;
+    private static final int LAST_RESTART = 0xD7;
+    private static final int TEMPORARY = 0x01;
+
+    // The offset of the next marker or, within a scan, of the next entropy coded byte.
+    private int offset = 2;
+    private boolean inScan;
+    private boolean finished;
+    private int scans;
+    private int lastScanStart;
+
+    /**
+     * Returns the offset of the last start of scan marker after the first one in the first
+     * {@code length} bytes of {@code data}, or 0.
+     *
+     * <p>Each call continues from where the previous call stopped, so {@code data} must hold the
+     * same bytes each time, followed by any bytes read since.
+     */
+    int findLastScanStart(byte[] data, int length) {
+      while (!finished && offset + 1 < length) {
+        int current = data[offset] & 0xFF;
+        int next = data[offset + 1] & 0xFF;
+        if (inScan) {
+          // Entropy coded data escapes 0xFF with 0x00, so any marker other than a restart ends
+          // the scan.
+          if (current != MARKER) {
+            offset++;
+          } else if (next == 0 || isRestart(next)) {
+            offset += 2;
+          } else if (next == MARKER) {
+            offset++;
+          } else {
+            inScan = false;
+          }
+        } else if (current != MARKER) {
+          // Not a JPEG we understand, the whole image will still be decoded normally.
+          finished = true;
+        } else if (next == MARKER) {
+          offset++;
+        } else if (next == END_OF_IMAGE) {
+          finished = true;
+        } else if (isRestart(next) || next == START_OF_IMAGE || next == TEMPORARY) {
+          offset += 2;
+        } else if (offset + 3 < length) {
+          int segmentLength = (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+          if (segmentLength < 2) {
+            finished = true;
+          } else {
+            if (next == JPEG_START_OF_SCAN) {
+              // The first scan has nothing before it to decode.
+              if (scans++ > 0) {
+                lastScanStart = offset;
+              }
+              inScan = true;
+            }
+            offset += 2 + segmentLength;
+          }
+        } else {
+          break;
+        }
+      }
+      return lastScanStart;
+    }
+
+    private static boolean isRestart(int marker) {
+      return marker >= FIRST_RESTART && marker <= LAST_RESTART;
+    }
+  }
+
+  /** Decodes passes from the data read so far, once the image's header has been read. */
+  private static final class PassDecoder {
+    private final BitmapPool bitmapPool;
+    final boolean isJpeg;
+    private final int orientation;
+    private final int sampleSize;
+    private final int sampledWidth;
+    private final int sampledHeight;
+    private final Bitmap.Config config;
+
+    private PassDecoder(BitmapPool bitmapPool, boolean isJpeg, int orientation, int sampleSize,
+        int sampledWidth, int sampledHeight, Bitmap.Config config) {
+      this.bitmapPool = bitmapPool;
+      this.isJpeg = isJpeg;
+      this.orientation = orientation;
+      this.sampleSize = sampleSize;
+      this.sampledWidth = sampledWidth;
+      this.sampledHeight = sampledHeight;
+      this.config = config;
+    }
+
+    // Returns null until the data read so far includes the header.
+    @Nullable
+    static PassDecoder create(List<ImageHeaderParser> parsers, BitmapPool bitmapPool,
+        ArrayPool byteArrayPool, ExposedByteArrayOutputStream bytes, int width, int height,
+        Options options) throws IOException {
+      BitmapFactory.Options bounds = new BitmapFactory.Options();
+      bounds.inJustDecodeBounds = true;
+      BitmapFactory.decodeByteArray(bytes.getData(), 0 /*offset*/, bytes.size(), bounds);
+      int sourceWidth = bounds.outWidth;
+      int sourceHeight = bounds.outHeight;
+      if (sourceWidth <= 0 || sourceHeight <= 0) {
+        return null;
+      }
+
+      ImageHeaderProbe probe = ImageHeaderProbe.probe(
+          parsers, new ByteArrayInputStream(bytes.getData(), 0, bytes.size()), byteArrayPool);
+      int orientation;
+      ImageType imageType;
+      try {
+        orientation = probe.getOrientation();
+        imageType = probe.getType();
+      } finally {
+        probe.release();
+      }
+
+      int sampleSize = TiledBitmapDecoder.calculateSampleSize(
+          options.get(DownsampleStrategy.OPTION),
+          TransformationUtils.getExifOrientationDegrees(orientation),
+          sourceWidth,
+          sourceHeight,
+          width == Target.SIZE_ORIGINAL ? sourceWidth : width,
+          height == Target.SIZE_ORIGINAL ? sourceHeight : height);
+      Bitmap.Config config =
+          TiledBitmapDecoder.getConfig(options.get(Downsampler.DECODE_FORMAT), imageType);
+      return new PassDecoder(bitmapPool, imageType == ImageType.JPEG, orientation, sampleSize,
+          TiledBitmapDecoder.ceilDivide(sourceWidth, sampleSize),
+          TiledBitmapDecoder.ceilDivide(sourceHeight, sampleSize), config);
+    }
+
+    @Nullable
+    Bitmap decode(byte[] data, int length) {
+      BitmapFactory.Options options = new BitmapFactory.Options();
+      options.inSampleSize = sampleSize;
+      options.inPreferredConfig = config;
+      options.inMutable = true;
+      // Before KitKat, inBitmap must exactly match the decoded size, which we can't guarantee.
+      if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+        options.inBitmap = bitmapPool.getDirty(sampledWidth, sampledHeight, config);
+      }
+      Bitmap decoded;
+      TransformationUtils.getBitmapDrawableLock().lock();
+      try {
+        decoded = BitmapFactory.decodeByteArray(data, 0 /*offset*/, length, options);
+      } catch (IllegalArgumentException e) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Failed to decode pass into pooled Bitmap", e);
+        }
+        decoded = null;
+      } finally {
+        TransformationUtils.getBitmapDrawableLock().unlock();
+      }
+      if (decoded == null) {
+        if (options.inBitmap != null) {
+          bitmapPool.put(options.inBitmap);
+        }
+        return null;
+      }
+      Bitmap rotated = TransformationUtils.rotateImageExif(bitmapPool, decoded, orientation);
+      if (!decoded.equals(rotated)) {
+        bitmapPool.put(decoded);
+      }
+      return rotated;
+    }
+  }
+}
@@ -0,0 +1,412 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.ImageHeaderProbe;
+import com.bumptech.glide.load.Option;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.executor.GlideExecutor;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy.SampleSizeRounding;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.util.Synthetic;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes very large JPEGs and PNGs by splitting them into tiles that are decoded concurrently
+ * with {@link BitmapRegionDecoder} and drawn into a single {@link Bitmap} from the
+ * {@link BitmapPool}.
+ *
+ * <p>Only images with at least {@link #MIN_TILED_PIXELS} pixels are handled, everything else is
+ * left to {@link StreamBitmapDecoder}. Images are downsampled by the largest power of two allowed
+ * by the request's {@link DownsampleStrategy}; exact scaling is left to transformations. If any
+ * tile fails to decode, the whole image is decoded with {@link BitmapFactory} instead.
+ *
+ * <p>{@link ByteBufferTiledBitmapDecoder} decodes data from {@link java.nio.ByteBuffer}s, such as
+ * data read back from the disk cache, in the same way.
+ */
+public final class TiledBitmapDecoder implements ResourceDecoder<InputStream, Bitmap> {
+  /**
+   * Tiling is disabled when {@link #MIN_TILED_PIXELS} is set to this value, which is the default.
+   */
+  public static final int TILING_DISABLED = Integer.MAX_VALUE;
+
+  /**
+   * The minimum number of pixels, width times height, an image must have before it's decoded in
+   * tiles.
+   *
+   * <p>Tiling is mostly useful for images of tens of megapixels, where a single decode on one
+   * thread takes long enough to be noticed. Defaults to {@link #TILING_DISABLED}.
+   */
+  public static final Option<Integer> MIN_TILED_PIXELS = Option.memory(
+      "com.bumptech.glide.load.resource.bitmap.TiledBitmapDecoder.MinTiledPixels",
+      TILING_DISABLED);
+
+  private static final String TAG = "TiledBitmapDecoder";
+  /** The width and height of each tile in the decoded {@link Bitmap}. */
+  @VisibleForTesting
+  static final int TILE_SIZE = 1024;
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+
+  private final List<ImageHeaderParser> parsers;
+  @Synthetic final BitmapPool bitmapPool;
+  private final ArrayPool byteArrayPool;
+  private final Executor tileExecutor;
+  private final int maxParallelism;
+
+  public TiledBitmapDecoder(List<ImageHeaderParser> parsers, BitmapPool bitmapPool,
+      ArrayPool byteArrayPool, Executor tileExecutor) {
+    this(parsers, bitmapPool, byteArrayPool, tileExecutor,
+        GlideExecutor.calculateBestThreadCount());
+  }
+
+  @VisibleForTesting
+  TiledBitmapDecoder(List<ImageHeaderParser> parsers, BitmapPool bitmapPool,
+      ArrayPool byteArrayPool, Executor tileExecutor, int maxParallelism) {
+    this.parsers = parsers;
+    this.bitmapPool = bitmapPool;
+    this.byteArrayPool = byteArrayPool;
+    this.tileExecutor = tileExecutor;
+    this.maxParallelism = Math.max(1, maxParallelism);
+  }
+
+  @Override
+  public boolean handles(@NonNull InputStream source, @NonNull Options options)
+      throws IOException {
+    int minTiledPixels = options.get(MIN_TILED_PIXELS);
+    if (minTiledPixels == TILING_DISABLED || !source.markSupported()) {
+      return false;
+    }
+    ImageHeaderProbe probe = ImageHeaderProbe.probe(parsers, source, byteArrayPool);
+    try {
+      if (!isTileable(probe.getType())) {
+        return false;
+      }
+      BitmapFactory.Options bounds = new BitmapFactory.Options();
+      decodeBounds(probe.getPrefix(), 0 /*offset*/, probe.getPrefixLength(), bounds);
+      return (long) bounds.outWidth * bounds.outHeight >= minTiledPixels;
+    } finally {
+      probe.release();
+    }
+  }
+
+  @Override
+  public Resource<Bitmap> decode(@NonNull InputStream source, int width, int height,
+      @NonNull Options options) throws IOException {
+    // BitmapRegionDecoder copies streams into memory anyway. Reading the bytes once lets every
+    // worker share them.
+    ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream(
+        Math.max(source.available(), INITIAL_BUFFER_SIZE));
+    bytes.readFrom(source, byteArrayPool);
+    return decode(bytes.getData(), 0 /*offset*/, bytes.size(), width, height, options);
+  }
+
+  /** Decodes the image in the given range of {@code data}, which is shared by every tile. */
+  Resource<Bitmap> decode(byte[] data, int offset, int length, int width, int height,
+      Options options) throws IOException {
+    ImageHeaderProbe probe = ImageHeaderProbe.probe(
+        parsers, new ByteArrayInputStream(data, offset, length), byteArrayPool);
+    int orientation;
+    ImageType imageType;
+    try {
+      orientation = probe.getOrientation();
+      imageType = probe.getType();
+    } finally {
+      probe.release();
+    }
+
+    BitmapFactory.Options bounds = new BitmapFactory.Options();
+    decodeBounds(data, offset, length, bounds);
+    int sourceWidth = bounds.outWidth;
+    int sourceHeight = bounds.outHeight;
+    if (sourceWidth <= 0 || sourceHeight <= 0) {
+      throw new IOException("Unable to determine dimensions of the image");
+    }
+
+    int degreesToRotate = TransformationUtils.getExifOrientationDegrees(orientation);
+    int sampleSize = calculateSampleSize(options.get(DownsampleStrategy.OPTION), degreesToRotate,
+        sourceWidth, sourceHeight,
+        width == Target.SIZE_ORIGINAL ? sourceWidth : width,
+        height == Target.SIZE_ORIGINAL ? sourceHeight : height);
+    Bitmap.Config config = getConfig(options.get(Downsampler.DECODE_FORMAT), imageType);
+
+    Bitmap decoded =
+        decodeTiles(data, offset, length, sourceWidth, sourceHeight, sampleSize, config);
+    if (decoded == null) {
+      BitmapFactory.Options fallbackOptions = new BitmapFactory.Options();
+      fallbackOptions.inSampleSize = sampleSize;
+      fallbackOptions.inPreferredConfig = config;
+      decoded = BitmapFactory.decodeByteArray(data, offset, length, fallbackOptions);
+      if (decoded == null) {
+        throw new IOException("Failed to decode image in tiles or as a whole");
+      }
+    }
+
+    Bitmap rotated = TransformationUtils.rotateImageExif(bitmapPool, decoded, orientation);
+    if (!decoded.equals(rotated)) {
+      bitmapPool.put(decoded);
+    }
+    return BitmapResource.obtain(rotated, bitmapPool);
+  }
+
+  // Returns null if the image couldn't be decoded in tiles.
+  @Nullable
+  private Bitmap decodeTiles(byte[] data, int offset, int length, int sourceWidth,
+      int sourceHeight, int sampleSize, Bitmap.Config config) {
+    int outWidth = ceilDivide(sourceWidth, sampleSize);
+    int outHeight = ceilDivide(sourceHeight, sampleSize);
+    Bitmap result = bitmapPool.get(outWidth, outHeight, config);
+
+    TileJob job = new TileJob(
+        data, offset, length, sourceWidth, sourceHeight, sampleSize, config, result);
+    int workers = Math.min(maxParallelism, job.tileCount);
+    CountDownLatch finished = new CountDownLatch(workers);
+    for (int i = 1; i < workers; i++) {
+      try {
+        tileExecutor.execute(new TileWorker(job, finished));
+      } catch (RejectedExecutionException e) {
+        // The remaining workers' tiles are picked up by the ones that are running.
+        finished.countDown();
+      }
+    }
+    // Decode tiles on this thread too, so that the image is decoded even if the executor is busy.
+    new TileWorker(job, finished).run();
+
+    boolean isInterrupted = false;
+    while (true) {
+      try {
+        finished.await();
+        break;
+      } catch (InterruptedException e) {
+        // Workers draw into the result, so they have to finish before it can be returned.
+        isInterrupted = true;
+        job.isFailed = true;
+      }
+    }
+    if (isInterrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (job.isFailed) {
+      bitmapPool.put(result);
+      return null;
+    }
+    if (Log.isLoggable(TAG, Log.VERBOSE)) {
+      Log.v(TAG, "Decoded [" + sourceWidth + "x" + sourceHeight + "] in " + job.tileCount
+          + " tiles with " + workers + " workers, sample size: " + sampleSize);
+    }
+    return result;
+  }
+
+  private static void decodeBounds(
+      byte[] data, int offset, int length, BitmapFactory.Options options) {
+    options.inJustDecodeBounds = true;
+    TransformationUtils.getBitmapDrawableLock().lock();
+    try {
+      BitmapFactory.decodeByteArray(data, offset, length, options);
+    } finally {
+      TransformationUtils.getBitmapDrawableLock().unlock();
+    }
+    options.inJustDecodeBounds = false;
+  }
+
+  private static boolean isTileable(ImageType imageType) {
+    return imageType == ImageType.JPEG
+        || imageType == ImageType.PNG
+        || imageType == ImageType.PNG_A;
+  }
+
+  static Bitmap.Config getConfig(DecodeFormat decodeFormat, ImageType imageType) {
+    return decodeFormat == DecodeFormat.PREFER_RGB_565 && !imageType.hasAlpha()
+        ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+  }
+
+  /**
+   * Returns the largest power of two sample size allowed by the given {@link DownsampleStrategy},
+   * following the same rules as {@link Downsampler}.
+   */
+  static int calculateSampleSize(DownsampleStrategy downsampleStrategy, int degreesToRotate,
+      int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+    final float exactScaleFactor;
+    if (degreesToRotate == 90 || degreesToRotate == 270) {
+      //noinspection SuspiciousNameCombination
+      exactScaleFactor = downsampleStrategy.getScaleFactor(sourceHeight, sourceWidth,
+          targetWidth, targetHeight);
+    } else {
+      exactScaleFactor =
+          downsampleStrategy.getScaleFactor(sourceWidth, sourceHeight, targetWidth, targetHeight);
+    }
+    if (exactScaleFactor <= 0f) {
+      throw new IllegalArgumentException("Cannot scale with factor: " + exactScaleFactor
+          + " from: " + downsampleStrategy);
+    }
+    if (exactScaleFactor >= 1f) {
+      return 1;
+    }
+    SampleSizeRounding rounding = downsampleStrategy.getSampleSizeRounding(sourceWidth,
+        sourceHeight, targetWidth, targetHeight);
+
+    int outWidth = Math.max(1, Math.round(exactScaleFactor * sourceWidth));
+    int outHeight = Math.max(1, Math.round(exactScaleFactor * sourceHeight));
+    int widthScaleFactor = sourceWidth / outWidth;
+    int heightScaleFactor = sourceHeight / outHeight;
+    int scaleFactor = rounding == SampleSizeRounding.MEMORY
+        ? Math.max(widthScaleFactor, heightScaleFactor)
+        : Math.min(widthScaleFactor, heightScaleFactor);
+
+    int sampleSize = Math.max(1, Integer.highestOneBit(scaleFactor));
+    if (rounding == SampleSizeRounding.MEMORY && sampleSize < (1.f / exactScaleFactor)) {
+      sampleSize = sampleSize << 1;
+    }
+    return sampleSize;
+  }
+
+  @Synthetic
+  static int ceilDivide(int value, int divisor) {
+    return (value + divisor - 1) / divisor;
+  }
+
+  /** The state shared by the workers decoding one image. */
+  private static final class TileJob {
+    @Synthetic final byte[] data;
+    @Synthetic final int offset;
+    @Synthetic final int length;
+    @Synthetic final int sourceWidth;
+    @Synthetic final int sourceHeight;
+    @Synthetic final int sampleSize;
+    @Synthetic final Bitmap.Config config;
+    @Synthetic final Bitmap result;
+    @Synthetic final int tileSourceSize;
+    @Synthetic final int columns;
+    @Synthetic final int tileCount;
+    @Synthetic final AtomicInteger nextTile = new AtomicInteger();
+    @Synthetic final Canvas canvas;
+    @Synthetic final Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    @Synthetic volatile boolean isFailed;
+
+    @Synthetic
+    TileJob(byte[] data, int offset, int length, int sourceWidth, int sourceHeight,
+        int sampleSize, Bitmap.Config config, Bitmap result) {
+      this.data = data;
+      this.offset = offset;
+      this.length = length;
+      this.sourceWidth = sourceWidth;
+      this.sourceHeight = sourceHeight;
+      this.sampleSize = sampleSize;
+      this.config = config;
+      this.result = result;
+      // Tiles line up with sampled pixels so that each one fills whole pixels in the result.
+      tileSourceSize = TILE_SIZE * sampleSize;
+      columns = ceilDivide(sourceWidth, tileSourceSize);
+      tileCount = columns * ceilDivide(sourceHeight, tileSourceSize);
+      canvas = new Canvas(result);
+    }
+  }
+
+  /**
+   * Decodes tiles until there are none left, each worker with its own
+   * {@link BitmapRegionDecoder} because region decoders decode one region at a time.
+   */
+  private final class TileWorker implements Runnable {
+    private final TileJob job;
+    private final CountDownLatch finished;
+
+    @Synthetic
+    TileWorker(TileJob job, CountDownLatch finished) {
+      this.job = job;
+      this.finished = finished;
+    }
+
+    @Override
+    public void run() {
+      BitmapRegionDecoder decoder = null;
+      Bitmap reusable = null;
+      try {
+        // The decoders share the data rather than copying it.
+        decoder = BitmapRegionDecoder.newInstance(
+            job.data, job.offset, job.length, true /*isShareable*/);
+        Rect region = new Rect();
+        Rect destination = new Rect();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = job.sampleSize;
+        options.inPreferredConfig = job.config;
+        int tile;
+        while (!job.isFailed && (tile = job.nextTile.getAndIncrement()) < job.tileCount) {
+          int left = (tile % job.columns) * job.tileSourceSize;
+          int top = (tile / job.columns) * job.tileSourceSize;
+          region.set(left, top, Math.min(left + job.tileSourceSize, job.sourceWidth),
+              Math.min(top + job.tileSourceSize, job.sourceHeight));
+          boolean isFullTile = region.width() == job.tileSourceSize
+              && region.height() == job.tileSourceSize;
+          // Full size tiles can be decoded into the previous full size tile's Bitmap.
+          options.inBitmap = isFullTile && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+              ? reusable : null;
+          Bitmap decoded = decoder.decodeRegion(region, options);
+          if (decoded == null) {
+            job.isFailed = true;
+            break;
+          }
+          destination.set(left / job.sampleSize, top / job.sampleSize,
+              ceilDivide(region.right, job.sampleSize),
+              ceilDivide(region.bottom, job.sampleSize));
+          draw(decoded, destination);
+          if (isFullTile) {
+            if (reusable != null && reusable != decoded) {
+              bitmapPool.put(reusable);
+            }
+            reusable = decoded;
+          } else {
+            bitmapPool.put(decoded);
+          }
+        }
+      } catch (IOException | RuntimeException | OutOfMemoryError e) {
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+          Log.d(TAG, "Failed to decode tile", e);
+        }
+        job.isFailed = true;
+      } finally {
+        if (reusable != null) {
+          bitmapPool.put(reusable);
+        }
+        if (decoder != null) {
+          decoder.recycle();
+        }
+        finished.countDown();
+      }
+    }
+
+    // Canvases aren't thread safe, so tiles are drawn one at a time.
+    private void draw(Bitmap tile, Rect destination) {
+      synchronized (job.canvas) {
+        TransformationUtils.getBitmapDrawableLock().lock();
+        try {
+          job.canvas.drawBitmap(tile, null /*src*/, destination, job.paint);
+        } finally {
+          TransformationUtils.getBitmapDrawableLock().unlock();
+        }
+      }
+    }
+  }
+}
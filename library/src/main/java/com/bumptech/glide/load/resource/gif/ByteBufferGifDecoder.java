@@ -22,6 +22,7 @@ import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
 import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
 import com.bumptech.glide.load.resource.UnitTransformation;
 import com.bumptech.glide.util.LogTime;
+import com.bumptech.glide.util.MappedBufferTracker;
 import com.bumptech.glide.util.Util;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -116,7 +117,11 @@ public class ByteBufferGifDecoder implements ResourceDecoder<ByteBuffer, GifDraw
       GifDrawable gifDrawable =
           new GifDrawable(context, gifDecoder, unitTransformation, width, height, firstFrame);
 
-      return new GifDrawableResource(gifDrawable);
+      // The drawable keeps decoding frames from the buffer, so it mustn't be unmapped until the
+      // drawable is recycled.
+      ByteBuffer mappedBuffer =
+          MappedBufferTracker.getInstance().retain(byteBuffer) ? byteBuffer : null;
+      return new GifDrawableResource(gifDrawable, mappedBuffer);
     } finally {
       if (Log.isLoggable(TAG, Log.VERBOSE)) {
         Log.v(TAG, "Decoded GIF from stream in " + LogTime.getElapsedMillis(startTime));
@@ -1,18 +1,33 @@
 package com.bumptech.glide.load.resource.gif;
 
 import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
 import com.bumptech.glide.load.engine.Initializable;
 import com.bumptech.glide.load.resource.drawable.DrawableResource;
+import com.bumptech.glide.util.MappedBufferTracker;
+import java.nio.ByteBuffer;
 
 /**
  * A resource wrapping an {@link com.bumptech.glide.load.resource.gif.GifDrawable}.
  */
 public class GifDrawableResource extends DrawableResource<GifDrawable>
     implements Initializable {
+  @Nullable private final ByteBuffer mappedBuffer;
+
   // Public API.
   @SuppressWarnings("WeakerAccess")
   public GifDrawableResource(GifDrawable drawable) {
+    this(drawable, /*mappedBuffer=*/ null);
+  }
+
+  /**
+   * Constructor for a resource whose drawable decodes frames from a buffer tracked by {@link
+   * MappedBufferTracker}. The resource owns a reference to the buffer and releases it when it's
+   * recycled.
+   */
+  GifDrawableResource(GifDrawable drawable, @Nullable ByteBuffer mappedBuffer) {
     super(drawable);
+    this.mappedBuffer = mappedBuffer;
   }
 
   @NonNull
@@ -30,6 +45,9 @@ public class GifDrawableResource extends DrawableResource<GifDrawable>
   public void recycle() {
     drawable.stop();
     drawable.recycle();
+    if (mappedBuffer != null) {
+      MappedBufferTracker.getInstance().release(mappedBuffer);
+    }
   }
 
   @Override
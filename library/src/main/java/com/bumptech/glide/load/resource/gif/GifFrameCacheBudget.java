@@ -0,0 +1,84 @@
+package com.bumptech.glide.load.resource.gif;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.util.Preconditions;
+
+/**
+ * Limits the memory that animated {@link GifDrawable}s may use to hold decoded frames beyond the
+ * frame they're showing.
+ *
+ * <p>Each animation first tries to reserve enough bytes to keep every one of its frames, which
+ * lets short animations replay from memory after their first loop instead of decoding each frame
+ * again. Animations that don't fit try to reserve enough bytes to decode up to
+ * {@link #getLookAheadFrameCount()} frames ahead of the frame they're showing, and decode one frame
+ * at a time if that doesn't fit either.
+ */
+public final class GifFrameCacheBudget {
+  private static final GifFrameCacheBudget INSTANCE = new GifFrameCacheBudget();
+  private static final int DEFAULT_LOOK_AHEAD_FRAME_COUNT = 3;
+
+  private long maxSize = 0;
+  private long currentSize;
+  private int lookAheadFrameCount = DEFAULT_LOOK_AHEAD_FRAME_COUNT;
+
+  /** Returns the budget shared by all of Glide's animated GIFs. */
+  @NonNull
+  public static GifFrameCacheBudget getInstance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  GifFrameCacheBudget() {
+    // Use the shared instance.
+  }
+
+  /**
+   * Sets the maximum number of bytes of decoded frames that may be kept by all animations put
+   * together.
+   *
+   * <p>Glide sets the budget from {@link
+   * com.bumptech.glide.load.engine.cache.MemorySizeCalculator#getGifFrameCacheSizeInBytes()} when
+   * it's initialized. Reservations made before the budget is lowered are kept until they're
+   * released.
+   */
+  public synchronized void setMaxSize(long maxSize) {
+    Preconditions.checkArgument(maxSize >= 0, "Max size must be greater than or equal to 0");
+    this.maxSize = maxSize;
+  }
+
+  public synchronized long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the number of bytes currently reserved by animations. */
+  public synchronized long getCurrentSize() {
+    return currentSize;
+  }
+
+  /**
+   * Sets the maximum number of frames animations that don't fit in the budget may decode ahead of
+   * the frame they're showing. {@code 1} decodes each frame only once the previous one is shown.
+   */
+  public synchronized void setLookAheadFrameCount(int lookAheadFrameCount) {
+    Preconditions.checkArgument(
+        lookAheadFrameCount >= 1, "Look ahead frame count must be greater than or equal to 1");
+    this.lookAheadFrameCount = lookAheadFrameCount;
+  }
+
+  public synchronized int getLookAheadFrameCount() {
+    return lookAheadFrameCount;
+  }
+
+  synchronized boolean tryReserve(long size) {
+    if (size > maxSize - currentSize) {
+      return false;
+    }
+    currentSize += size;
+    return true;
+  }
+
+  synchronized void release(long size) {
+    currentSize -= size;
+  }
+}
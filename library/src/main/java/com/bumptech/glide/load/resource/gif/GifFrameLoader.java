@@ -27,15 +27,32 @@ import com.bumptech.glide.util.Preconditions;
 import com.bumptech.glide.util.Synthetic;
 import com.bumptech.glide.util.Util;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Loads the frames of an animated GIF one after another and notifies {@link FrameCallback}s when
+ * each frame should be shown.
+ *
+ * <p>Frames are decoded in order, one at a time, because {@link GifDecoder} builds each frame on
+ * top of the previous one. Depending on the {@link GifFrameCacheBudget}, up to
+ * {@link GifFrameCacheBudget#getLookAheadFrameCount()} decoded frames wait to be shown so that a
+ * slow frame doesn't stall the animation. If every frame fits in the budget, frames are kept once
+ * they've been shown and later loops replay them without decoding. Kept frames and their share of
+ * the budget are released whenever the animation stops.
+ */
 class GifFrameLoader {
   private final GifDecoder gifDecoder;
   private final Handler handler;
   private final List<FrameCallback> callbacks = new ArrayList<>();
   @SuppressWarnings("WeakerAccess") @Synthetic final RequestManager requestManager;
   private final BitmapPool bitmapPool;
+  private final GifFrameCacheBudget frameCacheBudget;
+  // Frames that have been requested, but not yet shown, in the order they will be shown.
+  private final ArrayDeque<DelayTarget> queuedTargets = new ArrayDeque<>();
+  // Frames that became ready to be shown while the animation was stopped.
+  private final ArrayDeque<DelayTarget> pendingTargets = new ArrayDeque<>();
 
   private boolean isRunning;
   private boolean isLoadPending;
@@ -46,7 +63,13 @@ class GifFrameLoader {
   private DelayTarget next;
   private Bitmap firstFrame;
   private Transformation<Bitmap> transformation;
-  private DelayTarget pendingTarget;
+  private long lastTargetTime;
+  private boolean isFrameCacheReserved;
+  private long reservedBytes;
+  private int lookAheadFrameCount = 1;
+  // Every frame of the animation by index once it has been shown, if they all fit in the budget.
+  @Nullable private DelayTarget[] cachedFrames;
+  private int cachedFrameCount;
   @Nullable
   private GifFrameLoader.OnEveryFrameListener onEveryFrameListener;
 
@@ -71,7 +94,6 @@ class GifFrameLoader {
         firstFrame);
   }
 
-  @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
   GifFrameLoader(
       BitmapPool bitmapPool,
       RequestManager requestManager,
@@ -80,7 +102,30 @@ class GifFrameLoader {
       RequestBuilder<Bitmap> requestBuilder,
       Transformation<Bitmap> transformation,
       Bitmap firstFrame) {
+    this(
+        bitmapPool,
+        requestManager,
+        gifDecoder,
+        handler,
+        requestBuilder,
+        transformation,
+        firstFrame,
+        GifFrameCacheBudget.getInstance());
+  }
+
+  @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
+  @VisibleForTesting
+  GifFrameLoader(
+      BitmapPool bitmapPool,
+      RequestManager requestManager,
+      GifDecoder gifDecoder,
+      Handler handler,
+      RequestBuilder<Bitmap> requestBuilder,
+      Transformation<Bitmap> transformation,
+      Bitmap firstFrame,
+      GifFrameCacheBudget frameCacheBudget) {
     this.requestManager = requestManager;
+    this.frameCacheBudget = frameCacheBudget;
     if (handler == null) {
       handler = new Handler(Looper.getMainLooper(), new FrameLoaderCallback());
     }
@@ -97,6 +142,17 @@ class GifFrameLoader {
     this.transformation = Preconditions.checkNotNull(transformation);
     this.firstFrame = Preconditions.checkNotNull(firstFrame);
     requestBuilder = requestBuilder.apply(new RequestOptions().transform(transformation));
+    if (isFrameCacheReserved) {
+      // Kept frames were transformed with the previous transformation.
+      if (isFrameCacheComplete()) {
+        // The decoder hasn't decoded the frames that were replayed, so it has to start over.
+        startFromFirstFrame = true;
+      }
+      releaseFrameCache();
+      if (isRunning) {
+        reserveFrameCache();
+      }
+    }
   }
 
   Transformation<Bitmap> getFrameTransformation() {
@@ -136,8 +192,10 @@ class GifFrameLoader {
     return getCurrentFrame().getHeight();
   }
 
+  // Includes the frames that may be kept while the animation runs, which are released when it
+  // stops.
   int getSize() {
-    return gifDecoder.getByteSize() + getFrameSize();
+    return gifDecoder.getByteSize() + getFrameSize() + (int) reservedBytes;
   }
 
   int getCurrentIndex() {
@@ -167,30 +225,42 @@ class GifFrameLoader {
     }
     isRunning = true;
     isCleared = false;
+    reserveFrameCache();
 
     loadNextFrame();
   }
 
   private void stop() {
     isRunning = false;
+    // Stopped animations may wait in the memory cache for a long time, so they give their kept
+    // frames and their share of the budget to the animations that are running.
+    if (isFrameCacheComplete()) {
+      // The decoder hasn't decoded the frames that were replayed, so it has to start over.
+      setNextStartFromFirstFrame();
+    }
+    releaseFrameCache();
   }
 
   void clear() {
     callbacks.clear();
     recycleFirstFrame();
     stop();
+    releaseFrameCache();
+    if (next != null && next != current && !queuedTargets.contains(next)) {
+      requestManager.clear(next);
+    }
+    next = null;
     if (current != null) {
       requestManager.clear(current);
       current = null;
     }
-    if (next != null) {
-      requestManager.clear(next);
-      next = null;
-    }
-    if (pendingTarget != null) {
-      requestManager.clear(pendingTarget);
-      pendingTarget = null;
+    for (DelayTarget pendingTarget : pendingTargets) {
+      if (!queuedTargets.contains(pendingTarget)) {
+        requestManager.clear(pendingTarget);
+      }
     }
+    pendingTargets.clear();
+    clearQueuedTargets();
     gifDecoder.clear();
     isCleared = true;
   }
@@ -200,32 +270,138 @@ class GifFrameLoader {
   }
 
   private void loadNextFrame() {
-    if (!isRunning || isLoadPending) {
+    if (!isRunning) {
+      return;
+    }
+    if (!pendingTargets.isEmpty()) {
+      showPendingTargets();
+      return;
+    }
+    if (isLoadPending || queuedTargets.size() >= lookAheadFrameCount) {
       return;
     }
     if (startFromFirstFrame) {
       Preconditions.checkArgument(
-          pendingTarget == null, "Pending target must be null when starting from the first frame");
+          pendingTargets.isEmpty(),
+          "Pending targets must be empty when starting from the first frame");
       gifDecoder.resetFrameIndex();
       startFromFirstFrame = false;
     }
-    if (pendingTarget != null) {
-      DelayTarget temp = pendingTarget;
-      pendingTarget = null;
-      onFrameReady(temp);
-      return;
-    }
     isLoadPending = true;
     // Get the delay before incrementing the pointer because the delay indicates the amount of time
-    // we want to spend on the current frame.
+    // we want to spend on the previous frame, which may not have been shown yet.
     int delay = gifDecoder.getNextDelay();
-    long targetTime = SystemClock.uptimeMillis() + delay;
+    long targetTime = Math.max(lastTargetTime, SystemClock.uptimeMillis()) + delay;
+    lastTargetTime = targetTime;
 
     gifDecoder.advance();
-    next = new DelayTarget(handler, gifDecoder.getCurrentFrameIndex(), targetTime);
+    int index = gifDecoder.getCurrentFrameIndex();
+    if (isFrameCacheComplete() && cachedFrames[index] != null) {
+      next = cachedFrames[index];
+      // The cached frame was last scheduled for an earlier loop, pending frames are shown relative
+      // to the time they're due this time round.
+      next.targetTime = targetTime;
+      queuedTargets.add(next);
+      handler.sendMessageAtTime(
+          handler.obtainMessage(FrameLoaderCallback.MSG_DELAY, next), targetTime);
+      return;
+    }
+    next = new DelayTarget(handler, index, targetTime);
+    queuedTargets.add(next);
     requestBuilder.apply(signatureOf(getFrameSignature())).load(gifDecoder).into(next);
   }
 
+  /**
+   * Shows the first of the frames that became ready while the animation was stopped and shows the
+   * rest at their original intervals after it.
+   */
+  private void showPendingTargets() {
+    DelayTarget first = pendingTargets.remove();
+    long offset = SystemClock.uptimeMillis() - first.targetTime;
+    for (DelayTarget pendingTarget : pendingTargets) {
+      handler.sendMessageAtTime(
+          handler.obtainMessage(FrameLoaderCallback.MSG_DELAY, pendingTarget),
+          pendingTarget.targetTime + offset);
+    }
+    pendingTargets.clear();
+    lastTargetTime += offset;
+    onFrameReady(first);
+  }
+
+  private void clearQueuedTargets() {
+    for (DelayTarget queuedTarget : queuedTargets) {
+      handler.removeMessages(FrameLoaderCallback.MSG_DELAY, queuedTarget);
+      if (!isCachedFrame(queuedTarget)) {
+        requestManager.clear(queuedTarget);
+      }
+    }
+    queuedTargets.clear();
+  }
+
+  /**
+   * Reserves memory for decoded frames from the {@link GifFrameCacheBudget}, preferring to keep
+   * every frame, then to decode frames ahead and finally falling back to one frame at a time.
+   */
+  private void reserveFrameCache() {
+    if (isFrameCacheReserved) {
+      return;
+    }
+    isFrameCacheReserved = true;
+    long frameSize = getFrameSize();
+    int frameCount = gifDecoder.getFrameCount();
+    int budgetLookAheadFrameCount = frameCacheBudget.getLookAheadFrameCount();
+    if (frameCount > 1 && frameCacheBudget.tryReserve(frameSize * frameCount)) {
+      reservedBytes = frameSize * frameCount;
+      cachedFrames = new DelayTarget[frameCount];
+      lookAheadFrameCount = budgetLookAheadFrameCount;
+    } else if (budgetLookAheadFrameCount > 1
+        && frameCacheBudget.tryReserve(frameSize * (budgetLookAheadFrameCount - 1))) {
+      reservedBytes = frameSize * (budgetLookAheadFrameCount - 1);
+      lookAheadFrameCount = budgetLookAheadFrameCount;
+    }
+  }
+
+  private void releaseFrameCache() {
+    if (!isFrameCacheReserved) {
+      return;
+    }
+    if (cachedFrames != null) {
+      for (DelayTarget cachedFrame : cachedFrames) {
+        // The current and queued frames are cleared once they're replaced or when we're cleared.
+        if (cachedFrame != null && cachedFrame != current && !queuedTargets.contains(cachedFrame)) {
+          requestManager.clear(cachedFrame);
+        }
+      }
+      cachedFrames = null;
+      cachedFrameCount = 0;
+    }
+    frameCacheBudget.release(reservedBytes);
+    reservedBytes = 0;
+    lookAheadFrameCount = 1;
+    isFrameCacheReserved = false;
+  }
+
+  private boolean isFrameCacheComplete() {
+    return cachedFrames != null && cachedFrameCount == cachedFrames.length;
+  }
+
+  private boolean isCachedFrame(DelayTarget target) {
+    return cachedFrames != null
+        && target.index >= 0
+        && target.index < cachedFrames.length
+        && cachedFrames[target.index] == target;
+  }
+
+  private void cacheFrame(DelayTarget target) {
+    if (cachedFrames != null
+        && target.index >= 0
+        && target.index < cachedFrames.length
+        && cachedFrames[target.index] == null) {
+      cachedFrames[target.index] = target;
+      cachedFrameCount++;
+    }
+  }
+
   private void recycleFirstFrame() {
     if (firstFrame != null) {
       bitmapPool.put(firstFrame);
@@ -236,9 +412,26 @@ class GifFrameLoader {
   void setNextStartFromFirstFrame() {
     Preconditions.checkArgument(!isRunning, "Can't restart a running animation");
     startFromFirstFrame = true;
-    if (pendingTarget != null) {
-      requestManager.clear(pendingTarget);
-      pendingTarget = null;
+    for (DelayTarget pendingTarget : pendingTargets) {
+      queuedTargets.remove(pendingTarget);
+      if (!isCachedFrame(pendingTarget)) {
+        requestManager.clear(pendingTarget);
+      }
+    }
+    pendingTargets.clear();
+    // Frames decoded ahead are from the old position, so only the frame that's still loading is
+    // kept, like it would be without look ahead.
+    DelayTarget loading = isLoadPending ? next : null;
+    if (loading != null && isCachedFrame(loading)) {
+      // Frames replayed from the cache aren't loading, they're just waiting to be shown.
+      loading = null;
+      next = null;
+      isLoadPending = false;
+    }
+    queuedTargets.remove(loading);
+    clearQueuedTargets();
+    if (loading != null) {
+      queuedTargets.add(loading);
     }
   }
 
@@ -247,12 +440,24 @@ class GifFrameLoader {
     this.onEveryFrameListener = onEveryFrameListener;
   }
 
+  /** Starts decoding the frame after the given one, if look ahead allows it. */
+  @Synthetic
+  void onFrameLoaded(DelayTarget delayTarget) {
+    if (delayTarget != next || isCleared) {
+      return;
+    }
+    isLoadPending = false;
+    loadNextFrame();
+  }
+
   @VisibleForTesting
   void onFrameReady(DelayTarget delayTarget) {
     if (onEveryFrameListener != null) {
       onEveryFrameListener.onFrameReady();
     }
-    isLoadPending = false;
+    if (delayTarget == next || !queuedTargets.contains(delayTarget)) {
+      isLoadPending = false;
+    }
     if (isCleared) {
       handler.obtainMessage(FrameLoaderCallback.MSG_CLEAR, delayTarget).sendToTarget();
       return;
@@ -262,21 +467,23 @@ class GifFrameLoader {
     // already incremented the frame pointer and can't decode the same frame again. Instead we'll
     // just hang on to this next frame until start() or clear() are called.
     if (!isRunning) {
-      pendingTarget = delayTarget;
+      pendingTargets.add(delayTarget);
       return;
     }
+    queuedTargets.remove(delayTarget);
 
     if (delayTarget.getResource() != null) {
       recycleFirstFrame();
       DelayTarget previous = current;
       current = delayTarget;
+      cacheFrame(delayTarget);
       // The callbacks may unregister when onFrameReady is called, so iterate in reverse to avoid
       // concurrent modifications.
       for (int i = callbacks.size() - 1; i >= 0; i--) {
         FrameCallback cb = callbacks.get(i);
         cb.onFrameReady();
       }
-      if (previous != null) {
+      if (previous != null && previous != delayTarget && !isCachedFrame(previous)) {
         handler.obtainMessage(FrameLoaderCallback.MSG_CLEAR, previous).sendToTarget();
       }
     }
@@ -287,6 +494,7 @@ class GifFrameLoader {
   private class FrameLoaderCallback implements Handler.Callback {
     static final int MSG_DELAY = 1;
     static final int MSG_CLEAR = 2;
+    static final int MSG_LOADED = 3;
 
     @Synthetic
     FrameLoaderCallback() { }
@@ -300,6 +508,10 @@ class GifFrameLoader {
       } else if (msg.what == MSG_CLEAR) {
         GifFrameLoader.DelayTarget target = (DelayTarget) msg.obj;
         requestManager.clear(target);
+      } else if (msg.what == MSG_LOADED) {
+        GifFrameLoader.DelayTarget target = (DelayTarget) msg.obj;
+        onFrameLoaded(target);
+        return true;
       }
       return false;
     }
@@ -309,7 +521,8 @@ class GifFrameLoader {
   static class DelayTarget extends SimpleTarget<Bitmap> {
     private final Handler handler;
     @Synthetic final int index;
-    private final long targetTime;
+    // Updated on the main thread each time a cached frame is scheduled again.
+    @Synthetic long targetTime;
     private Bitmap resource;
 
     DelayTarget(Handler handler, int index, long targetTime) {
@@ -326,6 +539,7 @@ class GifFrameLoader {
     public void onResourceReady(@NonNull Bitmap resource,
         @Nullable Transition<? super Bitmap> transition) {
       this.resource = resource;
+      handler.obtainMessage(FrameLoaderCallback.MSG_LOADED, this).sendToTarget();
       Message msg = handler.obtainMessage(FrameLoaderCallback.MSG_DELAY, this);
       handler.sendMessageAtTime(msg, targetTime);
     }
@@ -0,0 +1,41 @@
+package com.bumptech.glide.load.resource.transcode;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.GlideSuppliers;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+
+/**
+ * A {@link ResourceTranscoder} that doesn't create the transcoder it delegates to until it's first
+ * asked to transcode something.
+ *
+ * @param <Z> The type of the resource that will be transcoded from.
+ * @param <R> The type of the resource that will be transcoded to.
+ */
+public final class LazyResourceTranscoder<Z, R> implements ResourceTranscoder<Z, R> {
+  private final GlideSupplier<ResourceTranscoder<Z, R>> transcoder;
+
+  private LazyResourceTranscoder(GlideSupplier<ResourceTranscoder<Z, R>> transcoder) {
+    this.transcoder = GlideSuppliers.memorize(transcoder);
+  }
+
+  /**
+   * Returns a transcoder that obtains the transcoder it delegates to from the given supplier the
+   * first time it's used.
+   *
+   * <p>The given supplier is called at most once.
+   */
+  @NonNull
+  public static <Z, R> LazyResourceTranscoder<Z, R> of(
+      @NonNull GlideSupplier<ResourceTranscoder<Z, R>> transcoder) {
+    return new LazyResourceTranscoder<>(transcoder);
+  }
+
+  @Nullable
+  @Override
+  public Resource<R> transcode(@NonNull Resource<Z> toTranscode, @NonNull Options options) {
+    return transcoder.get().transcode(toTranscode, options);
+  }
+}
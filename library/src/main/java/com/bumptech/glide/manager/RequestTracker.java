@@ -5,6 +5,8 @@ import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
 import android.util.Log;
 
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.request.PrioritizedRequest;
 import com.bumptech.glide.request.Request;
 import com.bumptech.glide.util.Util;
 
@@ -138,6 +140,18 @@ public class RequestTracker {
         pendingRequests.clear();
     }
 
+    /**
+     * Changes the priority of all requests that haven't yet completed, including paused requests so
+     * that they're resumed with the new priority.
+     */
+    public void setPriority(@NonNull Priority priority) {
+        for (Request request : Util.getSnapshot(requests)) {
+            if (!request.isComplete() && request instanceof PrioritizedRequest) {
+                ((PrioritizedRequest) request).setPriority(priority);
+            }
+        }
+    }
+
     /**
      * Cancels all requests and clears their resources.
      *
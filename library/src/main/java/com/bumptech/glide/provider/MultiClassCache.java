@@ -0,0 +1,117 @@
+package com.bumptech.glide.provider;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.util.Synthetic;
+
+/**
+ * A thread safe map from three classes to a value that's read far more often than it's written.
+ *
+ * <p>Entries are kept in an immutable open addressing hash table that is copied on each write and
+ * published through a volatile field, so {@link #get(Class, Class, Class)} never takes a lock and
+ * never allocates a key. Writes are synchronized with each other and copy the whole table, which
+ * is fine for the small number of class combinations an application loads.
+ *
+ * @param <V> The type of the values.
+ */
+final class MultiClassCache<V> {
+  private static final Table EMPTY = new Table(new Object[0], 0);
+  private static final int ENTRY_SIZE = 4;
+  private static final int MIN_CAPACITY = 16;
+
+  private volatile Table table = EMPTY;
+
+  @Nullable
+  @SuppressWarnings("unchecked")
+  V get(@NonNull Class<?> first, @NonNull Class<?> second, @NonNull Class<?> third) {
+    Object[] entries = table.entries;
+    if (entries.length == 0) {
+      return null;
+    }
+    int mask = entries.length / ENTRY_SIZE - 1;
+    int index = hash(first, second, third) & mask;
+    while (true) {
+      int offset = index * ENTRY_SIZE;
+      Object entryFirst = entries[offset];
+      if (entryFirst == null) {
+        return null;
+      }
+      if (entryFirst == first && entries[offset + 1] == second && entries[offset + 2] == third) {
+        return (V) entries[offset + 3];
+      }
+      index = (index + 1) & mask;
+    }
+  }
+
+  /** Adds the given value, or replaces the value previously put for the given classes. */
+  synchronized void put(
+      @NonNull Class<?> first,
+      @NonNull Class<?> second,
+      @NonNull Class<?> third,
+      @NonNull V value) {
+    Table current = table;
+    int capacity = Math.max(MIN_CAPACITY, current.entries.length / ENTRY_SIZE);
+    // Keep the table at most half full so that probe sequences stay short.
+    if ((current.size + 1) * 2 > capacity) {
+      capacity *= 2;
+    }
+    Object[] entries = new Object[capacity * ENTRY_SIZE];
+    int size = 0;
+    Object[] currentEntries = current.entries;
+    for (int offset = 0; offset < currentEntries.length; offset += ENTRY_SIZE) {
+      Object entryFirst = currentEntries[offset];
+      if (entryFirst == null
+          || (entryFirst == first
+              && currentEntries[offset + 1] == second
+              && currentEntries[offset + 2] == third)) {
+        continue;
+      }
+      insert(
+          entries,
+          (Class<?>) entryFirst,
+          (Class<?>) currentEntries[offset + 1],
+          (Class<?>) currentEntries[offset + 2],
+          currentEntries[offset + 3]);
+      size++;
+    }
+    insert(entries, first, second, third, value);
+    table = new Table(entries, size + 1);
+  }
+
+  synchronized void clear() {
+    table = EMPTY;
+  }
+
+  private static void insert(
+      Object[] entries, Class<?> first, Class<?> second, Class<?> third, Object value) {
+    int mask = entries.length / ENTRY_SIZE - 1;
+    int index = hash(first, second, third) & mask;
+    while (entries[index * ENTRY_SIZE] != null) {
+      index = (index + 1) & mask;
+    }
+    int offset = index * ENTRY_SIZE;
+    entries[offset] = first;
+    entries[offset + 1] = second;
+    entries[offset + 2] = third;
+    entries[offset + 3] = value;
+  }
+
+  private static int hash(Class<?> first, Class<?> second, Class<?> third) {
+    int result = first.hashCode();
+    result = 31 * result + second.hashCode();
+    result = 31 * result + third.hashCode();
+    // Spread the high bits into the low bits used to pick a slot.
+    return result ^ (result >>> 16);
+  }
+
+  private static final class Table {
+    @Synthetic final Object[] entries;
+    @Synthetic final int size;
+
+    @Synthetic
+    Table(Object[] entries, int size) {
+      this.entries = entries;
+      this.size = size;
+    }
+  }
+}
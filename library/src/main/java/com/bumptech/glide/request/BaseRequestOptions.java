@@ -27,6 +27,7 @@ import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
 import com.bumptech.glide.load.resource.bitmap.Downsampler;
 import com.bumptech.glide.load.resource.bitmap.DrawableTransformation;
 import com.bumptech.glide.load.resource.bitmap.FitCenter;
+import com.bumptech.glide.load.resource.bitmap.ProgressiveBitmapDecoder;
 import com.bumptech.glide.load.resource.bitmap.VideoDecoder;
 import com.bumptech.glide.load.resource.gif.GifDrawable;
 import com.bumptech.glide.load.resource.gif.GifDrawableTransformation;
@@ -682,6 +683,31 @@ public abstract class BaseRequestOptions<T extends BaseRequestOptions<T>> implem
     return set(Downsampler.ALLOW_HARDWARE_CONFIG, false);
   }
 
+  /**
+   * Displays lower quality versions of progressive JPEGs and interlaced PNGs while they're
+   * downloaded, before the full quality image is ready.
+   *
+   * <p>Each pass is given to the {@link com.bumptech.glide.request.target.Target} without a
+   * transition, and to any {@link RequestListener} that implements
+   * {@link ProgressivePassListener}. Passes are only decoded for images loaded from their source
+   * with at most scaling {@link Transformation}s, for requests that load {@link Bitmap}s or
+   * {@link Drawable}s, and are skipped when data arrives faster than passes can be decoded.
+   * Passes are decoded into {@link Bitmap}s from the
+   * {@link com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool} that are returned to the pool
+   * once the next pass or the full quality image is displayed.
+   *
+   * <p>Remote images are decoded as they're downloaded even if the {@link DiskCacheStrategy}
+   * caches their data, which is written to the disk cache in the background as it would be with
+   * {@link com.bumptech.glide.load.engine.DataCacheOptions#WRITE_BEHIND}.
+   *
+   * @see ProgressiveBitmapDecoder#PROGRESSIVE
+   */
+  @NonNull
+  @CheckResult
+  public T progressive() {
+    return set(ProgressiveBitmapDecoder.PROGRESSIVE, true);
+  }
+
   /**
    * Sets the {@link DownsampleStrategy} to use when decoding {@link Bitmap Bitmaps} using
    * {@link Downsampler}.
@@ -1,13 +1,15 @@
 package com.bumptech.glide.request;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
+import com.bumptech.glide.Priority;
 
 /**
  * Runs a single primary {@link Request} until it completes and then a fallback error request only
  * if the single primary request fails.
  */
 public final class ErrorRequestCoordinator implements RequestCoordinator,
-    Request {
+    PrioritizedRequest {
 
   @Nullable
   private final RequestCoordinator parent;
@@ -65,6 +67,16 @@ public final class ErrorRequestCoordinator implements RequestCoordinator,
     return primary.isFailed() && error.isFailed();
   }
 
+  @Override
+  public void setPriority(@NonNull Priority priority) {
+    if (primary instanceof PrioritizedRequest) {
+      ((PrioritizedRequest) primary).setPriority(priority);
+    }
+    if (error instanceof PrioritizedRequest) {
+      ((PrioritizedRequest) error).setPriority(priority);
+    }
+  }
+
   @Override
   public void recycle() {
     primary.recycle();
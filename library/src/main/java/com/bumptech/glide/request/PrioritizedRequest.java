@@ -0,0 +1,21 @@
+package com.bumptech.glide.request;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.Priority;
+
+/**
+ * A {@link Request} whose priority can be changed after it's started.
+ *
+ * <p>Glide's own requests implement this interface. It's separate from {@link Request} so that
+ * existing {@link Request} implementations keep compiling, requests that don't implement it keep
+ * the priority they were started with.
+ */
+public interface PrioritizedRequest extends Request {
+
+  /**
+   * Changes the priority of this request. If the request is waiting for its load to start, the load
+   * is moved ahead of or behind other waiting loads. Otherwise the new priority is used for the
+   * rest of the load.
+   */
+  void setPriority(@NonNull Priority priority);
+}
@@ -0,0 +1,28 @@
+package com.bumptech.glide.request;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.request.target.Target;
+
+/**
+ * Monitors the lower quality passes of progressive images loaded with {@link
+ * BaseRequestOptions#progressive()}.
+ *
+ * <p>Passes are given to {@link RequestListener}s that also implement this interface, immediately
+ * before they're given to the {@link Target}. The same threading guarantees apply as for
+ * {@link RequestListener}.
+ */
+public interface ProgressivePassListener {
+
+  /**
+   * Called when a pass of a progressive image is ready.
+   *
+   * @param pass The pass, which is only valid until the next pass or the resource is ready and must
+   *     not be modified or recycled.
+   * @param passIndex The zero based index of the pass.
+   * @param model The specific model that was used to load the image.
+   * @param target The target the model is being loaded into.
+   * @return {@code true} to prevent the pass from being given to {@code target}.
+   */
+  boolean onPassReady(@NonNull Bitmap pass, int passIndex, Object model, Target<?> target);
+}
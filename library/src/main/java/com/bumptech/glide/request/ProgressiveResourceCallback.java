@@ -0,0 +1,18 @@
+package com.bumptech.glide.request;
+
+import com.bumptech.glide.load.engine.ProgressivePass;
+
+/**
+ * A {@link ResourceCallback} that also receives lower quality versions of progressive images while
+ * they load.
+ */
+public interface ProgressiveResourceCallback extends ResourceCallback {
+
+  /**
+   * Called with each pass of a progressive image before the resource is ready.
+   *
+   * @param pass The pass, which must be released with {@link ProgressivePass#release()} once it's
+   *     no longer needed.
+   */
+  void onPassReady(ProgressivePass pass);
+}
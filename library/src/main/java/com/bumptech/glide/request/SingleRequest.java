@@ -2,6 +2,8 @@ package com.bumptech.glide.request;
 
 import android.content.Context;
 import android.content.res.Resources.Theme;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.GuardedBy;
@@ -15,10 +17,12 @@ import com.bumptech.glide.Priority;
 import com.bumptech.glide.load.DataSource;
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.ProgressivePass;
 import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.load.resource.drawable.DrawableDecoderCompat;
 import com.bumptech.glide.request.target.SizeReadyCallback;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.transition.NoTransition;
 import com.bumptech.glide.request.transition.Transition;
 import com.bumptech.glide.request.transition.TransitionFactory;
 import com.bumptech.glide.util.LogTime;
@@ -36,9 +40,9 @@ import java.util.concurrent.Executor;
  *
  * @param <R> The type of the resource that will be transcoded from the loaded resource.
  */
-public final class SingleRequest<R> implements Request,
+public final class SingleRequest<R> implements PrioritizedRequest,
         SizeReadyCallback,
-        ResourceCallback,
+        ProgressiveResourceCallback,
         FactoryPools.Poolable {
     /**
      * Tag for logging internal events, not generally suitable for public use.
@@ -110,6 +114,8 @@ public final class SingleRequest<R> implements Request,
     private TransitionFactory<? super R> animationFactory;
     private Executor callbackExecutor;
     private Resource<R> resource;
+    @Nullable
+    private ProgressivePass pass;
     private Engine.LoadStatus loadStatus;
     private long startTime;
     @GuardedBy("this")
@@ -219,6 +225,7 @@ public final class SingleRequest<R> implements Request,
         width = -1;
         height = -1;
         requestOrigin = null;
+        releasePass();
         POOL.release(this);
     }
 
@@ -333,6 +340,8 @@ public final class SingleRequest<R> implements Request,
         if (canNotifyCleared()) {
             target.onLoadCleared(getPlaceholderDrawable());
         }
+        // The pass may be displayed, or transitioned from, until the target is cleared.
+        releasePass();
 
         status = Status.CLEARED;
     }
@@ -342,6 +351,13 @@ public final class SingleRequest<R> implements Request,
         this.resource = null;
     }
 
+    private void releasePass() {
+        if (pass != null) {
+            pass.release();
+            pass = null;
+        }
+    }
+
     @Override
     public synchronized boolean isRunning() {
         return status == Status.RUNNING || status == Status.WAITING_FOR_SIZE;
@@ -367,6 +383,14 @@ public final class SingleRequest<R> implements Request,
         return status == Status.FAILED;
     }
 
+    @Override
+    public synchronized void setPriority(@NonNull Priority priority) {
+        this.priority = priority;
+        if (status == Status.RUNNING && loadStatus != null) {
+            loadStatus.setPriority(priority);
+        }
+    }
+
     private Drawable getErrorDrawable() {
         if (errorDrawable == null) {
             errorDrawable = requestOptions.getErrorPlaceholder();
@@ -534,6 +558,7 @@ public final class SingleRequest<R> implements Request,
         }
 
         if (!canSetResource()) {
+            // The target may still show the pass, which is released once the target is cleared.
             releaseResource(resource);
             // We can't put the status to complete before asking canSetResource().
             status = Status.COMPLETE;
@@ -563,6 +588,8 @@ public final class SingleRequest<R> implements Request,
         }
 
         isCallingCallbacks = true;
+        // Whether the target may still be drawing the pass, for example while cross fading from it.
+        boolean mayDrawPass = true;
         try {
             boolean anyListenerHandledUpdatingTarget = false;
             if (requestListeners != null) {
@@ -579,14 +606,73 @@ public final class SingleRequest<R> implements Request,
                 Transition<? super R> animation =
                         animationFactory.build(dataSource, isFirstResource);
                 target.onResourceReady(result, animation);
+                mayDrawPass = !(animation instanceof NoTransition);
             }
         } finally {
             isCallingCallbacks = false;
         }
+        // Otherwise the pass is kept until the target is cleared or given a new request, because
+        // there's no way to know when a transition finishes.
+        if (!mayDrawPass) {
+            releasePass();
+        }
 
         notifyLoadSuccess();
     }
 
+    /**
+     * A callback method that should never be invoked directly.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public synchronized void onPassReady(ProgressivePass pass) {
+        stateVerifier.throwIfRecycled();
+        Object result = status == Status.RUNNING && canSetResource()
+                ? getPassResult(pass.getBitmap()) : null;
+        if (result == null) {
+            pass.release();
+            return;
+        }
+
+        isCallingCallbacks = true;
+        try {
+            boolean anyListenerHandledUpdatingTarget = false;
+            if (requestListeners != null) {
+                for (RequestListener<R> listener : requestListeners) {
+                    anyListenerHandledUpdatingTarget |= notifyPassListener(listener, pass);
+                }
+            }
+            anyListenerHandledUpdatingTarget |= notifyPassListener(targetListener, pass);
+
+            if (!anyListenerHandledUpdatingTarget) {
+                // Passes replace each other too quickly for transitions to be useful.
+                target.onResourceReady((R) result, /*transition=*/ null);
+            }
+        } finally {
+            isCallingCallbacks = false;
+        }
+        // The previous pass is no longer displayed.
+        releasePass();
+        this.pass = pass;
+    }
+
+    private boolean notifyPassListener(
+            @Nullable RequestListener<R> listener, ProgressivePass pass) {
+        return listener instanceof ProgressivePassListener
+                && ((ProgressivePassListener) listener)
+                .onPassReady(pass.getBitmap(), pass.getPassIndex(), model, target);
+    }
+
+    @Nullable
+    private Object getPassResult(Bitmap bitmap) {
+        if (transcodeClass.isAssignableFrom(Bitmap.class)) {
+            return bitmap;
+        } else if (transcodeClass.isAssignableFrom(BitmapDrawable.class)) {
+            return new BitmapDrawable(context.getResources(), bitmap);
+        }
+        return null;
+    }
+
     /**
      * A callback method that should never be invoked directly.
      */
@@ -1,14 +1,16 @@
 package com.bumptech.glide.request;
 
+import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.annotation.VisibleForTesting;
+import com.bumptech.glide.Priority;
 
 /**
  * A coordinator that coordinates two individual {@link Request}s that load a small thumbnail
  * version of an image and the full size version of the image at the same time.
  */
 public class ThumbnailRequestCoordinator implements RequestCoordinator,
-    Request {
+    PrioritizedRequest {
   @Nullable private final RequestCoordinator parent;
 
   private Request full;
@@ -161,6 +163,16 @@ public class ThumbnailRequestCoordinator implements RequestCoordinator,
     return full.isFailed();
   }
 
+  @Override
+  public void setPriority(@NonNull Priority priority) {
+    if (full instanceof PrioritizedRequest) {
+      ((PrioritizedRequest) full).setPriority(priority);
+    }
+    if (thumb instanceof PrioritizedRequest) {
+      ((PrioritizedRequest) thumb).setPriority(priority);
+    }
+  }
+
   @Override
   public void recycle() {
     full.recycle();
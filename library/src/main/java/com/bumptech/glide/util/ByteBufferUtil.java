@@ -25,24 +25,71 @@ public final class ByteBufferUtil {
     // Utility class.
   }
 
+  /**
+   * Maps the given file into memory.
+   *
+   * <p>The file's pages are read lazily as the buffer is accessed, rather than all at once before
+   * this method returns. The mapping isn't tracked and is only unmapped when the returned buffer is
+   * garbage collected, see {@link #mapFile(File)} for a managed alternative.
+   */
   @NonNull
   public static ByteBuffer fromFile(@NonNull File file) throws IOException {
-    RandomAccessFile raf = null;
-    FileChannel channel = null;
+    return map(file, getMappableLength(file));
+  }
+
+  /**
+   * Maps the given file into memory and tracks the mapping with {@link MappedBufferTracker}.
+   *
+   * <p>Like {@link #fromFile(File)}, the file's pages are read lazily as the buffer is accessed. The
+   * caller owns a reference to the returned buffer and must pass it to {@link
+   * MappedBufferTracker#release(ByteBuffer)} when it's done with it, so that the mapping can be
+   * removed immediately.
+   *
+   * @throws IOException If the file can't be mapped, including if mapping the file would exceed
+   * {@link MappedBufferTracker}'s budget.
+   */
+  @NonNull
+  public static ByteBuffer mapFile(@NonNull File file) throws IOException {
+    long fileLength = getMappableLength(file);
+    MappedBufferTracker tracker = MappedBufferTracker.getInstance();
+    if (!tracker.tryReserve(fileLength)) {
+      throw new IOException("Mapping file would exceed mapped buffer budget");
+    }
+    ByteBuffer result = null;
     try {
-      long fileLength = file.length();
-      // See #2240.
-      if (fileLength > Integer.MAX_VALUE) {
-        throw new IOException("File too large to map into memory");
-      }
-      // See b/67710449.
-      if (fileLength == 0) {
-        throw new IOException("File unsuitable for memory mapping");
+      result = map(file, fileLength);
+      tracker.track(result, fileLength);
+      return result;
+    } finally {
+      if (result == null) {
+        tracker.cancelReservation(fileLength);
       }
+    }
+  }
+
+  private static long getMappableLength(@NonNull File file) throws IOException {
+    long fileLength = file.length();
+    // See #2240.
+    if (fileLength > Integer.MAX_VALUE) {
+      throw new IOException("File too large to map into memory");
+    }
+    // See b/67710449.
+    if (fileLength == 0) {
+      throw new IOException("File unsuitable for memory mapping");
+    }
+    return fileLength;
+  }
 
+  @NonNull
+  private static ByteBuffer map(@NonNull File file, long fileLength) throws IOException {
+    RandomAccessFile raf = null;
+    FileChannel channel = null;
+    try {
       raf = new RandomAccessFile(file, "r");
       channel = raf.getChannel();
-      return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength).load();
+      // Don't load() the buffer, decoders often only read part of the file and the kernel reads
+      // ahead as pages are accessed in order anyway.
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileLength);
     } finally {
       if (channel != null) {
         try {
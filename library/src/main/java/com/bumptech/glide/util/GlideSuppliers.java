@@ -0,0 +1,60 @@
+package com.bumptech.glide.util;
+
+import android.support.annotation.NonNull;
+
+/** Utilities for {@link GlideSupplier}s. */
+public final class GlideSuppliers {
+
+  /**
+   * Produces a non-null value on demand.
+   *
+   * @param <T> The type of value supplied.
+   */
+  public interface GlideSupplier<T> {
+    @NonNull
+    T get();
+  }
+
+  private GlideSuppliers() {
+    // Utility class.
+  }
+
+  /**
+   * Returns a {@link GlideSupplier} that obtains its value from the given supplier the first time
+   * it's called and returns the same value every time after that.
+   *
+   * <p>The returned supplier is thread safe, the given supplier is called at most once.
+   */
+  @NonNull
+  public static <T> GlideSupplier<T> memorize(@NonNull GlideSupplier<T> supplier) {
+    return new MemorizingSupplier<>(supplier);
+  }
+
+  private static final class MemorizingSupplier<T> implements GlideSupplier<T> {
+    private GlideSupplier<T> supplier;
+    private volatile T instance;
+
+    @Synthetic
+    MemorizingSupplier(GlideSupplier<T> supplier) {
+      this.supplier = Preconditions.checkNotNull(supplier);
+    }
+
+    @NonNull
+    @Override
+    public T get() {
+      T result = instance;
+      if (result == null) {
+        synchronized (this) {
+          result = instance;
+          if (result == null) {
+            result = Preconditions.checkNotNull(supplier.get());
+            instance = result;
+            // The supplier may hold on to objects that are no longer needed.
+            supplier = null;
+          }
+        }
+      }
+      return result;
+    }
+  }
+}
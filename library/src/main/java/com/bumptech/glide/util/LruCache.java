@@ -9,13 +9,14 @@ import java.util.Map;
 /**
  * A general purpose size limited cache that evicts items using an LRU algorithm. By default every
  * item is assumed to have a size of one. Subclasses can override {@link #getSize(Object)}} to
- * change the size on a per item basis.
+ * change the size on a per item basis. The size of each item is read once, when it's added, so
+ * items whose size changes while they're cached don't throw off the cache's total.
  *
  * @param <T> The type of the keys.
  * @param <Y> The type of the values.
  */
 public class LruCache<T, Y> {
-  private final Map<T, Y> cache = new LinkedHashMap<>(100, 0.75f, true);
+  private final Map<T, Entry<Y>> cache = new LinkedHashMap<>(100, 0.75f, true);
   private final long initialMaxSize;
   private long maxSize;
   private long currentSize;
@@ -105,7 +106,8 @@ public class LruCache<T, Y> {
    */
   @Nullable
   public synchronized Y get(@NonNull T key) {
-    return cache.get(key);
+    Entry<Y> entry = cache.get(key);
+    return entry != null ? entry.value : null;
   }
 
   /**
@@ -130,17 +132,17 @@ public class LruCache<T, Y> {
     if (item != null) {
       currentSize += itemSize;
     }
-    @Nullable final Y old = cache.put(key, item);
+    @Nullable final Entry<Y> old = cache.put(key, new Entry<>(item, item != null ? itemSize : 0));
     if (old != null) {
-      currentSize -= getSize(old);
+      currentSize -= old.size;
 
-      if (!old.equals(item)) {
-        onItemEvicted(key, old);
+      if (old.value != null && !old.value.equals(item)) {
+        onItemEvicted(key, old.value);
       }
     }
     evict();
 
-    return old;
+    return old != null ? old.value : null;
   }
 
   /**
@@ -150,11 +152,12 @@ public class LruCache<T, Y> {
    */
   @Nullable
   public synchronized Y remove(@NonNull T key) {
-    final Y value = cache.remove(key);
-    if (value != null) {
-      currentSize -= getSize(value);
+    final Entry<Y> entry = cache.remove(key);
+    if (entry == null) {
+      return null;
     }
-    return value;
+    currentSize -= entry.size;
+    return entry.value;
   }
 
   /**
@@ -171,20 +174,31 @@ public class LruCache<T, Y> {
    * @param size The size the cache should be less than.
    */
   protected synchronized void trimToSize(long size) {
-    Map.Entry<T, Y> last;
-    Iterator<Map.Entry<T, Y>> cacheIterator;
+    Map.Entry<T, Entry<Y>> last;
+    Iterator<Map.Entry<T, Entry<Y>>> cacheIterator;
     while (currentSize > size) {
       cacheIterator  = cache.entrySet().iterator();
       last = cacheIterator.next();
-      final Y toRemove = last.getValue();
-      currentSize -= getSize(toRemove);
+      final Entry<Y> toRemove = last.getValue();
+      currentSize -= toRemove.size;
       final T key = last.getKey();
       cacheIterator.remove();
-      onItemEvicted(key, toRemove);
+      onItemEvicted(key, toRemove.value);
     }
   }
 
   private void evict() {
     trimToSize(maxSize);
   }
+
+  private static final class Entry<Y> {
+    @Synthetic final Y value;
+    @Synthetic final int size;
+
+    @Synthetic
+    Entry(Y value, int size) {
+      this.value = value;
+      this.size = size;
+    }
+  }
 }
@@ -0,0 +1,200 @@
+package com.bumptech.glide.util;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.util.Log;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the memory mapped {@link ByteBuffer}s returned by {@link
+ * ByteBufferUtil#mapFile(java.io.File)}, limits the total number of bytes mapped at once and unmaps
+ * each buffer as soon as its last owner releases it instead of waiting for the buffer to be garbage
+ * collected.
+ *
+ * <p>Each mapped buffer starts with a single reference held by the code that mapped it. Code that
+ * keeps the buffer beyond that owner's lifetime, like a {@link
+ * com.bumptech.glide.load.resource.gif.GifDrawable} that keeps decoding frames from it, must call
+ * {@link #retain(ByteBuffer)} and later {@link #release(ByteBuffer)}. Buffers that aren't tracked
+ * are ignored, so it's always safe to call either method.
+ *
+ * <p>Unmapped buffers must not be read. Custom decoders that hold on to the {@link ByteBuffer}s
+ * they decode without calling {@link #retain(ByteBuffer)} should disable unmapping with {@link
+ * #setUnmapOnRelease(boolean)}.
+ *
+ * @see ByteBufferUtil#mapFile(java.io.File)
+ */
+public final class MappedBufferTracker {
+  private static final String TAG = "MappedBufferTracker";
+  private static final MappedBufferTracker INSTANCE = new MappedBufferTracker();
+
+  private final Map<ByteBuffer, Mapping> mappings = new IdentityHashMap<>();
+  private long maxSize = Long.MAX_VALUE;
+  private long currentSize;
+  private boolean unmapOnRelease = true;
+  private boolean isUnmapperResolved;
+  @Nullable private Method unmapper;
+
+  /** Returns the tracker shared by all of Glide's mapped buffers. */
+  @NonNull
+  public static MappedBufferTracker getInstance() {
+    return INSTANCE;
+  }
+
+  @VisibleForTesting
+  MappedBufferTracker() {
+    // Use the shared instance.
+  }
+
+  /**
+   * Sets the maximum number of bytes that may be mapped at once. Files that would exceed the
+   * budget aren't mapped, so callers fall back to other ways of reading them.
+   *
+   * <p>Glide sets the budget from {@link
+   * com.bumptech.glide.load.engine.cache.MemorySizeCalculator#getMappedBufferBudgetInBytes()} when
+   * it's initialized.
+   */
+  public synchronized void setMaxSize(long maxSize) {
+    Preconditions.checkArgument(maxSize >= 0, "Max size must be greater than or equal to 0");
+    this.maxSize = maxSize;
+  }
+
+  public synchronized long getMaxSize() {
+    return maxSize;
+  }
+
+  /** Returns the number of bytes currently mapped by tracked buffers. */
+  public synchronized long getCurrentSize() {
+    return currentSize;
+  }
+
+  /**
+   * Sets whether buffers are unmapped when their last reference is released, or left to be
+   * unmapped when they're garbage collected. Released buffers stop counting against the budget
+   * either way.
+   */
+  public synchronized void setUnmapOnRelease(boolean unmapOnRelease) {
+    this.unmapOnRelease = unmapOnRelease;
+  }
+
+  /**
+   * Reserves {@code size} bytes of the budget for a file that's about to be mapped and returns
+   * {@code true}, or returns {@code false} if mapping the file would exceed the budget.
+   */
+  synchronized boolean tryReserve(long size) {
+    if (currentSize + size > maxSize) {
+      if (Log.isLoggable(TAG, Log.DEBUG)) {
+        Log.d(TAG, "Mapped buffer budget exceeded, current size: " + currentSize
+            + ", requested size: " + size + ", max size: " + maxSize);
+      }
+      return false;
+    }
+    currentSize += size;
+    return true;
+  }
+
+  /** Returns bytes reserved by {@link #tryReserve(long)} for a file that couldn't be mapped. */
+  synchronized void cancelReservation(long size) {
+    currentSize -= size;
+  }
+
+  /** Starts tracking a newly mapped buffer whose size was reserved with {@link #tryReserve}. */
+  synchronized void track(@NonNull ByteBuffer buffer, long size) {
+    mappings.put(buffer, new Mapping(size));
+  }
+
+  /**
+   * Adds a reference to the given buffer if it's tracked, so that it isn't unmapped until a
+   * matching call to {@link #release(ByteBuffer)}.
+   *
+   * @return {@code true} if the buffer is tracked and a reference was added.
+   */
+  public synchronized boolean retain(@NonNull ByteBuffer buffer) {
+    Mapping mapping = mappings.get(buffer);
+    if (mapping == null) {
+      return false;
+    }
+    mapping.references++;
+    return true;
+  }
+
+  /**
+   * Removes a reference to the given buffer if it's tracked and unmaps the buffer once no
+   * references remain.
+   */
+  public void release(@NonNull ByteBuffer buffer) {
+    boolean unmap;
+    synchronized (this) {
+      Mapping mapping = mappings.get(buffer);
+      if (mapping == null || --mapping.references > 0) {
+        return;
+      }
+      mappings.remove(buffer);
+      currentSize -= mapping.size;
+      unmap = unmapOnRelease;
+    }
+    if (unmap) {
+      unmap(buffer);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized boolean isTracked(@NonNull ByteBuffer buffer) {
+    return mappings.containsKey(buffer);
+  }
+
+  private void unmap(@NonNull ByteBuffer buffer) {
+    Method method = getUnmapper();
+    if (method == null) {
+      return;
+    }
+    try {
+      method.invoke(null, buffer);
+    } catch (IllegalAccessException e) {
+      disableUnmapper(e);
+    } catch (InvocationTargetException e) {
+      disableUnmapper(e);
+    } catch (RuntimeException e) {
+      disableUnmapper(e);
+    }
+  }
+
+  // Android frees direct buffers through NioUtils. Freed buffers throw if they're read again
+  // rather than reading unmapped memory. There's no safe equivalent on other platforms, so
+  // buffers are left to the garbage collector there.
+  @Nullable
+  private synchronized Method getUnmapper() {
+    if (!isUnmapperResolved) {
+      isUnmapperResolved = true;
+      try {
+        unmapper = Class.forName("java.nio.NioUtils")
+            .getMethod("freeDirectBuffer", ByteBuffer.class);
+      } catch (ClassNotFoundException e) {
+        unmapper = null;
+      } catch (NoSuchMethodException e) {
+        unmapper = null;
+      }
+    }
+    return unmapper;
+  }
+
+  private synchronized void disableUnmapper(Exception e) {
+    if (Log.isLoggable(TAG, Log.WARN)) {
+      Log.w(TAG, "Failed to unmap buffer, leaving future buffers to the garbage collector", e);
+    }
+    unmapper = null;
+  }
+
+  private static final class Mapping {
+    @Synthetic final long size;
+    @Synthetic int references = 1;
+
+    Mapping(long size) {
+      this.size = size;
+    }
+  }
+}
@@ -38,12 +38,16 @@ public final class Util {
     }
   }
 
+  /**
+   * Returns the hex string of the given byte array, using the given array, which must be twice as
+   * long as {@code bytes}, to build the string.
+   */
   // Taken from:
   // http://stackoverflow.com/questions/9655181/convert-from-byte-array-to-hex-string-in-java
   // /9655275#9655275
   @SuppressWarnings("PMD.UseVarargs")
   @NonNull
-  private static String bytesToHex(@NonNull byte[] bytes, @NonNull char[] hexChars) {
+  public static String bytesToHex(@NonNull byte[] bytes, @NonNull char[] hexChars) {
     int v;
     for (int j = 0; j < bytes.length; j++) {
       v = bytes[j] & 0xFF;
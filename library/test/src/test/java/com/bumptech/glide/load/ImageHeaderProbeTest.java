@@ -0,0 +1,256 @@
+package com.bumptech.glide.load;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.load.ImageHeaderParser.ImageType;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.resource.bitmap.DefaultImageHeaderParser;
+import com.bumptech.glide.testutil.TestResourceUtil;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.Util;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class ImageHeaderProbeTest {
+  private final List<ImageHeaderParser> parsers =
+      Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser());
+  private ArrayPool byteArrayPool;
+
+  @Before
+  public void setUp() {
+    byteArrayPool = new LruArrayPool();
+  }
+
+  @Test
+  public void probe_withRotatedJpeg_returnsTypeAndOrientation() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("issue387_rotated_jpeg.jpg"));
+
+    assertThat(probe.getType()).isEqualTo(ImageType.JPEG);
+    assertThat(probe.getOrientation()).isEqualTo(6);
+    assertThat(probe.containsWholeStream()).isFalse();
+  }
+
+  @Test
+  public void probe_withJpeg_readsThroughStartOfScanMarker() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("issue387_rotated_jpeg.jpg"));
+
+    // The image's exif and table segments end with a start of scan marker at 19172.
+    assertThat(probe.getPrefixLength()).isEqualTo(19172 + 4);
+  }
+
+  @Test
+  public void probe_withLargeNonJpeg_readsInitialPrefix() throws IOException {
+    byte[] data = new byte[ImageHeaderProbe.PREFIX_SIZE_BYTES * 2];
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(data));
+
+    assertThat(probe.containsWholeStream()).isFalse();
+    assertThat(probe.getPrefixLength()).isEqualTo(ImageHeaderProbe.INITIAL_PREFIX_SIZE_BYTES);
+    assertThat(probe.getType()).isEqualTo(ImageType.UNKNOWN);
+  }
+
+  @Test
+  public void probe_withNonJpeg_marksAndBorrowsInitialPrefixOnly() throws IOException {
+    MarkLimitRecordingStream is = new MarkLimitRecordingStream(pngWithInterlaceMethod(0));
+    ImageHeaderProbe probe = probe(is);
+
+    assertThat(is.maxMarkLimit).isEqualTo(ImageHeaderProbe.INITIAL_PREFIX_SIZE_BYTES);
+    assertThat(probe.getPrefix().length).isEqualTo(ImageHeaderProbe.INITIAL_PREFIX_SIZE_BYTES);
+  }
+
+  @Test
+  public void probe_withJpeg_growsPrefixAndMarkOnlyAsFarAsHeaderNeeds() throws IOException {
+    byte[] data = Util.readBytes(openResource("issue387_rotated_jpeg.jpg"));
+    MarkLimitRecordingStream is = new MarkLimitRecordingStream(data);
+    ImageHeaderProbe probe = probe(is);
+
+    assertThat(probe.getPrefixLength()).isEqualTo(19172 + 4);
+    assertThat(is.maxMarkLimit).isLessThan(ImageHeaderProbe.PREFIX_SIZE_BYTES);
+    assertThat(probe.getPrefix().length).isLessThan(ImageHeaderProbe.PREFIX_SIZE_BYTES);
+    for (int i = 0; i < probe.getPrefixLength(); i++) {
+      assertThat(probe.getPrefix()[i]).isEqualTo(data[i]);
+    }
+    assertThat(is.read()).isEqualTo(data[0] & 0xFF);
+  }
+
+  @Test
+  public void probe_withStreamShorterThanInitialPrefix_containsWholeStream() throws IOException {
+    byte[] data = Arrays.copyOf(Util.readBytes(openResource("short_exif_sample.jpg")), 512);
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(data));
+
+    assertThat(probe.containsWholeStream()).isTrue();
+    assertThat(probe.getPrefixLength()).isEqualTo(data.length);
+    assertThat(probe.getType()).isEqualTo(ImageType.JPEG);
+    assertThat(probe.getOrientation()).isEqualTo(ImageHeaderParser.UNKNOWN_ORIENTATION);
+  }
+
+  @Test
+  public void probe_withGif_returnsGifType() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("test.gif"));
+
+    assertThat(probe.getType()).isEqualTo(ImageType.GIF);
+    assertThat(probe.getOrientation()).isEqualTo(ImageHeaderParser.UNKNOWN_ORIENTATION);
+  }
+
+  @Test
+  public void probe_resetsStream() throws IOException {
+    byte[] data = Util.readBytes(openResource("issue387_rotated_jpeg.jpg"));
+    InputStream is = new ByteArrayInputStream(data);
+
+    probe(is);
+
+    byte[] afterProbe = new byte[16];
+    assertThat(is.read(afterProbe)).isEqualTo(afterProbe.length);
+    for (int i = 0; i < afterProbe.length; i++) {
+      assertThat(afterProbe[i]).isEqualTo(data[i]);
+    }
+  }
+
+  @Test
+  public void getOrientation_withExifSegmentPastPrefix_readsOrientationFromStream()
+      throws IOException {
+    byte[] jpeg = Util.readBytes(openResource("issue387_rotated_jpeg.jpg"));
+    // Insert two maximum size segments the parser skips between the start of image marker and the
+    // exif segment so that the exif segment doesn't fit in the prefix.
+    int paddingSegmentSize = 2 + 0xFFFF;
+    byte[] data = new byte[jpeg.length + 2 * paddingSegmentSize];
+    data[0] = jpeg[0];
+    data[1] = jpeg[1];
+    for (int i = 0; i < 2; i++) {
+      int offset = 2 + i * paddingSegmentSize;
+      data[offset] = (byte) 0xFF;
+      data[offset + 1] = (byte) 0xE2;
+      data[offset + 2] = (byte) 0xFF;
+      data[offset + 3] = (byte) 0xFF;
+    }
+    System.arraycopy(jpeg, 2, data, 2 + 2 * paddingSegmentSize, jpeg.length - 2);
+
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(data));
+
+    assertThat(probe.getType()).isEqualTo(ImageType.JPEG);
+    assertThat(probe.getOrientation()).isEqualTo(6);
+  }
+
+  @Test
+  public void isProgressive_withProgressiveJpeg_returnsTrue() throws IOException {
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(jpegWithFrame(0xC2)));
+
+    assertThat(probe.isProgressive()).isTrue();
+  }
+
+  @Test
+  public void isProgressive_withBaselineJpeg_returnsFalse() throws IOException {
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(jpegWithFrame(0xC0)));
+
+    assertThat(probe.isProgressive()).isFalse();
+  }
+
+  @Test
+  public void isProgressive_withInterlacedPng_returnsTrue() throws IOException {
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(pngWithInterlaceMethod(1)));
+
+    assertThat(probe.isProgressive()).isTrue();
+  }
+
+  @Test
+  public void isProgressive_withNonInterlacedPng_returnsFalse() throws IOException {
+    ImageHeaderProbe probe = probe(new ByteArrayInputStream(pngWithInterlaceMethod(0)));
+
+    assertThat(probe.isProgressive()).isFalse();
+  }
+
+  @Test
+  public void isProgressive_withGif_returnsFalse() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("test.gif"));
+
+    assertThat(probe.isProgressive()).isFalse();
+  }
+
+  @Test
+  public void release_returnsPrefixToPool() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("short_exif_sample.jpg"));
+    byte[] prefix = probe.getPrefix();
+
+    probe.release();
+
+    assertThat(byteArrayPool.get(prefix.length, byte[].class)).isSameAs(prefix);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void getPrefix_afterRelease_throws() throws IOException {
+    ImageHeaderProbe probe = probe(openResource("short_exif_sample.jpg"));
+    probe.release();
+
+    probe.getPrefix();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void probe_withStreamThatDoesNotSupportMark_throws() throws IOException {
+    InputStream is = new InputStream() {
+      @Override
+      public int read() {
+        return -1;
+      }
+    };
+    ImageHeaderProbe.probe(parsers, is, byteArrayPool);
+  }
+
+  // A start of image marker, a frame segment of the given type and a start of scan marker.
+  private static byte[] jpegWithFrame(int frameType) {
+    byte[] data = new byte[2048];
+    data[0] = (byte) 0xFF;
+    data[1] = (byte) 0xD8;
+    data[2] = (byte) 0xFF;
+    data[3] = (byte) frameType;
+    data[4] = 0;
+    data[5] = 11;
+    data[2 + 2 + 11] = (byte) 0xFF;
+    data[2 + 2 + 11 + 1] = (byte) 0xDA;
+    return data;
+  }
+
+  // The PNG signature followed by an IHDR chunk.
+  private static byte[] pngWithInterlaceMethod(int interlaceMethod) {
+    byte[] data = new byte[2048];
+    byte[] header = new byte[] {
+        (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n',
+        0, 0, 0, 13, 'I', 'H', 'D', 'R',
+        0, 0, 0, 10, 0, 0, 0, 10, 8, 6, 0, 0, (byte) interlaceMethod
+    };
+    System.arraycopy(header, 0, data, 0, header.length);
+    return data;
+  }
+
+  private static final class MarkLimitRecordingStream extends ByteArrayInputStream {
+    private int maxMarkLimit;
+
+    MarkLimitRecordingStream(byte[] data) {
+      super(data);
+    }
+
+    @Override
+    public synchronized void mark(int readAheadLimit) {
+      maxMarkLimit = Math.max(maxMarkLimit, readAheadLimit);
+      super.mark(readAheadLimit);
+    }
+  }
+
+  private ImageHeaderProbe probe(InputStream is) throws IOException {
+    return ImageHeaderProbe.probe(parsers, is, byteArrayPool);
+  }
+
+  private InputStream openResource(String name) {
+    return new BufferedInputStream(TestResourceUtil.openResource(getClass(), name));
+  }
+}
@@ -1,12 +1,14 @@
 package com.bumptech.glide.load.data;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.HttpException;
 import com.bumptech.glide.load.model.GlideUrl;
 import com.bumptech.glide.load.model.Headers;
 import com.bumptech.glide.testutil.TestUtil;
@@ -241,6 +243,155 @@ public class HttpUrlFetcherServerTest {
     assertThat(mockWebServer.takeRequest().getHeader(headerField)).isEqualTo(headerValue);
   }
 
+  @Test
+  public void testSendsRangeRequestWhenResuming() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(206)
+        .setHeader("Content-Range", "bytes 4-7/8").setBody("data"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.resumeFrom(4, "\"etag\"");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    RecordedRequest request = mockWebServer.takeRequest();
+    assertThat(request.getHeader("Range")).isEqualTo("bytes=4-");
+    assertThat(request.getHeader("If-Range")).isEqualTo("\"etag\"");
+    assertThat(request.getHeader("Accept-Encoding")).isEqualTo("identity");
+  }
+
+  @Test
+  public void testReturnsRemainingDataOnPartialContent() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(206)
+        .setHeader("Content-Range", "bytes 4-7/8").setBody("data"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.resumeFrom(4, "\"etag\"");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    verify(callback).onDataReady(streamCaptor.capture());
+    TestUtil.assertStreamOf("data", streamCaptor.getValue());
+    assertThat(fetcher.getResumedOffset()).isEqualTo(4);
+    assertThat(fetcher.getValidator()).isEqualTo("\"etag\"");
+  }
+
+  @Test
+  public void testReturnsEntireDataIfServerIgnoresRange() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("ETag", "\"changed\"").setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.resumeFrom(4, "\"etag\"");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    verify(callback).onDataReady(streamCaptor.capture());
+    TestUtil.assertStreamOf("fakedata", streamCaptor.getValue());
+    assertThat(fetcher.getResumedOffset()).isEqualTo(0);
+    assertThat(fetcher.getValidator()).isEqualTo("\"changed\"");
+  }
+
+  @Test
+  public void testRetriesWithoutRangeIfRangeNotSatisfiable() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(416));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.resumeFrom(100, "\"etag\"");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    verify(callback).onDataReady(streamCaptor.capture());
+    TestUtil.assertStreamOf("fakedata", streamCaptor.getValue());
+    assertThat(mockWebServer.takeRequest().getHeader("Range")).isEqualTo("bytes=100-");
+    assertThat(mockWebServer.takeRequest().getHeader("Range")).isNull();
+    assertThat(fetcher.getResumedOffset()).isEqualTo(0);
+  }
+
+  @Test
+  public void testRetriesWithoutRangeIfPartialContentStartsElsewhere() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(206)
+        .setHeader("Content-Range", "bytes 0-7/8").setBody("fakedata"));
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.resumeFrom(4, "\"etag\"");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    verify(callback).onDataReady(streamCaptor.capture());
+    TestUtil.assertStreamOf("fakedata", streamCaptor.getValue());
+    assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    assertThat(fetcher.getResumedOffset()).isEqualTo(0);
+  }
+
+  @Test
+  public void testIgnoresWeakETagsAsValidators() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("ETag", "W/\"weak\"")
+        .setHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT")
+        .setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    assertThat(fetcher.getValidator()).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+  }
+
+  @Test
+  public void testFailsReadsAfterCancel() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.loadData(Priority.NORMAL, callback);
+    verify(callback).onDataReady(streamCaptor.capture());
+
+    fetcher.cancel();
+
+    try {
+      //noinspection ResultOfMethodCallIgnored
+      streamCaptor.getValue().read();
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testSendsConditionalRequestWithCachedValidators() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.setCachedValidators("\"etag\"", "Wed, 21 Oct 2015 07:28:00 GMT");
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    RecordedRequest request = mockWebServer.takeRequest();
+    assertThat(request.getHeader("If-None-Match")).isEqualTo("\"etag\"");
+    assertThat(request.getHeader("If-Modified-Since")).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+  }
+
+  @Test
+  public void testFailsWithNotModifiedStatusCodeIfStatusCodeIs304() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(304));
+    HttpUrlFetcher fetcher = getFetcher();
+    fetcher.setCachedValidators("\"etag\"", null /*lastModified*/);
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+    verify(callback).onLoadFailed(captor.capture());
+    assertThat(captor.getValue()).isInstanceOf(HttpException.class);
+    assertThat(((HttpException) captor.getValue()).getStatusCode()).isEqualTo(304);
+  }
+
+  @Test
+  public void testReturnsValidatorsOfResponse() throws Exception {
+    mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("ETag", "\"etag\"")
+        .setHeader("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT")
+        .setBody("fakedata"));
+    HttpUrlFetcher fetcher = getFetcher();
+
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    assertThat(fetcher.getETag()).isEqualTo("\"etag\"");
+    assertThat(fetcher.getLastModified()).isEqualTo("Wed, 21 Oct 2015 07:28:00 GMT");
+  }
+
   private HttpUrlFetcher getFetcher() {
     return getFetcher(Headers.DEFAULT);
   }
@@ -248,6 +399,6 @@ public class HttpUrlFetcherServerTest {
   private HttpUrlFetcher getFetcher(Headers headers) {
     URL url = mockWebServer.url(DEFAULT_PATH).url();
     return new HttpUrlFetcher(new GlideUrl(url, headers), TIMEOUT_TIME_MS,
-        HttpUrlFetcher.DEFAULT_CONNECTION_FACTORY);
+        HttpUrlFetcher.DEFAULT_CONNECTION_FACTORY, new NetworkScheduler());
   }
 }
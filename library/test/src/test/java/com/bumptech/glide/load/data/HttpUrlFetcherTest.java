@@ -45,7 +45,8 @@ public class HttpUrlFetcherTest {
     when(urlConnection.getResponseCode()).thenReturn(200);
     when(glideUrl.toURL()).thenReturn(url);
 
-    fetcher = new HttpUrlFetcher(glideUrl, TIMEOUT_MS, connectionFactory);
+    fetcher =
+        new HttpUrlFetcher(glideUrl, TIMEOUT_MS, connectionFactory, new NetworkScheduler());
   }
 
   @Test
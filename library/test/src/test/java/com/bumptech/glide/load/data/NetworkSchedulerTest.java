@@ -0,0 +1,320 @@
+package com.bumptech.glide.load.data;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.bumptech.glide.Priority;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class NetworkSchedulerTest {
+  private static final String HOST = "host";
+  private static final long TIMEOUT_MS = 5000;
+
+  private final List<String> started = new ArrayList<>();
+  private NetworkScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = new NetworkScheduler();
+    scheduler.setMaxTransfersPerHost(2);
+    scheduler.setMaxBlockedMs(TIMEOUT_MS);
+  }
+
+  @Test
+  public void enqueue_withHostAtLimit_queuesTransfer() {
+    enqueue("first", HOST, Priority.NORMAL);
+    enqueue("second", HOST, Priority.NORMAL);
+    enqueue("third", HOST, Priority.NORMAL);
+
+    assertThat(started).containsExactly("first", "second").inOrder();
+    assertThat(scheduler.getRunningCount()).isEqualTo(2);
+    assertThat(scheduler.getQueueDepth()).isEqualTo(1);
+  }
+
+  @Test
+  public void enqueue_withOtherHostAtLimit_startsTransfer() {
+    enqueue("first", HOST, Priority.NORMAL);
+    enqueue("second", HOST, Priority.NORMAL);
+
+    enqueue("other", "other", Priority.NORMAL);
+
+    assertThat(started).contains("other");
+  }
+
+  @Test
+  public void release_startsQueuedTransfersByPriority() {
+    NetworkScheduler.Transfer first = enqueue("first", HOST, Priority.NORMAL);
+    NetworkScheduler.Transfer second = enqueue("second", HOST, Priority.NORMAL);
+    enqueue("low", HOST, Priority.LOW);
+    enqueue("normal", HOST, Priority.NORMAL);
+    enqueue("immediate", HOST, Priority.IMMEDIATE);
+
+    first.release();
+    second.release();
+
+    assertThat(started).containsExactly("first", "second", "immediate", "normal").inOrder();
+  }
+
+  @Test
+  public void release_withQueuedTransfer_neverStartsTransfer() {
+    NetworkScheduler.Transfer first = enqueue("first", HOST, Priority.NORMAL);
+    enqueue("second", HOST, Priority.NORMAL);
+    NetworkScheduler.Transfer third = enqueue("third", HOST, Priority.NORMAL);
+
+    third.release();
+    first.release();
+
+    assertThat(started).containsExactly("first", "second").inOrder();
+    assertThat(scheduler.getQueueDepth()).isEqualTo(0);
+  }
+
+  @Test
+  public void release_calledTwice_releasesOnce() {
+    NetworkScheduler.Transfer first = enqueue("first", HOST, Priority.NORMAL);
+    enqueue("second", HOST, Priority.NORMAL);
+    enqueue("third", HOST, Priority.NORMAL);
+    enqueue("fourth", HOST, Priority.NORMAL);
+
+    first.release();
+    first.release();
+
+    assertThat(started).containsExactly("first", "second", "third").inOrder();
+  }
+
+  @Test
+  public void enqueue_withHigherPriority_pausesLowerPriorityWrappedTransfer() throws IOException {
+    scheduler.setMaxTransfersPerHost(1);
+    NetworkScheduler.Transfer low = enqueue("low", HOST, Priority.LOW);
+    low.wrap(new ByteArrayInputStream(new byte[10]));
+
+    enqueue("high", HOST, Priority.HIGH);
+
+    assertThat(started).containsExactly("low", "high").inOrder();
+    assertThat(scheduler.getPausedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void enqueue_withHigherPriority_doesNotPauseTransferThatIsNotWrapped() {
+    scheduler.setMaxTransfersPerHost(1);
+    enqueue("low", HOST, Priority.LOW);
+
+    enqueue("high", HOST, Priority.HIGH);
+
+    assertThat(started).containsExactly("low");
+    assertThat(scheduler.getPausedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void enqueue_withHigherPriority_doesNotPauseTransferWrappedWithoutPausing()
+      throws IOException {
+    scheduler.setMaxTransfersPerHost(1);
+    NetworkScheduler.Transfer low = enqueue("low", HOST, Priority.LOW);
+    InputStream stream =
+        low.wrap(new ByteArrayInputStream(new byte[10]), /*isPausable=*/ false);
+
+    enqueue("high", HOST, Priority.HIGH);
+
+    assertThat(started).containsExactly("low");
+    assertThat(scheduler.getPausedCount()).isEqualTo(0);
+    assertThat(stream.read()).isEqualTo(0);
+  }
+
+  @Test
+  public void enqueue_withHostAtLimit_startsAfterMaxBlockedMs() throws InterruptedException {
+    scheduler.setMaxTransfersPerHost(1);
+    scheduler.setMaxBlockedMs(10);
+    enqueue("first", HOST, Priority.NORMAL);
+    final CountDownLatch overdueStarted = new CountDownLatch(1);
+
+    scheduler.newTransfer(HOST, Priority.NORMAL).enqueue(new Runnable() {
+      @Override
+      public void run() {
+        overdueStarted.countDown();
+      }
+    });
+
+    assertThat(overdueStarted.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(scheduler.getRunningCount()).isEqualTo(2);
+    assertThat(scheduler.getQueueDepth()).isEqualTo(0);
+  }
+
+  @Test
+  public void release_withQueuedTransfer_cancelsMaxBlockedMsTimeout() {
+    ScheduledExecutorService timeoutExecutor = mock(ScheduledExecutorService.class);
+    ScheduledFuture<?> timeout = mock(ScheduledFuture.class);
+    doReturn(timeout)
+        .when(timeoutExecutor)
+        .schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+    scheduler = new NetworkScheduler(timeoutExecutor);
+    scheduler.setMaxTransfersPerHost(1);
+    enqueue("first", HOST, Priority.NORMAL);
+    NetworkScheduler.Transfer second = enqueue("second", HOST, Priority.NORMAL);
+
+    second.release();
+
+    verify(timeout).cancel(false);
+  }
+
+  @Test
+  public void enqueue_withSamePriority_doesNotPauseTransfer() {
+    scheduler.setMaxTransfersPerHost(1);
+    NetworkScheduler.Transfer first = enqueue("first", HOST, Priority.NORMAL);
+    first.wrap(new ByteArrayInputStream(new byte[10]));
+
+    enqueue("second", HOST, Priority.NORMAL);
+
+    assertThat(started).containsExactly("first");
+  }
+
+  @Test
+  public void read_whilePaused_blocksUntilHigherPriorityTransferIsReleased()
+      throws IOException, InterruptedException {
+    scheduler.setMaxTransfersPerHost(1);
+    NetworkScheduler.Transfer low = enqueue("low", HOST, Priority.LOW);
+    final InputStream stream = low.wrap(new ByteArrayInputStream(new byte[10]));
+    NetworkScheduler.Transfer high = enqueue("high", HOST, Priority.HIGH);
+    final CountDownLatch read = new CountDownLatch(1);
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (stream.read() != -1) {
+            read.countDown();
+          }
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    }).start();
+
+    assertThat(read.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    high.release();
+
+    assertThat(read.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(scheduler.getPausedCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void read_whilePaused_resumesAfterMaxBlockedMs() throws IOException {
+    scheduler.setMaxTransfersPerHost(1);
+    scheduler.setMaxBlockedMs(10);
+    NetworkScheduler.Transfer low = enqueue("low", HOST, Priority.LOW);
+    InputStream stream = low.wrap(new ByteArrayInputStream(new byte[10]));
+    enqueue("high", HOST, Priority.HIGH);
+
+    assertThat(stream.read()).isEqualTo(0);
+    assertThat(scheduler.getRunningCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void read_toEnd_releasesTransfer_andCountsBytes() throws IOException {
+    NetworkScheduler.Transfer transfer = enqueue("first", HOST, Priority.NORMAL);
+    InputStream stream = transfer.wrap(new ByteArrayInputStream(new byte[10]));
+
+    byte[] buffer = new byte[4];
+    while (stream.read(buffer) != -1) {
+      // Read to the end.
+    }
+
+    assertThat(scheduler.getRunningCount()).isEqualTo(0);
+    assertThat(scheduler.getBytesTransferred()).isEqualTo(10);
+  }
+
+  @Test
+  public void close_releasesTransfer() throws IOException {
+    NetworkScheduler.Transfer transfer = enqueue("first", HOST, Priority.NORMAL);
+    InputStream stream = transfer.wrap(new ByteArrayInputStream(new byte[10]));
+
+    stream.close();
+
+    assertThat(scheduler.getRunningCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void await_withHostAtLimit_startsAfterMaxBlockedMs() throws IOException {
+    scheduler.setMaxTransfersPerHost(1);
+    scheduler.setMaxBlockedMs(10);
+    enqueue("first", HOST, Priority.NORMAL);
+
+    scheduler.newTransfer(HOST, Priority.NORMAL).await();
+
+    assertThat(scheduler.getRunningCount()).isEqualTo(2);
+    assertThat(scheduler.getQueueDepth()).isEqualTo(0);
+  }
+
+  @Test
+  public void await_withTransferReleasedWhileQueued_throws() throws InterruptedException {
+    scheduler.setMaxTransfersPerHost(1);
+    enqueue("first", HOST, Priority.NORMAL);
+    final NetworkScheduler.Transfer transfer = scheduler.newTransfer(HOST, Priority.NORMAL);
+    Thread releaser = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (scheduler.getQueueDepth() == 0) {
+          Thread.yield();
+        }
+        transfer.release();
+      }
+    });
+    releaser.start();
+
+    try {
+      transfer.await();
+      fail("Expected an IOException");
+    } catch (IOException e) {
+      // Expected.
+    }
+    releaser.join();
+  }
+
+  @Test
+  public void setMaxTransfersPerHost_withHigherLimit_startsQueuedTransfers() {
+    enqueue("first", HOST, Priority.NORMAL);
+    enqueue("second", HOST, Priority.NORMAL);
+    enqueue("third", HOST, Priority.NORMAL);
+
+    scheduler.setMaxTransfersPerHost(3);
+
+    assertThat(started).containsExactly("first", "second", "third").inOrder();
+  }
+
+  @Test
+  public void getThroughputBytesPerSecond_withNoTransfers_returnsZero() {
+    assertThat(scheduler.getThroughputBytesPerSecond()).isEqualTo(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxTransfersPerHost_withZero_throws() {
+    scheduler.setMaxTransfersPerHost(0);
+  }
+
+  private NetworkScheduler.Transfer enqueue(final String name, String host, Priority priority) {
+    NetworkScheduler.Transfer transfer = scheduler.newTransfer(host, priority);
+    transfer.enqueue(new Runnable() {
+      @Override
+      public void run() {
+        started.add(name);
+      }
+    });
+    return transfer;
+  }
+}
@@ -0,0 +1,432 @@
+package com.bumptech.glide.load.data;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class StreamCoalescerTest {
+  private static final int DATA_SIZE = 3 * StreamCoalescer.CHUNK_SIZE_BYTES + 123;
+
+  private StreamCoalescer coalescer;
+  private byte[] data;
+
+  @Before
+  public void setUp() {
+    coalescer = new StreamCoalescer();
+    data = new byte[DATA_SIZE];
+    for (int i = 0; i < DATA_SIZE; i++) {
+      data[i] = (byte) i;
+    }
+  }
+
+  @Test
+  public void loadData_withSameKey_loadsSourceOnce() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    FakeFetcher second = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", second).loadData(Priority.NORMAL, secondCallback);
+    CountingInputStream source = new CountingInputStream(data);
+    first.callback.onDataReady(source);
+
+    assertThat(first.loads).isEqualTo(1);
+    assertThat(second.loads).isEqualTo(0);
+    assertThat(readFully(getStream(firstCallback))).isEqualTo(data);
+    assertThat(readFully(getStream(secondCallback))).isEqualTo(data);
+    assertThat(source.bytesRead).isEqualTo(DATA_SIZE);
+  }
+
+  @Test
+  public void loadData_withDifferentKeys_loadsEachSource() {
+    FakeFetcher first = new FakeFetcher();
+    FakeFetcher second = new FakeFetcher();
+
+    coalescer.coalesce("url1", first).loadData(Priority.NORMAL, mockCallback());
+    coalescer.coalesce("url2", second).loadData(Priority.NORMAL, mockCallback());
+
+    assertThat(first.loads).isEqualTo(1);
+    assertThat(second.loads).isEqualTo(1);
+  }
+
+  @Test
+  public void loadData_afterSourceLoadedBeforeRead_replaysStreamFromStart() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    CountingInputStream source = new CountingInputStream(data);
+    first.callback.onDataReady(source);
+
+    FakeFetcher second = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    coalescer.coalesce("url", second).loadData(Priority.NORMAL, secondCallback);
+
+    assertThat(second.loads).isEqualTo(0);
+    assertThat(readFully(getStream(firstCallback))).isEqualTo(data);
+    assertThat(readFully(getStream(secondCallback))).isEqualTo(data);
+    assertThat(source.bytesRead).isEqualTo(DATA_SIZE);
+  }
+
+  @Test
+  public void read_withSingleFetcher_readsSourceWithoutBuffering() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> callback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, callback);
+    CountingInputStream source = new CountingInputStream(data);
+    first.callback.onDataReady(source);
+
+    assertThat(getStream(callback).read(new byte[10])).isEqualTo(10);
+
+    assertThat(source.bytesRead).isEqualTo(10);
+  }
+
+  @Test
+  public void loadData_afterSingleFetcherStartedReading_loadsSourceAgain() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+    InputStream firstStream = getStream(firstCallback);
+    assertThat(firstStream.read(new byte[1000])).isEqualTo(1000);
+
+    FakeFetcher second = new FakeFetcher();
+    coalescer.coalesce("url", second).loadData(Priority.NORMAL, mockCallback());
+
+    assertThat(second.loads).isEqualTo(1);
+  }
+
+  @Test
+  public void read_withAllReadersPastChunk_dropsChunkAndLoadsLaterFetchersSeparately()
+      throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", new FakeFetcher()).loadData(Priority.NORMAL, secondCallback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+    InputStream firstStream = getStream(firstCallback);
+    InputStream secondStream = getStream(secondCallback);
+    int length = StreamCoalescer.CHUNK_SIZE_BYTES + 1;
+    byte[] firstStart = readExactly(firstStream, length);
+    byte[] secondStart = readExactly(secondStream, length);
+
+    FakeFetcher third = new FakeFetcher();
+    coalescer.coalesce("url", third).loadData(Priority.NORMAL, mockCallback());
+
+    assertThat(third.loads).isEqualTo(1);
+    assertThat(concat(firstStart, readExactly(firstStream, DATA_SIZE - length))).isEqualTo(data);
+    assertThat(concat(secondStart, readExactly(secondStream, DATA_SIZE - length)))
+        .isEqualTo(data);
+  }
+
+  @Test
+  public void loadData_beforeAllReadersPastChunk_sharesBufferedStream() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", new FakeFetcher()).loadData(Priority.NORMAL, secondCallback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+    readExactly(getStream(firstCallback), StreamCoalescer.CHUNK_SIZE_BYTES + 1);
+
+    FakeFetcher third = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> thirdCallback = mockCallback();
+    coalescer.coalesce("url", third).loadData(Priority.NORMAL, thirdCallback);
+
+    assertThat(third.loads).isEqualTo(0);
+    assertThat(readFully(getStream(thirdCallback))).isEqualTo(data);
+  }
+
+  @Test
+  public void cleanup_withOtherFetcherReading_doesNotCleanupSource() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher<InputStream> secondFetcher = coalescer.coalesce("url", new FakeFetcher());
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    secondFetcher.loadData(Priority.NORMAL, secondCallback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+
+    firstFetcher.cleanup();
+
+    assertThat(first.cleanups).isEqualTo(0);
+    assertThat(readFully(getStream(secondCallback))).isEqualTo(data);
+  }
+
+  @Test
+  public void cleanup_withAllFetchers_cleansUpSourceOnce() {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher<InputStream> secondFetcher = coalescer.coalesce("url", new FakeFetcher());
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    secondFetcher.loadData(Priority.NORMAL, mockCallback());
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+
+    firstFetcher.cleanup();
+    secondFetcher.cleanup();
+    secondFetcher.cleanup();
+
+    assertThat(first.cleanups).isEqualTo(1);
+    assertThat(coalescer.getInFlightCount()).isEqualTo(0);
+  }
+
+  @Test(expected = IOException.class)
+  public void read_afterCleanup_throws() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher.DataCallback<InputStream> callback = mockCallback();
+    firstFetcher.loadData(Priority.NORMAL, callback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+    InputStream stream = getStream(callback);
+
+    firstFetcher.cleanup();
+
+    //noinspection ResultOfMethodCallIgnored
+    stream.read();
+  }
+
+  @Test
+  public void loadData_afterAllFetchersCleanedUp_loadsSourceAgain() {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+    firstFetcher.cleanup();
+
+    FakeFetcher second = new FakeFetcher();
+    coalescer.coalesce("url", second).loadData(Priority.NORMAL, mockCallback());
+
+    assertThat(second.loads).isEqualTo(1);
+  }
+
+  @Test
+  public void onLoadFailed_notifiesAllFetchersAndLaterLoadsRetry() {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", new FakeFetcher()).loadData(Priority.NORMAL, secondCallback);
+    IOException failure = new IOException("test");
+
+    first.callback.onLoadFailed(failure);
+
+    verify(firstCallback).onLoadFailed(failure);
+    verify(secondCallback).onLoadFailed(failure);
+    FakeFetcher third = new FakeFetcher();
+    coalescer.coalesce("url", third).loadData(Priority.NORMAL, mockCallback());
+    assertThat(third.loads).isEqualTo(1);
+  }
+
+  @Test
+  public void cancel_withOtherFetcherWaiting_doesNotCancelSource() {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    firstFetcher.loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", new FakeFetcher()).loadData(Priority.NORMAL, secondCallback);
+
+    firstFetcher.cancel();
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+
+    assertThat(first.cancels).isEqualTo(0);
+    verify(firstCallback).onLoadFailed(any(IOException.class));
+    verify(firstCallback, never()).onDataReady(any(InputStream.class));
+    verify(secondCallback).onDataReady(any(InputStream.class));
+  }
+
+  @Test
+  public void cancel_withAllFetchersWaiting_cancelsAndLaterCleansUpSource() {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher<InputStream> secondFetcher = coalescer.coalesce("url", new FakeFetcher());
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    secondFetcher.loadData(Priority.NORMAL, mockCallback());
+
+    firstFetcher.cancel();
+    secondFetcher.cancel();
+    assertThat(first.cancels).isEqualTo(1);
+    assertThat(first.cleanups).isEqualTo(0);
+
+    first.callback.onDataReady(null);
+    assertThat(first.cleanups).isEqualTo(1);
+  }
+
+  @Test
+  public void available_withBufferedBytes_returnsBufferedCount() throws IOException {
+    FakeFetcher first = new FakeFetcher();
+    DataFetcher.DataCallback<InputStream> firstCallback = mockCallback();
+    DataFetcher.DataCallback<InputStream> secondCallback = mockCallback();
+    coalescer.coalesce("url", first).loadData(Priority.NORMAL, firstCallback);
+    coalescer.coalesce("url", new FakeFetcher()).loadData(Priority.NORMAL, secondCallback);
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+
+    assertThat(getStream(firstCallback).read(new byte[100])).isEqualTo(100);
+
+    assertThat(getStream(secondCallback).available()).isEqualTo(StreamCoalescer.CHUNK_SIZE_BYTES);
+  }
+
+  @Test
+  public void loadData_withDifferentResumeOffsets_loadsEachSource() {
+    ResumableFakeFetcher first = new ResumableFakeFetcher();
+    ResumableFakeFetcher second = new ResumableFakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher<InputStream> secondFetcher = coalescer.coalesce("url", second);
+    ((ResumableFetcher) firstFetcher).resumeFrom(10, "etag");
+    ((ResumableFetcher) secondFetcher).resumeFrom(20, "etag");
+
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    secondFetcher.loadData(Priority.NORMAL, mockCallback());
+
+    assertThat(first.loads).isEqualTo(1);
+    assertThat(second.loads).isEqualTo(1);
+  }
+
+  @Test
+  public void getResumedOffset_returnsOffsetOfSharedSource() {
+    ResumableFakeFetcher first = new ResumableFakeFetcher();
+    DataFetcher<InputStream> firstFetcher = coalescer.coalesce("url", first);
+    DataFetcher<InputStream> secondFetcher = coalescer.coalesce("url", new ResumableFakeFetcher());
+    ((ResumableFetcher) firstFetcher).resumeFrom(10, "etag");
+    ((ResumableFetcher) secondFetcher).resumeFrom(10, "etag");
+    firstFetcher.loadData(Priority.NORMAL, mockCallback());
+    secondFetcher.loadData(Priority.NORMAL, mockCallback());
+
+    first.resumedOffset = 10;
+    first.callback.onDataReady(new ByteArrayInputStream(data));
+
+    assertThat(((ResumableFetcher) secondFetcher).getResumedOffset()).isEqualTo(10);
+    assertThat(((ResumableFetcher) secondFetcher).getValidator()).isEqualTo("etag");
+  }
+
+  @SuppressWarnings("unchecked")
+  private static DataFetcher.DataCallback<InputStream> mockCallback() {
+    return mock(DataFetcher.DataCallback.class);
+  }
+
+  private static InputStream getStream(DataFetcher.DataCallback<InputStream> callback) {
+    ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
+    verify(callback).onDataReady(captor.capture());
+    return captor.getValue();
+  }
+
+  private static byte[] readFully(InputStream is) throws IOException {
+    byte[] result = new byte[DATA_SIZE];
+    int offset = 0;
+    int read;
+    while (offset < DATA_SIZE && (read = is.read(result, offset, DATA_SIZE - offset)) != -1) {
+      offset += read;
+    }
+    assertThat(is.read()).isEqualTo(-1);
+    return result;
+  }
+
+  private static byte[] readExactly(InputStream is, int length) throws IOException {
+    byte[] result = new byte[length];
+    int offset = 0;
+    while (offset < length) {
+      int read = is.read(result, offset, length - offset);
+      assertThat(read).isNotEqualTo(-1);
+      offset += read;
+    }
+    return result;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] result = new byte[first.length + second.length];
+    System.arraycopy(first, 0, result, 0, first.length);
+    System.arraycopy(second, 0, result, first.length, second.length);
+    return result;
+  }
+
+  private static final class CountingInputStream extends ByteArrayInputStream {
+    int bytesRead;
+
+    CountingInputStream(byte[] data) {
+      super(data);
+    }
+
+    @Override
+    public synchronized int read(@NonNull byte[] buffer, int offset, int length) {
+      int read = super.read(buffer, offset, length);
+      if (read != -1) {
+        bytesRead += read;
+      }
+      return read;
+    }
+  }
+
+  private static class FakeFetcher implements DataFetcher<InputStream> {
+    DataCallback<? super InputStream> callback;
+    int loads;
+    int cleanups;
+    int cancels;
+
+    @Override
+    public void loadData(@NonNull Priority priority,
+        @NonNull DataCallback<? super InputStream> callback) {
+      loads++;
+      this.callback = callback;
+    }
+
+    @Override
+    public void cleanup() {
+      cleanups++;
+    }
+
+    @Override
+    public void cancel() {
+      cancels++;
+    }
+
+    @NonNull
+    @Override
+    public Class<InputStream> getDataClass() {
+      return InputStream.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return DataSource.REMOTE;
+    }
+  }
+
+  private static final class ResumableFakeFetcher extends FakeFetcher implements ResumableFetcher {
+    long resumedOffset;
+    private String validator;
+
+    @Override
+    public void resumeFrom(long offset, @NonNull String validator) {
+      this.validator = validator;
+    }
+
+    @Override
+    public long getResumedOffset() {
+      return resumedOffset;
+    }
+
+    @Override
+    public String getValidator() {
+      return validator;
+    }
+  }
+}
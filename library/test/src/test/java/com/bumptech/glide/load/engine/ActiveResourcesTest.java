@@ -3,6 +3,7 @@ package com.bumptech.glide.load.engine;
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -404,6 +405,59 @@ public class ActiveResourcesTest {
     verify(listener, never()).onResourceReleased(any(Key.class), any(EngineResource.class));
   }
 
+  @Test
+  public void cleanupActiveReference_afterReactivated_keepsNewResource() {
+    EngineResource<Object> first = newCacheableEngineResource();
+    resources.activate(key, first);
+    ResourceWeakReference firstRef = resources.activeEngineResources.get(key);
+
+    EngineResource<Object> second = newCacheableEngineResource();
+    resources.activate(key, second);
+    resources.cleanupActiveReference(firstRef);
+
+    assertThat(resources.get(key)).isEqualTo(second);
+  }
+
+  @Test
+  public void activate_incrementsActivationCount() {
+    resources.activate(key, newCacheableEngineResource());
+    resources.activate(key, newCacheableEngineResource());
+
+    assertThat(resources.getStats().getActivationCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void get_withActiveKey_incrementsHitCount() {
+    resources.activate(key, newCacheableEngineResource());
+    resources.get(key);
+    resources.get(mock(Key.class));
+
+    assertThat(resources.getStats().getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void queueIdle_withCacheableResourceInActive_incrementsReclaimedCount() {
+    EngineResource<Object> engineResource = newCacheableEngineResource();
+    resources.activate(key, engineResource);
+
+    enqueueAndWaitForRef(resources.activeEngineResources.get(key));
+
+    assertThat(resources.getStats().getReclaimedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void queueIdle_afterResourceRemovedFromActive_doesNotIncrementReclaimedCount() {
+    EngineResource<Object> engineResource = newCacheableEngineResource();
+    resources.activate(key, engineResource);
+
+    ResourceWeakReference weakRef = resources.activeEngineResources.get(key);
+    resources.deactivate(key);
+
+    enqueueAndWaitForRef(weakRef);
+
+    assertThat(resources.getStats().getReclaimedCount()).isEqualTo(0);
+  }
+
   private void enqueueAndWaitForRef(ResourceWeakReference ref) {
     CountDownLatch latch = getLatchForClearedRef();
     ref.enqueue();
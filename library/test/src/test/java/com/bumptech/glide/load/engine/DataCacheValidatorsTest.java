@@ -0,0 +1,89 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class DataCacheValidatorsTest {
+  private static final String ETAG = "\"etag\"";
+  private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+  private final DataCacheKey key =
+      new DataCacheKey(new ObjectKey("source"), new ObjectKey("signature"));
+  private DiskCache diskCache;
+
+  @Before
+  public void setUp() {
+    File cacheDir = new File(RuntimeEnvironment.application.getCacheDir(), "validators");
+    diskCache = DiskLruCacheWrapper.create(cacheDir, 1024 * 1024);
+  }
+
+  @After
+  public void tearDown() {
+    diskCache.clear();
+  }
+
+  @Test
+  public void get_withoutValidators_returnsNull() {
+    assertThat(DataCacheValidators.get(diskCache, key)).isNull();
+  }
+
+  @Test
+  public void get_afterPut_returnsValidators() {
+    DataCacheValidators.put(diskCache, key, ETAG, LAST_MODIFIED);
+
+    DataCacheValidators validators = DataCacheValidators.get(diskCache, key);
+
+    assertThat(validators.etag).isEqualTo(ETAG);
+    assertThat(validators.lastModified).isEqualTo(LAST_MODIFIED);
+  }
+
+  @Test
+  public void get_afterPutWithMissingValidator_returnsNullForMissingValidator() {
+    DataCacheValidators.put(diskCache, key, null /*etag*/, LAST_MODIFIED);
+
+    DataCacheValidators validators = DataCacheValidators.get(diskCache, key);
+
+    assertThat(validators.etag).isNull();
+    assertThat(validators.lastModified).isEqualTo(LAST_MODIFIED);
+  }
+
+  @Test
+  public void put_withExistingValidators_replacesValidators() {
+    DataCacheValidators.put(diskCache, key, ETAG, LAST_MODIFIED);
+
+    DataCacheValidators.put(diskCache, key, "\"changed\"", null /*lastModified*/);
+
+    DataCacheValidators validators = DataCacheValidators.get(diskCache, key);
+    assertThat(validators.etag).isEqualTo("\"changed\"");
+    assertThat(validators.lastModified).isNull();
+  }
+
+  @Test
+  public void put_withoutValidators_removesValidators() {
+    DataCacheValidators.put(diskCache, key, ETAG, LAST_MODIFIED);
+
+    DataCacheValidators.put(diskCache, key, null /*etag*/, null /*lastModified*/);
+
+    assertThat(DataCacheValidators.get(diskCache, key)).isNull();
+  }
+
+  @Test
+  public void put_doesNotReplaceCachedData() {
+    DataCacheValidators.put(diskCache, key, ETAG, LAST_MODIFIED);
+
+    assertThat(diskCache.get(key)).isNull();
+  }
+}
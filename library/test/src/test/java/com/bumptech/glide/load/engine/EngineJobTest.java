@@ -16,6 +16,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.graphics.Bitmap;
 import android.os.Handler;
 import android.os.Looper;
 import android.support.v4.util.Pools;
@@ -24,6 +25,7 @@ import com.bumptech.glide.load.Key;
 import com.bumptech.glide.load.engine.EngineResource.ResourceListener;
 import com.bumptech.glide.load.engine.executor.GlideExecutor;
 import com.bumptech.glide.load.engine.executor.MockGlideExecutor;
+import com.bumptech.glide.request.ProgressiveResourceCallback;
 import com.bumptech.glide.request.ResourceCallback;
 import com.bumptech.glide.util.Executors;
 import java.util.ArrayList;
@@ -432,6 +434,63 @@ public class EngineJobTest {
     verify(notYetCalled, never()).onResourceReady(anyResource(), isADataSource());
   }
 
+  @Test
+  public void onPassReady_withProgressiveCallback_deliversPass() {
+    EngineJob<Object> job = harness.getJob();
+    ProgressiveResourceCallback progressiveCb = mock(ProgressiveResourceCallback.class);
+    job.addCallback(progressiveCb, Executors.directExecutor());
+    job.start(harness.decodeJob);
+    Resource<Bitmap> pass = mockResource();
+
+    job.onPassReady(pass, 0);
+
+    verify(progressiveCb).onPassReady(any(ProgressivePass.class));
+    verify(pass, never()).recycle();
+  }
+
+  @Test
+  public void onPassReady_withoutProgressiveCallbacks_recyclesPass() {
+    EngineJob<Object> job = harness.getJob();
+    job.start(harness.decodeJob);
+    Resource<Bitmap> pass = mockResource();
+
+    job.onPassReady(pass, 0);
+
+    verify(pass).recycle();
+  }
+
+  @Test
+  public void onPassReady_whenCancelled_recyclesPass() {
+    EngineJob<Object> job = harness.getJob();
+    ProgressiveResourceCallback progressiveCb = mock(ProgressiveResourceCallback.class);
+    job.addCallback(progressiveCb, Executors.directExecutor());
+    job.start(harness.decodeJob);
+    job.cancel();
+    Resource<Bitmap> pass = mockResource();
+
+    job.onPassReady(pass, 0);
+
+    verify(progressiveCb, never()).onPassReady(any(ProgressivePass.class));
+    verify(pass).recycle();
+  }
+
+  @Test
+  public void onPassReady_withCallbackRemovedBeforeDelivery_recyclesPass() {
+    EngineJob<Object> job = harness.getJob();
+    ProgressiveResourceCallback progressiveCb = mock(ProgressiveResourceCallback.class);
+    job.addCallback(progressiveCb, Executors.mainThreadExecutor());
+    job.start(harness.decodeJob);
+    Resource<Bitmap> pass = mockResource();
+
+    ShadowLooper.pauseMainLooper();
+    job.onPassReady(pass, 0);
+    job.removeCallback(progressiveCb);
+    ShadowLooper.unPauseMainLooper();
+
+    verify(progressiveCb, never()).onPassReady(any(ProgressivePass.class));
+    verify(pass).recycle();
+  }
+
   @Test
   public void testCancelsDecodeJobOnCancel() {
     EngineJob<Object> job = harness.getJob();
@@ -36,6 +36,7 @@ import com.bumptech.glide.util.Executors;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -125,6 +126,17 @@ public class EngineTest {
     verify(harness.cb).onResourceReady(eq(harness.resource), eq(DataSource.MEMORY_CACHE));
   }
 
+  @Test
+  public void getActiveResourceStats_afterLoadFromActiveResources_countsHit() {
+    harness.activeResources.activate(harness.cacheKey, harness.resource);
+
+    harness.doLoad();
+
+    ActiveResourceStats stats = harness.getEngine().getActiveResourceStats();
+    assertThat(stats.getActivationCount()).isEqualTo(1);
+    assertThat(stats.getHitCount()).isEqualTo(1);
+  }
+
   @Test
   public void testResourceIsAcquiredIfReturnedFromActiveResources() {
     harness.activeResources.activate(harness.cacheKey, harness.resource);
@@ -160,6 +172,27 @@ public class EngineTest {
     verify(harness.cache, never()).remove(any(Key.class));
   }
 
+  @Test
+  public void load_withResourceInActiveResources_doesNotAcquireEngineLock()
+      throws InterruptedException {
+    harness.activeResources.activate(harness.cacheKey, harness.resource);
+    final Engine engine = harness.getEngine();
+    Thread loadThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        harness.doLoad();
+      }
+    });
+
+    synchronized (engine) {
+      loadThread.start();
+      loadThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    assertThat(loadThread.isAlive()).isFalse();
+    verify(harness.cb).onResourceReady(eq(harness.resource), eq(DataSource.MEMORY_CACHE));
+  }
+
   @Test
   public void testActiveResourcesIsNotCheckedIfNotMemoryCacheable() {
     harness.activeResources.activate(harness.cacheKey, harness.resource);
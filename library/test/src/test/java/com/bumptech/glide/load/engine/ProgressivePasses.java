@@ -0,0 +1,16 @@
+package com.bumptech.glide.load.engine;
+
+import android.graphics.Bitmap;
+
+/** Creates {@link ProgressivePass}es for tests outside of this package. */
+public final class ProgressivePasses {
+
+  private ProgressivePasses() {
+    // Utility class.
+  }
+
+  /** Returns a pass with a single reference, which recycles the resource once released. */
+  public static ProgressivePass newPass(Resource<Bitmap> resource, int passIndex) {
+    return new ProgressivePass(resource, passIndex, /*references=*/ 1);
+  }
+}
@@ -0,0 +1,294 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.data.ResumableFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.load.engine.cache.DiskLruCacheWrapper;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class ResumingDataFetcherTest {
+  private static final int DATA_SIZE = 200 * 1024;
+  private static final String ETAG = "\"etag\"";
+
+  private final DataCacheKey key =
+      new DataCacheKey(new ObjectKey("source"), new ObjectKey("signature"));
+  private DiskCache diskCache;
+  private byte[] data;
+
+  @Before
+  public void setUp() {
+    File cacheDir = new File(RuntimeEnvironment.application.getCacheDir(), "partial");
+    diskCache = DiskLruCacheWrapper.create(cacheDir, 10 * 1024 * 1024);
+    data = new byte[DATA_SIZE];
+    for (int i = 0; i < DATA_SIZE; i++) {
+      data[i] = (byte) i;
+    }
+  }
+
+  @After
+  public void tearDown() {
+    diskCache.clear();
+  }
+
+  @Test
+  public void loadData_withoutPartialDownload_loadsFromStart() throws IOException {
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    InputStream stream = load(source);
+
+    assertThat(source.requestedOffset).isEqualTo(0);
+    assertThat(readFully(stream, DATA_SIZE)).isEqualTo(data);
+  }
+
+  @Test
+  public void loadData_afterInterruptedLoad_resumesFromDownloadedBytes() throws IOException {
+    interruptAfter(DATA_SIZE / 3);
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    InputStream stream = load(source);
+
+    assertThat(source.requestedOffset).isEqualTo(DATA_SIZE / 3);
+    assertThat(readFully(stream, DATA_SIZE)).isEqualTo(data);
+    assertThat(source.bytesServed).isEqualTo(DATA_SIZE - DATA_SIZE / 3);
+  }
+
+  @Test
+  public void loadData_afterReadFailure_resumesFromDownloadedBytes() throws IOException {
+    FakeFetcher failing = new FakeFetcher(data, ETAG);
+    failing.failAfter = DATA_SIZE / 2;
+    ResumingDataFetcher fetcher = newFetcher(failing);
+    try {
+      readFully(load(fetcher), DATA_SIZE);
+    } catch (IOException e) {
+      // Expected.
+    }
+    fetcher.cleanup();
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    assertThat(readFully(load(source), DATA_SIZE)).isEqualTo(data);
+    assertThat(source.requestedOffset).isEqualTo(DATA_SIZE / 2);
+  }
+
+  @Test
+  public void loadData_afterInterruptedResume_resumesFromAllDownloadedBytes() throws IOException {
+    interruptAfter(DATA_SIZE / 4);
+    ResumingDataFetcher fetcher = newFetcher(new FakeFetcher(data, ETAG));
+    readFully(load(fetcher), DATA_SIZE / 2);
+    fetcher.cleanup();
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    assertThat(readFully(load(source), DATA_SIZE)).isEqualTo(data);
+    assertThat(source.requestedOffset).isEqualTo(DATA_SIZE / 2);
+  }
+
+  @Test
+  public void cleanup_afterStreamReadToEnd_removesPartialDownload() throws IOException {
+    interruptAfter(DATA_SIZE / 3);
+    ResumingDataFetcher fetcher = newFetcher(new FakeFetcher(data, ETAG));
+    readFully(load(fetcher), DATA_SIZE);
+    fetcher.cleanup();
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    load(source);
+
+    assertThat(source.requestedOffset).isEqualTo(0);
+  }
+
+  @Test
+  public void loadData_withChangedValidator_loadsFromStartAndDropsPartialDownload()
+      throws IOException {
+    interruptAfter(DATA_SIZE / 3);
+    byte[] changed = Arrays.copyOf(data, DATA_SIZE);
+    changed[0] = 42;
+    ResumingDataFetcher fetcher = newFetcher(new FakeFetcher(changed, "\"changed\""));
+
+    InputStream stream = load(fetcher);
+    assertThat(readFully(stream, 10)).isEqualTo(Arrays.copyOf(changed, 10));
+    fetcher.cleanup();
+
+    // Fewer bytes were read than were stored, so they aren't stored either.
+    FakeFetcher source = new FakeFetcher(changed, "\"changed\"");
+    load(source);
+    assertThat(source.requestedOffset).isEqualTo(0);
+  }
+
+  @Test
+  public void cleanup_withoutValidator_doesNotStorePartialDownload() throws IOException {
+    ResumingDataFetcher fetcher = newFetcher(new FakeFetcher(data, null /*validator*/));
+    readFully(load(fetcher), DATA_SIZE / 3);
+    fetcher.cleanup();
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+
+    load(source);
+
+    assertThat(source.requestedOffset).isEqualTo(0);
+  }
+
+  @Test
+  public void cleanup_cleansUpSourceFetcher() {
+    FakeFetcher source = new FakeFetcher(data, ETAG);
+    ResumingDataFetcher fetcher = newFetcher(source);
+    load(fetcher);
+
+    fetcher.cleanup();
+
+    assertThat(source.cleanups).isEqualTo(1);
+  }
+
+  private void interruptAfter(int bytes) throws IOException {
+    ResumingDataFetcher fetcher = newFetcher(new FakeFetcher(data, ETAG));
+    InputStream stream = load(fetcher);
+    readFully(stream, bytes);
+    fetcher.cleanup();
+  }
+
+  private ResumingDataFetcher newFetcher(FakeFetcher source) {
+    return new ResumingDataFetcher(source, diskCache, key, new LruArrayPool());
+  }
+
+  private InputStream load(FakeFetcher source) {
+    return load(newFetcher(source));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static InputStream load(ResumingDataFetcher fetcher) {
+    DataFetcher.DataCallback<InputStream> callback = mock(DataFetcher.DataCallback.class);
+    fetcher.loadData(Priority.NORMAL, callback);
+    ArgumentCaptor<InputStream> captor = ArgumentCaptor.forClass(InputStream.class);
+    verify(callback).onDataReady(captor.capture());
+    return captor.getValue();
+  }
+
+  private static byte[] readFully(InputStream is, int length) throws IOException {
+    byte[] result = new byte[length];
+    int offset = 0;
+    int read;
+    while (offset < length && (read = is.read(result, offset, length - offset)) != -1) {
+      offset += read;
+    }
+    if (offset == DATA_SIZE) {
+      assertThat(is.read()).isEqualTo(-1);
+    }
+    return result;
+  }
+
+  /** Serves the data from the requested offset, like a server that supports ranges. */
+  private static final class FakeFetcher implements DataFetcher<InputStream>, ResumableFetcher {
+    private final byte[] data;
+    @Nullable private final String validator;
+    long requestedOffset;
+    private String requestedValidator;
+    private long resumedOffset;
+    int bytesServed;
+    int failAfter = -1;
+    int cleanups;
+
+    FakeFetcher(byte[] data, @Nullable String validator) {
+      this.data = data;
+      this.validator = validator;
+    }
+
+    @Override
+    public void resumeFrom(long offset, @NonNull String validator) {
+      requestedOffset = offset;
+      requestedValidator = validator;
+    }
+
+    @Override
+    public long getResumedOffset() {
+      return resumedOffset;
+    }
+
+    @Nullable
+    @Override
+    public String getValidator() {
+      return validator;
+    }
+
+    @Override
+    public void loadData(@NonNull Priority priority,
+        @NonNull DataCallback<? super InputStream> callback) {
+      resumedOffset =
+          validator != null && validator.equals(requestedValidator) ? requestedOffset : 0;
+      callback.onDataReady(new ServedStream((int) resumedOffset));
+    }
+
+    @Override
+    public void cleanup() {
+      cleanups++;
+    }
+
+    @Override
+    public void cancel() {
+      // Do nothing.
+    }
+
+    @NonNull
+    @Override
+    public Class<InputStream> getDataClass() {
+      return InputStream.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return DataSource.REMOTE;
+    }
+
+    private final class ServedStream extends InputStream {
+      private int position;
+
+      ServedStream(int start) {
+        position = start;
+      }
+
+      @Override
+      public int read() throws IOException {
+        byte[] singleByte = new byte[1];
+        int read = read(singleByte, 0, 1);
+        return read == -1 ? -1 : singleByte[0] & 0xFF;
+      }
+
+      @Override
+      public int read(@NonNull byte[] buffer, int offset, int length) throws IOException {
+        if (position == data.length) {
+          return -1;
+        }
+        if (failAfter != -1 && bytesServed >= failAfter) {
+          throw new IOException("Connection was reset");
+        }
+        int toRead = Math.min(length, data.length - position);
+        if (failAfter != -1) {
+          toRead = Math.min(toRead, failAfter - bytesServed);
+        }
+        System.arraycopy(data, position, buffer, offset, toRead);
+        position += toRead;
+        bytesServed += toRead;
+        return toRead;
+      }
+    }
+  }
+}
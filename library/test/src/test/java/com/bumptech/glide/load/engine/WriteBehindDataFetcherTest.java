@@ -0,0 +1,229 @@
+package com.bumptech.glide.load.engine;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.load.engine.cache.DiskCache;
+import com.bumptech.glide.signature.ObjectKey;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class WriteBehindDataFetcherTest {
+  private static final int DATA_SIZE = 100 * 1024;
+
+  private final Key key = new ObjectKey("key");
+  private byte[] data;
+  private FakeDiskCache diskCache;
+  private DataFetcher<?> sourceFetcher;
+
+  @Before
+  public void setUp() {
+    data = new byte[DATA_SIZE];
+    for (int i = 0; i < DATA_SIZE; i++) {
+      data[i] = (byte) i;
+    }
+    diskCache = new FakeDiskCache(new File(RuntimeEnvironment.application.getCacheDir(), "data"));
+    sourceFetcher = mock(DataFetcher.class);
+    when(sourceFetcher.getDataSource()).thenReturn(DataSource.REMOTE);
+  }
+
+  @After
+  public void tearDown() {
+    //noinspection ResultOfMethodCallIgnored
+    diskCache.file.delete();
+  }
+
+  @Test
+  public void write_withStreamReadToEnd_commitsStream() throws Exception {
+    WriteBehindDataFetcher fetcher = newFetcher(new ByteArrayInputStream(data));
+    Thread writer = startWriter(fetcher);
+
+    byte[] read = readFully(fetcher.getStream(), DATA_SIZE);
+    fetcher.cleanup();
+    writer.join();
+
+    assertThat(read).isEqualTo(data);
+    assertThat(diskCache.isCommitted).isTrue();
+    assertThat(diskCache.readFile()).isEqualTo(data);
+    verify(sourceFetcher).cleanup();
+  }
+
+  @Test
+  public void write_withStreamPartiallyRead_downloadsRestAndCommitsStream() throws Exception {
+    WriteBehindDataFetcher fetcher = newFetcher(new ByteArrayInputStream(data));
+    Thread writer = startWriter(fetcher);
+
+    readFully(fetcher.getStream(), DATA_SIZE / 3);
+    fetcher.cleanup();
+    writer.join();
+
+    assertThat(diskCache.isCommitted).isTrue();
+    assertThat(diskCache.readFile()).isEqualTo(data);
+    verify(sourceFetcher).cleanup();
+  }
+
+  @Test
+  public void write_withSourceFailure_doesNotCommit() throws Exception {
+    InputStream failing = new InputStream() {
+      private int position;
+
+      @Override
+      public int read() throws IOException {
+        if (position >= DATA_SIZE / 2) {
+          throw new IOException("test");
+        }
+        return data[position++] & 0xFF;
+      }
+    };
+    WriteBehindDataFetcher fetcher = newFetcher(failing);
+    Thread writer = startWriter(fetcher);
+
+    try {
+      readFully(fetcher.getStream(), DATA_SIZE);
+    } catch (IOException e) {
+      // Expected.
+    }
+    fetcher.cleanup();
+    writer.join();
+
+    assertThat(diskCache.isCommitted).isFalse();
+    verify(sourceFetcher).cleanup();
+  }
+
+  @Test
+  public void write_whenCancelled_doesNotCommit() throws Exception {
+    WriteBehindDataFetcher fetcher = newFetcher(new ByteArrayInputStream(data));
+    Thread writer = startWriter(fetcher);
+
+    readFully(fetcher.getStream(), DATA_SIZE / 3);
+    fetcher.cancel();
+    fetcher.cleanup();
+    writer.join();
+
+    assertThat(diskCache.isCommitted).isFalse();
+    verify(sourceFetcher).cancel();
+    verify(sourceFetcher).cleanup();
+  }
+
+  @Test
+  public void run_whenEntryIsNotWritten_waitsForDecoderBeforeCleaningUpSource() throws Exception {
+    diskCache.skipWrite = true;
+    WriteBehindDataFetcher fetcher = newFetcher(new ByteArrayInputStream(data));
+    Thread writer = startWriter(fetcher);
+
+    readFully(fetcher.getStream(), DATA_SIZE / 3);
+    writer.join(100);
+    verify(sourceFetcher, never()).cleanup();
+
+    fetcher.cleanup();
+    writer.join();
+    verify(sourceFetcher).cleanup();
+  }
+
+  @Test(expected = IOException.class)
+  public void read_afterCleanup_throws() throws Exception {
+    WriteBehindDataFetcher fetcher = newFetcher(new ByteArrayInputStream(data));
+    fetcher.cleanup();
+
+    //noinspection ResultOfMethodCallIgnored
+    fetcher.getStream().read();
+  }
+
+  private WriteBehindDataFetcher newFetcher(InputStream source) {
+    return new WriteBehindDataFetcher(sourceFetcher, source, new DecodeJob.DiskCacheProvider() {
+      @Override
+      public DiskCache getDiskCache() {
+        return diskCache;
+      }
+    }, key, new LruArrayPool());
+  }
+
+  private static Thread startWriter(WriteBehindDataFetcher fetcher) {
+    Thread thread = new Thread(fetcher);
+    thread.start();
+    return thread;
+  }
+
+  private static byte[] readFully(InputStream is, int length) throws IOException {
+    byte[] result = new byte[length];
+    int offset = 0;
+    // Use small reads to exercise both read methods.
+    while (offset < length) {
+      if (offset % 2 == 0) {
+        int read = is.read();
+        if (read == -1) {
+          break;
+        }
+        result[offset++] = (byte) read;
+      } else {
+        int read = is.read(result, offset, Math.min(1000, length - offset));
+        if (read == -1) {
+          break;
+        }
+        offset += read;
+      }
+    }
+    return offset == length ? result : Arrays.copyOf(result, offset);
+  }
+
+  private static final class FakeDiskCache implements DiskCache {
+    final File file;
+    boolean skipWrite;
+    volatile boolean isCommitted;
+
+    FakeDiskCache(File file) {
+      this.file = file;
+    }
+
+    byte[] readFile() throws IOException {
+      InputStream is = new FileInputStream(file);
+      try {
+        return readFully(is, (int) file.length());
+      } finally {
+        is.close();
+      }
+    }
+
+    @Override
+    public File get(Key key) {
+      return isCommitted ? file : null;
+    }
+
+    @Override
+    public void put(Key key, Writer writer) {
+      if (!skipWrite) {
+        isCommitted = writer.write(file);
+      }
+    }
+
+    @Override
+    public void delete(Key key) {
+      isCommitted = false;
+    }
+
+    @Override
+    public void clear() {
+      isCommitted = false;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.Shadows;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 28)
+public class MagazineBitmapPoolTest {
+  private static final int MAX_SIZE = 10 * 1024 * 1024;
+  private static final int WIDTH = 100;
+  private static final int HEIGHT = 100;
+  private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+
+  private MagazineBitmapPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new MagazineBitmapPool(new LruBitmapPool(MAX_SIZE));
+  }
+
+  @Test
+  public void getDirty_afterPutOnSameThread_returnsBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(pool.getDirty(WIDTH, HEIGHT, CONFIG)).isSameAs(bitmap);
+  }
+
+  @Test
+  public void getDirty_afterPutOnAnotherThread_doesNotReturnBitmapInMagazine()
+      throws InterruptedException {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(getDirtyOnBackgroundThread()).isNotSameAs(bitmap);
+  }
+
+  @Test
+  public void getDirty_withDifferentSize_doesNotReturnBitmapInMagazine() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    assertThat(pool.getDirty(WIDTH / 2, HEIGHT, CONFIG)).isNotSameAs(bitmap);
+  }
+
+  @Test
+  public void put_withFullMagazine_spillsOldestBitmapsToSharedPool() throws InterruptedException {
+    List<Bitmap> bitmaps = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Bitmap bitmap = createMutableBitmap();
+      bitmaps.add(bitmap);
+      pool.put(bitmap);
+    }
+
+    // The magazine holds four Bitmaps and spills down to two.
+    assertThat(bitmaps.subList(0, 3)).contains(getDirtyOnBackgroundThread());
+  }
+
+  @Test
+  public void put_withImmutableBitmap_recyclesBitmap() {
+    Bitmap bitmap = createMutableBitmap();
+    Shadows.shadowOf(bitmap).setMutable(false);
+    pool.put(bitmap);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test
+  public void clearMemory_recyclesBitmapsInMagazines() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    pool.clearMemory();
+
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test
+  public void trimMemory_recyclesBitmapsInMagazines() {
+    Bitmap bitmap = createMutableBitmap();
+    pool.put(bitmap);
+
+    pool.trimMemory(TRIM_MEMORY_BACKGROUND);
+
+    assertThat(bitmap.isRecycled()).isTrue();
+  }
+
+  @Test
+  public void newMagazine_afterOwnerThreadDies_returnsBitmapsToSharedPool()
+      throws InterruptedException {
+    final Bitmap bitmap = createMutableBitmap();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        pool.put(bitmap);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(pool.getDirty(WIDTH, HEIGHT, CONFIG)).isSameAs(bitmap);
+    assertThat(pool.getMagazineCount()).isEqualTo(1);
+  }
+
+  private Bitmap getDirtyOnBackgroundThread() throws InterruptedException {
+    final Bitmap[] result = new Bitmap[1];
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        result[0] = pool.getDirty(WIDTH, HEIGHT, CONFIG);
+      }
+    });
+    thread.start();
+    thread.join();
+    return result[0];
+  }
+
+  private static Bitmap createMutableBitmap() {
+    Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, CONFIG);
+    Shadows.shadowOf(bitmap).setMutable(true);
+    return bitmap;
+  }
+}
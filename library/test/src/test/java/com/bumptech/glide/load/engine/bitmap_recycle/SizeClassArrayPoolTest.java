@@ -0,0 +1,199 @@
+package com.bumptech.glide.load.engine.bitmap_recycle;
+
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_BACKGROUND;
+import static android.content.ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN;
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class SizeClassArrayPoolTest {
+  private static final int MAX_SIZE = 1024;
+
+  private SizeClassArrayPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new SizeClassArrayPool(MAX_SIZE);
+  }
+
+  @Test
+  public void get_afterPut_returnsArray() {
+    byte[] array = new byte[64];
+    pool.put(array);
+
+    assertThat(pool.get(64, byte[].class)).isSameAs(array);
+    assertThat(pool.getCurrentSize()).isEqualTo(0L);
+  }
+
+  @Test
+  public void get_withSmallerSizeInSameSizeClass_returnsArray() {
+    byte[] array = new byte[64];
+    pool.put(array);
+
+    assertThat(pool.get(33, byte[].class)).isSameAs(array);
+  }
+
+  @Test
+  public void get_withNonPowerOfTwoSize_allocatesRoundedUpArray() {
+    assertThat(pool.get(100, byte[].class).length).isEqualTo(128);
+    assertThat(pool.get(10, int[].class).length).isEqualTo(16);
+  }
+
+  @Test
+  public void get_withSizeTooLargeToPool_allocatesExactArray() {
+    assertThat(pool.get(MAX_SIZE - 1, byte[].class).length).isEqualTo(MAX_SIZE - 1);
+  }
+
+  @Test
+  public void get_afterTwoPutsOfSameSizeClass_returnsBothArrays() {
+    byte[] first = new byte[64];
+    byte[] second = new byte[64];
+    pool.put(first);
+    pool.put(second);
+
+    byte[] firstResult = pool.get(64, byte[].class);
+    byte[] secondResult = pool.get(64, byte[].class);
+
+    assertThat(firstResult).isSameAs(first);
+    assertThat(secondResult).isSameAs(second);
+  }
+
+  @Test
+  public void getExact_withLargerArrayInSizeClass_allocatesNewArray() {
+    byte[] array = new byte[100];
+    pool.put(array);
+
+    byte[] result = pool.getExact(64, byte[].class);
+
+    assertThat(result.length).isEqualTo(64);
+    assertThat(pool.getCurrentSize()).isEqualTo(100L);
+  }
+
+  @Test
+  public void getExact_withArrayOfExactSize_returnsArray() {
+    byte[] array = new byte[8];
+    pool.put(array);
+
+    assertThat(pool.getExact(8, byte[].class)).isSameAs(array);
+  }
+
+  @Test
+  public void put_withArrayLargerThanHalfMaxSize_doesNotPoolArray() {
+    pool.put(new byte[MAX_SIZE / 2 + 1]);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0L);
+  }
+
+  @Test
+  public void put_withFullPool_evictsLargerArrays() {
+    pool.put(new byte[512]);
+    pool.put(new byte[512]);
+
+    pool.put(new byte[256]);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(768L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void get_withUnsupportedArrayClass_throws() {
+    pool.get(1, long[].class);
+  }
+
+  @Test
+  public void clearMemory_removesArraysHeldByThreads() {
+    byte[] array = new byte[64];
+    pool.put(array);
+
+    pool.clearMemory();
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0L);
+    assertThat(pool.get(64, byte[].class)).isNotSameAs(array);
+  }
+
+  @Test
+  public void trimMemory_background_removesAllArrays() {
+    pool.put(new byte[512]);
+    pool.put(new int[64]);
+
+    pool.trimMemory(TRIM_MEMORY_BACKGROUND);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(0L);
+  }
+
+  @Test
+  public void trimMemory_uiHidden_removesHalfOfArrays() {
+    pool.put(new byte[512]);
+    pool.put(new byte[512]);
+
+    pool.trimMemory(TRIM_MEMORY_UI_HIDDEN);
+
+    assertThat(pool.getCurrentSize()).isEqualTo(512L);
+  }
+
+  @Test
+  public void newThreadCache_afterOwnerThreadDies_returnsArraysToSharedStacks()
+      throws InterruptedException {
+    final byte[] array = new byte[64];
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        pool.put(array);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertThat(pool.get(64, byte[].class)).isSameAs(array);
+    assertThat(pool.getThreadCacheCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void getAndPut_fromMultipleThreads_neverSharesArrays() throws InterruptedException {
+    pool = new SizeClassArrayPool(64 * 1024);
+    int threadCount = 4;
+    final AtomicInteger failures = new AtomicInteger();
+    final CountDownLatch latch = new CountDownLatch(threadCount);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      for (int thread = 0; thread < threadCount; thread++) {
+        final int marker = thread + 1;
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < 1000; i++) {
+              int size = 1 + (i * 37) % 4096;
+              int[] array = pool.get(size, int[].class);
+              if (array.length < size) {
+                failures.incrementAndGet();
+              }
+              array[0] = marker;
+              Thread.yield();
+              if (array[0] != marker) {
+                failures.incrementAndGet();
+              }
+              pool.put(array);
+            }
+            latch.countDown();
+          }
+        });
+      }
+      assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(failures.get()).isEqualTo(0);
+    assertThat(pool.getCurrentSize()).isAtMost(64L * 1024);
+  }
+}
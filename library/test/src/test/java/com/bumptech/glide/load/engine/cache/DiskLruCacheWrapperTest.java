@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine.cache;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
@@ -139,6 +140,89 @@ public class DiskLruCacheWrapperTest {
     assertArrayEquals(data, received);
   }
 
+  @Test
+  public void testCanInsertAndGet_withShardedCache() throws IOException {
+    cache = DiskLruCacheWrapper.create(dir, 10 * 1024 * 1024, 4 /*shardCount*/);
+    cache.put(key, new DiskCache.Writer() {
+      @Override
+      public boolean write(@NonNull File file) {
+        try {
+          Util.writeFile(file, data);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+        return true;
+      }
+    });
+
+    byte[] received = Util.readFile(cache.get(key), data.length);
+
+    assertArrayEquals(data, received);
+
+    cache.delete(key);
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void get_withMurmur3Keys_migratesEntryWrittenWithSha256Keys() throws IOException {
+    cache.put(key, new DiskCache.Writer() {
+      @Override
+      public boolean write(@NonNull File file) {
+        try {
+          Util.writeFile(file, data);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+        return true;
+      }
+    });
+
+    cache = DiskLruCacheWrapper.create(
+        dir, 10 * 1024 * 1024, 1 /*shardCount*/, SafeKeyGenerator.Algorithm.MURMUR3_128);
+    File migrated = cache.get(key);
+
+    assertArrayEquals(data, Util.readFile(migrated, data.length));
+    String murmurKey =
+        new SafeKeyGenerator(SafeKeyGenerator.Algorithm.MURMUR3_128).getSafeKey(key);
+    assertThat(migrated.getName()).startsWith(murmurKey);
+    assertThat(new File(dir, new SafeKeyGenerator().getSafeKey(key) + ".0").exists()).isFalse();
+  }
+
+  @Test
+  public void get_withMurmur3Keys_afterMigratingAllEntries_stopsLookingUpSha256Keys() {
+    cache.put(key, new DiskCache.Writer() {
+      @Override
+      public boolean write(@NonNull File file) {
+        try {
+          Util.writeFile(file, data);
+        } catch (IOException e) {
+          fail(e.toString());
+        }
+        return true;
+      }
+    });
+
+    DiskLruCacheWrapper murmurCache = (DiskLruCacheWrapper) DiskLruCacheWrapper.create(
+        dir, 10 * 1024 * 1024, 1 /*shardCount*/, SafeKeyGenerator.Algorithm.MURMUR3_128);
+    cache = murmurCache;
+    assertNull(murmurCache.get(new ObjectKey("missing")));
+    assertThat(murmurCache.hasLegacyEntries()).isTrue();
+
+    murmurCache.get(key);
+
+    assertThat(murmurCache.hasLegacyEntries()).isFalse();
+  }
+
+  @Test
+  public void get_withMurmur3Keys_withoutSha256Entries_doesNotLookUpSha256Keys() {
+    DiskLruCacheWrapper murmurCache = (DiskLruCacheWrapper) DiskLruCacheWrapper.create(
+        dir, 10 * 1024 * 1024, 1 /*shardCount*/, SafeKeyGenerator.Algorithm.MURMUR3_128);
+    cache = murmurCache;
+
+    assertNull(murmurCache.get(key));
+    assertThat(murmurCache.hasLegacyEntries()).isFalse();
+  }
+
   // Tests #2465.
   @Test
   public void clearDiskCache_afterOpeningDiskCache_andDeleteDirectoryOutsideGlide_doesNotThrow() {
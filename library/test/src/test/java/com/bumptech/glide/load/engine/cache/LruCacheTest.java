@@ -225,6 +225,18 @@ public class LruCacheTest {
     verify(listener).onItemRemoved(anyObject());
   }
 
+  @Test
+  public void remove_withItemWhoseSizeChangedWhileCached_removesSizeItWasAddedWith() {
+    String key = getKey();
+    Object value = new Object();
+    cache.put(key, value);
+    when(listener.getSize(value)).thenReturn(2);
+
+    cache.remove(key);
+
+    assertEquals(0, cache.getCurrentSize());
+  }
+
   @Test
   public void testCanIncreaseSizeDynamically() {
     int sizeMultiplier = 2;
@@ -145,9 +145,54 @@ public class MemorySizeCalculatorTest {
     assertThat(byteArrayPoolSize).isEqualTo(harness.byteArrayPoolSizeBytes / 2);
   }
 
+  @Test
+  public void testMappedBufferBudget_withLowRamDevice_isHalfTheSpecifiedBytes() {
+    LowRamActivityManager activityManager = Shadow.extract(harness.activityManager);
+    activityManager.setMemoryClass(getLargeEnoughMemoryClass());
+    activityManager.setIsLowRam();
+
+    int mappedBufferBudget = harness.getCalculator().getMappedBufferBudgetInBytes();
+    assertThat(mappedBufferBudget)
+        .isEqualTo(MemorySizeCalculator.Builder.MAPPED_BUFFER_BUDGET_BYTES / 2);
+  }
+
+  @Test
+  public void testDefaultGifFrameCacheSizeIsOneScreen() {
+    Shadows.shadowOf(harness.activityManager).setMemoryClass(getLargeEnoughMemoryClass());
+
+    int gifFrameCacheSize = harness.getCalculator().getGifFrameCacheSizeInBytes();
+
+    assertThat(gifFrameCacheSize).isEqualTo(harness.getScreenSize());
+  }
+
+  @Test
+  public void testGifFrameCacheSize_withLowRamDevice_isHalfTheScreens() {
+    LowRamActivityManager activityManager = Shadow.extract(harness.activityManager);
+    activityManager.setMemoryClass(getLargeEnoughMemoryClass());
+    activityManager.setIsLowRam();
+
+    int gifFrameCacheSize = harness.getCalculator().getGifFrameCacheSizeInBytes();
+
+    assertThat(gifFrameCacheSize).isEqualTo(harness.getScreenSize() / 2);
+  }
+
+  @Test
+  public void testCumulativeSizesIncludingGifFrameCache_areLimitedByMemoryClass() {
+    final int memoryClassBytes = Math.round(
+        harness.getScreenSize() * (harness.bitmapPoolScreens + harness.memoryCacheScreens)
+            * harness.sizeMultiplier);
+    Shadows.shadowOf(harness.activityManager).setMemoryClass(memoryClassBytes / (1024 * 1024));
+
+    MemorySizeCalculator calculator = harness.getCalculator();
+
+    assertThat((float) calculator.getMemoryCacheSize() + calculator.getBitmapPoolSize()
+            + calculator.getGifFrameCacheSizeInBytes())
+        .isIn(Range.atMost(memoryClassBytes * harness.sizeMultiplier));
+  }
+
   private int getLargeEnoughMemoryClass() {
-    float totalScreenBytes =
-        harness.getScreenSize() * (harness.bitmapPoolScreens + harness.memoryCacheScreens);
+    float totalScreenBytes = harness.getScreenSize()
+        * (harness.bitmapPoolScreens + harness.memoryCacheScreens + harness.gifFrameCacheScreens);
     float totalBytes = totalScreenBytes + harness.byteArrayPoolSizeBytes;
     // Memory class is in mb, not bytes!
     float totalMb = totalBytes / (1024 * 1024);
@@ -160,6 +205,7 @@ public class MemorySizeCalculatorTest {
     final int bytesPerPixel = MemorySizeCalculator.BYTES_PER_ARGB_8888_PIXEL;
     float memoryCacheScreens = MemorySizeCalculator.Builder.MEMORY_CACHE_TARGET_SCREENS;
     float bitmapPoolScreens = MemorySizeCalculator.Builder.BITMAP_POOL_TARGET_SCREENS;
+    final float gifFrameCacheScreens = MemorySizeCalculator.Builder.GIF_FRAME_CACHE_TARGET_SCREENS;
     final float sizeMultiplier = MemorySizeCalculator.Builder.MAX_SIZE_MULTIPLIER;
     int byteArrayPoolSizeBytes = MemorySizeCalculator.Builder.ARRAY_POOL_SIZE_BYTES;
     final ActivityManager activityManager =
@@ -0,0 +1,70 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.bumptech.glide.util.Util;
+import java.nio.charset.Charset;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class Murmur3DigestTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private Murmur3Digest digest;
+
+  @Before
+  public void setUp() {
+    digest = new Murmur3Digest();
+  }
+
+  @Test
+  public void digest_withNoInput_returnsZero() {
+    assertThat(toHex(digest.digest())).isEqualTo("00000000000000000000000000000000");
+  }
+
+  @Test
+  public void digest_matchesReferenceImplementation() {
+    digest.update("The quick brown fox jumps over the lazy dog".getBytes(UTF_8));
+
+    assertThat(toHex(digest.digest())).isEqualTo("6c1b07bc7bbc4be347939ac4a93c437a");
+  }
+
+  @Test
+  public void digest_resetsDigest() {
+    digest.update("The quick brown fox jumps over the lazy dog".getBytes(UTF_8));
+    digest.digest();
+
+    assertThat(toHex(digest.digest())).isEqualTo("00000000000000000000000000000000");
+  }
+
+  @Test
+  public void digest_withInputSplitAcrossUpdates_matchesSingleUpdate() {
+    Random random = new Random(0);
+    for (int i = 0; i < 100; i++) {
+      byte[] input = new byte[random.nextInt(100)];
+      random.nextBytes(input);
+      digest.update(input);
+      byte[] expected = digest.digest();
+
+      int offset = 0;
+      while (offset < input.length) {
+        int length = Math.min(input.length - offset, random.nextInt(20));
+        if (length == 1) {
+          digest.update(input[offset]);
+        } else {
+          digest.update(input, offset, length);
+        }
+        offset += length;
+      }
+
+      assertThat(digest.digest()).isEqualTo(expected);
+    }
+  }
+
+  private static String toHex(byte[] bytes) {
+    return Util.bytesToHex(bytes, new char[bytes.length * 2]);
+  }
+}
@@ -1,5 +1,6 @@
 package com.bumptech.glide.load.engine.cache;
 
+import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import android.support.annotation.NonNull;
@@ -35,6 +36,28 @@ public class SafeKeyGeneratorTest {
     }
   }
 
+  @Test
+  public void testKeysAreValidForDiskCache_withMurmur3() {
+    keyGenerator = new SafeKeyGenerator(SafeKeyGenerator.Algorithm.MURMUR3_128);
+    final Pattern diskCacheRegex = Pattern.compile("[a-z0-9_-]{32}");
+    for (int i = 0; i < 1000; i++) {
+      String key = getRandomKeyFromGenerator();
+      Matcher matcher = diskCacheRegex.matcher(key);
+      assertTrue(key, matcher.matches());
+    }
+  }
+
+  @Test
+  public void testKeysAreStableAcrossGenerators() {
+    SafeKeyGenerator other = new SafeKeyGenerator();
+    for (int i = 0; i < 2000; i++) {
+      MockKey key = new MockKey(getNextId());
+      assertThat(keyGenerator.getSafeKey(key)).isEqualTo(other.getSafeKey(key));
+      // The second call returns the memoized key.
+      assertThat(keyGenerator.getSafeKey(key)).isEqualTo(other.getSafeKey(key));
+    }
+  }
+
   private String getRandomKeyFromGenerator() {
     return keyGenerator.getSafeKey(new MockKey(getNextId()));
   }
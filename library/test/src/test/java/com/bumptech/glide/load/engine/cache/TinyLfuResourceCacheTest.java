@@ -0,0 +1,257 @@
+package com.bumptech.glide.load.engine.cache;
+
+import static com.bumptech.glide.load.engine.cache.MemoryCache.ResourceRemovedListener;
+import static com.bumptech.glide.tests.Util.mockResource;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.content.ComponentCallbacks2;
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.engine.Resource;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TinyLfuResourceCacheTest {
+  private ResourceRemovedListener listener;
+  private TinyLfuResourceCache cache;
+
+  @Before
+  public void setUp() {
+    listener = mock(ResourceRemovedListener.class);
+    cache = newCache(100);
+  }
+
+  @Test
+  public void remove_afterPut_returnsResource() {
+    Key key = new MockKey();
+    Resource<?> resource = getResource(10);
+    cache.put(key, resource);
+
+    assertThat(cache.remove(key)).isEqualTo(resource);
+    assertThat(cache.contains(key)).isFalse();
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void remove_withMissingKey_returnsNull() {
+    assertThat(cache.remove(new MockKey())).isNull();
+  }
+
+  @Test
+  public void put_withExistingItem_updatesSizeAndEvictsExistingItem() {
+    Key key = new MockKey();
+    Resource<?> first = getResource(50);
+    Resource<?> second = getResource(40);
+    cache.put(key, first);
+
+    assertThat(cache.put(key, second)).isEqualTo(first);
+    assertThat(cache.getCurrentSize()).isEqualTo(40);
+    verify(listener).onResourceRemoved(first);
+    verify(listener, never()).onResourceRemoved(second);
+  }
+
+  @Test
+  public void put_withResourceLargerThanCache_notifiesListenerAndDoesNotCache() {
+    Key key = new MockKey();
+    Resource<?> resource = getResource(200);
+
+    assertThat(cache.put(key, resource)).isNull();
+
+    verify(listener).onResourceRemoved(eq(resource));
+    assertThat(cache.contains(key)).isFalse();
+  }
+
+  @Test
+  public void put_withResourceLargerThanSegmentShare_isCached() {
+    cache = new TinyLfuResourceCache(100, /*segmentCount=*/ 4, /*windowFraction=*/ 0.2f);
+    Key key = new MockKey();
+    cache.put(key, getResource(90));
+
+    assertThat(cache.contains(key)).isTrue();
+  }
+
+  @Test
+  public void put_overMaxSize_evictsUntilUnderMaxSize() {
+    for (int i = 0; i < 10; i++) {
+      cache.put(new MockKey(), getResource(30));
+    }
+
+    assertThat(cache.getCurrentSize()).isAtMost(100L);
+  }
+
+  @Test
+  public void put_withFrequentlyRequestedKey_isNotEvictedByOneOffResources() {
+    Key popular = new MockKey();
+    Resource<?> popularResource = getResource(20);
+    // Simulate the popular resource being requested and released repeatedly.
+    for (int i = 0; i < 5; i++) {
+      cache.remove(popular);
+      cache.put(popular, popularResource);
+    }
+
+    for (int i = 0; i < 20; i++) {
+      cache.put(new MockKey(), getResource(20));
+    }
+
+    assertThat(cache.contains(popular)).isTrue();
+    verify(listener, never()).onResourceRemoved(popularResource);
+  }
+
+  @Test
+  public void put_withEquallyPopularResources_rejectsResourceLeavingWindow() {
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      Key key = new MockKey();
+      keys.add(key);
+      cache.put(key, getResource(20));
+    }
+
+    // The window holds one resource, the previous most recent resource has to compete with the
+    // oldest resource and loses the tie.
+    assertThat(cache.contains(keys.get(0))).isTrue();
+    assertThat(cache.contains(keys.get(4))).isFalse();
+    assertThat(cache.contains(keys.get(5))).isTrue();
+  }
+
+  @Test
+  public void clearMemory_evictsAllResources() {
+    Resource<?> first = getResource(10);
+    Resource<?> second = getResource(10);
+    cache.put(new MockKey(), first);
+    cache.put(new MockKey(), second);
+
+    cache.clearMemory();
+
+    verify(listener).onResourceRemoved(first);
+    verify(listener).onResourceRemoved(second);
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_background_evictsAllResources() {
+    cache.put(new MockKey(), getResource(50));
+    cache.put(new MockKey(), getResource(50));
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_BACKGROUND);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void trimMemory_uiHidden_evictsHalf() {
+    Resource<?> first = getResource(50);
+    Resource<?> second = getResource(50);
+    cache.put(new MockKey(), first);
+    cache.put(new MockKey(), second);
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(50);
+  }
+
+  @Test
+  public void trimMemory_runningCritical_evictsHalf() {
+    cache.put(new MockKey(), getResource(50));
+    cache.put(new MockKey(), getResource(50));
+
+    cache.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+    assertThat(cache.getCurrentSize()).isEqualTo(50);
+  }
+
+  @Test
+  public void setSizeMultiplier_withSmallerSize_evictsResources() {
+    cache.put(new MockKey(), getResource(50));
+    cache.put(new MockKey(), getResource(50));
+
+    cache.setSizeMultiplier(0.5f);
+
+    assertThat(cache.getMaxSize()).isEqualTo(50);
+    assertThat(cache.getCurrentSize()).isAtMost(50L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setSizeMultiplier_withNegativeMultiplier_throws() {
+    cache.setSizeMultiplier(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_withSegmentCountNotPowerOfTwo_throws() {
+    new TinyLfuResourceCache(100, /*segmentCount=*/ 3, /*windowFraction=*/ 0.2f);
+  }
+
+  @Test
+  public void putAndRemove_fromMultipleThreads_keepsSizeConsistent() throws InterruptedException {
+    cache = new TinyLfuResourceCache(1000);
+    final Resource<?> resource = getResource(10);
+    final List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      keys.add(new MockKey());
+    }
+    int threadCount = 4;
+    final CountDownLatch latch = new CountDownLatch(threadCount);
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    try {
+      for (int thread = 0; thread < threadCount; thread++) {
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            for (int i = 0; i < 1000; i++) {
+              Key key = keys.get(i % keys.size());
+              cache.remove(key);
+              cache.put(key, resource);
+            }
+            latch.countDown();
+          }
+        });
+      }
+      assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      executor.shutdown();
+    }
+
+    long expectedSize = 0;
+    for (Key key : keys) {
+      if (cache.contains(key)) {
+        expectedSize += 10;
+      }
+    }
+    assertThat(cache.getCurrentSize()).isEqualTo(expectedSize);
+  }
+
+  private TinyLfuResourceCache newCache(long size) {
+    // A single segment makes eviction order deterministic.
+    TinyLfuResourceCache result =
+        new TinyLfuResourceCache(size, /*segmentCount=*/ 1, /*windowFraction=*/ 0.2f);
+    result.setResourceRemovedListener(listener);
+    return result;
+  }
+
+  private static Resource<?> getResource(int size) {
+    Resource<?> resource = mockResource();
+    when(resource.getSize()).thenReturn(size);
+    return resource;
+  }
+
+  private static class MockKey implements Key {
+    @Override
+    public void updateDiskCacheKey(@NonNull MessageDigest messageDigest) {
+      messageDigest.update(toString().getBytes(CHARSET));
+    }
+  }
+}
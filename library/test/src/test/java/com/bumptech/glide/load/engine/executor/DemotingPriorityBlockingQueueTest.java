@@ -0,0 +1,177 @@
+package com.bumptech.glide.load.engine.executor;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.support.annotation.NonNull;
+import android.support.annotation.Nullable;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.executor.GlideExecutor.PrioritizedTask;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class DemotingPriorityBlockingQueueTest {
+  private int order;
+
+  @Test
+  public void offer_belowThreshold_ordersByPriorityThenOrder() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(10);
+    FakeTask low = newTask(Priority.LOW);
+    FakeTask high = newTask(Priority.HIGH);
+    FakeTask secondHigh = newTask(Priority.HIGH);
+    queue.offer(low);
+    queue.offer(high);
+    queue.offer(secondHigh);
+
+    assertThat(drain(queue)).containsExactly(high, secondHigh, low).inOrder();
+    assertThat(low.isDemoted()).isFalse();
+  }
+
+  @Test
+  public void offer_aboveThreshold_demotesOldestTaskWithLowestPriority() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(3);
+    FakeTask staleNormal = newTask(Priority.NORMAL);
+    FakeTask newerNormal = newTask(Priority.NORMAL);
+    FakeTask high = newTask(Priority.HIGH);
+    FakeTask immediate = newTask(Priority.IMMEDIATE);
+    queue.offer(staleNormal);
+    queue.offer(newerNormal);
+    queue.offer(high);
+    queue.offer(immediate);
+
+    assertThat(staleNormal.isDemoted()).isTrue();
+    assertThat(drain(queue))
+        .containsExactly(immediate, high, newerNormal, staleNormal)
+        .inOrder();
+  }
+
+  @Test
+  public void offer_aboveThreshold_demotesOneTaskPerOffer() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(1);
+    FakeTask first = newTask(Priority.NORMAL);
+    FakeTask second = newTask(Priority.NORMAL);
+    FakeTask third = newTask(Priority.NORMAL);
+    queue.offer(first);
+    queue.offer(second);
+    queue.offer(third);
+
+    assertThat(first.isDemoted()).isTrue();
+    assertThat(second.isDemoted()).isTrue();
+    assertThat(third.isDemoted()).isFalse();
+    assertThat(drain(queue)).containsExactly(third, first, second).inOrder();
+  }
+
+  @Test
+  public void setPriority_withQueuedTask_reordersTask() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(10);
+    FakeTask first = newTask(Priority.NORMAL);
+    FakeTask second = newTask(Priority.NORMAL);
+    queue.offer(first);
+    queue.offer(second);
+
+    assertThat(queue.setPriority(first, Priority.LOW)).isTrue();
+
+    assertThat(first.getPriority()).isEqualTo(Priority.LOW);
+    assertThat(drain(queue)).containsExactly(second, first).inOrder();
+  }
+
+  @Test
+  public void setPriority_withDemotedTask_undemotesTask() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(1);
+    FakeTask first = newTask(Priority.NORMAL);
+    FakeTask second = newTask(Priority.NORMAL);
+    queue.offer(first);
+    queue.offer(second);
+
+    assertThat(queue.setPriority(first, Priority.HIGH)).isTrue();
+
+    assertThat(first.isDemoted()).isFalse();
+    assertThat(drain(queue)).containsExactly(first, second).inOrder();
+  }
+
+  @Test
+  public void setPriority_withTaskNotInQueue_returnsFalseAndLeavesPriority() {
+    DemotingPriorityBlockingQueue queue = new DemotingPriorityBlockingQueue(10);
+    FakeTask task = newTask(Priority.NORMAL);
+
+    assertThat(queue.setPriority(task, Priority.HIGH)).isFalse();
+    assertThat(task.getPriority()).isEqualTo(Priority.NORMAL);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_withZeroThreshold_throws() {
+    new DemotingPriorityBlockingQueue(0);
+  }
+
+  private FakeTask newTask(Priority priority) {
+    return new FakeTask(priority, order++);
+  }
+
+  private static List<Runnable> drain(DemotingPriorityBlockingQueue queue) {
+    List<Runnable> result = new ArrayList<>();
+    Runnable next;
+    while ((next = queue.poll()) != null) {
+      result.add(next);
+    }
+    return result;
+  }
+
+  static final class FakeTask implements PrioritizedTask, Comparable<FakeTask> {
+    private final int order;
+    @Nullable private final Runnable onRun;
+    private volatile Priority priority;
+    private volatile boolean isDemoted;
+
+    FakeTask(Priority priority, int order) {
+      this(priority, order, /*onRun=*/ null);
+    }
+
+    FakeTask(Priority priority, int order, @Nullable Runnable onRun) {
+      this.priority = priority;
+      this.order = order;
+      this.onRun = onRun;
+    }
+
+    @NonNull
+    @Override
+    public Priority getPriority() {
+      return priority;
+    }
+
+    @Override
+    public void setPriority(@NonNull Priority priority) {
+      this.priority = priority;
+    }
+
+    @Override
+    public boolean isDemoted() {
+      return isDemoted;
+    }
+
+    @Override
+    public void setDemoted(boolean isDemoted) {
+      this.isDemoted = isDemoted;
+    }
+
+    @Override
+    public int compareTo(@NonNull FakeTask other) {
+      if (isDemoted != other.isDemoted) {
+        return isDemoted ? 1 : -1;
+      }
+      int result = priority.ordinal() - other.priority.ordinal();
+      return result != 0 ? result : order - other.order;
+    }
+
+    @Override
+    public void run() {
+      if (onRun != null) {
+        onRun.run();
+      }
+    }
+  }
+}
@@ -3,9 +3,12 @@ package com.bumptech.glide.load.engine.executor;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.support.annotation.NonNull;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.engine.executor.DemotingPriorityBlockingQueueTest.FakeTask;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -37,6 +40,61 @@ public class GlideExecutorTest {
     assertThat(resultPriorities).containsExactly(5, 1, 2, 3, 4).inOrder();
   }
 
+  @Test
+  public void setPriority_withQueuedTask_runsTaskInNewOrder() throws InterruptedException {
+    final CountDownLatch blocked = new CountDownLatch(1);
+    final List<Integer> resultOrders = Collections.synchronizedList(new ArrayList<Integer>());
+    GlideExecutor executor = GlideExecutor.newSourceExecutor(
+        1, "test", GlideExecutor.UncaughtThrowableStrategy.THROW);
+    executor.execute(new FakeTask(Priority.IMMEDIATE, 0, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }));
+    FakeTask first = new FakeTask(Priority.NORMAL, 1, new RecordOrder(resultOrders, 1));
+    FakeTask second = new FakeTask(Priority.NORMAL, 2, new RecordOrder(resultOrders, 2));
+    executor.execute(first);
+    executor.execute(second);
+
+    assertThat(executor.setPriority(second, Priority.HIGH)).isTrue();
+    blocked.countDown();
+    executor.shutdown();
+    executor.awaitTermination(500, TimeUnit.MILLISECONDS);
+
+    assertThat(resultOrders).containsExactly(2, 1).inOrder();
+  }
+
+  @Test
+  public void setPriority_withTaskNotQueued_returnsFalse() {
+    GlideExecutor executor = GlideExecutor.newSourceExecutor(
+        1, "test", GlideExecutor.UncaughtThrowableStrategy.THROW);
+    FakeTask task = new FakeTask(Priority.NORMAL, 0);
+
+    assertThat(executor.setPriority(task, Priority.HIGH)).isFalse();
+    assertThat(task.getPriority()).isEqualTo(Priority.NORMAL);
+    executor.shutdown();
+  }
+
+  private static final class RecordOrder implements Runnable {
+    private final List<Integer> resultOrders;
+    private final int order;
+
+    RecordOrder(List<Integer> resultOrders, int order) {
+      this.resultOrders = resultOrders;
+      this.order = order;
+    }
+
+    @Override
+    public void run() {
+      resultOrders.add(order);
+    }
+  }
+
   private static final class MockRunnable implements Runnable,
       Comparable<MockRunnable> {
     private final int priority;
@@ -0,0 +1,290 @@
+package com.bumptech.glide.load.model;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.support.annotation.NonNull;
+import android.support.v4.util.Pools.Pool;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.Key;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.data.DataFetcher;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.model.ModelLoader.LoadData;
+import com.bumptech.glide.load.model.MultiModelLoader.HedgedFetcher;
+import com.bumptech.glide.load.model.MultiModelLoader.MultiFetcher;
+import com.bumptech.glide.util.pool.FactoryPools;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class HedgedFetcherTest {
+  private static final long SHORT_DELAY_MS = 10;
+  private static final long LONG_DELAY_MS = 60 * 1000;
+  private static final long TIMEOUT_MS = 5000;
+
+  @Mock private DataFetcher.DataCallback<Object> callback;
+  @Mock private HedgedFetchOptions.Listener listener;
+
+  private final Object data = new Object();
+  private final FakeFetcher first = new FakeFetcher();
+  private final FakeFetcher second = new FakeFetcher();
+  private Pool<List<Throwable>> throwableListPool;
+  private ScheduledExecutorService scheduler;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    throwableListPool = FactoryPools.threadSafeList();
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void loadData_withFirstFetcherSucceeding_doesNotStartSecondFetcher()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(LONG_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    first.callback.onDataReady(data);
+
+    verify(callback).onDataReady(data);
+    verify(listener).onFetcherWon(first, 0 /*fetcherIndex*/, 1 /*startedFetcherCount*/);
+    assertThat(second.awaitStarted(SHORT_DELAY_MS * 10)).isFalse();
+  }
+
+  @Test
+  public void loadData_withSlowFirstFetcher_startsSecondFetcherAfterDelay()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.HIGH, callback);
+
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+    assertThat(second.priority).isEqualTo(Priority.HIGH);
+  }
+
+  @Test
+  public void loadData_withSecondFetcherWinning_cancelsFirstFetcher()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+
+    second.callback.onDataReady(data);
+    first.callback.onDataReady(new Object());
+
+    verify(callback).onDataReady(data);
+    verify(listener).onFetcherWon(second, 1 /*fetcherIndex*/, 2 /*startedFetcherCount*/);
+    assertThat(first.isCancelled).isTrue();
+    assertThat(second.isCancelled).isFalse();
+  }
+
+  @Test
+  public void loadData_withFirstFetcherFailing_startsSecondFetcherWithoutDelay()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(LONG_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    first.callback.onLoadFailed(new RuntimeException("test"));
+
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+  }
+
+  @Test
+  public void loadData_withFirstFetcherFailingAfterSecondStarted_waitsForSecondFetcher()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+
+    first.callback.onLoadFailed(new RuntimeException("test"));
+
+    verify(callback, never()).onLoadFailed(any(Exception.class));
+    second.callback.onDataReady(data);
+    verify(callback).onDataReady(data);
+  }
+
+  @Test
+  public void loadData_withAllFetchersFailing_failsWithAllExceptions()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+
+    first.callback.onLoadFailed(new RuntimeException("first"));
+    second.callback.onLoadFailed(new RuntimeException("second"));
+
+    verify(callback).onLoadFailed(any(GlideException.class));
+    verify(callback, never()).onDataReady(any());
+  }
+
+  @Test
+  public void loadData_withFirstFetcherSucceeding_cancelsScheduledHedge() {
+    scheduler.shutdownNow();
+    scheduler = mock(ScheduledExecutorService.class);
+    ScheduledFuture<?> hedge = mock(ScheduledFuture.class);
+    doReturn(hedge)
+        .when(scheduler)
+        .schedule(any(Runnable.class), eq(LONG_DELAY_MS), eq(TimeUnit.MILLISECONDS));
+    HedgedFetcher<Object> fetcher = newFetcher(LONG_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    first.callback.onDataReady(data);
+
+    verify(hedge).cancel(false);
+  }
+
+  @Test
+  public void loadData_withLosingFetcherDeliveringAfterCleanup_cleansUpLosingFetcher()
+      throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+    assertThat(second.awaitStarted(TIMEOUT_MS)).isTrue();
+    second.callback.onDataReady(data);
+    fetcher.cleanup();
+
+    first.callback.onDataReady(new Object());
+
+    verify(callback).onDataReady(data);
+    assertThat(first.cleanupCount.get()).isEqualTo(2);
+    assertThat(second.cleanupCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void cancel_cancelsFetchers_andStopsHedging() throws InterruptedException {
+    HedgedFetcher<Object> fetcher = newFetcher(SHORT_DELAY_MS);
+    fetcher.loadData(Priority.NORMAL, callback);
+
+    fetcher.cancel();
+
+    assertThat(first.isCancelled).isTrue();
+    assertThat(second.awaitStarted(SHORT_DELAY_MS * 10)).isFalse();
+  }
+
+  @Test
+  public void buildLoadData_withoutHedgeDelay_returnsSequentialFetcher() {
+    LoadData<Object> loadData = newModelLoader().buildLoadData("model", 100, 100, new Options());
+
+    assertThat(loadData.fetcher).isInstanceOf(MultiFetcher.class);
+  }
+
+  @Test
+  public void buildLoadData_withHedgeDelay_returnsHedgedFetcher() {
+    Options options = new Options().set(HedgedFetchOptions.HEDGE_DELAY_MS, 100);
+
+    LoadData<Object> loadData = newModelLoader().buildLoadData("model", 100, 100, options);
+
+    assertThat(loadData.fetcher).isInstanceOf(HedgedFetcher.class);
+  }
+
+  @Test
+  public void fetcherWinRates_countsWinsByFetcherClass() {
+    FetcherWinRates winRates = new FetcherWinRates();
+
+    winRates.onFetcherWon(first, 0 /*fetcherIndex*/, 1 /*startedFetcherCount*/);
+    winRates.onFetcherWon(first, 0 /*fetcherIndex*/, 2 /*startedFetcherCount*/);
+    winRates.onFetcherWon(mock(DataFetcher.class), 1 /*fetcherIndex*/, 2 /*startedFetcherCount*/);
+
+    assertThat(winRates.getTotalCount()).isEqualTo(3);
+    assertThat(winRates.getHedgedWinCount()).isEqualTo(2);
+    assertThat(winRates.getWinCount(FakeFetcher.class)).isEqualTo(2);
+    assertThat(winRates.getWinRate(FakeFetcher.class)).isEqualTo(2 / 3f);
+  }
+
+  @SuppressWarnings("unchecked")
+  private HedgedFetcher<Object> newFetcher(long hedgeDelayMs) {
+    return new HedgedFetcher<>(
+        Arrays.<DataFetcher<Object>>asList(first, second),
+        throwableListPool,
+        hedgeDelayMs,
+        listener,
+        scheduler,
+        executor);
+  }
+
+  @SuppressWarnings("unchecked")
+  private MultiModelLoader<String, Object> newModelLoader() {
+    ModelLoader<String, Object> firstLoader = mock(ModelLoader.class);
+    ModelLoader<String, Object> secondLoader = mock(ModelLoader.class);
+    DataFetcher<Object> fetcher = mock(DataFetcher.class);
+    Key key = mock(Key.class);
+    for (ModelLoader<String, Object> loader : Arrays.asList(firstLoader, secondLoader)) {
+      when(loader.handles(eq("model"))).thenReturn(true);
+      when(loader.buildLoadData(eq("model"), eq(100), eq(100), any(Options.class)))
+          .thenReturn(new LoadData<Object>(key, fetcher));
+    }
+    return new MultiModelLoader<>(Arrays.asList(firstLoader, secondLoader), throwableListPool);
+  }
+
+  private static final class FakeFetcher implements DataFetcher<Object> {
+    private final CountDownLatch started = new CountDownLatch(1);
+    volatile Priority priority;
+    volatile DataCallback<? super Object> callback;
+    volatile boolean isCancelled;
+    final AtomicInteger cleanupCount = new AtomicInteger();
+
+    @Override
+    public void loadData(
+        @NonNull Priority priority, @NonNull DataCallback<? super Object> callback) {
+      this.priority = priority;
+      this.callback = callback;
+      started.countDown();
+    }
+
+    boolean awaitStarted(long timeoutMs) throws InterruptedException {
+      return started.await(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void cleanup() {
+      cleanupCount.incrementAndGet();
+    }
+
+    @Override
+    public void cancel() {
+      isCancelled = true;
+    }
+
+    @NonNull
+    @Override
+    public Class<Object> getDataClass() {
+      return Object.class;
+    }
+
+    @NonNull
+    @Override
+    public DataSource getDataSource() {
+      return DataSource.REMOTE;
+    }
+  }
+}
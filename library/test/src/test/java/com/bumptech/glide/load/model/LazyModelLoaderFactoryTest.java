@@ -0,0 +1,72 @@
+package com.bumptech.glide.load.model;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@RunWith(JUnit4.class)
+public class LazyModelLoaderFactoryTest {
+  @Mock private ModelLoaderFactory<Object, Object> delegate;
+  @Mock private ModelLoader<Object, Object> modelLoader;
+  @Mock private MultiModelLoaderFactory multiFactory;
+
+  private int supplierCount;
+  private LazyModelLoaderFactory<Object, Object> factory;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    when(delegate.build(any(MultiModelLoaderFactory.class))).thenReturn(modelLoader);
+    factory = LazyModelLoaderFactory.of(new GlideSupplier<ModelLoaderFactory<Object, Object>>() {
+      @NonNull
+      @Override
+      public ModelLoaderFactory<Object, Object> get() {
+        supplierCount++;
+        return delegate;
+      }
+    });
+  }
+
+  @Test
+  public void of_doesNotCreateDelegate() {
+    assertThat(supplierCount).isEqualTo(0);
+  }
+
+  @Test
+  public void build_createsDelegateOnce_andReturnsDelegateModelLoader() {
+    assertThat(factory.build(multiFactory)).isSameAs(modelLoader);
+    assertThat(factory.build(multiFactory)).isSameAs(modelLoader);
+
+    assertThat(supplierCount).isEqualTo(1);
+    verify(delegate, times(2)).build(multiFactory);
+  }
+
+  @Test
+  public void teardown_withoutBuild_doesNotCreateDelegate() {
+    factory.teardown();
+
+    assertThat(supplierCount).isEqualTo(0);
+    verify(delegate, never()).teardown();
+  }
+
+  @Test
+  public void teardown_afterBuild_tearsDownDelegate() {
+    factory.build(multiFactory);
+
+    factory.teardown();
+
+    verify(delegate).teardown();
+  }
+}
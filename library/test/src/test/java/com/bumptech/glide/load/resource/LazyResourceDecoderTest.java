@@ -0,0 +1,57 @@
+package com.bumptech.glide.load.resource;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.when;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.ResourceDecoder;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+@RunWith(JUnit4.class)
+public class LazyResourceDecoderTest {
+  @Mock private ResourceDecoder<Object, Object> delegate;
+  @Mock private Resource<Object> resource;
+
+  private final Object source = new Object();
+  private final Options options = new Options();
+  private int supplierCount;
+  private LazyResourceDecoder<Object, Object> decoder;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+    decoder = LazyResourceDecoder.of(new GlideSupplier<ResourceDecoder<Object, Object>>() {
+      @NonNull
+      @Override
+      public ResourceDecoder<Object, Object> get() {
+        supplierCount++;
+        return delegate;
+      }
+    });
+  }
+
+  @Test
+  public void of_doesNotCreateDelegate() {
+    assertThat(supplierCount).isEqualTo(0);
+  }
+
+  @Test
+  public void handlesAndDecode_createDelegateOnce_andDelegate() throws IOException {
+    when(delegate.handles(source, options)).thenReturn(true);
+    when(delegate.decode(source, 100, 200, options)).thenReturn(resource);
+
+    assertThat(decoder.handles(source, options)).isTrue();
+    assertThat(decoder.decode(source, 100, 200, options)).isSameAs(resource);
+
+    assertThat(supplierCount).isEqualTo(1);
+  }
+}
@@ -0,0 +1,279 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.graphics.Bitmap;
+import android.support.annotation.NonNull;
+import android.util.DisplayMetrics;
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.Resource;
+import com.bumptech.glide.load.engine.bitmap_recycle.ArrayPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.testutil.TestResourceUtil;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class ProgressiveBitmapDecoderTest {
+  private ProgressiveBitmapDecoder decoder;
+  private ProgressiveBitmapDecoder.PassListener listener;
+
+  @Before
+  public void setUp() {
+    List<ImageHeaderParser> parsers =
+        Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser());
+    BitmapPool bitmapPool = mock(BitmapPool.class);
+    ArrayPool arrayPool = new LruArrayPool();
+    decoder = new ProgressiveBitmapDecoder(
+        parsers,
+        new Downsampler(parsers, new DisplayMetrics(), bitmapPool, arrayPool),
+        bitmapPool,
+        arrayPool);
+    listener = mock(ProgressiveBitmapDecoder.PassListener.class);
+  }
+
+  @Test
+  public void handles_byDefault_returnsFalse() throws IOException {
+    assertThat(decoder.handles(openProgressiveJpeg(), new Options())).isFalse();
+  }
+
+  @Test
+  public void handles_withoutPassListener_returnsFalse() throws IOException {
+    Options options = new Options().set(ProgressiveBitmapDecoder.PROGRESSIVE, true);
+
+    assertThat(decoder.handles(openProgressiveJpeg(), options)).isFalse();
+  }
+
+  @Test
+  public void handles_withProgressiveJpegAndListener_returnsTrue() throws IOException {
+    Options options = new Options()
+        .set(ProgressiveBitmapDecoder.PROGRESSIVE, true)
+        .set(ProgressiveBitmapDecoder.PASS_LISTENER, listener);
+
+    assertThat(decoder.handles(openProgressiveJpeg(), options)).isTrue();
+  }
+
+  @Test
+  public void handles_withGifAndListener_returnsFalse() throws IOException {
+    InputStream is =
+        new BufferedInputStream(TestResourceUtil.openResource(getClass(), "test.gif"));
+    Options options = new Options()
+        .set(ProgressiveBitmapDecoder.PROGRESSIVE, true)
+        .set(ProgressiveBitmapDecoder.PASS_LISTENER, listener);
+
+    assertThat(decoder.handles(is, options)).isFalse();
+  }
+
+  @Test
+  public void findLastScanStart_withSingleScan_returnsZero() {
+    JpegBuilder jpeg = new JpegBuilder().addScans(1);
+
+    assertThat(findLastScanStart(jpeg.build())).isEqualTo(0);
+  }
+
+  @Test
+  public void findLastScanStart_withMultipleScans_returnsLastScan() {
+    JpegBuilder jpeg = new JpegBuilder().addScans(3);
+
+    assertThat(findLastScanStart(jpeg.build())).isEqualTo(jpeg.scanStarts.get(2));
+  }
+
+  @Test
+  public void findLastScanStart_withExifThumbnail_ignoresThumbnailScans() {
+    JpegBuilder jpeg = new JpegBuilder().addExifThumbnail().addScans(1);
+
+    assertThat(findLastScanStart(jpeg.build())).isEqualTo(0);
+  }
+
+  @Test
+  public void findLastScanStart_withExifThumbnailAndMultipleScans_returnsLastScan() {
+    JpegBuilder jpeg = new JpegBuilder().addExifThumbnail().addScans(2);
+
+    assertThat(findLastScanStart(jpeg.build())).isEqualTo(jpeg.scanStarts.get(1));
+  }
+
+  @Test
+  public void findLastScanStart_withDataReadOneByteAtATime_findsEachScan() {
+    JpegBuilder jpeg = new JpegBuilder().addExifThumbnail().addScans(3);
+    byte[] data = jpeg.build();
+    ProgressiveBitmapDecoder.JpegScanFinder finder = new ProgressiveBitmapDecoder.JpegScanFinder();
+
+    for (int length = 1; length <= data.length; length++) {
+      int lastScanStart = finder.findLastScanStart(data, length);
+      if (length < jpeg.scanStarts.get(1) + 4) {
+        assertThat(lastScanStart).isEqualTo(0);
+      } else if (length < jpeg.scanStarts.get(2) + 4) {
+        assertThat(lastScanStart).isEqualTo(jpeg.scanStarts.get(1));
+      } else {
+        assertThat(lastScanStart).isEqualTo(jpeg.scanStarts.get(2));
+      }
+    }
+  }
+
+  @Test
+  public void readWithPasses_withExifThumbnail_decodesPassForEachCompleteScan()
+      throws IOException {
+    JpegBuilder jpeg = new JpegBuilder().addExifThumbnail().addScans(3);
+    byte[] data = jpeg.build();
+    // Each read ends at the start of a scan, so each scan is complete when the next one arrives.
+    InputStream source = new ChunkedInputStream(data, jpeg.scanStarts);
+
+    decoder.readWithPasses(source, new ExposedByteArrayOutputStream(data.length),
+        Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL, new Options(), listener);
+
+    verify(listener).onPassReady(anyBitmapResource(), eq(0));
+    verify(listener).onPassReady(anyBitmapResource(), eq(1));
+    verify(listener, times(2)).onPassReady(anyBitmapResource(), anyInt());
+  }
+
+  private static int findLastScanStart(byte[] data) {
+    return new ProgressiveBitmapDecoder.JpegScanFinder().findLastScanStart(data, data.length);
+  }
+
+  private static InputStream openProgressiveJpeg() {
+    byte[] data = new byte[2048];
+    data[0] = (byte) 0xFF;
+    data[1] = (byte) 0xD8;
+    data[2] = (byte) 0xFF;
+    data[3] = (byte) 0xC2;
+    data[4] = 0;
+    data[5] = 11;
+    data[15] = (byte) 0xFF;
+    data[16] = (byte) 0xDA;
+    return new ByteArrayInputStream(data);
+  }
+
+  private static Resource<Bitmap> anyBitmapResource() {
+    return any();
+  }
+
+  /** Builds the marker segments of a progressive JPEG, whose scans can't actually be decoded. */
+  private static final class JpegBuilder {
+    // Entropy coded data with an escaped 0xFF and a restart marker.
+    private static final byte[] ENTROPY_CODED =
+        new byte[] {0x12, (byte) 0xFF, 0, 0x34, (byte) 0xFF, (byte) 0xD0, 0x56};
+    private static final byte[] EXIF_HEADER = new byte[] {
+        'E', 'x', 'i', 'f', 0, 0,
+        // A big endian TIFF header followed by an IFD without any entries.
+        'M', 'M', 0, 42, 0, 0, 0, 8, 0, 0, 0, 0, 0, 0
+    };
+
+    private final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    final List<Integer> scanStarts = new ArrayList<>();
+
+    JpegBuilder() {
+      writeMarker(os, 0xD8);
+    }
+
+    JpegBuilder addExifThumbnail() {
+      // The thumbnail is a complete baseline JPEG whose markers are only payload here.
+      ByteArrayOutputStream thumbnail = new ByteArrayOutputStream();
+      writeMarker(thumbnail, 0xD8);
+      writeSegment(thumbnail, 0xC0, new byte[] {8, 0, 16, 0, 16, 1, 1, 0x11, 0});
+      writeSegment(thumbnail, 0xDA, new byte[] {1, 1, 0, 0, 0x3F, 0});
+      thumbnail.write(0x12);
+      thumbnail.write(0x34);
+      writeMarker(thumbnail, 0xD9);
+
+      ByteArrayOutputStream payload = new ByteArrayOutputStream();
+      payload.write(EXIF_HEADER, 0, EXIF_HEADER.length);
+      byte[] thumbnailData = thumbnail.toByteArray();
+      payload.write(thumbnailData, 0, thumbnailData.length);
+      writeSegment(os, 0xE1, payload.toByteArray());
+      return this;
+    }
+
+    JpegBuilder addScans(int count) {
+      writeSegment(os, 0xC2, new byte[] {8, 0, 16, 0, 16, 1, 1, 0x11, 0});
+      for (int i = 0; i < count; i++) {
+        writeSegment(os, 0xC4, new byte[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        scanStarts.add(os.size());
+        writeSegment(os, 0xDA, new byte[] {1, 1, 0, 0, 0x3F, 0});
+        os.write(ENTROPY_CODED, 0, ENTROPY_CODED.length);
+      }
+      return this;
+    }
+
+    byte[] build() {
+      ByteArrayOutputStream result = new ByteArrayOutputStream();
+      byte[] data = os.toByteArray();
+      result.write(data, 0, data.length);
+      writeMarker(result, 0xD9);
+      return result.toByteArray();
+    }
+
+    private static void writeMarker(ByteArrayOutputStream os, int marker) {
+      os.write(0xFF);
+      os.write(marker);
+    }
+
+    private static void writeSegment(ByteArrayOutputStream os, int marker, byte[] payload) {
+      writeMarker(os, marker);
+      int length = payload.length + 2;
+      os.write(length >> 8);
+      os.write(length & 0xFF);
+      os.write(payload, 0, payload.length);
+    }
+  }
+
+  /** Returns the data in chunks that end at each of the given offsets, with none available. */
+  private static final class ChunkedInputStream extends InputStream {
+    private final byte[] data;
+    private final List<Integer> chunkEnds;
+    private int position;
+
+    ChunkedInputStream(byte[] data, List<Integer> chunkEnds) {
+      this.data = data;
+      this.chunkEnds = chunkEnds;
+    }
+
+    @Override
+    public int read() {
+      return position < data.length ? data[position++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(@NonNull byte[] buffer, int offset, int length) {
+      if (position == data.length) {
+        return -1;
+      }
+      int end = data.length;
+      for (int chunkEnd : chunkEnds) {
+        if (chunkEnd > position) {
+          end = chunkEnd;
+          break;
+        }
+      }
+      int read = Math.min(length, end - position);
+      System.arraycopy(data, position, buffer, offset, read);
+      position += read;
+      return read;
+    }
+
+    @Override
+    public int available() {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.bumptech.glide.load.resource.bitmap;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import com.bumptech.glide.load.ImageHeaderParser;
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.engine.bitmap_recycle.BitmapPool;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruArrayPool;
+import com.bumptech.glide.testutil.TestResourceUtil;
+import com.bumptech.glide.util.ByteBufferUtil;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class TiledBitmapDecoderTest {
+  private BitmapPool bitmapPool;
+  private Executor executor;
+  private TiledBitmapDecoder decoder;
+
+  @Before
+  public void setUp() {
+    bitmapPool = mock(BitmapPool.class);
+    executor = mock(Executor.class);
+    decoder = new TiledBitmapDecoder(
+        Collections.<ImageHeaderParser>singletonList(new DefaultImageHeaderParser()),
+        bitmapPool,
+        new LruArrayPool(),
+        executor);
+  }
+
+  @Test
+  public void handles_byDefault_returnsFalse() throws IOException {
+    InputStream is = openJpeg();
+
+    assertThat(decoder.handles(is, new Options())).isFalse();
+    verifyZeroInteractions(bitmapPool, executor);
+  }
+
+  @Test
+  public void handles_withGifAndThreshold_returnsFalse() throws IOException {
+    InputStream is =
+        new BufferedInputStream(TestResourceUtil.openResource(getClass(), "test.gif"));
+    Options options = new Options().set(TiledBitmapDecoder.MIN_TILED_PIXELS, 1);
+
+    assertThat(decoder.handles(is, options)).isFalse();
+  }
+
+  @Test
+  public void handles_resetsStream() throws IOException {
+    InputStream is = openJpeg();
+    Options options = new Options().set(TiledBitmapDecoder.MIN_TILED_PIXELS, 1);
+
+    decoder.handles(is, options);
+
+    assertThat(is.read()).isEqualTo(0xFF);
+    assertThat(is.read()).isEqualTo(0xD8);
+  }
+
+  @Test
+  public void handles_withByteBuffer_keepsBufferPosition() throws IOException {
+    ByteBuffer buffer = ByteBufferUtil.fromStream(openJpeg());
+    Options options = new Options().set(TiledBitmapDecoder.MIN_TILED_PIXELS, 1);
+
+    new ByteBufferTiledBitmapDecoder(decoder).handles(buffer, options);
+
+    assertThat(buffer.position()).isEqualTo(0);
+  }
+
+  @Test
+  public void calculateSampleSize_withOriginalSize_returnsOne() {
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.CENTER_INSIDE, 0, 8000, 6000, 8000, 6000)).isEqualTo(1);
+  }
+
+  @Test
+  public void calculateSampleSize_withLargerTarget_returnsOne() {
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.FIT_CENTER, 0, 8000, 6000, 16000, 12000)).isEqualTo(1);
+  }
+
+  @Test
+  public void calculateSampleSize_withQualityRounding_returnsLargestSampleAboveTarget() {
+    // AT_LEAST never produces an image smaller than the target.
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.AT_LEAST, 0, 8000, 6000, 1500, 1500)).isEqualTo(4);
+  }
+
+  @Test
+  public void calculateSampleSize_withMemoryRounding_returnsSmallestSampleBelowTarget() {
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.AT_MOST, 0, 8000, 6000, 1500, 1500)).isEqualTo(8);
+  }
+
+  @Test
+  public void calculateSampleSize_withRotation_swapsDimensions() {
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.AT_LEAST, 0, 8000, 2000, 2000, 500)).isEqualTo(4);
+    assertThat(TiledBitmapDecoder.calculateSampleSize(
+        DownsampleStrategy.AT_LEAST, 90, 8000, 2000, 2000, 500)).isEqualTo(1);
+  }
+
+  private InputStream openJpeg() {
+    return new BufferedInputStream(
+        TestResourceUtil.openResource(getClass(), "issue387_rotated_jpeg.jpg"));
+  }
+}
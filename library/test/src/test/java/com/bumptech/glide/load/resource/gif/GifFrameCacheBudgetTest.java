@@ -0,0 +1,50 @@
+package com.bumptech.glide.load.resource.gif;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GifFrameCacheBudgetTest {
+  private GifFrameCacheBudget budget;
+
+  @Before
+  public void setUp() {
+    budget = new GifFrameCacheBudget();
+    budget.setMaxSize(100);
+  }
+
+  @Test
+  public void tryReserve_withinBudget_reservesBytes() {
+    assertThat(budget.tryReserve(60)).isTrue();
+    assertThat(budget.tryReserve(40)).isTrue();
+
+    assertThat(budget.getCurrentSize()).isEqualTo(100);
+  }
+
+  @Test
+  public void tryReserve_beyondBudget_doesNotReserveBytes() {
+    assertThat(budget.tryReserve(60)).isTrue();
+
+    assertThat(budget.tryReserve(41)).isFalse();
+    assertThat(budget.getCurrentSize()).isEqualTo(60);
+  }
+
+  @Test
+  public void release_makesBytesAvailableAgain() {
+    budget.tryReserve(60);
+
+    budget.release(60);
+
+    assertThat(budget.getCurrentSize()).isEqualTo(0);
+    assertThat(budget.tryReserve(100)).isTrue();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setLookAheadFrameCount_withZero_throws() {
+    budget.setLookAheadFrameCount(0);
+  }
+}
@@ -35,6 +35,8 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import java.util.List;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -87,6 +89,21 @@ public class GifFrameLoaderTest {
     return result;
   }
 
+  @NonNull
+  private GifFrameLoader createGifFrameLoader(GifFrameCacheBudget budget) {
+    GifFrameLoader result = new GifFrameLoader(
+        getGlideSingleton().getBitmapPool(),
+        requestManager,
+        gifDecoder,
+        handler,
+        requestBuilder,
+        transformation,
+        firstFrame,
+        budget);
+    result.subscribe(callback);
+    return result;
+  }
+
   private static Glide getGlideSingleton() {
     return Glide.get(RuntimeEnvironment.application);
   }
@@ -108,6 +125,8 @@ public class GifFrameLoaderTest {
 
   @Test
   public void testReturnsSizeFromGifDecoderAndCurrentFrame() {
+    // Without a budget no other frames are kept.
+    loader = createGifFrameLoader(new GifFrameCacheBudget());
     int decoderByteSize = 123456;
     when(gifDecoder.getByteSize()).thenReturn(decoderByteSize);
     assertThat(loader.getSize()).isEqualTo(decoderByteSize + Util.getBitmapByteSize(firstFrame));
@@ -354,6 +373,159 @@ public class GifFrameLoaderTest {
     verify(callback, times(1)).onFrameReady();
   }
 
+  @Test
+  public void onFrameReady_withAllFramesInBudget_replaysFramesWithoutLoadingThemAgain() {
+    when(gifDecoder.getFrameCount()).thenReturn(2);
+    when(gifDecoder.getCurrentFrameIndex()).thenReturn(0, 1, 0, 1, 0);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+
+    DelayTarget first = completeLoad(0);
+    loader.onFrameReady(first);
+    DelayTarget second = completeLoad(1);
+    loader.onFrameReady(second);
+    loader.onFrameReady(first);
+    loader.onFrameReady(second);
+
+    verify(requestBuilder, times(2)).into(aTarget());
+    assertThat(loader.getCurrentFrame()).isEqualTo(second.getResource());
+    assertThat(budget.getCurrentSize()).isEqualTo(2 * Util.getBitmapByteSize(firstFrame));
+  }
+
+  @Test
+  public void onFrameReady_withAllFramesInBudget_schedulesReplayedFrameForItsNewTime() {
+    when(gifDecoder.getFrameCount()).thenReturn(2);
+    when(gifDecoder.getCurrentFrameIndex()).thenReturn(0, 1, 0);
+    when(gifDecoder.getNextDelay()).thenReturn(100);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+    DelayTarget first = completeLoad(0);
+    long firstTargetTime = first.targetTime;
+    loader.onFrameReady(first);
+    DelayTarget second = completeLoad(1);
+
+    loader.onFrameReady(second);
+
+    assertThat(first.targetTime).isEqualTo(firstTargetTime + 200);
+    verify(handler).sendMessageAtTime(isA(Message.class), eq(first.targetTime));
+  }
+
+  @Test
+  public void clear_withAllFramesInBudget_clearsFramesAndReleasesBudget() {
+    when(gifDecoder.getFrameCount()).thenReturn(2);
+    when(gifDecoder.getCurrentFrameIndex()).thenReturn(0, 1, 0);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+    DelayTarget first = completeLoad(0);
+    loader.onFrameReady(first);
+    DelayTarget second = completeLoad(1);
+    loader.onFrameReady(second);
+
+    loader.clear();
+
+    verify(requestManager).clear(first);
+    verify(requestManager).clear(second);
+    assertThat(budget.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void unsubscribe_withAllFramesInBudget_releasesFramesAndBudget() {
+    when(gifDecoder.getFrameCount()).thenReturn(2);
+    when(gifDecoder.getCurrentFrameIndex()).thenReturn(0, 1, 0);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+    DelayTarget first = completeLoad(0);
+    loader.onFrameReady(first);
+    DelayTarget second = completeLoad(1);
+    loader.onFrameReady(second);
+
+    loader.unsubscribe(callback);
+
+    verify(requestManager).clear(first);
+    verify(requestManager, never()).clear(second);
+    assertThat(budget.getCurrentSize()).isEqualTo(0);
+  }
+
+  @Test
+  public void getSize_includesFramesReservedWhileRunning() {
+    when(gifDecoder.getFrameCount()).thenReturn(2);
+    when(gifDecoder.getByteSize()).thenReturn(100);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+    int frameSize = Util.getBitmapByteSize(firstFrame);
+
+    assertThat(loader.getSize()).isEqualTo(100 + 3 * frameSize);
+
+    loader.unsubscribe(callback);
+
+    assertThat(loader.getSize()).isEqualTo(100 + frameSize);
+  }
+
+  @Test
+  public void onFrameLoaded_withLookAheadInBudget_loadsFramesBeforeTheyAreShown() {
+    when(gifDecoder.getFrameCount()).thenReturn(100);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setLookAheadFrameCount(3);
+    budget.setMaxSize(2 * Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+
+    loader.onFrameLoaded(completeLoad(0));
+    loader.onFrameLoaded(completeLoad(1));
+    DelayTarget third = completeLoad(2);
+    loader.onFrameLoaded(third);
+
+    verify(requestBuilder, times(3)).into(aTarget());
+    assertThat(budget.getCurrentSize()).isEqualTo(2 * Util.getBitmapByteSize(firstFrame));
+  }
+
+  @Test
+  public void onFrameReady_withLookAheadQueueFull_loadsNextFrame() {
+    when(gifDecoder.getFrameCount()).thenReturn(100);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setLookAheadFrameCount(2);
+    budget.setMaxSize(Util.getBitmapByteSize(firstFrame));
+    loader = createGifFrameLoader(budget);
+    DelayTarget first = completeLoad(0);
+    loader.onFrameLoaded(first);
+    loader.onFrameLoaded(completeLoad(1));
+    verify(requestBuilder, times(2)).into(aTarget());
+
+    loader.onFrameReady(first);
+
+    verify(requestBuilder, times(3)).into(aTarget());
+  }
+
+  @Test
+  public void onFrameLoaded_withoutBudget_waitsForFrameToBeShown() {
+    when(gifDecoder.getFrameCount()).thenReturn(100);
+    GifFrameCacheBudget budget = new GifFrameCacheBudget();
+    budget.setMaxSize(0);
+    loader = createGifFrameLoader(budget);
+
+    DelayTarget first = completeLoad(0);
+    loader.onFrameLoaded(first);
+    verify(requestBuilder, times(1)).into(aTarget());
+
+    loader.onFrameReady(first);
+    verify(requestBuilder, times(2)).into(aTarget());
+  }
+
+  /** Completes the most recent load, which must be the {@code index}th, with a new bitmap. */
+  private DelayTarget completeLoad(int index) {
+    ArgumentCaptor<DelayTarget> captor = ArgumentCaptor.forClass(DelayTarget.class);
+    verify(requestBuilder, times(index + 1)).into(captor.capture());
+    List<DelayTarget> targets = captor.getAllValues();
+    DelayTarget target = targets.get(targets.size() - 1);
+    target.onResourceReady(
+        Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888), null /*transition*/);
+    return target;
+  }
+
   @SuppressWarnings("unchecked")
   private static Target<Bitmap> aTarget() {
     return isA(Target.class);
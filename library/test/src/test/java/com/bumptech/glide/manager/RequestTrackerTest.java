@@ -7,6 +7,8 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.request.PrioritizedRequest;
 import com.bumptech.glide.request.Request;
 import org.junit.Before;
 import org.junit.Test;
@@ -382,12 +384,31 @@ public class RequestTrackerTest {
     assertThat(request.isRunning()).isTrue();
   }
 
-  private static final class FakeRequest implements Request {
+  @Test
+  public void setPriority_setsPriorityOfIncompleteRequests() {
+    FakeRequest running = new FakeRequest();
+    running.setIsRunning();
+    FakeRequest paused = new FakeRequest();
+    FakeRequest complete = new FakeRequest();
+    complete.setIsComplete();
+    tracker.addRequest(running);
+    tracker.addRequest(paused);
+    tracker.addRequest(complete);
+
+    tracker.setPriority(Priority.LOW);
+
+    assertThat(running.getPriority()).isEqualTo(Priority.LOW);
+    assertThat(paused.getPriority()).isEqualTo(Priority.LOW);
+    assertThat(complete.getPriority()).isNull();
+  }
+
+  private static final class FakeRequest implements PrioritizedRequest {
     private boolean isRunning;
     private boolean isFailed;
     private boolean isCleared;
     private boolean isComplete;
     private boolean isRecycled;
+    private Priority priority;
 
     void setIsComplete() {
       setIsComplete(true);
@@ -409,6 +430,10 @@ public class RequestTrackerTest {
       return isRecycled;
     }
 
+    Priority getPriority() {
+      return priority;
+    }
+
     @Override
     public void begin() {
       if (isRunning) {
@@ -452,6 +477,11 @@ public class RequestTrackerTest {
       return isFailed;
     }
 
+    @Override
+    public void setPriority(Priority priority) {
+      this.priority = priority;
+    }
+
     @Override
     public void recycle() {
       if (isRecycled) {
@@ -0,0 +1,71 @@
+package com.bumptech.glide.provider;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MultiClassCacheTest {
+  private static final Class<?>[] CLASSES = {
+      Object.class, String.class, Integer.class, Long.class, Float.class, Double.class,
+      Byte.class, Short.class, Character.class, Boolean.class,
+  };
+
+  private final MultiClassCache<String> cache = new MultiClassCache<>();
+
+  @Test
+  public void get_withEmptyCache_returnsNull() {
+    assertThat(cache.get(Object.class, String.class, Integer.class)).isNull();
+  }
+
+  @Test
+  public void get_afterPut_returnsValue() {
+    cache.put(Object.class, String.class, Integer.class, "value");
+
+    assertThat(cache.get(Object.class, String.class, Integer.class)).isEqualTo("value");
+  }
+
+  @Test
+  public void get_withClassesInDifferentOrder_returnsNull() {
+    cache.put(Object.class, String.class, Integer.class, "value");
+
+    assertThat(cache.get(Integer.class, String.class, Object.class)).isNull();
+    assertThat(cache.get(Object.class, Integer.class, String.class)).isNull();
+  }
+
+  @Test
+  public void put_withExistingClasses_replacesValue() {
+    cache.put(Object.class, String.class, Integer.class, "first");
+
+    cache.put(Object.class, String.class, Integer.class, "second");
+
+    assertThat(cache.get(Object.class, String.class, Integer.class)).isEqualTo("second");
+  }
+
+  @Test
+  public void put_withManyEntries_keepsAllEntries() {
+    for (Class<?> first : CLASSES) {
+      for (Class<?> second : CLASSES) {
+        cache.put(first, second, Object.class, first.getName() + second.getName());
+      }
+    }
+
+    for (Class<?> first : CLASSES) {
+      for (Class<?> second : CLASSES) {
+        assertThat(cache.get(first, second, Object.class))
+            .isEqualTo(first.getName() + second.getName());
+      }
+    }
+  }
+
+  @Test
+  public void clear_removesEntries() {
+    cache.put(Object.class, String.class, Integer.class, "value");
+
+    cache.clear();
+
+    assertThat(cache.get(Object.class, String.class, Integer.class)).isNull();
+  }
+}
@@ -10,6 +10,7 @@ import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.isA;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -17,6 +18,7 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.graphics.drawable.Drawable;
@@ -31,9 +33,11 @@ import com.bumptech.glide.load.Transformation;
 import com.bumptech.glide.load.engine.DiskCacheStrategy;
 import com.bumptech.glide.load.engine.Engine;
 import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.load.engine.ProgressivePasses;
 import com.bumptech.glide.load.engine.Resource;
 import com.bumptech.glide.request.target.SizeReadyCallback;
 import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.transition.NoTransition;
 import com.bumptech.glide.request.transition.Transition;
 import com.bumptech.glide.request.transition.TransitionFactory;
 import com.bumptech.glide.signature.ObjectKey;
@@ -643,6 +647,88 @@ public class SingleRequestTest {
     verify(builder.target).onResourceReady(eq(builder.result), eq(transition));
   }
 
+  @Test
+  public void onPassReady_whileRunning_setsPassOnTargetWithoutTransition() {
+    Target<Bitmap> target = mockBitmapTarget();
+    SingleRequest<Bitmap> request = buildBitmapRequest(target, NoTransition.<Bitmap>getFactory());
+    Resource<Bitmap> passResource = mockBitmapResource();
+
+    request.onPassReady(ProgressivePasses.newPass(passResource, 0));
+
+    verify(target).onResourceReady(eq(passResource.get()), nullTransition());
+    verify(passResource, never()).recycle();
+  }
+
+  @Test
+  public void onPassReady_withPreviousPass_releasesPreviousPass() {
+    SingleRequest<Bitmap> request =
+        buildBitmapRequest(mockBitmapTarget(), NoTransition.<Bitmap>getFactory());
+    Resource<Bitmap> first = mockBitmapResource();
+    Resource<Bitmap> second = mockBitmapResource();
+
+    request.onPassReady(ProgressivePasses.newPass(first, 0));
+    request.onPassReady(ProgressivePasses.newPass(second, 1));
+
+    verify(first).recycle();
+    verify(second, never()).recycle();
+  }
+
+  @Test
+  public void onPassReady_withTranscodeClassThatCantHoldBitmap_releasesPass() {
+    SingleRequest<List> request = builder.setOverrideWidth(100).setOverrideHeight(100).build();
+    request.begin();
+    Resource<Bitmap> passResource = mockBitmapResource();
+
+    request.onPassReady(ProgressivePasses.newPass(passResource, 0));
+
+    verify(builder.target, never()).onResourceReady(any(List.class), anyTransition());
+    verify(passResource).recycle();
+  }
+
+  @Test
+  public void onResourceReady_withTransition_keepsPassUntilCleared() {
+    @SuppressWarnings("unchecked")
+    TransitionFactory<Bitmap> transitionFactory = mock(TransitionFactory.class);
+    Transition<Bitmap> transition = mockTransition();
+    when(transitionFactory.build(any(DataSource.class), anyBoolean())).thenReturn(transition);
+    SingleRequest<Bitmap> request = buildBitmapRequest(mockBitmapTarget(), transitionFactory);
+    Resource<Bitmap> passResource = mockBitmapResource();
+    request.onPassReady(ProgressivePasses.newPass(passResource, 0));
+
+    // The target may cross fade from the pass to the resource.
+    request.onResourceReady(mockBitmapResource(), DataSource.REMOTE);
+    verify(passResource, never()).recycle();
+
+    request.clear();
+    verify(passResource).recycle();
+  }
+
+  @Test
+  public void onResourceReady_withoutTransition_releasesPass() {
+    SingleRequest<Bitmap> request =
+        buildBitmapRequest(mockBitmapTarget(), NoTransition.<Bitmap>getFactory());
+    Resource<Bitmap> passResource = mockBitmapResource();
+    request.onPassReady(ProgressivePasses.newPass(passResource, 0));
+
+    request.onResourceReady(mockBitmapResource(), DataSource.REMOTE);
+
+    verify(passResource).recycle();
+  }
+
+  @Test
+  public void onLoadFailed_withPass_keepsPassUntilCleared() {
+    SingleRequest<Bitmap> request =
+        buildBitmapRequest(mockBitmapTarget(), NoTransition.<Bitmap>getFactory());
+    Resource<Bitmap> passResource = mockBitmapResource();
+    request.onPassReady(ProgressivePasses.newPass(passResource, 0));
+
+    request.onLoadFailed(new GlideException("test"));
+    verify(passResource, never()).recycle();
+
+    request.clear();
+    verify(passResource).recycle();
+  }
+
   @Test
   public void testCallsGetSizeIfOverrideWidthIsLessThanZero() {
     SingleRequest<List> request = builder
@@ -1027,6 +1113,40 @@ public class SingleRequestTest {
     }
   }
 
+  // Builds a running request whose passes can be set on its target.
+  private SingleRequest<Bitmap> buildBitmapRequest(
+      Target<Bitmap> target, TransitionFactory<Bitmap> transitionFactory) {
+    SingleRequest<Bitmap> request = SingleRequest.obtain(
+        /*context=*/ builder.glideContext,
+        /*glideContext=*/ builder.glideContext,
+        builder.model,
+        Bitmap.class,
+        new RequestOptions(),
+        /*overrideWidth=*/ 100,
+        /*overrideHeight=*/ 100,
+        Priority.NORMAL,
+        target,
+        /*targetListener=*/ null,
+        /*requestListeners=*/ null,
+        builder.requestCoordinator,
+        builder.engine,
+        transitionFactory,
+        Executors.directExecutor());
+    request.begin();
+    return request;
+  }
+
+  private static Resource<Bitmap> mockBitmapResource() {
+    Resource<Bitmap> resource = mockResource();
+    when(resource.get()).thenReturn(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+    return resource;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Target<Bitmap> mockBitmapTarget() {
+    return mock(Target.class);
+  }
+
   // TODO do we want to move these to Util?
   @SuppressWarnings("unchecked")
   private static <T> Transition<T> mockTransition() {
@@ -1047,6 +1167,11 @@ public class SingleRequestTest {
     return any(Transition.class);
   }
 
+  @SuppressWarnings("unchecked")
+  private static <T> Transition<T> nullTransition() {
+    return (Transition<T>) isNull();
+  }
+
   private static Executor anyExecutor() {
     return any(Executor.class);
   }
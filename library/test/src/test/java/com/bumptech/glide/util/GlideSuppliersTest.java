@@ -0,0 +1,57 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.support.annotation.NonNull;
+import com.bumptech.glide.util.GlideSuppliers.GlideSupplier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class GlideSuppliersTest {
+
+  @Test
+  public void memorize_doesNotCallSupplierUntilFirstGet() {
+    CountingSupplier supplier = new CountingSupplier();
+
+    GlideSuppliers.memorize(supplier);
+
+    assertThat(supplier.count).isEqualTo(0);
+  }
+
+  @Test
+  public void memorize_callsSupplierOnce_andReturnsSameValue() {
+    CountingSupplier supplier = new CountingSupplier();
+    GlideSupplier<Object> memorized = GlideSuppliers.memorize(supplier);
+
+    Object first = memorized.get();
+    Object second = memorized.get();
+
+    assertThat(second).isSameAs(first);
+    assertThat(supplier.count).isEqualTo(1);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void memorize_withSupplierReturningNull_throws() {
+    GlideSuppliers.memorize(new GlideSupplier<Object>() {
+      @SuppressWarnings("ConstantConditions")
+      @NonNull
+      @Override
+      public Object get() {
+        return null;
+      }
+    }).get();
+  }
+
+  private static final class CountingSupplier implements GlideSupplier<Object> {
+    private int count;
+
+    @NonNull
+    @Override
+    public Object get() {
+      count++;
+      return new Object();
+    }
+  }
+}
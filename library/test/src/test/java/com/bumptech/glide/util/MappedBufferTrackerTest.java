@@ -0,0 +1,123 @@
+package com.bumptech.glide.util;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE, sdk = 18)
+public class MappedBufferTrackerTest {
+  private static final int FILE_SIZE = 100;
+
+  private final MappedBufferTracker tracker = MappedBufferTracker.getInstance();
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = new File(RuntimeEnvironment.application.getCacheDir(), "mapped");
+    FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(new byte[FILE_SIZE]);
+    } finally {
+      os.close();
+    }
+  }
+
+  @After
+  public void tearDown() {
+    tracker.setMaxSize(Long.MAX_VALUE);
+    // Ignore the result, it's fine if the file was never created.
+    //noinspection ResultOfMethodCallIgnored
+    file.delete();
+  }
+
+  @Test
+  public void mapFile_tracksBuffer() throws IOException {
+    long initialSize = tracker.getCurrentSize();
+
+    ByteBuffer buffer = ByteBufferUtil.mapFile(file);
+
+    assertThat(buffer.remaining()).isEqualTo(FILE_SIZE);
+    assertThat(tracker.isTracked(buffer)).isTrue();
+    assertThat(tracker.getCurrentSize()).isEqualTo(initialSize + FILE_SIZE);
+    tracker.release(buffer);
+  }
+
+  @Test
+  public void fromFile_doesNotTrackBuffer() throws IOException {
+    ByteBuffer buffer = ByteBufferUtil.fromFile(file);
+
+    assertThat(tracker.isTracked(buffer)).isFalse();
+  }
+
+  @Test
+  public void release_removesBufferFromBudget() throws IOException {
+    long initialSize = tracker.getCurrentSize();
+    ByteBuffer buffer = ByteBufferUtil.mapFile(file);
+
+    tracker.release(buffer);
+
+    assertThat(tracker.isTracked(buffer)).isFalse();
+    assertThat(tracker.getCurrentSize()).isEqualTo(initialSize);
+  }
+
+  @Test
+  public void release_afterRetain_keepsBufferUntilLastRelease() throws IOException {
+    ByteBuffer buffer = ByteBufferUtil.mapFile(file);
+    assertThat(tracker.retain(buffer)).isTrue();
+
+    tracker.release(buffer);
+    assertThat(tracker.isTracked(buffer)).isTrue();
+
+    tracker.release(buffer);
+    assertThat(tracker.isTracked(buffer)).isFalse();
+  }
+
+  @Test
+  public void retain_withUntrackedBuffer_returnsFalse() {
+    ByteBuffer buffer = ByteBuffer.allocate(FILE_SIZE);
+
+    assertThat(tracker.retain(buffer)).isFalse();
+    tracker.release(buffer);
+    assertThat(tracker.isTracked(buffer)).isFalse();
+  }
+
+  @Test
+  public void mapFile_overBudget_throwsAndDoesNotReserveBytes() {
+    long initialSize = tracker.getCurrentSize();
+    tracker.setMaxSize(initialSize + FILE_SIZE - 1);
+
+    try {
+      ByteBufferUtil.mapFile(file);
+      fail("Expected an IOException");
+    } catch (IOException expected) {
+      // Expected.
+    }
+    assertThat(tracker.getCurrentSize()).isEqualTo(initialSize);
+  }
+
+  @Test
+  public void mapFile_withMissingFile_doesNotReserveBytes() {
+    long initialSize = tracker.getCurrentSize();
+    File missing = new File(RuntimeEnvironment.application.getCacheDir(), "missing");
+
+    try {
+      ByteBufferUtil.mapFile(missing);
+      fail("Expected an IOException");
+    } catch (IOException expected) {
+      // Expected.
+    }
+    assertThat(tracker.getCurrentSize()).isEqualTo(initialSize);
+  }
+}
@@ -16,8 +16,12 @@
 
 package com.bumptech.glide.disklrucache;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
@@ -94,6 +98,13 @@ public final class DiskLruCache implements Closeable {
   private static final String DIRTY = "DIRTY";
   private static final String REMOVE = "REMOVE";
   private static final String READ = "READ";
+  static final int BINARY_MAGIC = 0x474c4442;
+  static final int BINARY_VERSION_1 = 1;
+  private static final int BINARY_CLEAN = 1;
+  private static final int BINARY_DIRTY = 2;
+  private static final int BINARY_REMOVE = 3;
+  private static final int BINARY_READ = 4;
+  private static final int MAX_BINARY_KEY_LENGTH = 255;
 
     /*
      * This cache uses a journal file named "journal". A typical journal file
@@ -133,6 +144,14 @@ public final class DiskLruCache implements Closeable {
      * occasionally be compacted by dropping redundant lines. A temporary file named
      * "journal.tmp" will be used during compaction; that file should be deleted if
      * it exists when the cache is opened.
+     *
+     * Caches opened with a binary journal use the same files and records, but
+     * encode them more compactly. The header is the int 0x474c4442, the int
+     * journal version, the int application version and the int value count.
+     * Each record is a one byte state (1 for CLEAN, 2 for DIRTY, 3 for REMOVE
+     * and 4 for READ), a one byte key length, the key as ASCII bytes, and for
+     * CLEAN records the long length of each value. A record that's cut short at
+     * the end of the journal is dropped.
      */
 
   private final File directory;
@@ -142,11 +161,13 @@ public final class DiskLruCache implements Closeable {
   private final int appVersion;
   private long maxSize;
   private final int valueCount;
+  private final boolean useBinaryJournal;
   private long size = 0;
-  private Writer journalWriter;
+  private JournalWriter journalWriter;
   private final LinkedHashMap<String, Entry> lruEntries =
       new LinkedHashMap<String, Entry>(0, 0.75f, true);
   private int redundantOpCount;
+  private EvictionListener evictionListener;
 
   /**
    * To differentiate between old and current snapshots, each entry is given
@@ -175,7 +196,8 @@ public final class DiskLruCache implements Closeable {
     }
   };
 
-  private DiskLruCache(File directory, int appVersion, int valueCount, long maxSize) {
+  private DiskLruCache(File directory, int appVersion, int valueCount, long maxSize,
+      boolean useBinaryJournal) {
     this.directory = directory;
     this.appVersion = appVersion;
     this.journalFile = new File(directory, JOURNAL_FILE);
@@ -183,6 +205,7 @@ public final class DiskLruCache implements Closeable {
     this.journalFileBackup = new File(directory, JOURNAL_FILE_BACKUP);
     this.valueCount = valueCount;
     this.maxSize = maxSize;
+    this.useBinaryJournal = useBinaryJournal;
   }
 
   /**
@@ -196,6 +219,26 @@ public final class DiskLruCache implements Closeable {
    */
   public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize)
       throws IOException {
+    return open(directory, appVersion, valueCount, maxSize, false /*useBinaryJournal*/);
+  }
+
+  /**
+   * Opens the cache in {@code directory}, creating a cache if none exists
+   * there.
+   *
+   * <p>A binary journal is smaller and cheaper to append to and to rebuild
+   * than the text journal. A cache that was written with the other kind of
+   * journal is treated as corrupt and deleted.
+   *
+   * @param directory a writable directory
+   * @param valueCount the number of values per cache entry. Must be positive.
+   * @param maxSize the maximum number of bytes this cache should use to store
+   * @param useBinaryJournal true to use a binary journal, false to use a text
+   *     journal
+   * @throws IOException if reading or writing the cache directory fails
+   */
+  public static DiskLruCache open(File directory, int appVersion, int valueCount, long maxSize,
+      boolean useBinaryJournal) throws IOException {
     if (maxSize <= 0) {
       throw new IllegalArgumentException("maxSize <= 0");
     }
@@ -216,7 +259,8 @@ public final class DiskLruCache implements Closeable {
     }
 
     // Prefer to pick up where we left off.
-    DiskLruCache cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
+    DiskLruCache cache =
+        new DiskLruCache(directory, appVersion, valueCount, maxSize, useBinaryJournal);
     if (cache.journalFile.exists()) {
       try {
         cache.readJournal();
@@ -235,12 +279,16 @@ public final class DiskLruCache implements Closeable {
 
     // Create a new empty cache.
     directory.mkdirs();
-    cache = new DiskLruCache(directory, appVersion, valueCount, maxSize);
+    cache = new DiskLruCache(directory, appVersion, valueCount, maxSize, useBinaryJournal);
     cache.rebuildJournal();
     return cache;
   }
 
   private void readJournal() throws IOException {
+    if (useBinaryJournal) {
+      readBinaryJournal();
+      return;
+    }
     StrictLineReader reader = new StrictLineReader(new FileInputStream(journalFile), Util.US_ASCII);
     try {
       String magic = reader.readLine();
@@ -272,14 +320,91 @@ public final class DiskLruCache implements Closeable {
       if (reader.hasUnterminatedLine()) {
         rebuildJournal();
       } else {
-        journalWriter = new BufferedWriter(new OutputStreamWriter(
-            new FileOutputStream(journalFile, true), Util.US_ASCII));
+        journalWriter = newJournalWriter(journalFile, true /*append*/);
       }
     } finally {
       Util.closeQuietly(reader);
     }
   }
 
+  private void readBinaryJournal() throws IOException {
+    DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+    try {
+      int magic = in.readInt();
+      int version = in.readInt();
+      int appVersionInt = in.readInt();
+      int valueCountInt = in.readInt();
+      if (magic != BINARY_MAGIC
+          || version != BINARY_VERSION_1
+          || appVersionInt != appVersion
+          || valueCountInt != valueCount) {
+        throw new IOException("unexpected journal header: [" + magic + ", " + version + ", "
+            + appVersionInt + ", " + valueCountInt + "]");
+      }
+
+      int recordCount = 0;
+      boolean isTruncated = false;
+      int state;
+      while ((state = in.read()) != -1) {
+        try {
+          readBinaryJournalRecord(state, in);
+        } catch (EOFException truncatedRecord) {
+          isTruncated = true;
+          break;
+        }
+        recordCount++;
+      }
+      redundantOpCount = recordCount - lruEntries.size();
+
+      // If we ended on a truncated record, rebuild the journal before appending to it.
+      if (isTruncated) {
+        rebuildJournal();
+      } else {
+        journalWriter = newJournalWriter(journalFile, true /*append*/);
+      }
+    } finally {
+      Util.closeQuietly(in);
+    }
+  }
+
+  private void readBinaryJournalRecord(int state, DataInputStream in) throws IOException {
+    byte[] keyBytes = new byte[in.readUnsignedByte()];
+    in.readFully(keyBytes);
+    String key = new String(keyBytes, Util.US_ASCII);
+    long[] lengths = null;
+    if (state == BINARY_CLEAN) {
+      // Read the whole record before changing any entry so that a record truncated at the end of
+      // the journal leaves the entries as they were.
+      lengths = new long[valueCount];
+      for (int i = 0; i < valueCount; i++) {
+        lengths[i] = in.readLong();
+      }
+    } else if (state != BINARY_REMOVE && state != BINARY_DIRTY && state != BINARY_READ) {
+      throw new IOException("unexpected journal record: " + state + " " + key);
+    }
+
+    if (state == BINARY_REMOVE) {
+      lruEntries.remove(key);
+      return;
+    }
+
+    Entry entry = lruEntries.get(key);
+    if (entry == null) {
+      entry = new Entry(key);
+      lruEntries.put(key, entry);
+    }
+
+    if (lengths != null) {
+      System.arraycopy(lengths, 0, entry.lengths, 0, valueCount);
+      entry.readable = true;
+      entry.currentEditor = null;
+    } else if (state == BINARY_DIRTY) {
+      entry.currentEditor = new Editor(entry);
+    }
+    // READ records were already handled by calling lruEntries.get().
+  }
+
   private void readJournalLine(String line) throws IOException {
     int firstSpace = line.indexOf(' ');
     if (firstSpace == -1) {
@@ -351,24 +476,15 @@ public final class DiskLruCache implements Closeable {
       journalWriter.close();
     }
 
-    Writer writer = new BufferedWriter(
-        new OutputStreamWriter(new FileOutputStream(journalFileTmp), Util.US_ASCII));
+    JournalWriter writer = newJournalWriter(journalFileTmp, false /*append*/);
     try {
-      writer.write(MAGIC);
-      writer.write("\n");
-      writer.write(VERSION_1);
-      writer.write("\n");
-      writer.write(Integer.toString(appVersion));
-      writer.write("\n");
-      writer.write(Integer.toString(valueCount));
-      writer.write("\n");
-      writer.write("\n");
+      writer.writeHeader();
 
       for (Entry entry : lruEntries.values()) {
         if (entry.currentEditor != null) {
-          writer.write(DIRTY + ' ' + entry.key + '\n');
+          writer.writeDirty(entry.key);
         } else {
-          writer.write(CLEAN + ' ' + entry.key + entry.getLengths() + '\n');
+          writer.writeClean(entry);
         }
       }
     } finally {
@@ -381,8 +497,12 @@ public final class DiskLruCache implements Closeable {
     renameTo(journalFileTmp, journalFile, false);
     journalFileBackup.delete();
 
-    journalWriter = new BufferedWriter(
-        new OutputStreamWriter(new FileOutputStream(journalFile, true), Util.US_ASCII));
+    journalWriter = newJournalWriter(journalFile, true /*append*/);
+  }
+
+  private JournalWriter newJournalWriter(File file, boolean append) throws IOException {
+    return useBinaryJournal
+        ? new BinaryJournalWriter(file, append) : new TextJournalWriter(file, append);
   }
 
   private static void deleteIfExists(File file) throws IOException {
@@ -424,10 +544,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     redundantOpCount++;
-    journalWriter.append(READ);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    journalWriter.writeRead(key);
     if (journalRebuildRequired()) {
       executorService.submit(cleanupCallable);
     }
@@ -445,6 +562,9 @@ public final class DiskLruCache implements Closeable {
 
   private synchronized Editor edit(String key, long expectedSequenceNumber) throws IOException {
     checkNotClosed();
+    if (useBinaryJournal && key.length() > MAX_BINARY_KEY_LENGTH) {
+      throw new IllegalArgumentException("key is too long for a binary journal: " + key);
+    }
     Entry entry = lruEntries.get(key);
     if (expectedSequenceNumber != ANY_SEQUENCE_NUMBER && (entry == null
         || entry.sequenceNumber != expectedSequenceNumber)) {
@@ -461,10 +581,7 @@ public final class DiskLruCache implements Closeable {
     entry.currentEditor = editor;
 
     // Flush the journal before creating files to prevent file leaks.
-    journalWriter.append(DIRTY);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    journalWriter.writeDirty(key);
     journalWriter.flush();
     return editor;
   }
@@ -500,6 +617,29 @@ public final class DiskLruCache implements Closeable {
     return size;
   }
 
+  /**
+   * Returns the number of entries whose keys have {@code keyLength}
+   * characters.
+   */
+  public synchronized int getKeyCount(int keyLength) {
+    int result = 0;
+    for (String key : lruEntries.keySet()) {
+      if (key.length() == keyLength) {
+        result++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sets the listener that's told about entries evicted to keep this cache
+   * within its max size, or null to stop telling any listener. Entries removed
+   * with {@link #remove(String)} aren't reported.
+   */
+  public synchronized void setEvictionListener(EvictionListener evictionListener) {
+    this.evictionListener = evictionListener;
+  }
+
   private synchronized void completeEdit(Editor editor, boolean success) throws IOException {
     Entry entry = editor.entry;
     if (entry.currentEditor != editor) {
@@ -540,21 +680,14 @@ public final class DiskLruCache implements Closeable {
     entry.currentEditor = null;
     if (entry.readable | success) {
       entry.readable = true;
-      journalWriter.append(CLEAN);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append(entry.getLengths());
-      journalWriter.append('\n');
+      journalWriter.writeClean(entry);
 
       if (success) {
         entry.sequenceNumber = nextSequenceNumber++;
       }
     } else {
       lruEntries.remove(entry.key);
-      journalWriter.append(REMOVE);
-      journalWriter.append(' ');
-      journalWriter.append(entry.key);
-      journalWriter.append('\n');
+      journalWriter.writeRemove(entry.key);
     }
     journalWriter.flush();
 
@@ -596,10 +729,7 @@ public final class DiskLruCache implements Closeable {
     }
 
     redundantOpCount++;
-    journalWriter.append(REMOVE);
-    journalWriter.append(' ');
-    journalWriter.append(key);
-    journalWriter.append('\n');
+    journalWriter.writeRemove(key);
 
     lruEntries.remove(key);
 
@@ -646,7 +776,10 @@ public final class DiskLruCache implements Closeable {
   private void trimToSize() throws IOException {
     while (size > maxSize) {
       Map.Entry<String, Entry> toEvict = lruEntries.entrySet().iterator().next();
-      remove(toEvict.getKey());
+      String key = toEvict.getKey();
+      if (remove(key) && evictionListener != null) {
+        evictionListener.onEvicted(key);
+      }
     }
   }
 
@@ -665,6 +798,15 @@ public final class DiskLruCache implements Closeable {
   }
 
   /** A snapshot of the values for an entry. */
+  /** Told about entries evicted to keep a cache within its max size. */
+  public interface EvictionListener {
+    /**
+     * Called with the key of each evicted entry while the cache is locked, so
+     * it must not call back into the cache.
+     */
+    void onEvicted(String key);
+  }
+
   public final class Value {
     private final String key;
     private final long sequenceNumber;
@@ -875,6 +1017,143 @@ public final class DiskLruCache implements Closeable {
     }
   }
 
+  /** Appends records to a journal file. */
+  private abstract static class JournalWriter implements Closeable {
+    abstract void writeHeader() throws IOException;
+
+    abstract void writeClean(Entry entry) throws IOException;
+
+    abstract void writeDirty(String key) throws IOException;
+
+    abstract void writeRemove(String key) throws IOException;
+
+    abstract void writeRead(String key) throws IOException;
+
+    abstract void flush() throws IOException;
+  }
+
+  /** Writes the original line based text journal. */
+  private final class TextJournalWriter extends JournalWriter {
+    private final Writer writer;
+
+    TextJournalWriter(File file, boolean append) throws IOException {
+      writer = new BufferedWriter(
+          new OutputStreamWriter(new FileOutputStream(file, append), Util.US_ASCII));
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+      writer.write(MAGIC);
+      writer.write("\n");
+      writer.write(VERSION_1);
+      writer.write("\n");
+      writer.write(Integer.toString(appVersion));
+      writer.write("\n");
+      writer.write(Integer.toString(valueCount));
+      writer.write("\n");
+      writer.write("\n");
+    }
+
+    @Override
+    void writeClean(Entry entry) throws IOException {
+      writer.append(CLEAN);
+      writer.append(' ');
+      writer.append(entry.key);
+      writer.append(entry.getLengths());
+      writer.append('\n');
+    }
+
+    @Override
+    void writeDirty(String key) throws IOException {
+      writeRecord(DIRTY, key);
+    }
+
+    @Override
+    void writeRemove(String key) throws IOException {
+      writeRecord(REMOVE, key);
+    }
+
+    @Override
+    void writeRead(String key) throws IOException {
+      writeRecord(READ, key);
+    }
+
+    private void writeRecord(String state, String key) throws IOException {
+      writer.append(state);
+      writer.append(' ');
+      writer.append(key);
+      writer.append('\n');
+    }
+
+    @Override
+    void flush() throws IOException {
+      writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      writer.close();
+    }
+  }
+
+  /** Writes the compact binary journal, see the format description above. */
+  private final class BinaryJournalWriter extends JournalWriter {
+    private final DataOutputStream out;
+
+    BinaryJournalWriter(File file, boolean append) throws IOException {
+      out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(file, append)));
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+      out.writeInt(BINARY_MAGIC);
+      out.writeInt(BINARY_VERSION_1);
+      out.writeInt(appVersion);
+      out.writeInt(valueCount);
+    }
+
+    @Override
+    void writeClean(Entry entry) throws IOException {
+      writeRecord(BINARY_CLEAN, entry.key);
+      for (long length : entry.lengths) {
+        out.writeLong(length);
+      }
+    }
+
+    @Override
+    void writeDirty(String key) throws IOException {
+      writeRecord(BINARY_DIRTY, key);
+    }
+
+    @Override
+    void writeRemove(String key) throws IOException {
+      writeRecord(BINARY_REMOVE, key);
+    }
+
+    @Override
+    void writeRead(String key) throws IOException {
+      writeRecord(BINARY_READ, key);
+    }
+
+    private void writeRecord(int state, String key) throws IOException {
+      out.writeByte(state);
+      out.writeByte(key.length());
+      // Keys are ASCII, so writing each char's low byte is lossless.
+      out.writeBytes(key);
+    }
+
+    @Override
+    void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
   /**
    * A {@link java.util.concurrent.ThreadFactory} that builds a thread with a specific thread name
    * and with minimum priority.
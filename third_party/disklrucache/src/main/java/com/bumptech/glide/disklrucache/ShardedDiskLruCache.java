@@ -0,0 +1,262 @@
+package com.bumptech.glide.disklrucache;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * A cache that spreads its entries across a fixed number of independent
+ * {@link DiskLruCache} shards, chosen by the hash of each key.
+ *
+ * <p>Each shard has its own lock, journal and eviction thread, so reads and
+ * writes for keys in different shards don't wait on each other and each
+ * journal rebuild only covers a fraction of the entries. Each shard is stored
+ * in its own sub directory of the cache directory, uses a binary journal, and
+ * may use up to {@code maxSize / shardCount} bytes. Keys should be well
+ * distributed hashes so that the shards fill up evenly.
+ *
+ * <p>A cache with a single shard is stored directly in the cache directory
+ * with a text journal, exactly as {@link DiskLruCache} would store it, so that
+ * existing caches can still be read.
+ *
+ * <p>Caches with more than one shard record their shard count in a file in the
+ * cache directory. Opening a directory with a different shard count than the
+ * one it was written with deletes its contents first, so that entries stored
+ * in the previous layout don't use disk space the new cache can't see.
+ */
+public final class ShardedDiskLruCache implements Closeable {
+  static final String SHARD_DIRECTORY_PREFIX = "shard-";
+  static final String SHARD_COUNT_FILE = "shards";
+
+  private final File directory;
+  private final DiskLruCache[] shards;
+
+  private ShardedDiskLruCache(File directory, DiskLruCache[] shards) {
+    this.directory = directory;
+    this.shards = shards;
+  }
+
+  /**
+   * Opens the cache in {@code directory}, creating a cache if none exists
+   * there.
+   *
+   * @param directory a writable directory
+   * @param valueCount the number of values per cache entry. Must be positive.
+   * @param maxSize the maximum number of bytes this cache should use to store,
+   *     split evenly between the shards
+   * @param shardCount the number of shards. Must be positive.
+   * @throws IOException if reading or writing the cache directory fails
+   */
+  public static ShardedDiskLruCache open(File directory, int appVersion, int valueCount,
+      long maxSize, int shardCount) throws IOException {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("shardCount <= 0");
+    }
+    if (readShardCount(directory) != shardCount) {
+      if (directory.exists()) {
+        Util.deleteContents(directory);
+      }
+      if (shardCount > 1) {
+        writeShardCount(directory, shardCount);
+      }
+    }
+    if (shardCount == 1) {
+      return new ShardedDiskLruCache(directory,
+          new DiskLruCache[] {DiskLruCache.open(directory, appVersion, valueCount, maxSize)});
+    }
+
+    long shardMaxSize = Math.max(1, maxSize / shardCount);
+    DiskLruCache[] shards = new DiskLruCache[shardCount];
+    try {
+      for (int i = 0; i < shardCount; i++) {
+        shards[i] = DiskLruCache.open(getShardDirectory(directory, i), appVersion, valueCount,
+            shardMaxSize, true /*useBinaryJournal*/);
+      }
+    } catch (IOException e) {
+      closeQuietly(shards);
+      throw e;
+    }
+    return new ShardedDiskLruCache(directory, shards);
+  }
+
+  /**
+   * Returns the shard count recorded in {@code directory}, or 1 if none is
+   * recorded, which is the case for caches written by {@link DiskLruCache}.
+   */
+  private static int readShardCount(File directory) {
+    File file = new File(directory, SHARD_COUNT_FILE);
+    if (!file.exists()) {
+      return 1;
+    }
+    try {
+      String contents = Util.readFully(
+          new InputStreamReader(new FileInputStream(file), Util.US_ASCII));
+      return Integer.parseInt(contents.trim());
+    } catch (IOException e) {
+      return -1;
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static void writeShardCount(File directory, int shardCount) throws IOException {
+    if (!directory.exists() && !directory.mkdirs()) {
+      throw new IOException("failed to create directory: " + directory);
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(
+        new FileOutputStream(new File(directory, SHARD_COUNT_FILE)), Util.US_ASCII));
+    try {
+      writer.write(Integer.toString(shardCount));
+      writer.write("\n");
+    } finally {
+      writer.close();
+    }
+  }
+
+  static File getShardDirectory(File directory, int index) {
+    return new File(directory, SHARD_DIRECTORY_PREFIX + index);
+  }
+
+  /** Returns the shard that stores the entry named {@code key}. */
+  public DiskLruCache getShard(String key) {
+    if (shards.length == 1) {
+      return shards[0];
+    }
+    return shards[(key.hashCode() & Integer.MAX_VALUE) % shards.length];
+  }
+
+  /** Returns the number of shards in this cache. */
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /**
+   * Returns a snapshot of the entry named {@code key}, or null if it doesn't
+   * exist or is not currently readable.
+   *
+   * @see DiskLruCache#get(String)
+   */
+  public DiskLruCache.Value get(String key) throws IOException {
+    return getShard(key).get(key);
+  }
+
+  /**
+   * Returns an editor for the entry named {@code key}, or null if another
+   * edit is in progress.
+   *
+   * @see DiskLruCache#edit(String)
+   */
+  public DiskLruCache.Editor edit(String key) throws IOException {
+    return getShard(key).edit(key);
+  }
+
+  /**
+   * Drops the entry for {@code key} if it exists and can be removed.
+   *
+   * @return true if an entry was removed.
+   * @see DiskLruCache#remove(String)
+   */
+  public boolean remove(String key) throws IOException {
+    return getShard(key).remove(key);
+  }
+
+  /** Returns the directory where this cache stores its data. */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /** Returns the maximum number of bytes that all shards together should use. */
+  public long getMaxSize() {
+    long result = 0;
+    for (DiskLruCache shard : shards) {
+      result += shard.getMaxSize();
+    }
+    return result;
+  }
+
+  /** Returns the number of bytes currently being used by all shards together. */
+  public long size() {
+    long result = 0;
+    for (DiskLruCache shard : shards) {
+      result += shard.size();
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of entries in all shards whose keys have
+   * {@code keyLength} characters.
+   *
+   * @see DiskLruCache#getKeyCount(int)
+   */
+  public int getKeyCount(int keyLength) {
+    int result = 0;
+    for (DiskLruCache shard : shards) {
+      result += shard.getKeyCount(keyLength);
+    }
+    return result;
+  }
+
+  /**
+   * Sets the listener that's told about entries evicted from any shard.
+   *
+   * @see DiskLruCache#setEvictionListener(DiskLruCache.EvictionListener)
+   */
+  public void setEvictionListener(DiskLruCache.EvictionListener evictionListener) {
+    for (DiskLruCache shard : shards) {
+      shard.setEvictionListener(evictionListener);
+    }
+  }
+
+  /** Returns true if this cache has been closed. */
+  public boolean isClosed() {
+    return shards[0].isClosed();
+  }
+
+  /** Force buffered operations to the filesystem. */
+  public void flush() throws IOException {
+    for (DiskLruCache shard : shards) {
+      shard.flush();
+    }
+  }
+
+  /** Closes every shard. Stored values will remain on the filesystem. */
+  @Override
+  public void close() throws IOException {
+    IOException firstFailure = null;
+    for (DiskLruCache shard : shards) {
+      try {
+        shard.close();
+      } catch (IOException e) {
+        if (firstFailure == null) {
+          firstFailure = e;
+        }
+      }
+    }
+    if (firstFailure != null) {
+      throw firstFailure;
+    }
+  }
+
+  /**
+   * Closes the cache and deletes all of its stored values. This will delete
+   * all files in the cache directory including files that weren't created by
+   * the cache.
+   */
+  public void delete() throws IOException {
+    close();
+    Util.deleteContents(directory);
+  }
+
+  private static void closeQuietly(DiskLruCache[] shards) {
+    for (DiskLruCache shard : shards) {
+      Util.closeQuietly(shard);
+    }
+  }
+}
@@ -40,6 +40,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
@@ -415,6 +416,38 @@ public final class DiskLruCacheTest {
     assertValue("e", "eeee", "eeee");
   }
 
+  @Test public void evictOnInsert_tellsEvictionListener() throws Exception {
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, 10);
+    final List<String> evicted = new ArrayList<String>();
+    cache.setEvictionListener(new DiskLruCache.EvictionListener() {
+      @Override public void onEvicted(String key) {
+        evicted.add(key);
+      }
+    });
+
+    set("a", "a", "aaa"); // size 4
+    set("b", "bb", "bbbb"); // size 6
+    cache.remove("b");
+    set("c", "cc", "cccc"); // size 6
+
+    // Cause the size to grow to 12 should evict 'A'.
+    set("d", "d", "d");
+    cache.flush();
+    assertThat(evicted).isEqualTo(Arrays.asList("a"));
+  }
+
+  @Test public void getKeyCount_countsKeysWithLength() throws Exception {
+    set("a", "a", "a");
+    set("bb", "b", "b");
+    set("cc", "c", "c");
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE);
+
+    assertThat(cache.getKeyCount(2)).isEqualTo(2);
+    assertThat(cache.getKeyCount(3)).isEqualTo(0);
+  }
+
   @Test public void evictOnUpdate() throws Exception {
     cache.close();
     cache = DiskLruCache.open(cacheDir, appVersion, 2, 10);
@@ -768,6 +801,90 @@ public final class DiskLruCacheTest {
     assertThat(cache.get("a")).isNull();
   }
 
+  @Test public void binaryJournal_readAndWriteEntryAcrossCacheOpenAndClose() throws Exception {
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.remove("k2");
+    cache.close();
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    assertValue("k1", "A", "B");
+    assertAbsent("k2");
+    assertThat(cache.size()).isEqualTo(2);
+  }
+
+  @Test public void binaryJournal_isSmallerThanTextJournal() throws Exception {
+    set("k1", "A", "B");
+    cache.get("k1");
+    cache.close();
+    long textJournalLength = journalFile.length();
+    FileUtils.cleanDirectory(cacheDir);
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    set("k1", "A", "B");
+    cache.get("k1");
+    cache.close();
+
+    assertThat(journalFile.length()).isLessThan(textJournalLength);
+  }
+
+  @Test public void binaryJournal_withTruncatedRecord_dropsRecord() throws Exception {
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.close();
+
+    // Cut the last CLEAN record short.
+    RandomAccessFile journal = new RandomAccessFile(journalFile, "rw");
+    journal.setLength(journal.length() - 3);
+    journal.close();
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    assertValue("k1", "A", "B");
+    assertThat(cache.get("k2")).isNull();
+  }
+
+  @Test public void binaryJournal_withTruncatedCleanRecord_leavesEntryUnchanged()
+      throws Exception {
+    cache.close();
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    set("k1", "A", "B");
+    set("k2", "C", "D");
+    cache.close();
+    // Cut the CLEAN record for k2 short so that the journal is rebuilt with a CLEAN record for k1
+    // followed by a DIRTY record for k2.
+    truncateJournal(3);
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+    cache.close();
+
+    // Drop the four byte DIRTY record for k2 and cut the CLEAN record for k1 short after its first
+    // length, leaving a CLEAN record without a DIRTY record before it.
+    truncateJournal(4 + 3);
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+
+    assertThat(cache.get("k1")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test public void binaryJournal_openedWithTextJournal_deletesCache() throws Exception {
+    set("k1", "A", "B");
+    cache.close();
+
+    cache = DiskLruCache.open(cacheDir, appVersion, 2, Integer.MAX_VALUE, true);
+
+    assertThat(cache.get("k1")).isNull();
+    assertThat(getCleanFile("k1", 0)).doesNotExist();
+  }
+
+  private void truncateJournal(int byteCount) throws Exception {
+    RandomAccessFile journal = new RandomAccessFile(journalFile, "rw");
+    journal.setLength(journal.length() - byteCount);
+    journal.close();
+  }
+
   private void assertJournalEquals(String... expectedBodyLines) throws Exception {
     List<String> expectedLines = new ArrayList<String>();
     expectedLines.add(MAGIC);
@@ -0,0 +1,187 @@
+package com.bumptech.glide.disklrucache;
+
+import static com.bumptech.glide.disklrucache.DiskLruCache.JOURNAL_FILE;
+import static org.fest.assertions.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+@RunWith(JUnit4.class)
+public final class ShardedDiskLruCacheTest {
+  private final int appVersion = 100;
+  private File cacheDir;
+  private ShardedDiskLruCache cache;
+
+  @Rule public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Before public void setUp() throws Exception {
+    cacheDir = tempDir.newFolder("ShardedDiskLruCacheTest");
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 4);
+  }
+
+  @After public void tearDown() throws Exception {
+    cache.close();
+  }
+
+  @Test public void writeAndReadEntry() throws Exception {
+    set("k1", "ABC");
+
+    assertThat(cache.get("k1").getString(0)).isEqualTo("ABC");
+    assertThat(cache.size()).isEqualTo(3);
+  }
+
+  @Test public void readEntryAcrossCacheOpenAndClose() throws Exception {
+    set("k1", "A");
+    cache.close();
+
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 4);
+
+    assertThat(cache.get("k1").getString(0)).isEqualTo("A");
+  }
+
+  @Test public void open_splitsMaxSizeBetweenShards() throws Exception {
+    assertThat(cache.getShardCount()).isEqualTo(4);
+    assertThat(cache.getMaxSize()).isEqualTo(4000);
+    for (int i = 0; i < 4; i++) {
+      assertThat(ShardedDiskLruCache.getShardDirectory(cacheDir, i)).isDirectory();
+    }
+  }
+
+  @Test public void getShard_spreadsKeysAcrossShards() throws Exception {
+    Set<DiskLruCache> usedShards = new HashSet<DiskLruCache>();
+    for (int i = 0; i < 100; i++) {
+      String key = "key" + i;
+      assertThat(cache.getShard(key)).isSameAs(cache.getShard(key));
+      usedShards.add(cache.getShard(key));
+    }
+    assertThat(usedShards).hasSize(4);
+  }
+
+  @Test public void entriesAreStoredInTheirShardDirectory() throws Exception {
+    set("k1", "A");
+
+    File shardDirectory = cache.getShard("k1").getDirectory();
+    assertThat(shardDirectory.getParentFile()).isEqualTo(cacheDir);
+    assertThat(new File(shardDirectory, "k1.0")).exists();
+  }
+
+  @Test public void remove_removesEntry() throws Exception {
+    set("k1", "A");
+
+    assertThat(cache.remove("k1")).isTrue();
+    assertThat(cache.get("k1")).isNull();
+    assertThat(cache.size()).isEqualTo(0);
+  }
+
+  @Test public void evictsWithinShard() throws Exception {
+    cache.close();
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 40, 4);
+    DiskLruCache shard = cache.getShard("a");
+    String sameShardKey = null;
+    for (int i = 0; sameShardKey == null; i++) {
+      if (cache.getShard("b" + i) == shard) {
+        sameShardKey = "b" + i;
+      }
+    }
+
+    set("a", "0123456789");
+    set(sameShardKey, "0123456789");
+    shard.flush();
+
+    assertThat(cache.get("a")).isNull();
+    assertThat(cache.get(sameShardKey)).isNotNull();
+  }
+
+  @Test public void delete_removesAllShards() throws Exception {
+    set("k1", "A");
+
+    cache.delete();
+
+    assertThat(cache.isClosed()).isTrue();
+    assertThat(cacheDir.listFiles()).isEmpty();
+  }
+
+  @Test public void singleShard_usesDiskLruCacheLayout() throws Exception {
+    cache.close();
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 1);
+    set("k1", "A");
+    cache.close();
+
+    assertThat(new File(cacheDir, JOURNAL_FILE)).exists();
+    DiskLruCache plain = DiskLruCache.open(cacheDir, appVersion, 1, 4000);
+    try {
+      assertThat(plain.get("k1").getString(0)).isEqualTo("A");
+    } finally {
+      plain.close();
+    }
+  }
+
+  @Test public void open_withDifferentShardCount_deletesPreviousLayout() throws Exception {
+    cache.close();
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 1);
+    setValues("one", 10, 300);
+    cache.close();
+    assertThat(directorySize(cacheDir)).isLessThanOrEqualTo(4000);
+
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 4);
+    assertThat(new File(cacheDir, JOURNAL_FILE)).doesNotExist();
+    assertThat(cache.get("one0")).isNull();
+    setValues("four", 10, 300);
+    cache.close();
+    assertThat(directorySize(cacheDir)).isLessThanOrEqualTo(4000);
+
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 1);
+    assertThat(ShardedDiskLruCache.getShardDirectory(cacheDir, 0)).doesNotExist();
+    assertThat(cache.get("four0")).isNull();
+    setValues("one", 10, 300);
+    cache.close();
+    assertThat(directorySize(cacheDir)).isLessThanOrEqualTo(4000);
+  }
+
+  @Test public void open_withSameShardCount_keepsEntries() throws Exception {
+    set("k1", "A");
+    cache.close();
+
+    cache = ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 4);
+
+    assertThat(cache.get("k1").getString(0)).isEqualTo("A");
+    assertThat(new File(cacheDir, ShardedDiskLruCache.SHARD_COUNT_FILE)).exists();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void open_withZeroShards_throws() throws Exception {
+    ShardedDiskLruCache.open(cacheDir, appVersion, 1, 4000, 0);
+  }
+
+  private void setValues(String keyPrefix, int count, int length) throws Exception {
+    char[] value = new char[length];
+    Arrays.fill(value, 'a');
+    for (int i = 0; i < count; i++) {
+      set(keyPrefix + i, new String(value));
+    }
+  }
+
+  private static long directorySize(File directory) {
+    long result = 0;
+    for (File file : directory.listFiles()) {
+      result += file.isDirectory() ? directorySize(file) : file.length();
+    }
+    return result;
+  }
+
+  private void set(String key, String value) throws Exception {
+    DiskLruCache.Editor editor = cache.edit(key);
+    editor.set(0, value);
+    editor.commit();
+  }
+}
@@ -97,14 +97,20 @@ public class StandardGifDecoder implements GifDecoder {
 
   private GifHeaderParser parser;
 
-  // LZW decoder working arrays.
-  private short[] prefix;
+  // LZW decoder working arrays, obtained from the BitmapProvider the first time they're needed.
+  private int[] prefix;
   private byte[] suffix;
   private byte[] pixelStack;
   private byte[] mainPixels;
   @ColorInt
   private int[] mainScratch;
 
+  // The area of mainScratch that may differ from previousImage, in downsampled coordinates.
+  private int previousImageDirtyLeft;
+  private int previousImageDirtyTop;
+  private int previousImageDirtyRight;
+  private int previousImageDirtyBottom;
+
   private int framePointer;
   private GifHeader header;
   private Bitmap previousImage;
@@ -341,6 +347,19 @@ public class StandardGifDecoder implements GifDecoder {
     if (block != null) {
       bitmapProvider.release(block);
     }
+    block = null;
+    if (prefix != null) {
+      bitmapProvider.release(prefix);
+    }
+    prefix = null;
+    if (suffix != null) {
+      bitmapProvider.release(suffix);
+    }
+    suffix = null;
+    if (pixelStack != null) {
+      bitmapProvider.release(pixelStack);
+    }
+    pixelStack = null;
   }
 
   @Override
@@ -467,10 +486,12 @@ public class StandardGifDecoder implements GifDecoder {
             dest[pointer] = c;
           }
         }
+        markPreviousImageDirty(downsampledIX, downsampledIY, downsampledIX + downsampledIW,
+            downsampledIY + downsampledIH);
       } else if (previousFrame.dispose == DISPOSAL_PREVIOUS && previousImage != null) {
-        // Start with the previous frame
-        previousImage.getPixels(dest, 0, downsampledWidth, 0, 0, downsampledWidth,
-            downsampledHeight);
+        // Start with the previous frame, which only differs from our pixels where they've been
+        // drawn on since it was saved.
+        copyPreviousImageDirtyArea(dest, true /*restore*/);
       }
     }
 
@@ -482,23 +503,82 @@ public class StandardGifDecoder implements GifDecoder {
     } else {
       copyIntoScratchFast(currentFrame);
     }
+    int downsampledIX = currentFrame.ix / sampleSize;
+    int downsampledIY = currentFrame.iy / sampleSize;
+    // Interlaced frames that are only a few lines tall may write lines below the frame.
+    int downsampledBottom = currentFrame.interlace
+        ? downsampledHeight : downsampledIY + currentFrame.ih / sampleSize;
+    markPreviousImageDirty(downsampledIX, downsampledIY,
+        downsampledIX + currentFrame.iw / sampleSize, downsampledBottom);
 
     // Copy pixels into previous image
     if (savePrevious && (currentFrame.dispose == DISPOSAL_UNSPECIFIED
         || currentFrame.dispose == DISPOSAL_NONE)) {
       if (previousImage == null) {
         previousImage = getNextBitmap();
+        // Bitmaps from the pool may contain anything, so all of our pixels need to be copied.
+        markPreviousImageDirty(0, 0, downsampledWidth, downsampledHeight);
       }
-      previousImage.setPixels(dest, 0, downsampledWidth, 0, 0, downsampledWidth,
-          downsampledHeight);
+      copyPreviousImageDirtyArea(dest, false /*restore*/);
     }
 
-    // Set pixels for current image.
+    // Set pixels for current image. Bitmaps from the pool may contain anything, so unlike
+    // previousImage every pixel has to be set, not just those that changed.
     Bitmap result = getNextBitmap();
     result.setPixels(dest, 0, downsampledWidth, 0, 0, downsampledWidth, downsampledHeight);
     return result;
   }
 
+  /**
+   * Adds the given area, which is clipped to our downsampled size, to the area of
+   * {@link #mainScratch} that may differ from {@link #previousImage}.
+   */
+  private void markPreviousImageDirty(int left, int top, int right, int bottom) {
+    int clippedLeft = Math.max(0, left);
+    int clippedTop = Math.max(0, top);
+    int clippedRight = Math.min(downsampledWidth, right);
+    int clippedBottom = Math.min(downsampledHeight, bottom);
+    if (clippedLeft >= clippedRight || clippedTop >= clippedBottom) {
+      return;
+    }
+    if (previousImageDirtyLeft >= previousImageDirtyRight
+        || previousImageDirtyTop >= previousImageDirtyBottom) {
+      previousImageDirtyLeft = clippedLeft;
+      previousImageDirtyTop = clippedTop;
+      previousImageDirtyRight = clippedRight;
+      previousImageDirtyBottom = clippedBottom;
+    } else {
+      previousImageDirtyLeft = Math.min(previousImageDirtyLeft, clippedLeft);
+      previousImageDirtyTop = Math.min(previousImageDirtyTop, clippedTop);
+      previousImageDirtyRight = Math.max(previousImageDirtyRight, clippedRight);
+      previousImageDirtyBottom = Math.max(previousImageDirtyBottom, clippedBottom);
+    }
+  }
+
+  /**
+   * Copies the area of {@link #mainScratch} that may differ from {@link #previousImage} from
+   * {@link #previousImage} into {@code dest} if {@code restore} is {@code true}, or from
+   * {@code dest} into {@link #previousImage} otherwise, after which the two are identical.
+   */
+  private void copyPreviousImageDirtyArea(int[] dest, boolean restore) {
+    int width = previousImageDirtyRight - previousImageDirtyLeft;
+    int height = previousImageDirtyBottom - previousImageDirtyTop;
+    if (width > 0 && height > 0) {
+      int offset = previousImageDirtyTop * downsampledWidth + previousImageDirtyLeft;
+      if (restore) {
+        previousImage.getPixels(dest, offset, downsampledWidth, previousImageDirtyLeft,
+            previousImageDirtyTop, width, height);
+      } else {
+        previousImage.setPixels(dest, offset, downsampledWidth, previousImageDirtyLeft,
+            previousImageDirtyTop, width, height);
+      }
+    }
+    previousImageDirtyLeft = 0;
+    previousImageDirtyTop = 0;
+    previousImageDirtyRight = 0;
+    previousImageDirtyBottom = 0;
+  }
+
   private void copyIntoScratchFast(GifFrame currentFrame) {
     int[] dest = mainScratch;
     int downsampledIH = currentFrame.ih;
@@ -706,16 +786,20 @@ public class StandardGifDecoder implements GifDecoder {
       mainPixels = bitmapProvider.obtainByteArray(npix);
     }
     byte[] mainPixels = this.mainPixels;
+    // Arrays from the BitmapProvider may contain anything. Corrupt data can make us read entries
+    // that haven't been written for this frame, so clear them once to match new arrays.
     if (prefix == null) {
-      prefix = new short[MAX_STACK_SIZE];
+      prefix = bitmapProvider.obtainIntArray(MAX_STACK_SIZE);
+      Arrays.fill(prefix, 0);
     }
-    short[] prefix = this.prefix;
+    int[] prefix = this.prefix;
     if (suffix == null) {
-      suffix = new byte[MAX_STACK_SIZE];
+      suffix = bitmapProvider.obtainByteArray(MAX_STACK_SIZE);
+      Arrays.fill(suffix, (byte) 0);
     }
     byte[] suffix = this.suffix;
     if (pixelStack == null) {
-      pixelStack = new byte[MAX_STACK_SIZE + 1];
+      pixelStack = bitmapProvider.obtainByteArray(MAX_STACK_SIZE + 1);
     }
     byte[] pixelStack = this.pixelStack;
 
@@ -804,7 +888,7 @@ public class StandardGifDecoder implements GifDecoder {
 
         // Add a new string to the string table.
         if (available < MAX_STACK_SIZE) {
-          prefix[available] = (short) oldCode;
+          prefix[available] = oldCode;
           suffix[available] = (byte) first;
           ++available;
           if (((available & codeMask) == 0) && (available < MAX_STACK_SIZE)) {
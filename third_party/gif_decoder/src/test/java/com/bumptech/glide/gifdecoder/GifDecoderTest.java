@@ -63,6 +63,24 @@ public class GifDecoderTest {
     assertEquals(GifDecoder.STATUS_OK, decoder.getStatus());
   }
 
+  @Test
+  public void testClearReleasesArraysObtainedFromProvider() throws IOException {
+    byte[] data = TestUtil.resourceToBytes(getClass(), "partial_gif_decode.gif");
+    GifHeaderParser headerParser = new GifHeaderParser();
+    headerParser.setData(data);
+    GifHeader header = headerParser.parseHeader();
+    GifDecoder decoder = new StandardGifDecoder(provider);
+    decoder.setData(header, data);
+    decoder.advance();
+    decoder.getNextFrame();
+    decoder.advance();
+    decoder.getNextFrame();
+
+    decoder.clear();
+
+    assertEquals(0, provider.outstandingArrays);
+  }
+
   @Test
   public void testFrameIndexStartsAtNegativeOne() {
     GifHeader gifheader = new GifHeader();
@@ -202,6 +220,7 @@ public class GifDecoderTest {
   }
 
   private static class MockProvider implements GifDecoder.BitmapProvider {
+    int outstandingArrays;
 
     @NonNull
     @Override
@@ -219,23 +238,25 @@ public class GifDecoderTest {
     @NonNull
     @Override
     public byte[] obtainByteArray(int size) {
+      outstandingArrays++;
       return new byte[size];
     }
 
     @Override
     public void release(@NonNull byte[] bytes) {
-      // Do nothing.
+      outstandingArrays--;
     }
 
     @NonNull
     @Override
     public int[] obtainIntArray(int size) {
+      outstandingArrays++;
       return new int[size];
     }
 
     @Override
     public void release(@NonNull int[] array) {
-      // Do Nothing
+      outstandingArrays--;
     }
 
   }
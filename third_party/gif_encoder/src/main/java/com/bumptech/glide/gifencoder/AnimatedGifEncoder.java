@@ -8,6 +8,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.util.Log;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -44,6 +45,12 @@ public class AnimatedGifEncoder {
     // automatically.
     private static final double MIN_TRANSPARENT_PERCENTAGE = 4d;
 
+    // Frames are always written with 8 bit planes.
+    private static final int COLOR_DEPTH = 8;
+
+    // Used by frames that keep the transparent index of the previous frame.
+    private static final int NO_TRANSPARENT_INDEX = -1;
+
     private int width; // image size
 
     private int height;
@@ -64,18 +71,8 @@ public class AnimatedGifEncoder {
 
     private OutputStream out;
 
-    private Bitmap image; // current frame
-
-    private byte[] pixels; // BGR byte array from frame
-
-    private byte[] indexedPixels; // converted frame indexed to palette
-
-    private int colorDepth; // number of bit planes
-
     private byte[] colorTab; // RGB palette
 
-    private boolean[] usedEntry = new boolean[256]; // active palette entries
-
     private int palSize = 7; // color table size (bits-1)
 
     private int dispose = -1; // disposal code (-1 = use default)
@@ -181,16 +178,72 @@ public class AnimatedGifEncoder {
         if ((im == null) || !started) {
             return false;
         }
+        return addPreparedFrame(prepareFrame(im), x, y);
+    }
+
+    /**
+     * Builds the color table of the given frame, maps its pixels to the table and compresses
+     * them, so that the frame can be written with {@link #addPreparedFrame(PreparedFrame)}.
+     *
+     * <p>Unlike the rest of this class, this method may be called from multiple threads at once,
+     * which allows frames to be prepared in parallel and then added in order. The settings of
+     * this encoder must not change while frames are being prepared.
+     *
+     * @param im
+     *          BufferedImage containing frame to prepare.
+     * @return the prepared frame, or null if the frame couldn't be prepared.
+     */
+    @Nullable
+    public PreparedFrame prepareFrame(@Nullable Bitmap im) {
+        if (im == null) {
+            return null;
+        }
+        PreparedFrame frame;
+        if (sizeSet) {
+            frame = new PreparedFrame(fixedWidth, fixedHeight);
+        } else {
+            frame = new PreparedFrame(im.getWidth(), im.getHeight());
+        }
+        byte[] pixels = getImagePixels(frame, im); // convert to correct format if necessary
+        byte[] indexedPixels = analyzePixels(frame, pixels); // build color table & map pixels
+        try {
+            frame.imageData = compressPixels(frame, indexedPixels);
+        } catch (IOException e) {
+            return null;
+        }
+        return frame;
+    }
+
+    /**
+     * Adds next GIF frame, prepared by {@link #prepareFrame(Bitmap)}. Frames added with this
+     * method are written exactly as if their {@link Bitmap} had been passed to
+     * {@link #addFrame(Bitmap)} instead.
+     *
+     * @param frame
+     *          PreparedFrame to write.
+     * @return true if successful.
+     */
+    public boolean addPreparedFrame(@Nullable PreparedFrame frame) {
+        return addPreparedFrame(frame, 0, 0);
+    }
+
+    /**
+     * Adds next GIF frame, prepared by {@link #prepareFrame(Bitmap)}, to the specified position.
+     *
+     * @see #addFrame(Bitmap, int, int)
+     */
+    public boolean addPreparedFrame(@Nullable PreparedFrame frame, int x, int y) {
+        if ((frame == null) || !started) {
+            return false;
+        }
         boolean ok = true;
         try {
-            if (sizeSet) {
-                setFrameSize(fixedWidth, fixedHeight);
-            } else {
-                setFrameSize(im.getWidth(), im.getHeight());
+            setFrameSize(frame.width, frame.height);
+            colorTab = frame.colorTab;
+            hasTransparentPixels = frame.hasTransparentPixels;
+            if (frame.transIndex != NO_TRANSPARENT_INDEX) {
+                transIndex = frame.transIndex;
             }
-            image = im;
-            getImagePixels(); // convert to correct format if necessary
-            analyzePixels(); // build color table & map pixels
             if (firstFrame) {
                 writeLSD(); // logical screen descriptor
                 writePalette(); // global color table
@@ -204,7 +257,7 @@ public class AnimatedGifEncoder {
             if (!firstFrame) {
                 writePalette(); // local color table
             }
-            writePixels(); // encode and write pixel data
+            out.write(frame.imageData); // write encoded pixel data
             firstFrame = false;
         } catch (IOException e) {
             ok = false;
@@ -235,9 +288,6 @@ public class AnimatedGifEncoder {
         // reset for subsequent use
         transIndex = 0;
         out = null;
-        image = null;
-        pixels = null;
-        indexedPixels = null;
         colorTab = null;
         closeStream = false;
         firstFrame = true;
@@ -354,21 +404,21 @@ public class AnimatedGifEncoder {
     }
 
     /**
-     * Analyzes image colors and creates color map.
+     * Analyzes image colors, creates color map and returns the pixels mapped to it.
      */
-    private void analyzePixels() {
+    private byte[] analyzePixels(PreparedFrame frame, byte[] pixels) {
         int len = pixels.length;
         int nPix = len / 3;
-        indexedPixels = new byte[nPix];
+        byte[] indexedPixels = new byte[nPix];
         NeuQuant nq = new NeuQuant(pixels, len, sample);
         // initialize quantizer
-        colorTab = nq.process(); // create reduced palette
+        byte[] colorTab = nq.process(); // create reduced palette
+        boolean[] usedEntry = new boolean[256]; // active palette entries
         // convert map from BGR to RGB
         for (int i = 0; i < colorTab.length; i += 3) {
             byte temp = colorTab[i];
             colorTab[i] = colorTab[i + 2];
             colorTab[i + 2] = temp;
-            usedEntry[i / 3] = false;
         }
         // map image pixels to new palette
         int k = 0;
@@ -377,22 +427,21 @@ public class AnimatedGifEncoder {
             usedEntry[index] = true;
             indexedPixels[i] = (byte) index;
         }
-        pixels = null;
-        colorDepth = 8;
-        palSize = 7;
+        frame.colorTab = colorTab;
         // get closest match to transparent color if specified
         if (transparent != null) {
-            transIndex = findClosest(transparent);
-        } else if (hasTransparentPixels) {
-            transIndex = findClosest(Color.TRANSPARENT);
+            frame.transIndex = findClosest(colorTab, usedEntry, transparent);
+        } else if (frame.hasTransparentPixels) {
+            frame.transIndex = findClosest(colorTab, usedEntry, Color.TRANSPARENT);
         }
+        return indexedPixels;
     }
 
     /**
      * Returns index of palette color closest to c
      *
      */
-    private int findClosest(int color) {
+    private static int findClosest(byte[] colorTab, boolean[] usedEntry, int color) {
         if (colorTab == null)
             return -1;
         int r = Color.red(color);
@@ -417,15 +466,15 @@ public class AnimatedGifEncoder {
     }
 
     /**
-     * Extracts image pixels into byte array "pixels"
+     * Extracts image pixels into a BGR byte array
      */
-    private void getImagePixels() {
+    private static byte[] getImagePixels(PreparedFrame frame, Bitmap image) {
         int w = image.getWidth();
         int h = image.getHeight();
 
-        if ((w != width) || (h != height)) {
+        if ((w != frame.width) || (h != frame.height)) {
             // create new image with right size/format
-            Bitmap temp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            Bitmap temp = Bitmap.createBitmap(frame.width, frame.height, Bitmap.Config.ARGB_8888);
             Canvas canvas = new Canvas(temp);
             canvas.drawBitmap(temp, 0, 0, null);
             image = temp;
@@ -434,10 +483,9 @@ public class AnimatedGifEncoder {
         image.getPixels(pixelsInt, 0, w, 0, 0, w, h);
 
         // The algorithm requires 3 bytes per pixel as RGB.
-        pixels = new byte[pixelsInt.length * 3];
+        byte[] pixels = new byte[pixelsInt.length * 3];
 
         int pixelsIndex = 0;
-        hasTransparentPixels = false;
         int totalTransparentPixels = 0;
         for (final int pixel : pixelsInt) {
             if (pixel == Color.TRANSPARENT) {
@@ -451,11 +499,12 @@ public class AnimatedGifEncoder {
         double transparentPercentage = 100 * totalTransparentPixels / (double) pixelsInt.length;
         // Assume images with greater where more than n% of the pixels are transparent actually have
         // transparency. See issue #214.
-        hasTransparentPixels = transparentPercentage > MIN_TRANSPARENT_PERCENTAGE;
+        frame.hasTransparentPixels = transparentPercentage > MIN_TRANSPARENT_PERCENTAGE;
         if (Log.isLoggable(TAG, Log.DEBUG)) {
             Log.d(TAG, "got pixels for frame with " + transparentPercentage
                 + "% transparent pixels");
         }
+        return pixels;
     }
 
     /**
@@ -555,11 +604,14 @@ public class AnimatedGifEncoder {
     }
 
     /**
-     * Encodes and writes pixel data
+     * Encodes pixel data
      */
-    private void writePixels() throws IOException {
-        LZWEncoder encoder = new LZWEncoder(width, height, indexedPixels, colorDepth);
-        encoder.encode(out);
+    private static byte[] compressPixels(PreparedFrame frame, byte[] indexedPixels)
+            throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        LZWEncoder encoder = new LZWEncoder(frame.width, frame.height, indexedPixels, COLOR_DEPTH);
+        encoder.encode(os);
+        return os.toByteArray();
     }
 
     /**
@@ -578,4 +630,27 @@ public class AnimatedGifEncoder {
             out.write((byte) s.charAt(i));
         }
     }
+
+    /**
+     * A frame whose color table and compressed pixel data have been built by
+     * {@link #prepareFrame(Bitmap)}.
+     */
+    public static final class PreparedFrame {
+        final int width;
+
+        final int height;
+
+        byte[] colorTab; // RGB palette
+
+        byte[] imageData; // LZW encoded indexed pixels
+
+        boolean hasTransparentPixels;
+
+        int transIndex = NO_TRANSPARENT_INDEX; // transparent index in color table
+
+        PreparedFrame(int width, int height) {
+            this.width = width;
+            this.height = height;
+        }
+    }
 }